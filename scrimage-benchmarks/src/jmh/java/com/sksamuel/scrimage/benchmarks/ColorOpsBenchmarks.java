@@ -7,6 +7,7 @@ import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -19,12 +20,18 @@ import java.util.concurrent.TimeUnit;
 /**
  * Benchmarks for per-pixel colour operations (grayscale, brightness, contrast
  * and a custom map). The source image is decoded once per trial.
+ * <p>
+ * Each operation runs with each parallelism, so the results show how it scales
+ * with the number of row stripes.
  */
 @State(Scope.Benchmark)
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.MILLISECONDS)
 public class ColorOpsBenchmarks {
 
+   @Param({"1", "2", "4", "8"})
+   public int parallelism;
+
    private ImmutableImage source;
 
    @Setup(Level.Trial)
@@ -34,31 +41,36 @@ public class ColorOpsBenchmarks {
 
    @Benchmark
    public void grayscaleAverage(Blackhole blackhole) {
-      blackhole.consume(source.toGrayscale(GrayscaleMethod.AVERAGE));
+      blackhole.consume(source.toGrayscale(GrayscaleMethod.AVERAGE, parallelism));
    }
 
    @Benchmark
    public void grayscaleLuma(Blackhole blackhole) {
-      blackhole.consume(source.toGrayscale(GrayscaleMethod.LUMA));
+      blackhole.consume(source.toGrayscale(GrayscaleMethod.LUMA, parallelism));
    }
 
    @Benchmark
    public void grayscaleWeighted(Blackhole blackhole) {
-      blackhole.consume(source.toGrayscale(GrayscaleMethod.WEIGHTED));
+      blackhole.consume(source.toGrayscale(GrayscaleMethod.WEIGHTED, parallelism));
    }
 
    @Benchmark
    public void brightness(Blackhole blackhole) {
-      blackhole.consume(source.brightness(1.2));
+      blackhole.consume(source.brightness(1.2, parallelism));
    }
 
    @Benchmark
    public void contrast(Blackhole blackhole) {
-      blackhole.consume(source.contrast(1.2));
+      blackhole.consume(source.contrast(1.2, parallelism));
    }
 
    @Benchmark
    public void mapInvert(Blackhole blackhole) {
-      blackhole.consume(source.map(p -> new Color(255 - p.red(), 255 - p.green(), 255 - p.blue())));
+      blackhole.consume(source.map(p -> new Color(255 - p.red(), 255 - p.green(), 255 - p.blue()), parallelism));
+   }
+
+   @Benchmark
+   public void mapArgbInvert(Blackhole blackhole) {
+      blackhole.consume(source.mapArgb((x, y, argb) -> argb ^ 0x00FFFFFF, parallelism));
    }
 }
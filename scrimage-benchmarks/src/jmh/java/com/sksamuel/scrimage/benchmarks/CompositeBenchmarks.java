@@ -2,17 +2,23 @@ package com.sksamuel.scrimage.benchmarks;
 
 import com.sksamuel.scrimage.ImmutableImage;
 import com.sksamuel.scrimage.Position;
+import com.sksamuel.scrimage.composite.RasterBlender;
+import com.sksamuel.scrimage.pixels.PixelBuffer;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.infra.Blackhole;
+import thirdparty.romainguy.BlendComposite;
+import thirdparty.romainguy.BlendingMode;
 
 import java.awt.Color;
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.RescaleOp;
 import java.io.IOException;
@@ -20,8 +26,9 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * Benchmarks for canvas/compositing operations (pad, fill, overlay, underlay,
- * removeTransparency and a generic BufferedImageOp). The source image and a
- * half-size translucent overlay are built once per trial.
+ * removeTransparency and a generic BufferedImageOp), and of blending an image onto
+ * another with a blend composite through Java2D and through the RasterBlender.
+ * The source image and a half-size translucent overlay are built once per trial.
  */
 @State(Scope.Benchmark)
 @BenchmarkMode(Mode.AverageTime)
@@ -71,4 +78,68 @@ public class CompositeBenchmarks {
    public void op(Blackhole blackhole) {
       blackhole.consume(source.op(new RescaleOp(1.2f, 0f, null)));
    }
+
+   /**
+    * Holds the source and a full size overlay with varying alpha once per trial, for each
+    * blending mode and number of row stripes.
+    */
+   @State(Scope.Benchmark)
+   public static class BlendState {
+
+      @Param({"MULTIPLY", "OVERLAY", "SCREEN", "HUE"})
+      public String mode;
+
+      @Param({"1", "4"})
+      public int parallelism;
+
+      public ImmutableImage source;
+      public ImmutableImage overlay;
+
+      @Setup(Level.Trial)
+      public void setup() throws IOException {
+         source = ImmutableImage.loader().fromResource("/bench_bird.jpg").copy(BufferedImage.TYPE_INT_ARGB);
+         overlay = source.flipX().map(pixel -> new Color(pixel.red(), pixel.green(), pixel.blue(), pixel.x % 256));
+      }
+   }
+
+   /**
+    * The blend as drawn through Java2D with a BlendComposite, which is how the composites
+    * drew before the RasterBlender, and still do for images not backed by packed ints.
+    */
+   @Benchmark
+   public void blendJava2d(BlendState state, Blackhole blackhole) {
+      ImmutableImage target = state.source.copy();
+      Graphics2D g2 = target.awt().createGraphics();
+      try {
+         g2.setComposite(BlendComposite.getInstance(BlendingMode.valueOf(state.mode), 0.8f));
+         g2.drawImage(state.overlay.awt(), 0, 0, null);
+      } finally {
+         g2.dispose();
+      }
+      blackhole.consume(target);
+   }
+
+   @Benchmark
+   public void blendRaster(BlendState state, Blackhole blackhole) {
+      ImmutableImage target = state.source.copy();
+      PixelBuffer base = target.pixelBuffer().orElseThrow(IllegalStateException::new);
+      PixelBuffer applied = state.overlay.pixelBuffer().orElseThrow(IllegalStateException::new);
+      RasterBlender.blend(BlendingMode.valueOf(state.mode), 0.8f, base, applied, 0, 0, state.parallelism);
+      blackhole.consume(target);
+   }
+
+   /**
+    * Blends the overlay with its top left at the centre of the source, so that only the
+    * bottom right quarter of the source is touched.
+    */
+   @Benchmark
+   public void blendRasterRegion(BlendState state, Blackhole blackhole) {
+      ImmutableImage target = state.source.copy();
+      PixelBuffer base = target.pixelBuffer().orElseThrow(IllegalStateException::new);
+      PixelBuffer applied = state.overlay.pixelBuffer().orElseThrow(IllegalStateException::new);
+      int x = state.source.width / 2;
+      int y = state.source.height / 2;
+      RasterBlender.blend(BlendingMode.valueOf(state.mode), 0.8f, base, applied, x, y, state.parallelism);
+      blackhole.consume(target);
+   }
 }
@@ -0,0 +1,81 @@
+package com.sksamuel.scrimage.benchmarks;
+
+import com.sksamuel.scrimage.ImmutableImage;
+import com.sksamuel.scrimage.filter.instagram.AdenFilter;
+import com.sksamuel.scrimage.filter.instagram.ClarendonFilter;
+import com.sksamuel.scrimage.filter.instagram.GinghamFilter;
+import com.sksamuel.scrimage.filter.instagram.HudsonFilter;
+import com.sksamuel.scrimage.filter.instagram.InstagramFilter;
+import com.sksamuel.scrimage.filter.instagram.JunoFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the Instagram filters, comparing the interpolated colour cube, on one
+ * thread and in parallel row stripes, with running the CSS adjustments on every pixel.
+ * The source image is decoded once per trial, and the filter's colour cube is built in
+ * setup so that it is not counted.
+ * <p>
+ * Aden, Clarendon, Juno and Gingham have solid overlays, which are folded into the cube;
+ * Hudson has a radial gradient overlay, which still takes a pass of its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InstagramFilterBenchmarks {
+
+   @Param({"aden", "clarendon", "juno", "gingham", "hudson"})
+   public String filterName;
+
+   @Param({"1", "4"})
+   public int parallelism;
+
+   private ImmutableImage source;
+   private InstagramFilter filter;
+
+   @Setup(Level.Trial)
+   public void setup() throws IOException {
+      source = ImmutableImage.loader().fromResource("/bench_bird.jpg");
+      switch (filterName) {
+         case "aden":
+            filter = new AdenFilter();
+            break;
+         case "clarendon":
+            filter = new ClarendonFilter();
+            break;
+         case "juno":
+            filter = new JunoFilter();
+            break;
+         case "gingham":
+            filter = new GinghamFilter();
+            break;
+         case "hudson":
+            filter = new HudsonFilter();
+            break;
+         default:
+            throw new IllegalArgumentException("Unknown filter " + filterName);
+      }
+      source.filter(filter);
+   }
+
+   @Benchmark
+   public void cube(Blackhole blackhole) throws IOException {
+      blackhole.consume(source.filter(filter.parallel(parallelism)));
+   }
+
+   @Benchmark
+   public void exact(Blackhole blackhole) throws IOException {
+      blackhole.consume(source.filter(filter.exact()));
+   }
+}
@@ -0,0 +1,77 @@
+package com.sksamuel.scrimage.benchmarks;
+
+import com.sksamuel.scrimage.ImmutableImage;
+import com.sksamuel.scrimage.ScaleMethod;
+import com.sksamuel.scrimage.color.GrayscaleMethod;
+import com.sksamuel.scrimage.filter.ContrastFilter;
+import com.sksamuel.scrimage.filter.GammaFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for chains of operations run one at a time, against the same chains
+ * run through ImmutableImage.lazy(). The source image is decoded once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LazyImageBenchmarks {
+
+   private ImmutableImage source;
+
+   @Setup(Level.Trial)
+   public void setup() throws IOException {
+      source = ImmutableImage.loader().fromResource("/bench_bird.jpg");
+   }
+
+   @Benchmark
+   public void thumbnailEager(Blackhole blackhole) throws IOException {
+      blackhole.consume(source
+         .trim(source.width / 10)
+         .scaleTo(source.width / 3, source.height / 3)
+         .padWith(10, 10, 10, 10, Color.WHITE)
+         .filter(new ContrastFilter(1.2), new GammaFilter(0.9))
+         .toGrayscale(GrayscaleMethod.LUMA));
+   }
+
+   @Benchmark
+   public void thumbnailLazy(Blackhole blackhole) throws IOException {
+      blackhole.consume(source.lazy()
+         .trim(source.width / 10)
+         .scaleTo(source.width / 3, source.height / 3)
+         .padWith(10, 10, 10, 10, Color.WHITE)
+         .filter(new ContrastFilter(1.2), new GammaFilter(0.9))
+         .toGrayscale(GrayscaleMethod.LUMA)
+         .execute());
+   }
+
+   @Benchmark
+   public void adjustThenShrinkEager(Blackhole blackhole) {
+      blackhole.consume(source
+         .brightness(1.1)
+         .contrast(1.2)
+         .trim(source.width / 10)
+         .scale(0.25, ScaleMethod.FastScale));
+   }
+
+   @Benchmark
+   public void adjustThenShrinkLazy(Blackhole blackhole) throws IOException {
+      blackhole.consume(source.lazy()
+         .brightness(1.1)
+         .contrast(1.2)
+         .trim(source.width / 10)
+         .scale(0.25, ScaleMethod.FastScale)
+         .execute());
+   }
+}
@@ -43,4 +43,42 @@ public class ScaleBenchmarks {
          .asBufferedImage();
       blackhole.consume(resized);
    }
+
+   /**
+    * Holds the decoded source once per trial so the parallel resample benchmark
+    * measures only the scale, for each of the given band counts.
+    */
+   @State(Scope.Benchmark)
+   public static class ParallelScaleState {
+
+      @Param({"1", "2", "4", "8"})
+      public int threads;
+
+      public ImmutableImage source;
+
+      @Setup(Level.Trial)
+      public void setup() throws IOException {
+         source = ImmutableImage.loader().fromResource("/bench_colosseum.jpg");
+      }
+   }
+
+   @Benchmark
+   @BenchmarkMode(Mode.AverageTime)
+   @OutputTimeUnit(TimeUnit.MILLISECONDS)
+   public void testScaleLanczos3Parallel(ParallelScaleState state, Blackhole blackhole) {
+      BufferedImage resized = state.source
+         .scaleTo(600, 400, ScaleMethod.Lanczos3, state.threads)
+         .awt();
+      blackhole.consume(resized);
+   }
+
+   @Benchmark
+   @BenchmarkMode(Mode.AverageTime)
+   @OutputTimeUnit(TimeUnit.MILLISECONDS)
+   public void testScaleBicubicParallel(ParallelScaleState state, Blackhole blackhole) {
+      BufferedImage resized = state.source
+         .scaleTo(600, 400, ScaleMethod.Bicubic, state.threads)
+         .awt();
+      blackhole.consume(resized);
+   }
 }
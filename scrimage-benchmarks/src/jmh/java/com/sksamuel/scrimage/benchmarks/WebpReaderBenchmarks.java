@@ -0,0 +1,52 @@
+package com.sksamuel.scrimage.benchmarks;
+
+import com.sksamuel.scrimage.ImmutableImage;
+import com.sksamuel.scrimage.webp.JavaWebpImageReader;
+import com.sksamuel.scrimage.webp.WebpImageReader;
+import com.sksamuel.scrimage.webp.WebpWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the pure Java webp reader against the reader that runs dwebp and decodes the PNG
+ * it writes. The webp images are encoded once per trial, with cwebp.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WebpReaderBenchmarks {
+
+   @Param({"lossy", "lossless"})
+   public String compression;
+
+   private final JavaWebpImageReader java = new JavaWebpImageReader();
+   private final WebpImageReader dwebp = new WebpImageReader();
+   private byte[] webp;
+
+   @Setup(Level.Trial)
+   public void setup() throws IOException {
+      ImmutableImage image = ImmutableImage.loader().fromResource("/bench_bird.jpg");
+      webp = image.bytes("lossless".equals(compression) ? WebpWriter.DEFAULT.withLossless() : WebpWriter.DEFAULT);
+   }
+
+   @Benchmark
+   public void java(Blackhole blackhole) throws IOException {
+      blackhole.consume(java.read(webp));
+   }
+
+   @Benchmark
+   public void dwebp(Blackhole blackhole) throws IOException {
+      blackhole.consume(dwebp.read(webp));
+   }
+}
@@ -5,6 +5,7 @@ import com.sksamuel.scrimage.color.RGBColor;
 import com.sksamuel.scrimage.nio.ImageWriter;
 import com.sksamuel.scrimage.nio.WriteContext;
 import com.sksamuel.scrimage.pixels.Pixel;
+import com.sksamuel.scrimage.pixels.PixelBuffer;
 import com.sksamuel.scrimage.pixels.PixelTools;
 import com.sksamuel.scrimage.scaling.AwtNearestNeighbourScale;
 import com.sksamuel.scrimage.scaling.Scale;
@@ -17,6 +18,7 @@ import java.awt.image.ColorModel;
 import java.awt.image.DataBuffer;
 import java.awt.image.DataBufferInt;
 import java.awt.image.IndexColorModel;
+import java.awt.image.WritableRaster;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
@@ -24,6 +26,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -38,7 +41,8 @@ import java.util.stream.Collectors;
  */
 public class AwtImage {
 
-   private final BufferedImage awt;
+   // replaced only by copy-on-write, with a copy of the same size and type
+   private volatile BufferedImage awt;
    public final int width;
    public final int height;
 
@@ -62,6 +66,15 @@ public class AwtImage {
       return awt;
    }
 
+   /**
+    * Replaces the wrapped image with a copy of it, for an image taking its own copy of
+    * pixels that it shared with another image before changing them.
+    */
+   void replaceAwt(BufferedImage copy) {
+      assert copy.getWidth() == width && copy.getHeight() == height;
+      this.awt = copy;
+   }
+
    /**
     * The centre coordinates for the image.
     *
@@ -109,6 +122,20 @@ public class AwtImage {
       return awt().getType();
    }
 
+   /**
+    * Returns a view over the int array backing this image, if this is a TYPE_INT_ARGB or
+    * TYPE_INT_RGB image, so that pixel loops can work on the pixels without the full image
+    * copies made by getRGB and setRGB.
+    * <p>
+    * Writes through the view change this image. For an ImmutableImage, only write to an image
+    * that has not yet been handed to anyone else, such as a fresh copy or blank.
+    *
+    * @return the pixel buffer, or an empty optional if this image is not backed by packed ints
+    */
+   public Optional<PixelBuffer> pixelBuffer() {
+      return PixelBuffer.of(awt);
+   }
+
    /**
     * Returns the colors of this image represented as an array of RGBColor.
     *
@@ -129,8 +156,15 @@ public class AwtImage {
     * @return an array of the image's pixels
     */
    public Pixel[] pixels() {
-      DataBuffer buffer = awt().getRaster().getDataBuffer();
-      if (buffer instanceof DataBufferInt) {
+      WritableRaster raster = awt().getRaster();
+      DataBuffer buffer = raster.getDataBuffer();
+      // the backing array holds exactly this image's pixels in order, unless this is a
+      // view over part of a larger image, which goes through getRGB below
+      if (buffer instanceof DataBufferInt
+         && raster.getSampleModelTranslateX() == 0
+         && raster.getSampleModelTranslateY() == 0
+         && buffer.getOffset() == 0
+         && buffer.getSize() == width * height) {
          DataBufferInt intbuffer = (DataBufferInt) buffer;
          int[] data = intbuffer.getData();
          int index = 0;
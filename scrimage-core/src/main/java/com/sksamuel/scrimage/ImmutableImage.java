@@ -23,17 +23,21 @@ import com.sksamuel.scrimage.canvas.drawables.FilledRect;
 import com.sksamuel.scrimage.canvas.painters.LinearGradient;
 import com.sksamuel.scrimage.canvas.painters.Painter;
 import com.sksamuel.scrimage.color.Colors;
-import com.sksamuel.scrimage.color.Grayscale;
 import com.sksamuel.scrimage.color.GrayscaleMethod;
 import com.sksamuel.scrimage.color.RGBColor;
 import com.sksamuel.scrimage.composite.Composite;
 import com.sksamuel.scrimage.filter.Filter;
+import com.sksamuel.scrimage.filter.PipelineFilter;
+import com.sksamuel.scrimage.internal.RowStripes;
 import com.sksamuel.scrimage.metadata.ImageMetadata;
 import com.sksamuel.scrimage.metadata.OrientationTools;
 import com.sksamuel.scrimage.nio.*;
+import com.sksamuel.scrimage.pixels.ArgbMapper;
 import com.sksamuel.scrimage.pixels.Pixel;
+import com.sksamuel.scrimage.pixels.PixelBuffer;
 import com.sksamuel.scrimage.pixels.PixelTools;
 import com.sksamuel.scrimage.pixels.PixelsExtractor;
+import com.sksamuel.scrimage.pixels.RgbaOp;
 import com.sksamuel.scrimage.transform.Transform;
 import org.apache.commons.io.IOUtils;
 import thirdparty.colorthief.ColorThief;
@@ -77,6 +81,12 @@ public class ImmutableImage extends MutableImage {
 
    private final ImageMetadata metadata;
 
+   // in view mode, subimage and the crops built on it share pixels with this image instead of copying them
+   private final boolean viewMode;
+
+   // set while the pixels may be shared with another image; the first in-place change copies them
+   private volatile boolean shared;
+
    static {
       ImageIO.scanForPlugins();
    }
@@ -92,8 +102,14 @@ public class ImmutableImage extends MutableImage {
    }
 
    private ImmutableImage(BufferedImage awt, ImageMetadata metadata) {
+      this(awt, metadata, false);
+   }
+
+   private ImmutableImage(BufferedImage awt, ImageMetadata metadata, boolean viewMode) {
       super(awt);
       this.metadata = metadata;
+      this.viewMode = viewMode;
+      this.shared = viewMode;
    }
 
    // ----- Image Builder Methods ------ //
@@ -508,8 +524,24 @@ public class ImmutableImage extends MutableImage {
     * @return a new Image with the brightness adjusted by the given factor
     */
    public ImmutableImage brightness(double factor) {
+      return brightness(factor, 1);
+   }
+
+   /**
+    * Returns a new Image with the brightness adjusted, as {@link #brightness(double)}, splitting
+    * the rows into the given number of stripes which are adjusted concurrently.
+    *
+    * @param parallelism the number of stripes to adjust concurrently. 1 adjusts on the calling thread.
+    * @return a new Image with the brightness adjusted by the given factor
+    */
+   public ImmutableImage brightness(double factor, int parallelism) {
+      if (isRescaledByChannel()) {
+         // the same per channel maths as RescaleOp, without the copy
+         float scale = (float) factor;
+         return mapArgb((RgbaOp) (r, g, b, a) -> rescale(r, g, b, a, scale), parallelism);
+      }
       ImmutableImage target = copy();
-      target.rescaleInPlace(factor);
+      target.rescaleInPlace(factor, parallelism);
       return target;
    }
 
@@ -540,9 +572,8 @@ public class ImmutableImage extends MutableImage {
 
    /**
     * Returns a new image where every pixel is the result of applying the given transform
-    * to the corresponding pixel of this image. The transform receives the pixel offset
-    * (row major, offset = y * width + x) and the packed ARGB value, and returns the new
-    * packed ARGB value.
+    * to the corresponding pixel of this image. The transform receives the pixel coordinates
+    * and the packed ARGB value, and returns the new packed ARGB value.
     * <p>
     * Because the transform is written to every pixel of the target, there is no need to
     * copy this image's raster first — the pixels are read from this image, transformed,
@@ -555,8 +586,11 @@ public class ImmutableImage extends MutableImage {
     * as the mutate-in-place path did. The same applies to TYPE_CUSTOM (type 0) images,
     * where copy() converts to TYPE_INT_ARGB via Graphics2D and reading from the source
     * is not guaranteed to be bit-identical to reading from that conversion.
+    * <p>
+    * With a parallelism greater than one the rows are split into stripes which are
+    * transformed concurrently (see RowStripes); the result is the same.
     */
-   private ImmutableImage transformPixels(java.util.function.IntBinaryOperator transform) {
+   private ImmutableImage transformPixels(ArgbMapper transform, int parallelism) {
       final ImmutableImage target;
       final int[] argb;
       if (getType() == 0 || awt().getColorModel() instanceof java.awt.image.IndexColorModel) {
@@ -564,11 +598,28 @@ public class ImmutableImage extends MutableImage {
          argb = target.awt().getRGB(0, 0, width, height, null, 0, width);
       } else {
          target = blank().associateMetadata(metadata);
+         PixelBuffer src = pixelBuffer().orElse(null);
+         PixelBuffer dst = target.pixelBuffer().orElse(null);
+         if (src != null && dst != null) {
+            // packed int images: read and write the backing arrays directly, with no
+            // intermediate int[] and no per pixel trip through the color model
+            int[] in = src.data();
+            int[] out = dst.data();
+            int mask = src.alphaMask();
+            RowStripes.run(width, height, parallelism, (startY, endY) -> {
+               for (int y = startY; y < endY; y++) {
+                  int srcRow = src.index(0, y);
+                  int dstRow = dst.index(0, y);
+                  for (int x = 0; x < width; x++) {
+                     out[dstRow + x] = transform.map(x, y, in[srcRow + x] | mask);
+                  }
+               }
+            });
+            return target;
+         }
          argb = awt().getRGB(0, 0, width, height, null, 0, width);
       }
-      for (int i = 0; i < argb.length; i++) {
-         argb[i] = transform.applyAsInt(i, argb[i]);
-      }
+      mapRows(argb, width, height, transform, parallelism);
       target.awt().setRGB(0, 0, width, height, argb, 0, width);
       return target;
    }
@@ -587,6 +638,44 @@ public class ImmutableImage extends MutableImage {
       return target;
    }
 
+   /**
+    * Apply the given image with this image using the given composite, with the top left of the
+    * applied image at (x, y) in this image. Only the pixels where the two images intersect are
+    * composited, so the applied image can be smaller than this image.
+    * The original image is unchanged.
+    *
+    * @param composite   the composite to use. See com.sksamuel.scrimage.Composite.
+    * @param applicative the image to apply with the composite.
+    * @param x           the column of this image at which the applied image starts
+    * @param y           the row of this image at which the applied image starts
+    * @return A new image with the given image applied using the given composite.
+    */
+   public ImmutableImage composite(Composite composite, ImmutableImage applicative, int x, int y) {
+      ImmutableImage target = copy();
+      target.compositeInPlace(composite, applicative, x, y);
+      return target;
+   }
+
+   /**
+    * Apply the given image with this image using the given composite, with the applied image
+    * placed at the given position, for example to stamp a watermark into a corner. Only the
+    * pixels where the two images intersect are composited.
+    * The original image is unchanged.
+    *
+    * @param composite   the composite to use. See com.sksamuel.scrimage.Composite.
+    * @param applicative the image to apply with the composite.
+    * @param position    where in this image to place the applied image
+    * @return A new image with the given image applied using the given composite.
+    */
+   public ImmutableImage composite(Composite composite, ImmutableImage applicative, Position position) {
+      return composite(
+         composite,
+         applicative,
+         position.calculateX(width, height, applicative.width, applicative.height),
+         position.calculateY(width, height, applicative.width, applicative.height)
+      );
+   }
+
    public ImageMetadata getMetadata() {
       return metadata;
    }
@@ -597,14 +686,20 @@ public class ImmutableImage extends MutableImage {
     * @return a new Image with the contrast adjusted by the given factor
     */
    public ImmutableImage contrast(double factor) {
+      return contrast(factor, 1);
+   }
+
+   /**
+    * Returns a new Image with the contrast adjusted, as {@link #contrast(double)}, splitting
+    * the rows into the given number of stripes which are adjusted concurrently.
+    *
+    * @param parallelism the number of stripes to adjust concurrently. 1 adjusts on the calling thread.
+    * @return a new Image with the contrast adjusted by the given factor
+    */
+   public ImmutableImage contrast(double factor, int parallelism) {
       // Same per-pixel maths as MutableImage.contrastInPlace, but routed through
       // transformPixels so the redundant full-raster copy is skipped.
-      return transformPixels((offset, p) -> {
-         int r = PixelTools.truncate((factor * (PixelTools.red(p) - 128)) + 128);
-         int g = PixelTools.truncate((factor * (PixelTools.green(p) - 128)) + 128);
-         int b = PixelTools.truncate((factor * (PixelTools.blue(p) - 128)) + 128);
-         return PixelTools.argb(PixelTools.alpha(p), r, g, b);
-      });
+      return transformPixels((x, y, p) -> contrast(p, factor), parallelism);
    }
 
    /**
@@ -680,6 +775,12 @@ public class ImmutableImage extends MutableImage {
       Dimension coveredDimensions = DimensionTools.dimensionsToCover(new Dimension(targetWidth, targetHeight), new Dimension(width, height));
       ImmutableImage scaled = scaleTo(coveredDimensions.getX(), coveredDimensions.getY(), scaleMethod);
       Dimension dim = position.calculateXY(targetWidth, targetHeight, coveredDimensions.getX(), coveredDimensions.getY());
+      if (viewMode && scaled.getType() == imageType
+         && dim.getX() <= 0 && dim.getY() <= 0
+         && targetWidth - dim.getX() <= scaled.width && targetHeight - dim.getY() <= scaled.height) {
+         // crop the scaled image with a view over it rather than drawing it onto a new canvas
+         return scaled.viewMode().subimage(-dim.getX(), -dim.getY(), targetWidth, targetHeight).associateMetadata(metadata);
+      }
       ImmutableImage result = create(targetWidth, targetHeight, imageType);
       result.overlayInPlace(scaled.awt(), dim.getX(), dim.getY());
       return result.associateMetadata(metadata);
@@ -721,15 +822,23 @@ public class ImmutableImage extends MutableImage {
 
    /**
     * Apply a sequence of filters in sequence.
-    * This is sugar for image.filter(filter1).filter(filter2)....
+    * This gives the same result as image.filter(filter1).filter(filter2)....
+    * but the image is copied once rather than once per filter, unless a filter
+    * requires a different image type, and consecutive point-wise filters are
+    * applied in a single pass. See {@link PipelineFilter#fuse(java.util.Collection)}.
     *
     * @param filters the sequence filters to apply
     * @return the result of applying each filter in turn
     */
    public ImmutableImage filter(Filter... filters) throws IOException {
       ImmutableImage image = this;
-      for (Filter filter : filters) {
-         image = image.filter(filter);
+      for (Filter filter : PipelineFilter.fuse(Arrays.asList(filters))) {
+         // once copied, the image is ours to filter in place
+         if (image != this && image.supportsType(filter.types())) {
+            filter.apply(image);
+         } else {
+            image = image.filter(filter);
+         }
       }
       return image;
    }
@@ -744,21 +853,23 @@ public class ImmutableImage extends MutableImage {
    public ImmutableImage filter(Filter filter) throws IOException {
       int[] types = filter.types();
       // Empty types[] means "any type works"; otherwise copy in our current
-      // type if it's listed, else convert to types[0]. The previous
-      // implementation boxed every int into Integer and built an ArrayList
-      // just to call .contains() with another autoboxed lookup.
-      int currentType = getType();
-      boolean canUseCurrent = types.length == 0;
-      if (!canUseCurrent) {
-         for (int t : types) {
-            if (t == currentType) { canUseCurrent = true; break; }
-         }
-      }
-      ImmutableImage target = canUseCurrent ? copy() : copy(types[0]);
+      // type if it's listed, else convert to types[0].
+      ImmutableImage target = supportsType(types) ? copy() : copy(types[0]);
       filter.apply(target);
       return target;
    }
 
+   boolean supportsType(int[] types) {
+      if (types.length == 0) return true;
+      // The previous implementation boxed every int into Integer and built an
+      // ArrayList just to call .contains() with another autoboxed lookup.
+      int currentType = getType();
+      for (int t : types) {
+         if (t == currentType) return true;
+      }
+      return false;
+   }
+
    /**
     * Convenience method for:
     * fit(canvasWidth, canvasHeight, Colors.Transparent.toAWT(), ScaleMethod.Bicubic, Position.Center)
@@ -942,6 +1053,13 @@ public class ImmutableImage extends MutableImage {
       return overlay(overlayImage, 0, 0);
    }
 
+   /**
+    * Returns a new image that is the result of overlaying the given image over this image,
+    * with the (0,0) coordinate of the overlay placed at (x, y). Only the pixels of this image
+    * under the overlay are drawn; the rest are copied as they are.
+    *
+    * @return a new Image with the given image overlaid.
+    */
    public ImmutableImage overlay(AwtImage overlayImage, int x, int y) {
       ImmutableImage target = copy();
       target.overlayInPlace(overlayImage.awt(), x, y);
@@ -1372,7 +1490,7 @@ public class ImmutableImage extends MutableImage {
       // Same per-pixel maths as MutableImage.replaceTransparencyInPlace, but routed
       // through transformPixels so the redundant full-raster copy is skipped.
       int cr = color.getRed(), cg = color.getGreen(), cb = color.getBlue(), ca = color.getAlpha();
-      return transformPixels((offset, p) -> PixelTools.replaceTransparencyWithColor(p, cr, cg, cb, ca));
+      return transformPixels((x, y, p) -> PixelTools.replaceTransparencyWithColor(p, cr, cg, cb, ca), 1);
    }
 
    /**
@@ -1498,6 +1616,28 @@ public class ImmutableImage extends MutableImage {
    public ImmutableImage scaleTo(int targetWidth,
                                  int targetHeight,
                                  ScaleMethod scaleMethod) {
+      return scaleTo(targetWidth, targetHeight, scaleMethod, 1);
+   }
+
+   /**
+    * Scale will resize both the canvas and the image.
+    * This is like a "image resize" in Photoshop.
+    * <p>
+    * The resampling scale methods (Bicubic, Bilinear, BSpline and Lanczos3) split the work
+    * into the given number of row bands which are resampled concurrently on the common
+    * ForkJoinPool. The result is identical to the single threaded scale. The other scale
+    * methods ignore the parallelism.
+    *
+    * @param targetWidth  the target width
+    * @param targetHeight the target height
+    * @param scaleMethod  the type of scaling method to use.
+    * @param parallelism  the number of bands to resample concurrently. 1 scales on the calling thread.
+    * @return a new Image that is the result of scaling this image
+    */
+   public ImmutableImage scaleTo(int targetWidth,
+                                 int targetHeight,
+                                 ScaleMethod scaleMethod,
+                                 int parallelism) {
       if (targetWidth == width && targetHeight == height) return this;
       switch (scaleMethod) {
          case FastScale:
@@ -1510,21 +1650,21 @@ public class ImmutableImage extends MutableImage {
             // resample() preserves metadata; the previous code re-wrapped via
             // wrapAwt(awt, type) which uses ImageMetadata.empty and silently
             // dropped EXIF/etc. on every scale.
-            return resample(lan, targetWidth, targetHeight);
+            return resample(lan, targetWidth, targetHeight, parallelism);
          case BSpline:
             BSplineFilter bs = ResampleFilters.bSplineFilter;
-            return resample(bs, targetWidth, targetHeight);
+            return resample(bs, targetWidth, targetHeight, parallelism);
          case Bilinear:
             TriangleFilter t = ResampleFilters.triangleFilter;
-            return resample(t, targetWidth, targetHeight);
+            return resample(t, targetWidth, targetHeight, parallelism);
          case Progressive:
             if (targetWidth >= width || targetHeight >= height)
-               return scaleTo(targetWidth, targetHeight, ScaleMethod.Bicubic);
+               return scaleTo(targetWidth, targetHeight, ScaleMethod.Bicubic, parallelism);
             BufferedImage result = ProgressiveScale.scale(awt(), targetWidth, targetHeight, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
             return wrapAwt(result, metadata);
          case Bicubic:
             BiCubicFilter b = ResampleFilters.biCubicFilter;
-            return resample(b, targetWidth, targetHeight);
+            return resample(b, targetWidth, targetHeight, parallelism);
          default:
             throw new UnsupportedOperationException();
       }
@@ -1543,12 +1683,16 @@ public class ImmutableImage extends MutableImage {
     * than inside ResampleOp — so it is independent of that class's internal
     * (and type-dependent) channel ordering.
     * <p>
+    * TYPE_INT_ARGB and TYPE_INT_RGB images skip these extra passes entirely:
+    * ResampleOp's int-packed engine reads and writes their rasters directly and
+    * premultiplies inside its horizontal pass, with the same rounding as below.
+    * <p>
     * Fully opaque images take the original path unchanged, so their output is
     * byte-for-byte identical to before.
     *
     * @return a new Image resampled to the given target width and height
     */
-   private ImmutableImage resample(ResampleFilter filter, int targetWidth, int targetHeight) {
+   private ImmutableImage resample(ResampleFilter filter, int targetWidth, int targetHeight, int parallelism) {
       // ResampleOp rejects targets smaller than 3x3 and sources smaller than the filter
       // support — geometries that arise from extreme aspect ratios (e.g. fit/max/bound
       // or cover on a 1x1000 image). Fall back to nearest-neighbour instead of throwing.
@@ -1557,7 +1701,10 @@ public class ImmutableImage extends MutableImage {
       if (!ResampleOp.canResample(filter, width, height, targetWidth, targetHeight)) {
          return scaleTo(targetWidth, targetHeight, ScaleMethod.FastScale);
       }
-      ResampleOp resampleOp = new ResampleOp(filter, targetWidth, targetHeight);
+      ResampleOp resampleOp = new ResampleOp(filter, targetWidth, targetHeight, parallelism);
+      int type = getType();
+      if (type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_RGB)
+         return op(resampleOp);
       if (!awt().getColorModel().hasAlpha())
          return op(resampleOp);
 
@@ -1681,6 +1828,7 @@ public class ImmutableImage extends MutableImage {
 
    /**
     * Returns a new Image that is a subimage or region of the original image.
+    * In view mode the new image is a view sharing this image's pixels, see {@link #viewMode()}.
     *
     * @param x the start x coordinate
     * @param y the start y coordinate
@@ -1691,11 +1839,15 @@ public class ImmutableImage extends MutableImage {
    public ImmutableImage subimage(int x, int y, int w, int h) {
       if (w <= 0) throw new RuntimeException("Width cannot be <= 0");
       if (h <= 0) throw new RuntimeException("Height cannot be <= 0");
+      if (viewMode && x >= 0 && y >= 0 && x + w <= width && y + h <= height) {
+         // the view shares this image's raster, so both sides must copy before their next write
+         shared = true;
+         return new ImmutableImage(awt().getSubimage(x, y, w, h), metadata, true);
+      }
       // Pull the region directly into an ARGB int[] and bulk setRGB it into
       // a fresh image. The previous implementation called pixels(x, y, w, h)
       // to materialise a Pixel[w*h] just so wrapPixels → create(Pixel[])
       // could re-extract argb from each Pixel.
-      int[] argb = awt().getRGB(x, y, w, h, null, 0, w);
       // Preserve the source image's type so cropping (and trim/autocrop/takeX,
       // which delegate here) doesn't silently promote e.g. a TYPE_INT_RGB image
       // to TYPE_INT_ARGB. TYPE_CUSTOM (0) can't be fed to the BufferedImage type
@@ -1703,7 +1855,17 @@ public class ImmutableImage extends MutableImage {
       int type = awt().getType();
       if (type == BufferedImage.TYPE_CUSTOM) type = DEFAULT_DATA_TYPE;
       ImmutableImage result = ImmutableImage.create(w, h, type);
-      result.awt().setRGB(0, 0, w, h, argb, 0, w);
+      PixelBuffer src = pixelBuffer().orElse(null);
+      PixelBuffer dst = result.pixelBuffer().orElse(null);
+      if (src != null && dst != null && x >= 0 && y >= 0 && x + w <= width && y + h <= height) {
+         // same packed int layout on both sides, so each row is a straight array copy
+         for (int row = 0; row < h; row++) {
+            System.arraycopy(src.data(), src.index(x, y + row), dst.data(), dst.index(0, row), w);
+         }
+      } else {
+         int[] argb = awt().getRGB(x, y, w, h, null, 0, w);
+         result.awt().setRGB(0, 0, w, h, argb, 0, w);
+      }
       return result.associateMetadata(metadata);
    }
 
@@ -1954,7 +2116,69 @@ public class ImmutableImage extends MutableImage {
     * @return a new ImmutableImage sharing this image's buffer with the given metadata attached
     */
    public ImmutableImage associateMetadata(ImageMetadata metadata) {
-      return new ImmutableImage(awt(), metadata);
+      if (viewMode) shared = true;
+      return new ImmutableImage(awt(), metadata, viewMode);
+   }
+
+   /**
+    * Returns this image in view mode, sharing this image's buffer.
+    * <p>
+    * In view mode, subimage and the operations built on it, such as trim, autocrop, takeLeft,
+    * dropTop and the crop step of cover, return views over the pixels of the image they are
+    * called on rather than copies, so they take constant time and memory however large the
+    * region. Views are themselves in view mode, so a chain such as
+    * {@code image.viewMode().autocrop().trim(10).subimage(0, 0, 100, 100)} copies no pixels.
+    * Other operations return new images as usual, which are not in view mode.
+    * <p>
+    * The in-place methods of MutableImage copy the pixels of a view, or of an image a view was
+    * taken from, before their first change, so a change never shows through in another image.
+    * Code that writes to {@link #awt()} itself, such as Filter.apply or Canvas.drawInPlace, is
+    * not covered and should be given a {@link #copy()}; filter and Canvas.draw already are.
+    * <p>
+    * A view keeps the whole of the image it was taken from in memory. Call {@link #copy()} to
+    * get a standalone image, for example before keeping a small crop of a large image.
+    *
+    * @return this image in view mode
+    */
+   public ImmutableImage viewMode() {
+      if (viewMode) return this;
+      shared = true;
+      return new ImmutableImage(awt(), metadata, true);
+   }
+
+   /**
+    * Returns a LazyImage over this image, which records operations such as crops, scales,
+    * point operations and filters, and runs them together when {@link LazyImage#execute()}
+    * is called. Planned together, most of the intermediate copies made by running the
+    * operations one at a time are skipped. See {@link LazyImage}.
+    *
+    * @return a LazyImage with no operations, over this image
+    */
+   public LazyImage lazy() {
+      return new LazyImage(this);
+   }
+
+   /**
+    * Returns true if this image is in view mode. See {@link #viewMode()}.
+    */
+   public boolean isViewMode() {
+      return viewMode;
+   }
+
+   @Override
+   void beforeWrite() {
+      if (shared) {
+         synchronized (this) {
+            if (shared) {
+               // same layout, type and color model, so the copy is indistinguishable from the view
+               BufferedImage awt = awt();
+               WritableRaster raster = awt.getRaster().createCompatibleWritableRaster(width, height);
+               awt.copyData(raster);
+               replaceAwt(new BufferedImage(awt.getColorModel(), raster, awt.isAlphaPremultiplied(), null));
+               shared = false;
+            }
+         }
+      }
    }
 
    /**
@@ -1995,9 +2219,51 @@ public class ImmutableImage extends MutableImage {
     * @return a new Image with the mapper function applied to each pixel
     */
    public ImmutableImage map(Function<Pixel, Color> mapper) {
+      return map(mapper, 1);
+   }
+
+   /**
+    * Maps the pixels of this image into another image, as {@link #map(Function)}, splitting the
+    * rows into the given number of stripes which are mapped concurrently on the common ForkJoinPool.
+    * The function must be safe to call from several threads at once.
+    *
+    * @param mapper      the function to transform pixel x,y with existing value p into new pixel value p' (p prime)
+    * @param parallelism the number of stripes to map concurrently. 1 maps on the calling thread.
+    * @return a new Image with the mapper function applied to each pixel
+    */
+   public ImmutableImage map(Function<Pixel, Color> mapper, int parallelism) {
       // Same per-pixel application as MutableImage.mapInPlace, but routed through
       // transformPixels so the redundant full-raster copy is skipped.
-      return transformPixels((offset, p) -> mapper.apply(new Pixel(offset % width, offset / width, p)).getRGB());
+      return transformPixels((x, y, p) -> mapper.apply(new Pixel(x, y, p)).getRGB(), parallelism);
+   }
+
+   /**
+    * Maps the pixels of this image into another image by applying the given mapper to each pixel.
+    * <p>
+    * This is the allocation free counterpart of {@link #map(Function)}: the mapper receives the
+    * coordinates and packed ARGB value of each pixel and returns the new packed ARGB value.
+    * Position independent operations can be written as an {@link RgbaOp} over the unpacked channels.
+    *
+    * @param mapper the function to transform pixel x,y with existing value argb into a new value
+    * @return a new Image with the mapper applied to each pixel
+    */
+   public ImmutableImage mapArgb(ArgbMapper mapper) {
+      return transformPixels(mapper, 1);
+   }
+
+   /**
+    * Maps the pixels of this image into another image, as {@link #mapArgb(ArgbMapper)}, splitting
+    * the rows into the given number of stripes which are mapped concurrently on the common
+    * ForkJoinPool. The mapper must be safe to call from several threads at once. Images too
+    * small to be worth splitting are mapped on the calling thread. The result is identical
+    * to the single threaded map.
+    *
+    * @param mapper      the function to transform pixel x,y with existing value argb into a new value
+    * @param parallelism the number of stripes to map concurrently. 1 maps on the calling thread.
+    * @return a new Image with the mapper applied to each pixel
+    */
+   public ImmutableImage mapArgb(ArgbMapper mapper, int parallelism) {
+      return transformPixels(mapper, parallelism);
    }
 
    /**
@@ -2029,19 +2295,18 @@ public class ImmutableImage extends MutableImage {
    }
 
    public ImmutableImage toGrayscale(GrayscaleMethod method) {
-      // The previous map((Pixel) -> Color) routed through mapInPlace and
-      // allocated three objects per pixel: an RGBColor (toColor), a Grayscale
-      // (method.toGrayscale), and a java.awt.Color (.awt()) — plus a Pixel
-      // wrapper inside mapInPlace. Via transformPixels only the RGBColor +
-      // Grayscale allocations remain (GrayscaleMethod's interface requires
-      // a Color in / Grayscale out), and the redundant raster copy is skipped.
-      return transformPixels((offset, p) -> {
-         int r = (p >> 16) & 0xFF;
-         int g = (p >> 8) & 0xFF;
-         int b = p & 0xFF;
-         int a = (p >>> 24) & 0xFF;
-         Grayscale gray = method.toGrayscale(new RGBColor(r, g, b, a));
-         return (gray.alpha << 24) | (gray.gray << 16) | (gray.gray << 8) | gray.gray;
-      });
+      return toGrayscale(method, 1);
+   }
+
+   /**
+    * Returns a grayscale copy of this image, splitting the rows into the given number of
+    * stripes which are converted concurrently.
+    *
+    * @param parallelism the number of stripes to convert concurrently. 1 converts on the calling thread.
+    */
+   public ImmutableImage toGrayscale(GrayscaleMethod method, int parallelism) {
+      // the built in methods compute the gray from the unpacked channels with no
+      // per pixel allocation; other methods go through toGrayscale(Color)
+      return mapArgb(method, parallelism);
    }
 }
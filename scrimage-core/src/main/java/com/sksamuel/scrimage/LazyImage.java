@@ -0,0 +1,641 @@
+package com.sksamuel.scrimage;
+
+import com.sksamuel.scrimage.color.GrayscaleMethod;
+import com.sksamuel.scrimage.filter.Filter;
+import com.sksamuel.scrimage.filter.PointwiseFilter;
+import com.sksamuel.scrimage.pixels.ArgbMapper;
+import com.sksamuel.scrimage.pixels.Pixel;
+import com.sksamuel.scrimage.pixels.RgbaOp;
+import com.sksamuel.scrimage.transform.Transform;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * A chain of operations on an image which are recorded rather than run, and which are then
+ * run together by {@link #execute()}. Created by {@link ImmutableImage#lazy()}.
+ * <p>
+ * Run one at a time, each operation on an ImmutableImage copies the whole image. Run together,
+ * the chain is planned so that most of those copies are never made:
+ * <ul>
+ * <li>crops, such as subimage, trim, takeLeft or autocrop, are views over the image they crop,
+ * see {@link ImmutableImage#viewMode()}, so a crop followed by a scale resamples just the
+ * cropped region of the original pixels, with no copy in between.</li>
+ * <li>consecutive point operations, such as brightness, contrast, toGrayscale, mapArgb and
+ * point-wise filters, are applied together in a single pass over the pixels.</li>
+ * <li>position independent point operations are applied after the crops that follow them,
+ * and after the nearest neighbour downscales that follow them, so they run over fewer pixels.
+ * See {@link #scaleBeforePointOps(boolean)} for other scale methods.</li>
+ * <li>once an operation has produced a new image, later point operations and filters change
+ * that image in place rather than copying it again.</li>
+ * </ul>
+ * The result is the same as running the operations one at a time on an image in view mode.
+ * <p>
+ * A LazyImage is immutable: each method returns a new LazyImage with the operation added,
+ * so a chain can be shared and extended in several ways. Nothing is read from the image
+ * until {@link #execute()} is called, and each call runs the whole chain again.
+ */
+public final class LazyImage {
+
+   private final ImmutableImage source;
+   private final List<Step> steps;
+   private final boolean scaleBeforePointOps;
+
+   LazyImage(ImmutableImage source) {
+      this(source, Collections.emptyList(), false);
+   }
+
+   private LazyImage(ImmutableImage source, List<Step> steps, boolean scaleBeforePointOps) {
+      this.source = source;
+      this.steps = steps;
+      this.scaleBeforePointOps = scaleBeforePointOps;
+   }
+
+   private LazyImage then(Step step) {
+      List<Step> next = new ArrayList<>(steps.size() + 1);
+      next.addAll(steps);
+      next.add(step);
+      return new LazyImage(source, Collections.unmodifiableList(next), scaleBeforePointOps);
+   }
+
+   /**
+    * Set to true to apply a downscale by any scale method before the position independent
+    * point operations recorded ahead of it, so those operations run over the smaller image.
+    * <p>
+    * Nearest neighbour scaling only picks pixels, so it is always applied first, as the result
+    * is the same. The other scale methods blend neighbouring pixels, and an operation applied
+    * to the blend differs from the blend of the operation, slightly for operations such as
+    * brightness or contrast, but greatly for operations such as threshold or posterize.
+    * Default false.
+    *
+    * @return a LazyImage that plans downscales this way
+    */
+   public LazyImage scaleBeforePointOps(boolean scaleBeforePointOps) {
+      return new LazyImage(source, steps, scaleBeforePointOps);
+   }
+
+   // crops
+
+   /**
+    * @see ImmutableImage#autocrop()
+    */
+   public LazyImage autocrop() {
+      return then(new Crop(ImmutableImage::autocrop, false));
+   }
+
+   /**
+    * @see ImmutableImage#autocrop(Color)
+    */
+   public LazyImage autocrop(Color color) {
+      return then(new Crop(image -> image.autocrop(color), false));
+   }
+
+   /**
+    * @see ImmutableImage#autocrop(Color, int)
+    */
+   public LazyImage autocrop(Color color, int colorTolerance) {
+      return then(new Crop(image -> image.autocrop(color, colorTolerance), false));
+   }
+
+   /**
+    * @see ImmutableImage#subimage(int, int, int, int)
+    */
+   public LazyImage subimage(int x, int y, int w, int h) {
+      return then(new Crop(image -> image.subimage(x, y, w, h), true));
+   }
+
+   /**
+    * @see ImmutableImage#takeLeft(int)
+    */
+   public LazyImage takeLeft(int k) {
+      return then(new Crop(image -> image.takeLeft(k), true));
+   }
+
+   /**
+    * @see ImmutableImage#takeRight(int)
+    */
+   public LazyImage takeRight(int k) {
+      return then(new Crop(image -> image.takeRight(k), true));
+   }
+
+   /**
+    * @see ImmutableImage#takeTop(int)
+    */
+   public LazyImage takeTop(int k) {
+      return then(new Crop(image -> image.takeTop(k), true));
+   }
+
+   /**
+    * @see ImmutableImage#takeBottom(int)
+    */
+   public LazyImage takeBottom(int k) {
+      return then(new Crop(image -> image.takeBottom(k), true));
+   }
+
+   /**
+    * @see ImmutableImage#dropLeft(int)
+    */
+   public LazyImage dropLeft(int amount) {
+      return then(new Crop(image -> image.dropLeft(amount), true));
+   }
+
+   /**
+    * @see ImmutableImage#dropRight(int)
+    */
+   public LazyImage dropRight(int amount) {
+      return then(new Crop(image -> image.dropRight(amount), true));
+   }
+
+   /**
+    * @see ImmutableImage#dropTop(int)
+    */
+   public LazyImage dropTop(int amount) {
+      return then(new Crop(image -> image.dropTop(amount), true));
+   }
+
+   /**
+    * @see ImmutableImage#dropBottom(int)
+    */
+   public LazyImage dropBottom(int amount) {
+      return then(new Crop(image -> image.dropBottom(amount), true));
+   }
+
+   /**
+    * @see ImmutableImage#trim(int)
+    */
+   public LazyImage trim(int amount) {
+      return then(new Crop(image -> image.trim(amount), true));
+   }
+
+   /**
+    * @see ImmutableImage#trim(int, int, int, int)
+    */
+   public LazyImage trim(int left, int top, int right, int bottom) {
+      return then(new Crop(image -> image.trim(left, top, right, bottom), true));
+   }
+
+   // scales
+
+   /**
+    * @see ImmutableImage#scaleTo(int, int)
+    */
+   public LazyImage scaleTo(int targetWidth, int targetHeight) {
+      return scaleTo(targetWidth, targetHeight, ScaleMethod.Bicubic);
+   }
+
+   /**
+    * @see ImmutableImage#scaleTo(int, int, ScaleMethod)
+    */
+   public LazyImage scaleTo(int targetWidth, int targetHeight, ScaleMethod scaleMethod) {
+      return then(new Scale(image -> new Dimension(targetWidth, targetHeight), scaleMethod));
+   }
+
+   /**
+    * @see ImmutableImage#scale(double)
+    */
+   public LazyImage scale(double scaleFactor) {
+      return scale(scaleFactor, ScaleMethod.Bicubic);
+   }
+
+   /**
+    * @see ImmutableImage#scale(double, ScaleMethod)
+    */
+   public LazyImage scale(double scaleFactor, ScaleMethod scaleMethod) {
+      return then(new Scale(image -> new Dimension((int) (image.width * scaleFactor), (int) (image.height * scaleFactor)), scaleMethod));
+   }
+
+   /**
+    * @see ImmutableImage#scaleToWidth(int)
+    */
+   public LazyImage scaleToWidth(int targetWidth) {
+      return scaleToWidth(targetWidth, ScaleMethod.Bicubic);
+   }
+
+   /**
+    * @see ImmutableImage#scaleToWidth(int, ScaleMethod)
+    */
+   public LazyImage scaleToWidth(int targetWidth, ScaleMethod scaleMethod) {
+      return then(new Scale(image -> new Dimension(targetWidth, (int) (targetWidth / (double) image.width * image.height)), scaleMethod));
+   }
+
+   /**
+    * @see ImmutableImage#scaleToHeight(int)
+    */
+   public LazyImage scaleToHeight(int targetHeight) {
+      return scaleToHeight(targetHeight, ScaleMethod.Bicubic);
+   }
+
+   /**
+    * @see ImmutableImage#scaleToHeight(int, ScaleMethod)
+    */
+   public LazyImage scaleToHeight(int targetHeight, ScaleMethod scaleMethod) {
+      return then(new Scale(image -> new Dimension((int) (targetHeight / (double) image.height * image.width), targetHeight), scaleMethod));
+   }
+
+   /**
+    * @see ImmutableImage#max(int, int)
+    */
+   public LazyImage max(int maxW, int maxH) {
+      return max(maxW, maxH, ScaleMethod.Bicubic);
+   }
+
+   /**
+    * @see ImmutableImage#max(int, int, ScaleMethod)
+    */
+   public LazyImage max(int maxW, int maxH, ScaleMethod scaleMethod) {
+      return then(new Scale(image -> DimensionTools.dimensionsToFit(new Dimension(maxW, maxH), new Dimension(image.width, image.height)), scaleMethod));
+   }
+
+   /**
+    * @see ImmutableImage#bound(int, int)
+    */
+   public LazyImage bound(int w, int h) {
+      return bound(w, h, ScaleMethod.Bicubic);
+   }
+
+   /**
+    * @see ImmutableImage#bound(int, int, ScaleMethod)
+    */
+   public LazyImage bound(int w, int h, ScaleMethod scaleMethod) {
+      return then(new Scale(image -> image.width <= w && image.height <= h
+         ? new Dimension(image.width, image.height)
+         : DimensionTools.dimensionsToFit(new Dimension(w, h), new Dimension(image.width, image.height)), scaleMethod));
+   }
+
+   /**
+    * @see ImmutableImage#cover(int, int)
+    */
+   public LazyImage cover(int targetWidth, int targetHeight) {
+      return cover(targetWidth, targetHeight, ScaleMethod.Bicubic, Position.Center);
+   }
+
+   /**
+    * @see ImmutableImage#cover(int, int, ScaleMethod, Position)
+    */
+   public LazyImage cover(int targetWidth, int targetHeight, ScaleMethod scaleMethod, Position position) {
+      // in view mode the crop of the scaled image is a view
+      return then(new Other(image -> image.viewMode().cover(targetWidth, targetHeight, scaleMethod, position)));
+   }
+
+   /**
+    * @see ImmutableImage#fit(int, int)
+    */
+   public LazyImage fit(int canvasWidth, int canvasHeight) {
+      return then(new Other(image -> image.fit(canvasWidth, canvasHeight)));
+   }
+
+   /**
+    * @see ImmutableImage#fit(int, int, Color, ScaleMethod, Position)
+    */
+   public LazyImage fit(int canvasWidth, int canvasHeight, Color color, ScaleMethod scaleMethod, Position position) {
+      return then(new Other(image -> image.fit(canvasWidth, canvasHeight, color, scaleMethod, position)));
+   }
+
+   // canvas
+
+   /**
+    * @see ImmutableImage#pad(int, Color)
+    */
+   public LazyImage pad(int size, Color color) {
+      return then(new Other(image -> image.pad(size, color)));
+   }
+
+   /**
+    * @see ImmutableImage#padTo(int, int, Color)
+    */
+   public LazyImage padTo(int targetWidth, int targetHeight, Color color) {
+      return then(new Other(image -> image.padTo(targetWidth, targetHeight, color)));
+   }
+
+   /**
+    * @see ImmutableImage#padWith(int, int, int, int, Color)
+    */
+   public LazyImage padWith(int left, int top, int right, int bottom, Color color) {
+      return then(new Other(image -> image.padWith(left, top, right, bottom, color)));
+   }
+
+   /**
+    * @see ImmutableImage#flipX()
+    */
+   public LazyImage flipX() {
+      return then(new Other(ImmutableImage::flipX));
+   }
+
+   /**
+    * @see ImmutableImage#flipY()
+    */
+   public LazyImage flipY() {
+      return then(new Other(ImmutableImage::flipY));
+   }
+
+   /**
+    * @see ImmutableImage#rotateLeft()
+    */
+   public LazyImage rotateLeft() {
+      return then(new Other(ImmutableImage::rotateLeft));
+   }
+
+   /**
+    * @see ImmutableImage#rotateRight()
+    */
+   public LazyImage rotateRight() {
+      return then(new Other(ImmutableImage::rotateRight));
+   }
+
+   /**
+    * Adds the given transform, which is run on the image as it is at this point in the chain.
+    * The transform may return its input, or a new image, but must not change its input.
+    *
+    * @see ImmutableImage#transform(Transform)
+    */
+   public LazyImage transform(Transform transform) {
+      return then(new Other(transform));
+   }
+
+   // point operations
+
+   /**
+    * @see ImmutableImage#brightness(double)
+    */
+   public LazyImage brightness(double factor) {
+      float scale = (float) factor;
+      RgbaOp op = (r, g, b, a) -> MutableImage.rescale(r, g, b, a, scale);
+      // only used on types that store ARGB exactly, where brightness rescales each channel the same way
+      return then(new Point(() -> op, false, image -> image.brightness(factor)));
+   }
+
+   /**
+    * @see ImmutableImage#contrast(double)
+    */
+   public LazyImage contrast(double factor) {
+      ArgbMapper mapper = (x, y, p) -> MutableImage.contrast(p, factor);
+      return then(new Point(() -> mapper, false, image -> image.contrast(factor)));
+   }
+
+   /**
+    * @see ImmutableImage#toGrayscale(GrayscaleMethod)
+    */
+   public LazyImage toGrayscale(GrayscaleMethod method) {
+      return then(new Point(() -> method, false, image -> image.toGrayscale(method)));
+   }
+
+   /**
+    * @see ImmutableImage#map(Function)
+    */
+   public LazyImage map(Function<Pixel, Color> mapper) {
+      ArgbMapper argbMapper = (x, y, p) -> mapper.apply(new Pixel(x, y, p)).getRGB();
+      return then(new Point(() -> argbMapper, true, image -> image.map(mapper)));
+   }
+
+   /**
+    * Adds a map of each pixel with the given mapper. A mapper that is an {@link RgbaOp} does not
+    * depend on the position of the pixel, so it can be applied after later crops and scales.
+    *
+    * @see ImmutableImage#mapArgb(ArgbMapper)
+    */
+   public LazyImage mapArgb(ArgbMapper mapper) {
+      return then(new Point(() -> mapper, !(mapper instanceof RgbaOp), image -> image.mapArgb(mapper)));
+   }
+
+   /**
+    * Adds the given filters in turn. A {@link PointwiseFilter} that accepts any image type is
+    * a point operation, and is applied together with the point operations either side of it.
+    *
+    * @see ImmutableImage#filter(Filter...)
+    */
+   public LazyImage filter(Filter... filters) {
+      LazyImage lazy = this;
+      for (Filter filter : filters) {
+         if (filter instanceof PointwiseFilter && filter.types().length == 0) {
+            PointwiseFilter pointwise = (PointwiseFilter) filter;
+            lazy = lazy.then(new Point(() -> {
+               // a filter's op may keep state, so each execution gets its own
+               IntUnaryOperator op = pointwise.argbOp();
+               return (x, y, argb) -> op.applyAsInt(argb);
+            }, false, image -> image.filter(filter)));
+         } else {
+            lazy = lazy.then(new FilterStep(filter));
+         }
+      }
+      return lazy;
+   }
+
+   /**
+    * Runs the recorded operations on the image and returns the result. The image this
+    * LazyImage was created from is unchanged.
+    * <p>
+    * The result is a standalone image, unless the chain was started from an image in view mode,
+    * in which case a result that is a crop of that image is a view of it, as it would be
+    * had the crops been run one at a time.
+    *
+    * @return the image that results from running the operations in turn
+    */
+   public ImmutableImage execute() throws IOException {
+      ImmutableImage image = source;
+      // true once image holds pixels made by this execution, which can be changed in place
+      boolean owned = false;
+      List<Point> pending = new ArrayList<>();
+      for (Step step : steps) {
+         if (step instanceof Point) {
+            pending.add((Point) step);
+            continue;
+         }
+         // run the step ahead of the pending point ops when the result is the same
+         if (!pending.isEmpty() && !commutes(pending, step, image)) {
+            image = applyPoints(pending, image, owned);
+            owned = true;
+            pending.clear();
+         }
+         ImmutableImage result;
+         if (step instanceof FilterStep) {
+            Filter filter = ((FilterStep) step).filter;
+            if (owned && image.supportsType(filter.types())) {
+               filter.apply(image);
+               result = image;
+            } else {
+               result = image.filter(filter);
+            }
+         } else {
+            result = step.apply(image);
+         }
+         owned = !result.isViewMode() && (owned || !sharesPixels(result, image)) && (result != source);
+         image = result;
+      }
+      if (!pending.isEmpty()) {
+         image = applyPoints(pending, image, owned);
+         owned = true;
+      }
+      // a view of an intermediate image, or of the source, would keep all of it in memory
+      if (!owned && image.isViewMode() && !source.isViewMode()) {
+         image = image.copy();
+      }
+      return image;
+   }
+
+   /**
+    * Returns true if the given step may be run before the given point ops, which are
+    * yet to be applied to the given image, with the same result.
+    */
+   private boolean commutes(List<Point> points, Step step, ImmutableImage image) {
+      for (Point point : points) {
+         if (point.positional) return false;
+      }
+      if (step instanceof Crop) {
+         // a crop picks pixels, unless it picks them by their colour
+         return ((Crop) step).geometric;
+      }
+      if (step instanceof Scale) {
+         Scale scale = (Scale) step;
+         Dimension target = scale.target.apply(image);
+         boolean smaller = (long) target.getX() * target.getY() < (long) image.width * image.height;
+         return smaller
+            && storesArgbExactly(image.getType())
+            && (scale.method == ScaleMethod.FastScale || scaleBeforePointOps);
+      }
+      return false;
+   }
+
+   private static ImmutableImage applyPoints(List<Point> points, ImmutableImage image, boolean owned) throws IOException {
+      // Applied one at a time, each op reads back what the previous one stored, so a single
+      // pass only gives the same result when the image stores 8 bit ARGB values exactly.
+      if (!storesArgbExactly(image.getType())) {
+         for (Point point : points) {
+            image = point.apply(image);
+         }
+         return image;
+      }
+      ArgbMapper[] mappers = new ArgbMapper[points.size()];
+      for (int i = 0; i < mappers.length; i++) {
+         mappers[i] = points.get(i).mapper.get();
+      }
+      // an image without alpha would have stored each intermediate pixel as opaque
+      int opaque = image.awt().getColorModel().hasAlpha() ? 0 : 0xFF000000;
+      ArgbMapper fused = (x, y, argb) -> {
+         for (ArgbMapper mapper : mappers) {
+            argb = mapper.map(x, y, argb) | opaque;
+         }
+         return argb;
+      };
+      if (owned) {
+         image.mapArgbInPlace(fused);
+         return image;
+      }
+      return image.mapArgb(fused);
+   }
+
+   private static boolean sharesPixels(ImmutableImage a, ImmutableImage b) {
+      return a.awt().getRaster().getDataBuffer() == b.awt().getRaster().getDataBuffer();
+   }
+
+   private static boolean storesArgbExactly(int type) {
+      switch (type) {
+         case BufferedImage.TYPE_INT_ARGB:
+         case BufferedImage.TYPE_INT_RGB:
+         case BufferedImage.TYPE_INT_BGR:
+         case BufferedImage.TYPE_3BYTE_BGR:
+         case BufferedImage.TYPE_4BYTE_ABGR:
+            return true;
+         default:
+            return false;
+      }
+   }
+
+   private interface Step {
+      ImmutableImage apply(ImmutableImage image) throws IOException;
+   }
+
+   /**
+    * A crop, run on the image in view mode so that it takes a view rather than a copy.
+    * A geometric crop picks its region from the size of the image alone.
+    */
+   private static final class Crop implements Step {
+
+      private final UnaryOperator<ImmutableImage> crop;
+      private final boolean geometric;
+
+      Crop(UnaryOperator<ImmutableImage> crop, boolean geometric) {
+         this.crop = crop;
+         this.geometric = geometric;
+      }
+
+      @Override
+      public ImmutableImage apply(ImmutableImage image) {
+         return crop.apply(image.viewMode());
+      }
+   }
+
+   private static final class Scale implements Step {
+
+      private final Function<ImmutableImage, Dimension> target;
+      private final ScaleMethod method;
+
+      Scale(Function<ImmutableImage, Dimension> target, ScaleMethod method) {
+         this.target = target;
+         this.method = method;
+      }
+
+      @Override
+      public ImmutableImage apply(ImmutableImage image) {
+         Dimension dimension = target.apply(image);
+         return image.scaleTo(dimension.getX(), dimension.getY(), method);
+      }
+   }
+
+   /**
+    * An operation which sets each pixel from that pixel alone. The mapper is only used on
+    * images that store ARGB exactly; on other images the operation runs as it does eagerly.
+    */
+   private static final class Point implements Step {
+
+      private final Supplier<ArgbMapper> mapper;
+      private final boolean positional;
+      private final Transform eager;
+
+      Point(Supplier<ArgbMapper> mapper, boolean positional, Transform eager) {
+         this.mapper = mapper;
+         this.positional = positional;
+         this.eager = eager;
+      }
+
+      @Override
+      public ImmutableImage apply(ImmutableImage image) throws IOException {
+         return eager.apply(image);
+      }
+   }
+
+   private static final class FilterStep implements Step {
+
+      private final Filter filter;
+
+      FilterStep(Filter filter) {
+         this.filter = filter;
+      }
+
+      @Override
+      public ImmutableImage apply(ImmutableImage image) throws IOException {
+         return image.filter(filter);
+      }
+   }
+
+   private static final class Other implements Step {
+
+      private final Transform transform;
+
+      Other(Transform transform) {
+         this.transform = transform;
+      }
+
+      @Override
+      public ImmutableImage apply(ImmutableImage image) throws IOException {
+         return transform.apply(image);
+      }
+   }
+}
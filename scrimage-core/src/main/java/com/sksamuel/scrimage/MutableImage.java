@@ -1,8 +1,13 @@
 package com.sksamuel.scrimage;
 
 import com.sksamuel.scrimage.color.RGBColor;
+import com.sksamuel.scrimage.composite.Composite;
+import com.sksamuel.scrimage.internal.RowStripes;
+import com.sksamuel.scrimage.pixels.ArgbMapper;
 import com.sksamuel.scrimage.pixels.Pixel;
+import com.sksamuel.scrimage.pixels.PixelBuffer;
 import com.sksamuel.scrimage.pixels.PixelTools;
+import com.sksamuel.scrimage.pixels.RgbaOp;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
@@ -27,15 +32,43 @@ public class MutableImage extends AwtImage {
       super(awt);
    }
 
+   /**
+    * Called by each method of this class before it changes the pixels, so that an image whose
+    * pixels may be shared with another image can take its own copy of them first.
+    */
+   void beforeWrite() {
+   }
+
    /**
     * Maps the pixels of this image into another image by applying the given function to each pixel.
     * <p>
     * The function accepts three parameters: x,y,p where x and y are the coordinates of the pixel
     * being transformed and p is the pixel at that location.
     *
+    * Every pixel is mapped before any is written back, so a mapper that reads other pixels of
+    * this image sees their original values.
+    *
     * @param mapper the function to transform pixel x,y with existing value p into new pixel value p' (p prime)
     */
    public void mapInPlace(Function<Pixel, Color> mapper) {
+      beforeWrite();
+      PixelBuffer buffer = pixelBuffer().orElse(null);
+      if (buffer != null) {
+         int[] data = buffer.data();
+         int mask = buffer.alphaMask();
+         int store = ~mask;
+         int[] mapped = new int[width * height];
+         for (int y = 0, i = 0; y < height; y++) {
+            int row = buffer.index(0, y);
+            for (int x = 0; x < width; x++, i++) {
+               mapped[i] = mapper.apply(new Pixel(x, y, data[row + x] | mask)).getRGB() & store;
+            }
+         }
+         for (int y = 0; y < height; y++) {
+            System.arraycopy(mapped, y * width, data, buffer.index(0, y), width);
+         }
+         return;
+      }
       int[] argb = awt().getRGB(0, 0, width, height, null, 0, width);
       int i = 0;
       for (int y = 0; y < height; y++) {
@@ -47,9 +80,82 @@ public class MutableImage extends AwtImage {
       awt().setRGB(0, 0, width, height, argb, 0, width);
    }
 
-   public void replaceTransparencyInPlace(java.awt.Color color) {
+   /**
+    * Maps the pixels of this image in place by applying the given mapper to each pixel.
+    * <p>
+    * This is the allocation free counterpart of {@link #mapInPlace(Function)}: the mapper
+    * receives the coordinates and packed ARGB value of each pixel and returns the new packed
+    * ARGB value. Unlike mapInPlace, TYPE_INT_ARGB and TYPE_INT_RGB images are written as they
+    * are mapped, so the mapper should not read other pixels of this image.
+    *
+    * @param mapper the function to transform pixel x,y with existing value argb into a new value
+    */
+   public void mapArgbInPlace(ArgbMapper mapper) {
+      mapArgbInPlace(mapper, 1);
+   }
+
+   /**
+    * Maps the pixels of this image in place, as {@link #mapArgbInPlace(ArgbMapper)}, splitting
+    * the rows into the given number of stripes which are mapped concurrently on the common
+    * ForkJoinPool. The mapper must be safe to call from several threads at once. Images too
+    * small to be worth splitting are mapped on the calling thread. The result is identical
+    * to the single threaded map.
+    *
+    * @param mapper      the function to transform pixel x,y with existing value argb into a new value
+    * @param parallelism the number of stripes to map concurrently. 1 maps on the calling thread.
+    */
+   public void mapArgbInPlace(ArgbMapper mapper, int parallelism) {
+      beforeWrite();
+      PixelBuffer buffer = pixelBuffer().orElse(null);
+      if (buffer != null) {
+         int[] data = buffer.data();
+         int mask = buffer.alphaMask();
+         // an image without alpha reads back as opaque, and stores no alpha bits, as with setRGB
+         int store = ~mask;
+         RowStripes.run(width, height, parallelism, (startY, endY) -> {
+            for (int y = startY; y < endY; y++) {
+               int row = buffer.index(0, y);
+               for (int x = 0; x < width; x++) {
+                  data[row + x] = mapper.map(x, y, data[row + x] | mask) & store;
+               }
+            }
+         });
+         return;
+      }
       int[] argb = awt().getRGB(0, 0, width, height, null, 0, width);
+      mapRows(argb, width, height, mapper, parallelism);
+      awt().setRGB(0, 0, width, height, argb, 0, width);
+   }
+
+   /**
+    * Maps a row major array of ARGB values in place.
+    */
+   static void mapRows(int[] argb, int width, int height, ArgbMapper mapper, int parallelism) {
+      RowStripes.run(width, height, parallelism, (startY, endY) -> {
+         for (int y = startY, i = startY * width; y < endY; y++) {
+            for (int x = 0; x < width; x++, i++) {
+               argb[i] = mapper.map(x, y, argb[i]);
+            }
+         }
+      });
+   }
+
+   public void replaceTransparencyInPlace(java.awt.Color color) {
+      beforeWrite();
       int cr = color.getRed(), cg = color.getGreen(), cb = color.getBlue(), ca = color.getAlpha();
+      PixelBuffer buffer = pixelBuffer().orElse(null);
+      if (buffer != null) {
+         int[] data = buffer.data();
+         int mask = buffer.alphaMask();
+         for (int y = 0; y < height; y++) {
+            int row = buffer.index(0, y);
+            for (int i = row; i < row + width; i++) {
+               data[i] = PixelTools.replaceTransparencyWithColor(data[i] | mask, cr, cg, cb, ca);
+            }
+         }
+         return;
+      }
+      int[] argb = awt().getRGB(0, 0, width, height, null, 0, width);
       for (int i = 0; i < argb.length; i++) {
          argb[i] = PixelTools.replaceTransparencyWithColor(argb[i], cr, cg, cb, ca);
       }
@@ -60,6 +166,7 @@ public class MutableImage extends AwtImage {
     * Fills all pixels the given color on the existing image.
     */
    public void fillInPlace(Color color) {
+      beforeWrite();
       int target = RGBColor.fromAwt(color).toARGBInt();
       WritableRaster raster = awt().getRaster();
       DataBuffer buffer = raster.getDataBuffer();
@@ -93,9 +200,14 @@ public class MutableImage extends AwtImage {
    }
 
    /**
-    * Applies the given image over the current buffer.
+    * Applies the given image over the current buffer, with the top left of the overlay at (x, y).
+    * Only the pixels where the two images intersect are drawn, so stamping a small image onto a
+    * large one costs only the size of the small one.
     */
    public void overlayInPlace(BufferedImage overlay, int x, int y) {
+      if (!intersects(overlay.getWidth(), overlay.getHeight(), x, y))
+         return;
+      beforeWrite();
       Graphics2D g2 = (Graphics2D) awt().getGraphics();
       try {
          g2.drawImage(overlay, x, y, null);
@@ -104,17 +216,46 @@ public class MutableImage extends AwtImage {
       }
    }
 
+   /**
+    * Applies the given image onto the current buffer using the given composite, with the top
+    * left of the overlay at (x, y). Only the pixels where the two images intersect are
+    * composited, and no copy of this image is made, so this is the cheapest way to stamp a
+    * small image, such as a watermark, onto an image that is not shared.
+    *
+    * @param composite the composite to use
+    * @param overlay   the image to apply with the composite
+    * @param x         the column of this image at which the overlay starts
+    * @param y         the row of this image at which the overlay starts
+    */
+   public void compositeInPlace(Composite composite, AwtImage overlay, int x, int y) {
+      if (!intersects(overlay.width, overlay.height, x, y))
+         return;
+      beforeWrite();
+      composite.apply(this, overlay, x, y);
+   }
+
+   /**
+    * Returns true if an image of the given size placed with its top left at (x, y)
+    * overlaps this image.
+    */
+   private boolean intersects(int w, int h, int x, int y) {
+      return x < width && y < height && (long) x + w > 0 && (long) y + h > 0;
+   }
+
    public void setColor(int offset, com.sksamuel.scrimage.color.Color color) {
+      beforeWrite();
       int x = offset % width;
       int y = offset / width;
       awt().setRGB(x, y, color.toRGB().toARGBInt());
    }
 
    public void setColor(int x, int y, com.sksamuel.scrimage.color.Color color) {
+      beforeWrite();
       awt().setRGB(x, y, color.toRGB().toARGBInt());
    }
 
    public void setPixel(Pixel pixel) {
+      beforeWrite();
       awt().setRGB(pixel.x, pixel.y, pixel.toARGBInt());
    }
 
@@ -122,21 +263,33 @@ public class MutableImage extends AwtImage {
     * Mutates this image by scaling all pixel values by the given factor (brightness in other words).
     */
    public void rescaleInPlace(double factor) {
+      rescaleInPlace(factor, 1);
+   }
+
+   /**
+    * Mutates this image by scaling all pixel values by the given factor, as {@link #rescaleInPlace(double)},
+    * splitting the rows into the given number of stripes which are scaled concurrently.
+    * Gray, premultiplied and 16 bit per pixel images are scaled by RescaleOp on the calling thread.
+    *
+    * @param parallelism the number of stripes to scale concurrently. 1 scales on the calling thread.
+    */
+   public void rescaleInPlace(double factor, int parallelism) {
+      beforeWrite();
+      if (isRescaledByChannel()) {
+         float scale = (float) factor;
+         mapArgbInPlace((RgbaOp) (r, g, b, a) -> rescale(r, g, b, a, scale), parallelism);
+         return;
+      }
       if (awt().getColorModel() instanceof IndexColorModel) {
          // RescaleOp rejects palette-based images ("Rescaling cannot be performed on an
          // indexed image"), and GIFs / PNG-8s load as TYPE_BYTE_INDEXED by default.
          // Scale the unpacked ARGB values instead, like contrastInPlace; setRGB maps each
          // result back to the nearest palette entry. Alpha is left untouched, matching
          // RescaleOp's single-factor behavior.
-         int[] argb = awt().getRGB(0, 0, width, height, null, 0, width);
-         for (int i = 0; i < argb.length; i++) {
-            int p = argb[i];
-            int r = PixelTools.truncate(factor * PixelTools.red(p));
-            int g = PixelTools.truncate(factor * PixelTools.green(p));
-            int b = PixelTools.truncate(factor * PixelTools.blue(p));
-            argb[i] = PixelTools.argb(PixelTools.alpha(p), r, g, b);
-         }
-         awt().setRGB(0, 0, width, height, argb, 0, width);
+         mapArgbInPlace((RgbaOp) (r, g, b, a) -> PixelTools.argb(a,
+            PixelTools.truncate(factor * r),
+            PixelTools.truncate(factor * g),
+            PixelTools.truncate(factor * b)), parallelism);
          return;
       }
       RescaleOp rescale = new RescaleOp((float) factor, 0f,
@@ -144,15 +297,53 @@ public class MutableImage extends AwtImage {
       rescale.filter(awt(), awt());
    }
 
-   public void contrastInPlace(double factor) {
-      int[] argb = awt().getRGB(0, 0, width, height, null, 0, width);
-      for (int i = 0; i < argb.length; i++) {
-         int p = argb[i];
-         int r = PixelTools.truncate((factor * (PixelTools.red(p) - 128)) + 128);
-         int g = PixelTools.truncate((factor * (PixelTools.green(p) - 128)) + 128);
-         int b = PixelTools.truncate((factor * (PixelTools.blue(p) - 128)) + 128);
-         argb[i] = PixelTools.argb(PixelTools.alpha(p), r, g, b);
+   /**
+    * Returns true if this image stores 8 bit, non premultiplied red, green and blue samples,
+    * in which case a single factor RescaleOp scales each color sample independently as
+    * clamp((int) (sample * (float) factor)) and leaves alpha untouched, which
+    * {@link #rescale(int, int, int, int, float)} reproduces exactly on the ARGB values.
+    * Other types (gray, premultiplied, 565/555 and palette images) get RescaleOp's own treatment.
+    */
+   boolean isRescaledByChannel() {
+      switch (getType()) {
+         case BufferedImage.TYPE_INT_ARGB:
+         case BufferedImage.TYPE_INT_RGB:
+         case BufferedImage.TYPE_INT_BGR:
+         case BufferedImage.TYPE_3BYTE_BGR:
+         case BufferedImage.TYPE_4BYTE_ABGR:
+            return true;
+         default:
+            return false;
       }
-      awt().setRGB(0, 0, width, height, argb, 0, width);
+   }
+
+   static int rescale(int r, int g, int b, int a, float scale) {
+      return PixelTools.argb(a, clamp((int) (r * scale)), clamp((int) (g * scale)), clamp((int) (b * scale)));
+   }
+
+   private static int clamp(int value) {
+      return value < 0 ? 0 : Math.min(value, 255);
+   }
+
+   public void contrastInPlace(double factor) {
+      contrastInPlace(factor, 1);
+   }
+
+   /**
+    * Mutates this image by adjusting the contrast, as {@link #contrastInPlace(double)}, splitting
+    * the rows into the given number of stripes which are adjusted concurrently.
+    *
+    * @param parallelism the number of stripes to adjust concurrently. 1 adjusts on the calling thread.
+    */
+   public void contrastInPlace(double factor, int parallelism) {
+      beforeWrite();
+      mapArgbInPlace((x, y, p) -> contrast(p, factor), parallelism);
+   }
+
+   static int contrast(int p, double factor) {
+      int r = PixelTools.truncate((factor * (PixelTools.red(p) - 128)) + 128);
+      int g = PixelTools.truncate((factor * (PixelTools.green(p) - 128)) + 128);
+      int b = PixelTools.truncate((factor * (PixelTools.blue(p) - 128)) + 128);
+      return PixelTools.argb(PixelTools.alpha(p), r, g, b);
    }
 }
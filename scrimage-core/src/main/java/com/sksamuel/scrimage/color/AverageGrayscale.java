@@ -12,4 +12,11 @@ public class AverageGrayscale implements GrayscaleMethod {
       int average = rgb.average();
       return new Grayscale(average, rgb.alpha);
    }
+
+   @Override
+   public int apply(int red, int green, int blue, int alpha) {
+      // same rounding as RGBColor.average
+      int gray = Math.round((red + green + blue) / 3f);
+      return (alpha << 24) | (gray << 16) | (gray << 8) | gray;
+   }
 }
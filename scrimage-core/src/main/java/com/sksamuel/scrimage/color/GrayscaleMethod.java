@@ -1,11 +1,26 @@
 package com.sksamuel.scrimage.color;
 
-public interface GrayscaleMethod {
+import com.sksamuel.scrimage.pixels.RgbaOp;
+
+/**
+ * Converts a color to gray. Every method is also an {@link RgbaOp}, so it can be passed
+ * straight to ImmutableImage.mapArgb; the built in methods implement it without allocating.
+ */
+public interface GrayscaleMethod extends RgbaOp {
 
    public static final GrayscaleMethod AVERAGE = new AverageGrayscale();
    public static final GrayscaleMethod LUMA = new LumaGrayscale();
    public static final GrayscaleMethod WEIGHTED = new WeightedGrayscale();
 
    Grayscale toGrayscale(Color color);
-}
 
+   /**
+    * Returns the packed ARGB value of the gray for the given channels. Implementations
+    * should override this to compute the gray without going through {@link #toGrayscale(Color)}.
+    */
+   @Override
+   default int apply(int red, int green, int blue, int alpha) {
+      Grayscale gray = toGrayscale(new RGBColor(red, green, blue, alpha));
+      return (gray.alpha << 24) | (gray.gray << 16) | (gray.gray << 8) | gray.gray;
+   }
+}
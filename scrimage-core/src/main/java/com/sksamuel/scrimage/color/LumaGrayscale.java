@@ -4,10 +4,16 @@ public class LumaGrayscale implements GrayscaleMethod {
    @Override
    public Grayscale toGrayscale(Color color) {
       RGBColor rgb = color.toRGB();
-      double red = 0.2126 * rgb.red;
-      double green = 0.7152 * rgb.green;
-      double blue = 0.0722 * rgb.blue;
-      double gray = red + green + blue;
-      return new Grayscale((int) Math.round(gray), rgb.alpha);
+      return new Grayscale(gray(rgb.red, rgb.green, rgb.blue), rgb.alpha);
+   }
+
+   @Override
+   public int apply(int red, int green, int blue, int alpha) {
+      int gray = gray(red, green, blue);
+      return (alpha << 24) | (gray << 16) | (gray << 8) | gray;
+   }
+
+   private static int gray(int red, int green, int blue) {
+      return (int) Math.round(0.2126 * red + 0.7152 * green + 0.0722 * blue);
    }
 }
@@ -14,10 +14,15 @@ public class AlphaComposite implements Composite {
 
     @Override
     public void apply(AwtImage src, AwtImage overlay) {
+        apply(src, overlay, 0, 0);
+    }
+
+    @Override
+    public void apply(AwtImage src, AwtImage overlay, int x, int y) {
         Graphics2D g2 = (Graphics2D) src.awt().getGraphics();
         try {
             g2.setComposite(java.awt.AlphaComposite.SrcOver.derive((float) alpha));
-            g2.drawImage(overlay.awt(), 0, 0, null);
+            g2.drawImage(overlay.awt(), x, y, null);
         } finally {
             g2.dispose();
         }
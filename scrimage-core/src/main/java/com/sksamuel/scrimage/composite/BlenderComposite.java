@@ -1,6 +1,7 @@
 package com.sksamuel.scrimage.composite;
 
 import com.sksamuel.scrimage.AwtImage;
+import com.sksamuel.scrimage.pixels.PixelBuffer;
 import thirdparty.romainguy.BlendComposite;
 import thirdparty.romainguy.BlendingMode;
 
@@ -10,18 +11,47 @@ class BlenderComposite implements Composite {
 
     private final BlendingMode mode;
     private final double alpha;
+    private final int parallelism;
 
     BlenderComposite(BlendingMode mode, double alpha) {
+        this(mode, alpha, 1);
+    }
+
+    private BlenderComposite(BlendingMode mode, double alpha, int parallelism) {
         this.mode = mode;
         this.alpha = alpha;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns a composite with the same mode and alpha which blends the given number of row
+     * stripes concurrently on the common ForkJoinPool. The result is identical to this composite.
+     * Only TYPE_INT_ARGB and TYPE_INT_RGB images are split; others are drawn on the calling thread.
+     *
+     * @param parallelism the number of stripes to blend concurrently. 1 blends on the calling thread.
+     */
+    public Composite parallel(int parallelism) {
+        return new BlenderComposite(mode, alpha, parallelism);
     }
 
     @Override
     public void apply(AwtImage src, AwtImage overlay) {
+        apply(src, overlay, 0, 0);
+    }
+
+    @Override
+    public void apply(AwtImage src, AwtImage overlay, int x, int y) {
+        PixelBuffer base = src.pixelBuffer().orElse(null);
+        PixelBuffer applied = overlay.pixelBuffer().orElse(null);
+        if (base != null && applied != null) {
+            // packed int images: blend the backing arrays directly
+            RasterBlender.blend(mode, (float) alpha, base, applied, x, y, parallelism);
+            return;
+        }
         Graphics2D g2 = (Graphics2D) src.awt().getGraphics();
         try {
             g2.setComposite(BlendComposite.getInstance(mode, (float) alpha));
-            g2.drawImage(overlay.awt(), 0, 0, null);
+            g2.drawImage(overlay.awt(), x, y, null);
         } finally {
             g2.dispose();
         }
@@ -24,4 +24,24 @@ public interface Composite {
    * this composite.
    */
   void apply(AwtImage src, AwtImage overlay);
+
+  /**
+   * Apply the overlay image onto the given source image using this composite, with the
+   * top left of the overlay at (x, y) in the source. Only the pixels where the two
+   * images intersect are changed, so the overlay need not be the size of the source.
+   * The offset may be negative, in which case the overlay is clipped.
+   */
+  default void apply(AwtImage src, AwtImage overlay, int x, int y) {
+    int left = Math.max(0, x);
+    int top = Math.max(0, y);
+    int right = (int) Math.min(src.width, (long) x + overlay.width);
+    int bottom = (int) Math.min(src.height, (long) y + overlay.height);
+    if (left >= right || top >= bottom)
+      return;
+    // subimages share their pixels with the original, so drawing onto one draws onto the source
+    apply(
+      new AwtImage(src.awt().getSubimage(left, top, right - left, bottom - top)),
+      new AwtImage(overlay.awt().getSubimage(left - x, top - y, right - left, bottom - top))
+    );
+  }
 }
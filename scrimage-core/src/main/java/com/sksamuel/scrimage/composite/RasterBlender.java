@@ -0,0 +1,583 @@
+package com.sksamuel.scrimage.composite;
+
+import com.sksamuel.scrimage.internal.RowStripes;
+import com.sksamuel.scrimage.pixels.PixelBuffer;
+import thirdparty.romainguy.BlendingMode;
+
+/**
+ * Blends one packed int image onto another by working on their backing arrays directly, giving
+ * exactly the result of drawing the overlay with a {@link thirdparty.romainguy.BlendComposite}
+ * but without the trip through Java2D and the per pixel channel arrays of its blenders.
+ * <p>
+ * Each blending mode has its own loop, so the blend formula is inlined into the loop rather
+ * than called through a blender. The blended colour is then mixed with the base pixel by the
+ * composite alpha scaled by the overlay pixel's own alpha, as BlendComposite does, so overlay
+ * pixels that are fully transparent leave the base unchanged.
+ * <p>
+ * As with BlendComposite, the pixels are read and written as stored, so the top byte of a
+ * TYPE_INT_RGB image is treated as its alpha.
+ */
+public final class RasterBlender {
+
+   private RasterBlender() {
+   }
+
+   /**
+    * Blends the overlay onto the base, with the top left of the overlay at (x, y) in the base.
+    * Only the pixels where the two images intersect are touched, and the offset may be negative.
+    *
+    * @param mode        the blending mode
+    * @param alpha       the opacity of the overlay, in [0, 1]
+    * @param base        the pixels to blend onto, which are changed in place
+    * @param overlay     the pixels to blend, which are not changed
+    * @param x           the column of the base at which the overlay starts
+    * @param y           the row of the base at which the overlay starts
+    * @param parallelism the number of row stripes to blend concurrently. 1 blends on the calling thread.
+    */
+   public static void blend(BlendingMode mode,
+                            float alpha,
+                            PixelBuffer base,
+                            PixelBuffer overlay,
+                            int x,
+                            int y,
+                            int parallelism) {
+      if (alpha < 0.0f || alpha > 1.0f)
+         throw new IllegalArgumentException("alpha must be comprised between 0.0f and 1.0f");
+
+      int left = Math.max(0, x);
+      int top = Math.max(0, y);
+      int right = (int) Math.min(base.width(), (long) x + overlay.width());
+      int bottom = (int) Math.min(base.height(), (long) y + overlay.height());
+      if (left >= right || top >= bottom)
+         return;
+
+      int width = right - left;
+      float[] weights = weights(alpha);
+      int[] dst = base.data();
+      int[] src = overlay.data();
+      RowStripes.run(width, bottom - top, parallelism, (startY, endY) -> {
+         for (int row = top + startY; row < top + endY; row++) {
+            blendRow(mode, src, overlay.index(left - x, row - y), dst, base.index(left, row), width, weights);
+         }
+      });
+   }
+
+   /**
+    * Returns the weight given to the blended colour for each overlay alpha, computed as
+    * BlendComposite computes it so the mix rounds the same way.
+    */
+   private static float[] weights(float alpha) {
+      float[] weights = new float[256];
+      for (int a = 0; a < 256; a++) {
+         weights[a] = alpha * (a / 255f);
+      }
+      return weights;
+   }
+
+   private static void blendRow(BlendingMode mode, int[] src, int si, int[] dst, int di, int width, float[] weights) {
+      // one small method per mode, so that the JIT compiles each loop with its formula inlined
+      switch (mode) {
+         case ADD:
+            blendAdd(src, si, dst, di, si + width, weights);
+            break;
+         case AVERAGE:
+            blendAverage(src, si, dst, di, si + width, weights);
+            break;
+         case BLUE:
+            blendBlue(src, si, dst, di, si + width, weights);
+            break;
+         case GREEN:
+            blendGreen(src, si, dst, di, si + width, weights);
+            break;
+         case RED:
+            blendRed(src, si, dst, di, si + width, weights);
+            break;
+         case COLOR_BURN:
+            blendColorBurn(src, si, dst, di, si + width, weights);
+            break;
+         case INVERSE_COLOR_BURN:
+            blendInverseColorBurn(src, si, dst, di, si + width, weights);
+            break;
+         case COLOR_DODGE:
+            blendColorDodge(src, si, dst, di, si + width, weights);
+            break;
+         case INVERSE_COLOR_DODGE:
+            blendInverseColorDodge(src, si, dst, di, si + width, weights);
+            break;
+         case DARKEN:
+            blendDarken(src, si, dst, di, si + width, weights);
+            break;
+         case LIGHTEN:
+            blendLighten(src, si, dst, di, si + width, weights);
+            break;
+         case DIFFERENCE:
+            blendDifference(src, si, dst, di, si + width, weights);
+            break;
+         case EXCLUSION:
+            blendExclusion(src, si, dst, di, si + width, weights);
+            break;
+         case FREEZE:
+            blendFreeze(src, si, dst, di, si + width, weights);
+            break;
+         case HEAT:
+            blendHeat(src, si, dst, di, si + width, weights);
+            break;
+         case GLOW:
+            blendGlow(src, si, dst, di, si + width, weights);
+            break;
+         case REFLECT:
+            blendReflect(src, si, dst, di, si + width, weights);
+            break;
+         case HARD_LIGHT:
+            blendHardLight(src, si, dst, di, si + width, weights);
+            break;
+         case OVERLAY:
+            blendOverlay(src, si, dst, di, si + width, weights);
+            break;
+         case MULTIPLY:
+            blendMultiply(src, si, dst, di, si + width, weights);
+            break;
+         case SCREEN:
+            blendScreen(src, si, dst, di, si + width, weights);
+            break;
+         case NEGATION:
+            blendNegation(src, si, dst, di, si + width, weights);
+            break;
+         case SOFT_BURN:
+            blendSoftBurn(src, si, dst, di, si + width, weights);
+            break;
+         case SOFT_DODGE:
+            blendSoftDodge(src, si, dst, di, si + width, weights);
+            break;
+         case STAMP:
+            blendStamp(src, si, dst, di, si + width, weights);
+            break;
+         case SUBTRACT:
+            blendSubtract(src, si, dst, di, si + width, weights);
+            break;
+         case HUE:
+            blendHue(src, si, dst, di, si + width, weights);
+            break;
+         case SATURATION:
+            blendSaturation(src, si, dst, di, si + width, weights);
+            break;
+         case COLOR:
+            blendColor(src, si, dst, di, si + width, weights);
+            break;
+         case LUMINOSITY:
+            blendLuminosity(src, si, dst, di, si + width, weights);
+            break;
+         default:
+            throw new IllegalArgumentException("Blender not implemented for " + mode.name());
+      }
+   }
+
+   private static void blendAdd(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, Math.min(255, red(s) + red(d)), Math.min(255, green(s) + green(d)), Math.min(255, blue(s) + blue(d)), weights);
+      }
+   }
+
+   private static void blendAverage(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, (red(s) + red(d)) >> 1, (green(s) + green(d)) >> 1, (blue(s) + blue(d)) >> 1, weights);
+      }
+   }
+
+   private static void blendBlue(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      // as in BlendComposite, BLUE takes the green channel of the overlay and GREEN takes its blue channel
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, red(d), green(s), blue(d), weights);
+      }
+   }
+
+   private static void blendGreen(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, red(d), green(d), blue(s), weights);
+      }
+   }
+
+   private static void blendRed(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, red(s), green(d), blue(d), weights);
+      }
+   }
+
+   private static void blendColorBurn(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, colorBurn(red(s), red(d)), colorBurn(green(s), green(d)), colorBurn(blue(s), blue(d)), weights);
+      }
+   }
+
+   private static void blendInverseColorBurn(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, colorBurn(red(d), red(s)), colorBurn(green(d), green(s)), colorBurn(blue(d), blue(s)), weights);
+      }
+   }
+
+   private static void blendColorDodge(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, colorDodge(red(s), red(d)), colorDodge(green(s), green(d)), colorDodge(blue(s), blue(d)), weights);
+      }
+   }
+
+   private static void blendInverseColorDodge(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, colorDodge(red(d), red(s)), colorDodge(green(d), green(s)), colorDodge(blue(d), blue(s)), weights);
+      }
+   }
+
+   private static void blendDarken(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, Math.min(red(s), red(d)), Math.min(green(s), green(d)), Math.min(blue(s), blue(d)), weights);
+      }
+   }
+
+   private static void blendLighten(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, Math.max(red(s), red(d)), Math.max(green(s), green(d)), Math.max(blue(s), blue(d)), weights);
+      }
+   }
+
+   private static void blendDifference(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, Math.abs(red(d) - red(s)), Math.abs(green(d) - green(s)), Math.abs(blue(d) - blue(s)), weights);
+      }
+   }
+
+   private static void blendExclusion(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, exclusion(red(s), red(d)), exclusion(green(s), green(d)), exclusion(blue(s), blue(d)), weights);
+      }
+   }
+
+   private static void blendFreeze(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, freeze(red(s), red(d)), freeze(green(s), green(d)), freeze(blue(s), blue(d)), weights);
+      }
+   }
+
+   private static void blendHeat(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, freeze(red(d), red(s)), freeze(green(d), green(s)), freeze(blue(d), blue(s)), weights);
+      }
+   }
+
+   private static void blendGlow(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, reflect(red(d), red(s)), reflect(green(d), green(s)), reflect(blue(d), blue(s)), weights);
+      }
+   }
+
+   private static void blendReflect(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, reflect(red(s), red(d)), reflect(green(s), green(d)), reflect(blue(s), blue(d)), weights);
+      }
+   }
+
+   private static void blendHardLight(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, overlay(red(s), red(d)), overlay(green(s), green(d)), overlay(blue(s), blue(d)), weights);
+      }
+   }
+
+   private static void blendOverlay(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, overlay(red(d), red(s)), overlay(green(d), green(s)), overlay(blue(d), blue(s)), weights);
+      }
+   }
+
+   private static void blendMultiply(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, (red(s) * red(d)) >> 8, (green(s) * green(d)) >> 8, (blue(s) * blue(d)) >> 8, weights);
+      }
+   }
+
+   private static void blendScreen(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, screen(red(s), red(d)), screen(green(s), green(d)), screen(blue(s), blue(d)), weights);
+      }
+   }
+
+   private static void blendNegation(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d,
+            255 - Math.abs(255 - red(d) - red(s)),
+            255 - Math.abs(255 - green(d) - green(s)),
+            255 - Math.abs(255 - blue(d) - blue(s)),
+            weights);
+      }
+   }
+
+   private static void blendSoftBurn(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, softBurn(red(s), red(d)), softBurn(green(s), green(d)), softBurn(blue(s), blue(d)), weights);
+      }
+   }
+
+   private static void blendSoftDodge(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, softBurn(red(d), red(s)), softBurn(green(d), green(s)), softBurn(blue(d), blue(s)), weights);
+      }
+   }
+
+   private static void blendStamp(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d, stamp(red(s), red(d)), stamp(green(s), green(d)), stamp(blue(s), blue(d)), weights);
+      }
+   }
+
+   private static void blendSubtract(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mix(s, d,
+            Math.max(0, red(s) + red(d) - 256),
+            Math.max(0, green(s) + green(d) - 256),
+            Math.max(0, blue(s) + blue(d) - 256),
+            weights);
+      }
+   }
+
+   private static void blendHue(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mixHsl(s, d, hue(s), saturation(d), lightness(d), weights);
+      }
+   }
+
+   private static void blendSaturation(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mixHsl(s, d, hue(d), saturation(s), lightness(d), weights);
+      }
+   }
+
+   private static void blendColor(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mixHsl(s, d, hue(s), saturation(s), lightness(d), weights);
+      }
+   }
+
+   private static void blendLuminosity(int[] src, int si, int[] dst, int di, int end, float[] weights) {
+      for (; si < end; si++, di++) {
+         int s = src[si], d = dst[di];
+         if (s >>> 24 == 0) continue;
+         dst[di] = mixHsl(s, d, hue(d), saturation(d), lightness(s), weights);
+      }
+   }
+
+   private static int red(int argb) {
+      return (argb >> 16) & 0xFF;
+   }
+
+   private static int green(int argb) {
+      return (argb >> 8) & 0xFF;
+   }
+
+   private static int blue(int argb) {
+      return argb & 0xFF;
+   }
+
+   /**
+    * Mixes the blended colour r, g, b with the base pixel d by the weight for the overlay
+    * pixel s. The blended alpha is always the sum of the two alphas, capped at 255.
+    */
+   private static int mix(int s, int d, int r, int g, int b, float[] weights) {
+      float fa = weights[s >>> 24];
+      // an opaque overlay at full strength replaces the base with the blend, which the float
+      // mix below would also give, as d + (x - d) * 1 is exactly x
+      if (fa == 1f)
+         return 0xFF000000 | r << 16 | g << 8 | b;
+      int da = d >>> 24;
+      int dr = red(d);
+      int dg = green(d);
+      int db = blue(d);
+      int a = Math.min(255, (s >>> 24) + da);
+      return ((int) (da + (a - da) * fa) & 0xFF) << 24 |
+         ((int) (dr + (r - dr) * fa) & 0xFF) << 16 |
+         ((int) (dg + (g - dg) * fa) & 0xFF) << 8 |
+         (int) (db + (b - db) * fa) & 0xFF;
+   }
+
+   private static int mixHsl(int s, int d, float h, float sat, float l, float[] weights) {
+      int rgb = hslToRgb(h, sat, l);
+      return mix(s, d, red(rgb), green(rgb), blue(rgb), weights);
+   }
+
+   private static int colorBurn(int a, int b) {
+      return a == 0 ? 0 : Math.max(0, 255 - (((255 - b) << 8) / a));
+   }
+
+   private static int colorDodge(int a, int b) {
+      return a == 255 ? 255 : Math.min((b << 8) / (255 - a), 255);
+   }
+
+   private static int exclusion(int a, int b) {
+      return b + a - (b * a >> 7);
+   }
+
+   private static int freeze(int a, int b) {
+      return a == 0 ? 0 : Math.max(0, 255 - (255 - b) * (255 - b) / a);
+   }
+
+   private static int reflect(int a, int b) {
+      return a == 255 ? 255 : Math.min(255, b * b / (255 - a));
+   }
+
+   private static int overlay(int a, int b) {
+      return a < 128 ? b * a >> 7 : 255 - ((255 - a) * (255 - b) >> 7);
+   }
+
+   private static int screen(int a, int b) {
+      return 255 - ((255 - a) * (255 - b) >> 8);
+   }
+
+   private static int softBurn(int a, int b) {
+      return b + a < 256 ?
+         (b == 255 ? 255 : Math.min(255, (a << 7) / (255 - b))) :
+         Math.max(0, 255 - (((255 - b) << 7) / a));
+   }
+
+   private static int stamp(int a, int b) {
+      return Math.max(0, Math.min(255, b + 2 * a - 256));
+   }
+
+   // the HSL conversions below repeat BlendComposite's float arithmetic step for step, so that
+   // they round identically, but return one component at a time rather than filling an array
+
+   private static float lightness(int argb) {
+      float r = red(argb) / 255f;
+      float g = green(argb) / 255f;
+      float b = blue(argb) / 255f;
+      return (max(r, g, b) + min(r, g, b)) / 2f;
+   }
+
+   private static float saturation(int argb) {
+      float r = red(argb) / 255f;
+      float g = green(argb) / 255f;
+      float b = blue(argb) / 255f;
+      float max = max(r, g, b);
+      float min = min(r, g, b);
+      float delta = max - min;
+      if (delta - 0.01f <= 0.0f)
+         return 0;
+      return (max + min) / 2f < 0.5f ? delta / (max + min) : delta / (2 - max - min);
+   }
+
+   private static float hue(int argb) {
+      float r = red(argb) / 255f;
+      float g = green(argb) / 255f;
+      float b = blue(argb) / 255f;
+      float max = max(r, g, b);
+      float min = min(r, g, b);
+      float delta = max - min;
+      if (delta - 0.01f <= 0.0f)
+         return 0;
+      float deltaR = (((max - r) / 6f) + (delta / 2f)) / delta;
+      float deltaG = (((max - g) / 6f) + (delta / 2f)) / delta;
+      float deltaB = (((max - b) / 6f) + (delta / 2f)) / delta;
+      float h;
+      if (r == max) {
+         h = deltaB - deltaG;
+      } else if (g == max) {
+         h = (1 / 3f) + deltaR - deltaB;
+      } else {
+         h = (2 / 3f) + deltaG - deltaR;
+      }
+      if (h < 0) h += 1;
+      if (h > 1) h -= 1;
+      return h;
+   }
+
+   // plain comparisons rather than Math.max and Math.min, which also order -0 and NaN
+   // and are not intrinsics on every JVM; neither can occur here
+
+   private static float max(float r, float g, float b) {
+      float max = r > g ? r : g;
+      return b > max ? b : max;
+   }
+
+   private static float min(float r, float g, float b) {
+      float min = r > g ? g : r;
+      return b < min ? b : min;
+   }
+
+   /**
+    * Returns the packed RGB of the given HSL colour. Each channel is in [0, 255].
+    */
+   private static int hslToRgb(float h, float s, float l) {
+      if (s - 0.01f <= 0.0f) {
+         int grey = (int) (l * 255.0f);
+         return grey << 16 | grey << 8 | grey;
+      }
+      float v2 = l < 0.5f ? l * (1 + s) : (l + s) - (s * l);
+      float v1 = 2 * l - v2;
+      return hueToChannel(v1, v2, h + (1.0f / 3.0f)) << 16 |
+         hueToChannel(v1, v2, h) << 8 |
+         hueToChannel(v1, v2, h - (1.0f / 3.0f));
+   }
+
+   private static int hueToChannel(float v1, float v2, float h) {
+      if (h < 0.0f) h += 1.0f;
+      if (h > 1.0f) h -= 1.0f;
+      if ((6.0f * h) < 1.0f) return (int) (255.0f * (v1 + (v2 - v1) * 6.0f * h));
+      if ((2.0f * h) < 1.0f) return (int) (255.0f * v2);
+      if ((3.0f * h) < 2.0f) return (int) (255.0f * (v1 + (v2 - v1) * ((2.0f / 3.0f) - h) * 6.0f));
+      return (int) (255.0f * v1);
+   }
+}
@@ -0,0 +1,67 @@
+package com.sksamuel.scrimage.filter;
+
+import com.sksamuel.scrimage.ImmutableImage;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Applies a sequence of point-wise filters in a single pass over the pixels, passing each
+ * pixel through every filter's op in turn.
+ */
+final class FusedPointwiseFilter implements PointwiseFilter {
+
+   private final PointwiseFilter[] filters;
+
+   FusedPointwiseFilter(List<PointwiseFilter> filters) {
+      this.filters = filters.toArray(new PointwiseFilter[0]);
+   }
+
+   @Override
+   public IntUnaryOperator argbOp() {
+      IntUnaryOperator op = IntUnaryOperator.identity();
+      for (PointwiseFilter filter : filters) {
+         op = op.andThen(filter.argbOp());
+      }
+      return op;
+   }
+
+   @Override
+   public void apply(ImmutableImage image) throws IOException {
+      // Applied one at a time, each filter reads back what the previous one stored, so a single
+      // pass only gives the same result when the image stores 8 bit ARGB values exactly.
+      if (!storesArgbExactly(image.getType())) {
+         for (PointwiseFilter filter : filters) {
+            filter.apply(image);
+         }
+         return;
+      }
+      IntUnaryOperator[] ops = new IntUnaryOperator[filters.length];
+      for (int i = 0; i < filters.length; i++) {
+         ops[i] = filters[i].argbOp();
+      }
+      // an image without alpha would have stored each intermediate pixel as opaque
+      int opaque = image.awt().getColorModel().hasAlpha() ? 0 : 0xFF000000;
+      image.mapArgbInPlace((x, y, argb) -> {
+         for (IntUnaryOperator op : ops) {
+            argb = op.applyAsInt(argb) | opaque;
+         }
+         return argb;
+      });
+   }
+
+   private static boolean storesArgbExactly(int type) {
+      switch (type) {
+         case BufferedImage.TYPE_INT_ARGB:
+         case BufferedImage.TYPE_INT_RGB:
+         case BufferedImage.TYPE_INT_BGR:
+         case BufferedImage.TYPE_3BYTE_BGR:
+         case BufferedImage.TYPE_4BYTE_ABGR:
+            return true;
+         default:
+            return false;
+      }
+   }
+}
@@ -4,10 +4,16 @@ import com.sksamuel.scrimage.ImmutableImage;
 
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * A filter that just applies one or more filters in sequence.
+ *
+ * Consecutive {@link PointwiseFilter}s are applied together in a single pass
+ * over the pixels, so only the other filters, which read neighbouring pixels
+ * or otherwise need the whole image, cost a pass of their own.
  */
 public class PipelineFilter implements Filter {
 
@@ -36,8 +42,41 @@ public class PipelineFilter implements Filter {
 
    @Override
    public void apply(ImmutableImage image) throws IOException {
-      for (Filter filter : filters) {
+      for (Filter filter : fuse(filters)) {
          filter.apply(image);
       }
    }
+
+   /**
+    * Returns the given filters with each run of two or more consecutive {@link PointwiseFilter}s
+    * that accept any image type replaced by a single filter, which applies the whole run in one
+    * pass over the pixels. Applying the returned filters in turn gives the same result as
+    * applying the given filters in turn.
+    *
+    * @param filters the filters to fuse, in the order they are applied
+    * @return the fused filters, in the order they should be applied
+    */
+   public static List<Filter> fuse(Collection<? extends Filter> filters) {
+      List<Filter> fused = new ArrayList<>();
+      List<PointwiseFilter> run = new ArrayList<>();
+      for (Filter filter : filters) {
+         if (filter instanceof PointwiseFilter && filter.types().length == 0) {
+            run.add((PointwiseFilter) filter);
+         } else {
+            endRun(run, fused);
+            fused.add(filter);
+         }
+      }
+      endRun(run, fused);
+      return fused;
+   }
+
+   private static void endRun(List<PointwiseFilter> run, List<Filter> fused) {
+      if (run.size() == 1) {
+         fused.add(run.get(0));
+      } else if (run.size() > 1) {
+         fused.add(new FusedPointwiseFilter(run));
+      }
+      run.clear();
+   }
 }
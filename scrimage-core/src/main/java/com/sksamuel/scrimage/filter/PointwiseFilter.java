@@ -0,0 +1,32 @@
+package com.sksamuel.scrimage.filter;
+
+import com.sksamuel.scrimage.ImmutableImage;
+
+import java.io.IOException;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A filter which sets every pixel from that pixel's own value alone, without regard to its
+ * position or to any other pixel, such as a brightness, gamma or colour adjustment.
+ * <p>
+ * Such a filter exposes the function it applies to each pixel, so that a run of them can
+ * be applied together in a single pass over the image, rather than one pass each.
+ * See {@link PipelineFilter#fuse(java.util.Collection)}.
+ */
+public interface PointwiseFilter extends Filter {
+
+   /**
+    * Returns the function this filter applies to each pixel, from the pixel's
+    * non-premultiplied ARGB value to its new ARGB value.
+    * <p>
+    * The returned function is used on a single thread, so it may keep state between calls;
+    * call this method again for each thread.
+    */
+   IntUnaryOperator argbOp();
+
+   @Override
+   default void apply(ImmutableImage image) throws IOException {
+      IntUnaryOperator op = argbOp();
+      image.mapArgbInPlace((x, y, argb) -> op.applyAsInt(argb));
+   }
+}
@@ -1,5 +1,5 @@
 package com.sksamuel.scrimage.format;
 
 public enum Format {
-    PNG, GIF, JPEG, WEBP
+    PNG, GIF, JPEG, WEBP, TIFF
 }
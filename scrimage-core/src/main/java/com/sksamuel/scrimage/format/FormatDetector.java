@@ -2,6 +2,7 @@ package com.sksamuel.scrimage.format;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Optional;
 
@@ -15,6 +16,9 @@ public class FormatDetector {
     // see webp spec https://developers.google.com/speed/webp/docs/riff_container
     private static byte[] webp1 = new byte[]{'R', 'I', 'F', 'F'};
     private static byte[] webp2 = new byte[]{'W', 'E', 'B', 'P'};
+    // TIFF header: byte order mark followed by the magic number 42 in that byte order
+    private static byte[] tiff1 = new byte[]{'I', 'I', 0x2A, 0x00};
+    private static byte[] tiff2 = new byte[]{'M', 'M', 0x00, 0x2A};
 
     public static Optional<Format> detect(InputStream in) throws IOException {
         // InputStream.read(byte[], int, int) is documented as "an attempt is
@@ -28,12 +32,23 @@ public class FormatDetector {
         return detect(bytes);
     }
 
+    /**
+     * Detects the format from the first bytes remaining in the buffer, without moving its position.
+     */
+    public static Optional<Format> detect(ByteBuffer buffer) {
+        byte[] bytes = new byte[Math.min(12, buffer.remaining())];
+        buffer.duplicate().get(bytes);
+        return detect(bytes);
+    }
+
     public static Optional<Format> detect(byte[] bytes) {
         if (startsWith(bytes, gif)) return Optional.of(Format.GIF);
         if (startsWith(bytes, png)) return Optional.of(Format.PNG);
         if (startsWith(bytes, jpeg1)) return Optional.of(Format.JPEG);
         if (startsWith(bytes, jpeg2)) return Optional.of(Format.JPEG);
         if (isWebp(bytes)) return Optional.of(Format.WEBP);
+        if (startsWith(bytes, tiff1)) return Optional.of(Format.TIFF);
+        if (startsWith(bytes, tiff2)) return Optional.of(Format.TIFF);
         return Optional.empty();
     }
 
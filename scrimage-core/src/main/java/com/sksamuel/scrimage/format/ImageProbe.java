@@ -0,0 +1,443 @@
+package com.sksamuel.scrimage.format;
+
+import com.sksamuel.scrimage.metadata.Orientation;
+import com.sksamuel.scrimage.metadata.OrientationTools;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The header of an encoded image: its format, dimensions, bit depth, alpha, frame count and
+ * EXIF orientation, read without decoding any pixels. Use it to reject or route images by size
+ * before paying for a decode.
+ * <p>
+ * The dimensions come from the PNG IHDR chunk, the JPEG SOFn segment, the GIF logical screen
+ * descriptor, the WebP VP8, VP8L or VP8X chunk, or the first TIFF IFD. They are the dimensions
+ * as stored, before any EXIF orientation is applied.
+ * <p>
+ * When probing a stream or channel, only the first {@value #INITIAL_READ} bytes are read, unless
+ * the header lies further in, for example behind large JPEG APPn segments, in which case more
+ * bytes are read, up to {@value #MAX_READ} in all. The bytes read are consumed. Frames are
+ * counted only within the bytes that were read, so the frame count of any GIF, still or animated,
+ * that is larger than the initial read, and of an animated WebP, is {@link #UNKNOWN_FRAME_COUNT}
+ * unless the whole image was available.
+ */
+public class ImageProbe {
+
+    /**
+     * The frame count of an animated image whose frames could not all be counted from the bytes
+     * that were read.
+     */
+    public static final int UNKNOWN_FRAME_COUNT = -1;
+
+    static final int INITIAL_READ = 4 * 1024;
+    static final int MAX_READ = 1024 * 1024;
+
+    private static final int PNG_IHDR = 0x49484452;
+    private static final int PNG_IDAT = 0x49444154;
+    private static final int PNG_IEND = 0x49454E44;
+    private static final int PNG_ACTL = 0x6163544C;
+    private static final int PNG_TRNS = 0x74524E53;
+    private static final int WEBP_VP8 = 0x56503820;
+    private static final int WEBP_VP8L = 0x5650384C;
+    private static final int WEBP_VP8X = 0x56503858;
+    private static final int WEBP_ANMF = 0x414E4D46;
+
+    private final Format format;
+    private final int width;
+    private final int height;
+    private final int bitDepth;
+    private final boolean alpha;
+    private final int frameCount;
+    private final Orientation orientation;
+
+    public ImageProbe(Format format, int width, int height, int bitDepth, boolean alpha, int frameCount, Orientation orientation) {
+        this.format = format;
+        this.width = width;
+        this.height = height;
+        this.bitDepth = bitDepth;
+        this.alpha = alpha;
+        this.frameCount = frameCount;
+        this.orientation = orientation;
+    }
+
+    /**
+     * Probes the image at the start of the stream, reading only as much of it as the header
+     * requires. The stream is not closed.
+     *
+     * @return the probe, or empty if the format is not recognised or the header is malformed
+     */
+    public static Optional<ImageProbe> probe(InputStream in) throws IOException {
+        byte[] bytes = new byte[INITIAL_READ];
+        int length = in.readNBytes(bytes, 0, bytes.length);
+        while (true) {
+            boolean complete = length < bytes.length || bytes.length == MAX_READ;
+            try {
+                return probe(ByteBuffer.wrap(bytes, 0, length), complete);
+            } catch (IndexOutOfBoundsException e) {
+                // the header runs past the bytes read so far
+                if (complete) return Optional.empty();
+                bytes = Arrays.copyOf(bytes, Math.min(MAX_READ, bytes.length * 2));
+                length += in.readNBytes(bytes, length, bytes.length - length);
+            }
+        }
+    }
+
+    /**
+     * Probes the image at the channel's position, reading only as much of it as the header
+     * requires. The channel is not closed.
+     *
+     * @return the probe, or empty if the format is not recognised or the header is malformed
+     */
+    public static Optional<ImageProbe> probe(ReadableByteChannel channel) throws IOException {
+        // the stream reads no more from the channel than it is asked for
+        return probe(Channels.newInputStream(channel));
+    }
+
+    /**
+     * Probes the image that starts at the buffer's position, without moving it.
+     *
+     * @return the probe, or empty if the format is not recognised or the header is malformed
+     */
+    public static Optional<ImageProbe> probe(ByteBuffer buffer) {
+        try {
+            return probe(buffer.slice(), true);
+        } catch (IndexOutOfBoundsException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Probes the image in the given bytes.
+     *
+     * @return the probe, or empty if the format is not recognised or the header is malformed
+     */
+    public static Optional<ImageProbe> probe(byte[] bytes) {
+        return probe(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Parses the header from the buffer, which starts at the image and may hold only its first
+     * bytes. Throws IndexOutOfBoundsException if the header runs past the end of the buffer,
+     * unless the buffer is complete, in which case the parts that could not be read take their
+     * defaults.
+     */
+    private static Optional<ImageProbe> probe(ByteBuffer buffer, boolean complete) {
+        ByteBuffer b = buffer.order(ByteOrder.BIG_ENDIAN);
+        byte[] magic = new byte[Math.min(12, b.limit())];
+        b.duplicate().get(magic);
+        Optional<Format> format = FormatDetector.detect(magic);
+        if (!format.isPresent())
+            return Optional.empty();
+        Orientation orientation = OrientationTools.scanOrientation(b).orElse(null);
+        switch (format.get()) {
+            case PNG:
+                return png(b, complete, orientation);
+            case JPEG:
+                return jpeg(b, orientation);
+            case GIF:
+                return gif(b, complete);
+            case WEBP:
+                return webp(b, orientation);
+            default:
+                return tiff(b, orientation);
+        }
+    }
+
+    private static Optional<ImageProbe> png(ByteBuffer b, boolean complete, Orientation orientation) {
+        if (b.getInt(12) != PNG_IHDR)
+            return Optional.empty();
+        int width = b.getInt(16);
+        int height = b.getInt(20);
+        int bitDepth = u8(b, 24);
+        int colorType = u8(b, 25);
+        boolean alpha = colorType == 4 || colorType == 6;
+        int frames = 1;
+        // an APNG declares its frame count, and a tRNS chunk adds alpha, ahead of the image data
+        try {
+            long p = 8;
+            while (true) {
+                long length = u32(b, (int) p);
+                int type = b.getInt((int) p + 4);
+                if (type == PNG_IDAT || type == PNG_IEND)
+                    break;
+                if (type == PNG_ACTL)
+                    frames = b.getInt((int) p + 8);
+                if (type == PNG_TRNS)
+                    alpha = true;
+                p += 12 + length;
+            }
+        } catch (IndexOutOfBoundsException e) {
+            if (!complete) throw e;
+        }
+        return Optional.of(new ImageProbe(Format.PNG, width, height, bitDepth, alpha, frames, orientation));
+    }
+
+    private static Optional<ImageProbe> jpeg(ByteBuffer b, Orientation orientation) {
+        int p = 2;
+        while (true) {
+            if (u8(b, p) != 0xFF)
+                return Optional.empty();
+            int marker = u8(b, p + 1);
+            if (marker == 0xFF) { // fill byte
+                p++;
+                continue;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD8)) { // standalone markers
+                p += 2;
+                continue;
+            }
+            if (marker == 0xDA || marker == 0xD9) // start of scan or end of image before any frame
+                return Optional.empty();
+            // SOF0 to SOF15, except DHT, JPG and DAC which share the range
+            if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+                int precision = u8(b, p + 4);
+                int height = u16(b, p + 5);
+                int width = u16(b, p + 7);
+                return Optional.of(new ImageProbe(Format.JPEG, width, height, precision, false, 1, orientation));
+            }
+            p += 2 + u16(b, p + 2);
+        }
+    }
+
+    private static Optional<ImageProbe> gif(ByteBuffer b, boolean complete) {
+        ByteBuffer le = b.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int width = u16(le, 6);
+        int height = u16(le, 8);
+        int packed = u8(b, 10);
+        int bitDepth = ((packed >> 4) & 7) + 1; // the color resolution
+        int p = 13 + ((packed & 0x80) != 0 ? 3 * (2 << (packed & 7)) : 0);
+        boolean alpha = false;
+        int frames = 0;
+        // the graphic control extension ahead of the first image says whether it is transparent,
+        // so the walk needs at least that far; beyond it, frames are counted while bytes remain
+        try {
+            while (true) {
+                int block = u8(b, p);
+                if (block == 0x21) {
+                    if (frames == 0 && u8(b, p + 1) == 0xF9)
+                        alpha = (u8(b, p + 3) & 1) != 0;
+                    p = skipSubBlocks(b, p + 2);
+                } else if (block == 0x2C) {
+                    frames++;
+                    int local = u8(b, p + 9);
+                    p += 10 + ((local & 0x80) != 0 ? 3 * (2 << (local & 7)) : 0);
+                    p = skipSubBlocks(b, p + 1); // after the LZW minimum code size
+                } else if (block == 0x3B) {
+                    break;
+                } else {
+                    // not a block we know, so the frames cannot be counted
+                    if (frames == 0) return Optional.empty();
+                    frames = UNKNOWN_FRAME_COUNT;
+                    break;
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            if (frames == 0 && !complete) throw e;
+            frames = UNKNOWN_FRAME_COUNT;
+        }
+        // GIF has no EXIF block
+        return Optional.of(new ImageProbe(Format.GIF, width, height, bitDepth, alpha, frames, null));
+    }
+
+    private static int skipSubBlocks(ByteBuffer b, int p) {
+        int size;
+        while ((size = u8(b, p)) != 0)
+            p += size + 1;
+        return p + 1;
+    }
+
+    private static Optional<ImageProbe> webp(ByteBuffer b, Orientation orientation) {
+        ByteBuffer le = b.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int chunk = b.getInt(12);
+        if (chunk == WEBP_VP8) {
+            // a key frame: a 3 byte frame tag and a 3 byte start code, then 14 bit dimensions
+            if (u8(b, 23) != 0x9D || u8(b, 24) != 0x01 || u8(b, 25) != 0x2A)
+                return Optional.empty();
+            int width = u16(le, 26) & 0x3FFF;
+            int height = u16(le, 28) & 0x3FFF;
+            return Optional.of(new ImageProbe(Format.WEBP, width, height, 8, false, 1, orientation));
+        }
+        if (chunk == WEBP_VP8L) {
+            if (u8(b, 20) != 0x2F)
+                return Optional.empty();
+            int bits = le.getInt(21);
+            int width = (bits & 0x3FFF) + 1;
+            int height = ((bits >> 14) & 0x3FFF) + 1;
+            boolean alpha = ((bits >> 28) & 1) != 0;
+            return Optional.of(new ImageProbe(Format.WEBP, width, height, 8, alpha, 1, orientation));
+        }
+        if (chunk == WEBP_VP8X) {
+            int flags = u8(b, 20);
+            int width = 1 + u24(le, 24);
+            int height = 1 + u24(le, 27);
+            boolean alpha = (flags & 0x10) != 0;
+            int frames = 1;
+            if ((flags & 0x02) != 0) {
+                // count the ANMF chunks, if the whole RIFF payload was read
+                long end = 8 + u32(le, 4);
+                long p = 12;
+                frames = 0;
+                while (p + 8 <= Math.min(end, le.limit())) {
+                    if (b.getInt((int) p) == WEBP_ANMF)
+                        frames++;
+                    long size = u32(le, (int) p + 4);
+                    p += 8 + size + (size & 1);
+                }
+                if (p < end)
+                    frames = UNKNOWN_FRAME_COUNT;
+            }
+            return Optional.of(new ImageProbe(Format.WEBP, width, height, 8, alpha, frames, orientation));
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<ImageProbe> tiff(ByteBuffer buffer, Orientation orientation) {
+        ByteBuffer b = buffer.duplicate().order(u16(buffer, 0) == 0x4949 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        long ifd = u32(b, 4);
+        int entries = u16(b, (int) ifd);
+        int width = -1;
+        int height = -1;
+        int bitDepth = 1;
+        boolean alpha = false;
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + 12 * i;
+            int tag = u16(b, entry);
+            int type = u16(b, entry + 2);
+            long count = u32(b, entry + 4);
+            // SHORT values are left justified in the value field, LONG values fill it
+            int value = type == 3 ? u16(b, entry + 8) : (int) u32(b, entry + 8);
+            if (tag == 256)
+                width = value;
+            else if (tag == 257)
+                height = value;
+            else if (tag == 258)
+                bitDepth = count > 2 ? u16(b, (int) u32(b, entry + 8)) : value;
+            else if (tag == 338)
+                alpha = count <= 2 && (value == 1 || value == 2); // associated or unassociated alpha
+        }
+        if (width < 0 || height < 0)
+            return Optional.empty();
+        // each page is an IFD, and the IFDs form a chain, which is followed as far as it was read
+        int frames = 1;
+        try {
+            long next = u32(b, (int) ifd + 2 + 12 * entries);
+            while (next != 0) {
+                if (++frames > 65535) // more pages than a TIFF can hold: the chain has a cycle
+                    return Optional.of(new ImageProbe(Format.TIFF, width, height, bitDepth, alpha, UNKNOWN_FRAME_COUNT, orientation));
+                next = u32(b, (int) next + 2 + 12 * u16(b, (int) next));
+            }
+        } catch (IndexOutOfBoundsException e) {
+            frames = UNKNOWN_FRAME_COUNT;
+        }
+        return Optional.of(new ImageProbe(Format.TIFF, width, height, bitDepth, alpha, frames, orientation));
+    }
+
+    private static int u8(ByteBuffer b, int p) {
+        return b.get(p) & 0xFF;
+    }
+
+    private static int u16(ByteBuffer b, int p) {
+        return b.getShort(p) & 0xFFFF;
+    }
+
+    private static int u24(ByteBuffer b, int p) {
+        return u16(b, p) | u8(b, p + 2) << 16;
+    }
+
+    private static long u32(ByteBuffer b, int p) {
+        return Integer.toUnsignedLong(b.getInt(p));
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the bits per sample: the bit depth of a PNG, which for a paletted PNG is the size
+     * of the palette index, the sample precision of a JPEG, the color resolution of a GIF, the
+     * first BitsPerSample of a TIFF, or 8 for a WebP.
+     */
+    public int getBitDepth() {
+        return bitDepth;
+    }
+
+    /**
+     * Returns true if the header declares an alpha channel or transparency.
+     */
+    public boolean hasAlpha() {
+        return alpha;
+    }
+
+    /**
+     * Returns the number of frames, which is 1 for still images, or {@link #UNKNOWN_FRAME_COUNT}
+     * if the frames could not all be counted. A GIF probed from a stream or channel whose frames
+     * lie beyond the bytes read reports {@link #UNKNOWN_FRAME_COUNT} even when it is a still image.
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Returns the EXIF orientation, or empty if the image has none or it lies beyond the bytes
+     * that were read.
+     */
+    public Optional<Orientation> getOrientation() {
+        return Optional.ofNullable(orientation);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ImageProbe probe = (ImageProbe) o;
+
+        if (width != probe.width) return false;
+        if (height != probe.height) return false;
+        if (bitDepth != probe.bitDepth) return false;
+        if (alpha != probe.alpha) return false;
+        if (frameCount != probe.frameCount) return false;
+        if (format != probe.format) return false;
+        return orientation == probe.orientation;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = format.hashCode();
+        result = 31 * result + width;
+        result = 31 * result + height;
+        result = 31 * result + bitDepth;
+        result = 31 * result + (alpha ? 1 : 0);
+        result = 31 * result + frameCount;
+        result = 31 * result + (orientation != null ? orientation.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ImageProbe{" +
+            "format=" + format +
+            ", width=" + width +
+            ", height=" + height +
+            ", bitDepth=" + bitDepth +
+            ", alpha=" + alpha +
+            ", frameCount=" + frameCount +
+            ", orientation=" + orientation +
+            '}';
+    }
+}
@@ -0,0 +1,101 @@
+package com.sksamuel.scrimage.internal;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+
+/**
+ * Splits the rows of an image into contiguous stripes which are processed concurrently on the
+ * common ForkJoinPool, for per pixel operations where every output pixel depends only on the
+ * corresponding input pixel. Such operations give identical results however the rows are split.
+ * <p>
+ * Small images are not worth the hand off, so each stripe covers at least {@link #MIN_STRIPE_PIXELS}
+ * pixels, and an image with fewer than twice that many is processed on the calling thread.
+ * <p>
+ * This class is internal to scrimage and is public only so that its other packages and modules can
+ * share it. It is not part of the public API and may change without notice.
+ */
+public final class RowStripes {
+
+   /**
+    * The minimum number of pixels in a stripe.
+    */
+   static final int MIN_STRIPE_PIXELS = 1 << 15;
+
+   public interface Rows {
+      void process(int startY, int endY);
+   }
+
+   private RowStripes() {
+   }
+
+   /**
+    * Processes rows [0, height) in at most parallelism stripes, running all but the last
+    * stripe on the common ForkJoinPool and the last stripe on the calling thread.
+    */
+   public static void run(int width, int height, int parallelism, Rows rows) {
+      inStripes(height, stripes(width, height, parallelism), ForkJoinPool.commonPool(), rows);
+   }
+
+   /**
+    * Processes rows [0, height) in exactly the given number of contiguous stripes, running all
+    * but the last stripe on the executor and the last stripe on the calling thread.
+    * See {@link #inStripes(int, Executor, IntConsumer)}.
+    */
+   public static void inStripes(int height, int stripes, Executor executor, Rows rows) {
+      inStripes(stripes, executor, stripe -> rows.process(start(height, stripes, stripe), start(height, stripes, stripe + 1)));
+   }
+
+   /**
+    * Calls the given consumer with each stripe index in [0, stripes), running all but the last
+    * stripe on the executor and the last stripe on the calling thread. One stripe or fewer is
+    * processed on the calling thread alone.
+    * <p>
+    * Every stripe has finished by the time this returns or throws, so no stripe is still writing
+    * once a failure reaches the caller. A failure on the calling thread takes precedence over
+    * failures on the executor.
+    */
+   public static void inStripes(int stripes, Executor executor, IntConsumer stripe) {
+      if (stripes <= 1) {
+         stripe.accept(0);
+         return;
+      }
+      CompletableFuture<?>[] futures = new CompletableFuture<?>[stripes - 1];
+      for (int i = 0; i < stripes - 1; i++) {
+         final int index = i;
+         futures[i] = CompletableFuture.runAsync(() -> stripe.accept(index), executor);
+      }
+      boolean processed = false;
+      try {
+         stripe.accept(stripes - 1);
+         processed = true;
+      } finally {
+         try {
+            CompletableFuture.allOf(futures).join();
+         } catch (CompletionException e) {
+            // a failure on the calling thread is already propagating
+            if (processed) {
+               if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+               if (e.getCause() instanceof Error) throw (Error) e.getCause();
+               throw e;
+            }
+         }
+      }
+   }
+
+   /**
+    * Returns the first row of the given stripe, when height rows are split into the given
+    * number of stripes. Stripe indexes run from 0 to stripes, where the start of the stripe
+    * one past the last is height.
+    */
+   public static int start(int height, int stripes, int stripe) {
+      return (int) ((long) height * stripe / stripes);
+   }
+
+   static int stripes(int width, int height, int parallelism) {
+      long pixels = (long) width * height;
+      return (int) Math.max(1, Math.min(Math.min(parallelism, height), pixels / MIN_STRIPE_PIXELS));
+   }
+}
@@ -0,0 +1,186 @@
+package com.sksamuel.scrimage.metadata;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Locates the EXIF orientation tag by walking just the container structure of an encoded image:
+ * the JPEG marker segments up to the first scan, the PNG chunk list, or the WebP RIFF chunks.
+ * Only the first IFD of the EXIF block is inspected, which is where metadata-extractor's
+ * "Exif IFD0" directory, and so {@link ImageMetadata#getOrientation()}, takes the tag from.
+ * <p>
+ * The scan never decodes pixel data and never allocates per tag. When the structure is
+ * anything other than what it expects, it answers {@link #UNKNOWN} so the caller can fall
+ * back to a full metadata parse.
+ */
+final class ExifOrientationScanner {
+
+   /**
+    * The orientation could not be determined without a full parse.
+    */
+   static final int UNKNOWN = -1;
+
+   /**
+    * The image definitely carries no EXIF orientation tag.
+    */
+   static final int ABSENT = -2;
+
+   private static final int ORIENTATION_TAG = 0x0112;
+   private static final int TIFF_SHORT = 3;
+   private static final int TIFF_LONG = 4;
+
+   private static final int PNG_EXIF = 0x65584966; // eXIf
+   private static final int PNG_IEND = 0x49454E44;
+   private static final int PNG_TEXT = 0x74455874; // tEXt
+   private static final int PNG_ZTXT = 0x7A545874; // zTXt
+   private static final int PNG_ITXT = 0x69545874; // iTXt
+   private static final int WEBP_EXIF = 0x45584946; // EXIF
+
+   private ExifOrientationScanner() {
+   }
+
+   /**
+    * Returns the raw value of the orientation tag, or {@link #ABSENT} or {@link #UNKNOWN}.
+    * The buffer's position and limit are not modified.
+    */
+   static int scan(ByteBuffer buffer) {
+      ByteBuffer b = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+      try {
+         if (b.limit() >= 3 && u8(b, 0) == 0xFF && u8(b, 1) == 0xD8 && u8(b, 2) == 0xFF)
+            return scanJpeg(b);
+         if (b.limit() >= 8 && b.getInt(0) == 0x89504E47 && b.getInt(4) == 0x0D0A1A0A)
+            return scanPng(b);
+         if (b.limit() >= 12 && b.getInt(0) == 0x52494646 && b.getInt(8) == 0x57454250)
+            return scanWebp(b);
+         if (b.limit() >= 4 && (b.getInt(0) == 0x49492A00 || b.getInt(0) == 0x4D4D002A))
+            return readIfd0(b, 0, b.limit());
+         if (b.limit() >= 4 && b.getInt(0) == 0x47494638) // GIF8, which has no EXIF block
+            return ABSENT;
+         return UNKNOWN;
+      } catch (IndexOutOfBoundsException e) {
+         // an offset or length pointing outside the buffer: truncated or malformed
+         return UNKNOWN;
+      }
+   }
+
+   private static int scanJpeg(ByteBuffer b) {
+      int p = 2;
+      while (p + 4 <= b.limit()) {
+         if (u8(b, p) != 0xFF)
+            return UNKNOWN;
+         int marker = u8(b, p + 1);
+         if (marker == 0xFF) { // fill byte
+            p++;
+            continue;
+         }
+         if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD8)) { // standalone markers
+            p += 2;
+            continue;
+         }
+         if (marker == 0xDA || marker == 0xD9) // start of scan or end of image: no EXIF before it
+            return ABSENT;
+         int length = u16(b, p + 2);
+         if (length < 2)
+            return UNKNOWN;
+         if (marker == 0xE1 && length >= 8 && isExifHeader(b, p + 4))
+            return readIfd0(b, p + 10, p + 2 + length);
+         p += 2 + length;
+      }
+      return UNKNOWN;
+   }
+
+   private static int scanPng(ByteBuffer b) {
+      boolean textExif = false;
+      long p = 8;
+      while (p + 8 <= b.limit()) {
+         long length = u32(b, (int) p);
+         int type = b.getInt((int) p + 4);
+         int data = (int) p + 8;
+         if (type == PNG_EXIF) {
+            int start = isExifHeader(b, data) ? data + 6 : data;
+            return readIfd0(b, start, (int) Math.min(b.limit(), data + length));
+         }
+         if (type == PNG_IEND)
+            break;
+         // ImageMagick stores EXIF as a hex encoded "Raw profile type exif" text chunk, which
+         // metadata-extractor decodes. Leave those to the full parse.
+         if ((type == PNG_TEXT || type == PNG_ZTXT || type == PNG_ITXT) && keywordMentionsExif(b, data, length))
+            textExif = true;
+         p = data + length + 4;
+      }
+      return textExif ? UNKNOWN : ABSENT;
+   }
+
+   private static int scanWebp(ByteBuffer b) {
+      long p = 12;
+      while (p + 8 <= b.limit()) {
+         int fourcc = b.getInt((int) p);
+         long size = Integer.toUnsignedLong(Integer.reverseBytes(b.getInt((int) p + 4))); // little endian
+         int data = (int) p + 8;
+         if (fourcc == WEBP_EXIF) {
+            int start = isExifHeader(b, data) ? data + 6 : data;
+            return readIfd0(b, start, (int) Math.min(b.limit(), data + size));
+         }
+         p = data + size + (size & 1);
+      }
+      return ABSENT;
+   }
+
+   // reads the orientation entry from the first IFD of the TIFF structure at [start, end)
+   private static int readIfd0(ByteBuffer buffer, int start, int end) {
+      ByteBuffer b = buffer.duplicate();
+      int byteOrder = u16(b, start);
+      if (byteOrder == 0x4949)
+         b.order(ByteOrder.LITTLE_ENDIAN);
+      else if (byteOrder == 0x4D4D)
+         b.order(ByteOrder.BIG_ENDIAN);
+      else
+         return UNKNOWN;
+      if (u16(b, start + 2) != 42)
+         return UNKNOWN;
+      long ifd = start + u32(b, start + 4);
+      if (ifd + 2 > end)
+         return UNKNOWN;
+      int entries = u16(b, (int) ifd);
+      if (ifd + 2 + 12L * entries > end)
+         return UNKNOWN;
+      for (int i = 0; i < entries; i++) {
+         int entry = (int) ifd + 2 + 12 * i;
+         if (u16(b, entry) == ORIENTATION_TAG) {
+            int type = u16(b, entry + 2);
+            if (type == TIFF_SHORT)
+               return u16(b, entry + 8);
+            if (type == TIFF_LONG && u32(b, entry + 8) <= Integer.MAX_VALUE)
+               return (int) u32(b, entry + 8);
+            return UNKNOWN;
+         }
+      }
+      return ABSENT;
+   }
+
+   private static boolean isExifHeader(ByteBuffer b, int p) {
+      return p + 6 <= b.limit() &&
+         b.get(p) == 'E' && b.get(p + 1) == 'x' && b.get(p + 2) == 'i' && b.get(p + 3) == 'f' &&
+         b.get(p + 4) == 0 && b.get(p + 5) == 0;
+   }
+
+   private static boolean keywordMentionsExif(ByteBuffer b, int data, long length) {
+      // PNG keywords are 1-79 latin-1 characters terminated by a null byte
+      StringBuilder keyword = new StringBuilder();
+      for (int i = 0; i < Math.min(length, 80) && data + i < b.limit() && b.get(data + i) != 0; i++)
+         keyword.append((char) (b.get(data + i) & 0xFF));
+      return keyword.toString().toLowerCase().contains("exif");
+   }
+
+   private static int u8(ByteBuffer b, int p) {
+      return b.get(p) & 0xFF;
+   }
+
+   private static int u16(ByteBuffer b, int p) {
+      return b.getShort(p) & 0xFFFF;
+   }
+
+   private static long u32(ByteBuffer b, int p) {
+      return Integer.toUnsignedLong(b.getInt(p));
+   }
+}
@@ -4,15 +4,19 @@ import com.drew.imaging.ImageMetadataReader;
 import com.drew.imaging.ImageProcessingException;
 import com.drew.metadata.Metadata;
 import com.sksamuel.scrimage.ImmutableImage;
+import com.sksamuel.scrimage.nio.ByteArrayImageSource;
+import com.sksamuel.scrimage.nio.CachedImageSource;
+import com.sksamuel.scrimage.nio.FileImageSource;
 import com.sksamuel.scrimage.nio.ImageSource;
 import com.sksamuel.scrimage.nio.InputStreamImageSource;
 import com.sksamuel.scrimage.nio.PngWriter;
+import com.sksamuel.scrimage.nio.SeekableImageSource;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Optional;
@@ -23,9 +27,27 @@ public class ImageMetadata {
 
    public static ImageMetadata empty = new ImageMetadata(new Directory[0]);
 
+   /**
+    * Returns metadata for the given source that is only parsed when its directories or tags are
+    * first inspected. The EXIF orientation is located up front by walking the container
+    * structure to the EXIF block, without running the full metadata parser, so reorienting an
+    * image on load does not pay for building every directory and tag.
+    * <p>
+    * The source is retained until the full metadata is parsed, or for the lifetime of this
+    * metadata if it never is.
+    */
+   public static ImageMetadata lazy(ImageSource source) throws IOException {
+      SeekableImageSource seekable = source instanceof SeekableImageSource ?
+         (SeekableImageSource) source :
+         new CachedImageSource(source);
+      return new ImageMetadata(seekable, ExifOrientationScanner.scan(seekable.buffer()));
+   }
+
    public static ImageMetadata load(ImageSource source) throws IOException {
-      try {
-         return fromMetadata(ImageMetadataReader.readMetadata(new ByteArrayInputStream(source.read())));
+      try (InputStream in = source instanceof SeekableImageSource ?
+         ((SeekableImageSource) source).open() :
+         new ByteArrayInputStream(source.read())) {
+         return fromMetadata(ImageMetadataReader.readMetadata(in));
       } catch (ImageProcessingException e) {
          return ImageMetadata.empty;
       }
@@ -45,9 +67,7 @@ public class ImageMetadata {
    }
 
    public static ImageMetadata fromFile(File file) throws IOException {
-      try (InputStream in = Files.newInputStream(file.toPath())) {
-         return fromStream(in);
-      }
+      return load(new FileImageSource(file));
    }
 
    public static ImageMetadata fromResource(String resource) throws IOException {
@@ -61,7 +81,7 @@ public class ImageMetadata {
    }
 
    public static ImageMetadata fromBytes(byte[] bytes) throws IOException {
-      return fromStream(new ByteArrayInputStream(bytes));
+      return load(new ByteArrayImageSource(bytes));
    }
 
    public static ImageMetadata fromMetadata(Metadata metadata) {
@@ -74,14 +94,39 @@ public class ImageMetadata {
       return new ImageMetadata(dirs);
    }
 
-   private final Directory[] directories;
+   private volatile Directory[] directories;
+
+   // the source to parse on first use, or null once the directories are known
+   private ImageSource source;
+
+   // the raw orientation found by ExifOrientationScanner, or UNKNOWN if it was not scanned
+   private final int orientation;
+
+   private Directory[] directories() {
+      Directory[] dirs = directories;
+      if (dirs == null) {
+         synchronized (this) {
+            dirs = directories;
+            if (dirs == null) {
+               try {
+                  dirs = load(source).directories;
+               } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+               }
+               directories = dirs;
+               source = null;
+            }
+         }
+      }
+      return dirs;
+   }
 
    public Directory[] getDirectories() {
       // Return a defensive copy. Previously this leaked the backing
       // array; a caller writing `meta.getDirectories()[0] = null`
       // corrupted internal state — equals/hashCode broke and the
       // tags() stream NPE'd.
-      return directories.clone();
+      return directories().clone();
    }
 
    @Override
@@ -92,16 +137,22 @@ public class ImageMetadata {
       ImageMetadata that = (ImageMetadata) o;
 
       // Probably incorrect - comparing Object[] arrays with Arrays.equals
-      return Arrays.equals(directories, that.directories);
+      return Arrays.equals(directories(), that.directories());
    }
 
    @Override
    public int hashCode() {
-      return Arrays.hashCode(directories);
+      return Arrays.hashCode(directories());
    }
 
    public ImageMetadata(Directory[] directories) {
       this.directories = directories;
+      this.orientation = ExifOrientationScanner.UNKNOWN;
+   }
+
+   private ImageMetadata(ImageSource source, int orientation) {
+      this.source = source;
+      this.orientation = orientation;
    }
 
    public Tag[] tagsBy(Predicate<Tag> f) {
@@ -109,10 +160,15 @@ public class ImageMetadata {
    }
 
    public Tag[] tags() {
-      return Arrays.stream(directories).flatMap(dir -> Arrays.stream(dir.getTags())).toArray(Tag[]::new);
+      return Arrays.stream(directories()).flatMap(dir -> Arrays.stream(dir.getTags())).toArray(Tag[]::new);
    }
 
    public Optional<Orientation> getOrientation() {
+      if (orientation == ExifOrientationScanner.ABSENT)
+         return Optional.empty();
+      // out of range values are treated as upright, as OrientationTools does for parsed tags
+      if (orientation != ExifOrientationScanner.UNKNOWN)
+         return Optional.of(Orientation.fromRawValue(orientation).orElse(Orientation.Zero));
       return OrientationTools.imageOrientationsOf(this).stream().findFirst();
    }
 }
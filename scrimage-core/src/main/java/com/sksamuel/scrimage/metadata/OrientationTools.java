@@ -2,8 +2,10 @@ package com.sksamuel.scrimage.metadata;
 
 import com.sksamuel.scrimage.ImmutableImage;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -15,18 +17,16 @@ public class OrientationTools {
    private static final String EXIF_IFD0_DIR_NAME = "Exif IFD0";
 
    public static Boolean requiresReorientation(ImageMetadata metadata) {
-
-      Set<Orientation> imageOrientations = imageOrientationsOf(metadata);
-      Orientation first = imageOrientations.stream().findFirst().orElse(Orientation.Zero);
-      return first != Orientation.Zero;
+      return metadata.getOrientation().orElse(Orientation.Zero) != Orientation.Zero;
    }
 
    // The version of this method in scrimage fails when images have tags of type 274
    // that aren't actually orientation tags, which happens occasionally.
    // It seems to happen particularly with Sony cameras
    public static ImmutableImage reorient(ImmutableImage image, ImageMetadata metadata) {
-      Set<Orientation> imageOrientations = imageOrientationsOf(metadata);
-      Orientation first = imageOrientations.stream().findFirst().orElse(Orientation.Zero);
+      // getOrientation answers from the cheap EXIF scan when the metadata was loaded lazily,
+      // so this does not force the full metadata parse
+      Orientation first = metadata.getOrientation().orElse(Orientation.Zero);
       switch (first) {
          // normal
          case Zero:
@@ -58,6 +58,21 @@ public class OrientationTools {
       }
    }
 
+   /**
+    * Returns the EXIF orientation of the encoded image that starts at the buffer's position,
+    * found by walking its container structure to the EXIF block rather than by a full metadata
+    * parse. The result is empty if the image has no orientation tag, or if the tag cannot be
+    * located within the buffer, which may hold just the first bytes of the image. The buffer's
+    * position and limit are not modified.
+    */
+   public static Optional<Orientation> scanOrientation(ByteBuffer buffer) {
+      int orientation = ExifOrientationScanner.scan(buffer);
+      if (orientation == ExifOrientationScanner.ABSENT || orientation == ExifOrientationScanner.UNKNOWN)
+         return Optional.empty();
+      // out of range values are treated as upright, as getOrientation does
+      return Optional.of(Orientation.fromRawValue(orientation).orElse(Orientation.Zero));
+   }
+
    // returns the values of the orientation tag
    // Sometimes (with sony cameras) there are multiple tags with id 274 so we must also
    // check the name, if there is more than one.
@@ -1,6 +1,8 @@
 package com.sksamuel.scrimage.nio;
 
-public class ByteArrayImageSource implements ImageSource {
+import java.nio.ByteBuffer;
+
+public class ByteArrayImageSource implements SeekableImageSource {
 
    private final byte[] bytes;
 
@@ -8,6 +10,11 @@ public class ByteArrayImageSource implements ImageSource {
       this.bytes = bytes;
    }
 
+   @Override
+   public ByteBuffer buffer() {
+      return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+   }
+
    @Override
    public byte[] read() {
       return bytes;
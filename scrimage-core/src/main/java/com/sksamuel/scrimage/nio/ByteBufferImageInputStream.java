@@ -0,0 +1,50 @@
+package com.sksamuel.scrimage.nio;
+
+import javax.imageio.stream.ImageInputStreamImpl;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * A seekable ImageInputStream over a ByteBuffer. Unlike the MemoryCacheImageInputStream that
+ * ImageIO creates for an InputStream, this does not copy the bytes into a cache as they are read;
+ * seeks simply move the read position within the buffer.
+ */
+class ByteBufferImageInputStream extends ImageInputStreamImpl {
+
+   private final ByteBuffer buffer;
+
+   ByteBufferImageInputStream(ByteBuffer buffer) {
+      this.buffer = buffer.slice();
+   }
+
+   @Override
+   public int read() throws IOException {
+      checkClosed();
+      bitOffset = 0;
+      if (streamPos >= buffer.limit())
+         return -1;
+      return buffer.get((int) streamPos++) & 0xFF;
+   }
+
+   @Override
+   public int read(byte[] b, int off, int len) throws IOException {
+      checkClosed();
+      Objects.checkFromIndexSize(off, len, b.length);
+      bitOffset = 0;
+      if (len == 0)
+         return 0;
+      if (streamPos >= buffer.limit())
+         return -1;
+      int n = (int) Math.min(len, buffer.limit() - streamPos);
+      buffer.position((int) streamPos);
+      buffer.get(b, off, n);
+      streamPos += n;
+      return n;
+   }
+
+   @Override
+   public long length() {
+      return buffer.limit();
+   }
+}
@@ -0,0 +1,68 @@
+package com.sksamuel.scrimage.nio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.InvalidMarkException;
+import java.util.Objects;
+
+/**
+ * An InputStream over a ByteBuffer, which reads directly from the buffer without copying it.
+ * The buffer is consumed, so callers should pass a view they own.
+ */
+class ByteBufferInputStream extends InputStream {
+
+   private final ByteBuffer buffer;
+
+   ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+   }
+
+   @Override
+   public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+   }
+
+   @Override
+   public int read(byte[] b, int off, int len) {
+      Objects.checkFromIndexSize(off, len, b.length);
+      if (len == 0)
+         return 0;
+      if (!buffer.hasRemaining())
+         return -1;
+      int n = Math.min(len, buffer.remaining());
+      buffer.get(b, off, n);
+      return n;
+   }
+
+   @Override
+   public long skip(long n) {
+      int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+      buffer.position(buffer.position() + skipped);
+      return skipped;
+   }
+
+   @Override
+   public int available() {
+      return buffer.remaining();
+   }
+
+   @Override
+   public boolean markSupported() {
+      return true;
+   }
+
+   @Override
+   public synchronized void mark(int readlimit) {
+      buffer.mark();
+   }
+
+   @Override
+   public synchronized void reset() throws IOException {
+      try {
+         buffer.reset();
+      } catch (InvalidMarkException e) {
+         throw new IOException("Resetting to invalid mark", e);
+      }
+   }
+}
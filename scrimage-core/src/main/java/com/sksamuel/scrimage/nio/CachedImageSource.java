@@ -1,21 +1,44 @@
 package com.sksamuel.scrimage.nio;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
-public class CachedImageSource implements ImageSource {
+/**
+ * Wraps an ImageSource so that it is read at most once, however many readers consult it.
+ * If the wrapped source is seekable, its buffer is cached instead of a heap copy, and bytes
+ * are only copied out if a reader asks for them as an array.
+ */
+public class CachedImageSource implements SeekableImageSource {
 
    private byte[] bytes = null;
 
+   private ByteBuffer buffer = null;
+
    private final ImageSource source;
 
    public CachedImageSource(ImageSource source) {
       this.source = source;
    }
 
+   @Override
+   public ByteBuffer buffer() throws IOException {
+      if (buffer == null) {
+         if (bytes == null && source instanceof SeekableImageSource)
+            buffer = ((SeekableImageSource) source).buffer();
+         else
+            buffer = ByteBuffer.wrap(read()).asReadOnlyBuffer();
+      }
+      return buffer.duplicate();
+   }
+
    @Override
    public byte[] read() throws IOException {
-      if (bytes == null)
-         bytes = source.read();
+      if (bytes == null) {
+         if (buffer != null)
+            bytes = SeekableImageSource.super.read();
+         else
+            bytes = source.read();
+      }
       return bytes;
    }
 }
@@ -2,10 +2,16 @@ package com.sksamuel.scrimage.nio;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
-public class FileImageSource implements ImageSource {
+public class FileImageSource implements SeekableImageSource {
+
+   // Below this size a plain read is cheaper than setting up (and later unmapping) a mapping.
+   static final int MAP_THRESHOLD = 64 * 1024;
 
    private final Path path;
 
@@ -17,6 +23,33 @@ public class FileImageSource implements ImageSource {
       this.path = path;
    }
 
+   /**
+    * Returns the file contents as a read-only buffer. Files of at least {@link #MAP_THRESHOLD} bytes
+    * are memory mapped, so readers that consume the buffer directly never copy the encoded image
+    * onto the heap. The mapping stays valid after this method returns and is released when the
+    * buffer is garbage collected.
+    * <p>
+    * Until then, on Windows, the file cannot be deleted or replaced, so loading a file and writing
+    * the result back over the same path may fail. Callers that rewrite a file in place should read
+    * it with {@link #read()}, which copies the bytes and holds no mapping.
+    */
+   @Override
+   public ByteBuffer buffer() throws IOException {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+         long size = channel.size();
+         if (size > Integer.MAX_VALUE)
+            throw new IOException("File too large to read: " + path + " (" + size + " bytes)");
+         if (size >= MAP_THRESHOLD)
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+         ByteBuffer buffer = ByteBuffer.allocate((int) size);
+         while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // read until full or EOF if the file was truncated underneath us
+         }
+         buffer.flip();
+         return buffer.asReadOnlyBuffer();
+      }
+   }
+
    @Override
    public byte[] read() throws IOException {
       return Files.readAllBytes(path);
@@ -3,7 +3,6 @@ package com.sksamuel.scrimage.nio;
 import com.sksamuel.scrimage.ImmutableImage;
 
 import javax.imageio.IIOImage;
-import javax.imageio.ImageIO;
 import javax.imageio.ImageTypeSpecifier;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
@@ -66,7 +65,9 @@ public class GifSequenceWriter extends AbstractGifWriter {
          throw new IllegalArgumentException("Cannot write a gif with no frames");
       }
 
-      ImageWriter writer = ImageIO.getImageWritersBySuffix("gif").next();
+      ImageWriter writer = ImageIOPool.shared().borrowWriter("gif");
+      if (writer == null)
+         throw new IOException("No javax.imageio.ImageWriter is installed for gif");
       try {
          ImageWriteParam imageWriteParam = writer.getDefaultWriteParam();
 
@@ -104,7 +105,7 @@ public class GifSequenceWriter extends AbstractGifWriter {
             }
          }
       } finally {
-         writer.dispose();
+         ImageIOPool.shared().releaseWriter("gif", writer);
       }
    }
 }
@@ -20,7 +20,6 @@ import com.sksamuel.scrimage.AwtImage;
 import com.sksamuel.scrimage.metadata.ImageMetadata;
 
 import javax.imageio.IIOImage;
-import javax.imageio.ImageIO;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.stream.MemoryCacheImageOutputStream;
 import java.io.IOException;
@@ -44,9 +43,11 @@ public class GifWriter implements ImageWriter {
     @Override
     public void write(AwtImage image, ImageMetadata metadata, OutputStream out) throws IOException {
 
-        javax.imageio.ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
-        // dispose() in a finally that spans every use of the writer. Acquiring it
-        // here but only disposing inside the write try-block leaked the native
+        javax.imageio.ImageWriter writer = ImageIOPool.shared().borrowWriter("gif");
+        if (writer == null)
+            throw new IOException("No javax.imageio.ImageWriter is installed for gif");
+        // Release in a finally that spans every use of the writer. Acquiring it
+        // here but only releasing inside the write try-block leaked the native
         // GIF writer if anything in between threw — e.g. getDefaultWriteParam()
         // or setProgressiveMode() raising a RuntimeException from a writer plugin.
         try {
@@ -65,7 +66,7 @@ public class GifWriter implements ImageWriter {
                 writer.write(null, new IIOImage(image.awt(), null, null), params);
             }
         } finally {
-            writer.dispose();
+            ImageIOPool.shared().releaseWriter("gif", writer);
         }
     }
 }
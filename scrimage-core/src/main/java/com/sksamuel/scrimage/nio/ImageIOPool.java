@@ -0,0 +1,233 @@
+package com.sksamuel.scrimage.nio;
+
+import javax.imageio.ImageIO;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of javax.imageio readers and writers, keyed by format name (such as "jpeg" or "png").
+ * <p>
+ * Looking up a reader or writer through ImageIO walks the IIORegistry, and the instance it returns
+ * allocates native structs (for JPEG, the libjpeg compressor or decompressor) which are freed by
+ * dispose(). Borrowing from this pool instead reuses an idle instance, which is reset() when it is
+ * returned so that it holds no reference to the previous stream.
+ * <p>
+ * The pool keeps at most {@link #getMaxIdle()} idle instances per format. Instances returned to a
+ * full pool, and instances removed by {@link #clear()}, are disposed. Only the idle instances are
+ * bounded: borrowing never blocks, and when no idle instance is available a new one is created, so
+ * the number of instances on loan grows with the number of concurrent borrowers.
+ * <p>
+ * This class is thread safe. Each borrowed instance must be used by one thread at a time and
+ * returned exactly once.
+ */
+public class ImageIOPool {
+
+   /**
+    * The default number of idle readers, and of idle writers, kept per format.
+    */
+   public static final int DEFAULT_MAX_IDLE = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+   private static final ImageIOPool shared = new ImageIOPool(DEFAULT_MAX_IDLE);
+
+   /**
+    * Returns the pool used by scrimage's javax.imageio based readers and writers.
+    */
+   public static ImageIOPool shared() {
+      return shared;
+   }
+
+   private final Map<String, Deque<javax.imageio.ImageReader>> readers = new HashMap<>();
+   private final Map<String, Deque<javax.imageio.ImageWriter>> writers = new HashMap<>();
+   private int maxIdle;
+
+   private final LongAdder created = new LongAdder();
+   private final LongAdder reused = new LongAdder();
+   private final LongAdder disposed = new LongAdder();
+
+   public ImageIOPool(int maxIdle) {
+      if (maxIdle < 0) throw new IllegalArgumentException("maxIdle must be >= 0");
+      this.maxIdle = maxIdle;
+   }
+
+   /**
+    * Returns an idle reader for the given format, or a new one if none is idle.
+    *
+    * @param formatName an informal format name, as accepted by ImageIO.getImageReadersByFormatName
+    * @return a reader, or null if no installed plugin can read the format
+    */
+   public javax.imageio.ImageReader borrowReader(String formatName) {
+      javax.imageio.ImageReader reader = poll(readers, formatName);
+      if (reader != null)
+         return reader;
+      Iterator<javax.imageio.ImageReader> iter = ImageIO.getImageReadersByFormatName(formatName);
+      if (!iter.hasNext())
+         return null;
+      created.increment();
+      return iter.next();
+   }
+
+   /**
+    * Returns an idle writer for the given format, or a new one if none is idle.
+    *
+    * @param formatName an informal format name, as accepted by ImageIO.getImageWritersByFormatName
+    * @return a writer, or null if no installed plugin can write the format
+    */
+   public javax.imageio.ImageWriter borrowWriter(String formatName) {
+      javax.imageio.ImageWriter writer = poll(writers, formatName);
+      if (writer != null)
+         return writer;
+      Iterator<javax.imageio.ImageWriter> iter = ImageIO.getImageWritersByFormatName(formatName);
+      if (!iter.hasNext())
+         return null;
+      created.increment();
+      return iter.next();
+   }
+
+   /**
+    * Resets the reader and returns it to the pool, or disposes it if the pool for its format is full
+    * or the reset fails.
+    */
+   public void releaseReader(String formatName, javax.imageio.ImageReader reader) {
+      try {
+         reader.reset();
+      } catch (RuntimeException e) {
+         dispose(reader);
+         return;
+      }
+      if (!offer(readers, formatName, reader))
+         dispose(reader);
+   }
+
+   /**
+    * Resets the writer and returns it to the pool, or disposes it if the pool for its format is full
+    * or the reset fails.
+    */
+   public void releaseWriter(String formatName, javax.imageio.ImageWriter writer) {
+      try {
+         writer.reset();
+      } catch (RuntimeException e) {
+         dispose(writer);
+         return;
+      }
+      if (!offer(writers, formatName, writer))
+         dispose(writer);
+   }
+
+   private synchronized <T> T poll(Map<String, Deque<T>> pool, String formatName) {
+      Deque<T> idle = pool.get(formatName);
+      T t = idle == null ? null : idle.pollFirst();
+      if (t != null)
+         reused.increment();
+      return t;
+   }
+
+   private synchronized <T> boolean offer(Map<String, Deque<T>> pool, String formatName, T t) {
+      Deque<T> idle = pool.computeIfAbsent(formatName, k -> new ArrayDeque<>());
+      if (idle.size() >= maxIdle)
+         return false;
+      idle.offerFirst(t);
+      return true;
+   }
+
+   private void dispose(javax.imageio.ImageReader reader) {
+      disposed.increment();
+      reader.dispose();
+   }
+
+   private void dispose(javax.imageio.ImageWriter writer) {
+      disposed.increment();
+      writer.dispose();
+   }
+
+   /**
+    * Sets the number of idle readers, and of idle writers, kept per format.
+    * Lowering it disposes idle instances over the new limit. Zero disables pooling.
+    */
+   public void setMaxIdle(int maxIdle) {
+      if (maxIdle < 0) throw new IllegalArgumentException("maxIdle must be >= 0");
+      List<javax.imageio.ImageReader> excessReaders = new ArrayList<>();
+      List<javax.imageio.ImageWriter> excessWriters = new ArrayList<>();
+      synchronized (this) {
+         this.maxIdle = maxIdle;
+         trim(readers, maxIdle, excessReaders);
+         trim(writers, maxIdle, excessWriters);
+      }
+      excessReaders.forEach(this::dispose);
+      excessWriters.forEach(this::dispose);
+   }
+
+   public synchronized int getMaxIdle() {
+      return maxIdle;
+   }
+
+   private static <T> void trim(Map<String, Deque<T>> pool, int max, List<T> excess) {
+      for (Deque<T> idle : pool.values()) {
+         while (idle.size() > max)
+            excess.add(idle.pollLast());
+      }
+   }
+
+   /**
+    * Disposes every idle reader and writer. Borrowed instances are unaffected.
+    */
+   public void clear() {
+      List<javax.imageio.ImageReader> idleReaders = new ArrayList<>();
+      List<javax.imageio.ImageWriter> idleWriters = new ArrayList<>();
+      synchronized (this) {
+         trim(readers, 0, idleReaders);
+         trim(writers, 0, idleWriters);
+      }
+      idleReaders.forEach(this::dispose);
+      idleWriters.forEach(this::dispose);
+   }
+
+   /**
+    * Returns the number of idle readers and writers currently held.
+    */
+   public synchronized int idle() {
+      int n = 0;
+      for (Deque<?> idle : readers.values()) n += idle.size();
+      for (Deque<?> idle : writers.values()) n += idle.size();
+      return n;
+   }
+
+   /**
+    * Returns the number of readers and writers created because no idle instance was available.
+    */
+   public long created() {
+      return created.sum();
+   }
+
+   /**
+    * Returns the number of borrows served by an idle instance.
+    */
+   public long reused() {
+      return reused.sum();
+   }
+
+   /**
+    * Returns the number of readers and writers disposed, because the pool was full when they were
+    * released, their reset failed, or they were cleared.
+    */
+   public long disposed() {
+      return disposed.sum();
+   }
+
+   public void resetCounters() {
+      created.reset();
+      reused.reset();
+      disposed.reset();
+   }
+
+   @Override
+   public String toString() {
+      return "ImageIOPool(maxIdle=" + getMaxIdle() + ", idle=" + idle() + ", created=" + created() +
+         ", reused=" + reused() + ", disposed=" + disposed() + ")";
+   }
+}
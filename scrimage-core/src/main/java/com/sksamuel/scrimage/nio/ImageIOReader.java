@@ -1,18 +1,23 @@
 package com.sksamuel.scrimage.nio;
 
 import com.sksamuel.scrimage.ImmutableImage;
+import com.sksamuel.scrimage.format.Format;
+import com.sksamuel.scrimage.format.FormatDetector;
 
 import javax.imageio.ImageIO;
 import javax.imageio.ImageReadParam;
 import javax.imageio.stream.ImageInputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 public class ImageIOReader implements ImageReader {
 
@@ -26,91 +31,166 @@ public class ImageIOReader implements ImageReader {
       this.readers = readers;
    }
 
+   /**
+    * Returns the formats that the installed javax.imageio plugins can decode, so that, for
+    * example, WebP input is routed here only when a WebP plugin is on the classpath.
+    * When constructed with specific readers, the formats are not declared and every input
+    * is offered to those readers.
+    * <p>
+    * The registry is walked once, on first use, so plugins registered after that are not
+    * reflected here.
+    */
+   @Override
+   public Set<Format> formats() {
+      if (!readers.isEmpty())
+         return Collections.emptySet();
+      return InstalledFormats.FORMATS;
+   }
+
+   // initialised on first use, as walking the ImageIO registry for every format is too slow for each read
+   private static class InstalledFormats {
+      private static final Set<Format> FORMATS = lookup();
+
+      private static Set<Format> lookup() {
+         Set<Format> formats = EnumSet.noneOf(Format.class);
+         for (Format format : Format.values()) {
+            if (ImageIO.getImageReadersByFormatName(format.name().toLowerCase(Locale.ROOT)).hasNext())
+               formats.add(format);
+         }
+         return Collections.unmodifiableSet(formats);
+      }
+   }
+
    private ImmutableImage tryLoad(javax.imageio.ImageReader reader,
                                   ImageInputStream iis,
                                   Rectangle rectangle,
-                                  boolean ownsReader) throws IOException {
-      try {
-         // Rewind the stream to the start before each reader attempt. The same
-         // ImageInputStream is reused across multiple readers in read(...)'s
-         // fallback loop; a previous reader may have consumed/advanced the
-         // stream (or partially read before throwing), leaving the position
-         // past the start. Without seeking back, subsequent fallback readers
-         // would read from a consumed/garbage position and fail spuriously.
-         // The MemoryCacheImageInputStream created over a ByteArrayInputStream
-         // is seekable, and seek(0) is a no-op for the common single-reader
-         // success case.
-         iis.seek(0);
-         reader.setInput(iis);
-
-         // Skip a redundant header pass: setDestinationType(imageTypes.next())
-         // is equivalent to leaving destinationType=null (per ImageReadParam
-         // docs, null means "use the first compatible type" — exactly what
-         // imageTypes.next() returns). The previous code triggered an
-         // additional reader.getImageTypes(0) call which forces the reader
-         // to parse the source header just to enumerate types it would
-         // otherwise pick on demand.
-         BufferedImage bufferedImage;
-         if (rectangle == null) {
-            bufferedImage = reader.read(0);
-         } else {
-            ImageReadParam params = reader.getDefaultReadParam();
+                                  SubsamplingHint hint) throws IOException {
+      // Rewind the stream to the start before each reader attempt. The same
+      // ImageInputStream is reused across multiple readers in read(...)'s
+      // fallback loop; a previous reader may have consumed/advanced the
+      // stream (or partially read before throwing), leaving the position
+      // past the start. Without seeking back, subsequent fallback readers
+      // would read from a consumed/garbage position and fail spuriously.
+      // The ByteBufferImageInputStream is seekable without caching, and
+      // seek(0) is a no-op for the common single-reader success case.
+      iis.seek(0);
+      reader.setInput(iis);
+
+      // Skip a redundant header pass: setDestinationType(imageTypes.next())
+      // is equivalent to leaving destinationType=null (per ImageReadParam
+      // docs, null means "use the first compatible type" — exactly what
+      // imageTypes.next() returns). The previous code triggered an
+      // additional reader.getImageTypes(0) call which forces the reader
+      // to parse the source header just to enumerate types it would
+      // otherwise pick on demand.
+      //
+      // Subsampling reads only every nth row and column, so the decoder allocates and
+      // fills a raster n*n times smaller than the full image. The factor is computed from
+      // the header dimensions (or the region) which readers parse cheaply on demand.
+      int subsampling = 1;
+      if (hint != null) {
+         subsampling = rectangle == null ?
+            hint.subsampling(reader.getWidth(0), reader.getHeight(0)) :
+            hint.subsampling(rectangle.width, rectangle.height);
+      }
+      BufferedImage bufferedImage;
+      if (rectangle == null && subsampling == 1) {
+         bufferedImage = reader.read(0);
+      } else {
+         ImageReadParam params = reader.getDefaultReadParam();
+         if (rectangle != null)
             params.setSourceRegion(rectangle);
-            bufferedImage = reader.read(0, params);
-         }
-         return ImmutableImage.wrapAwt(bufferedImage);
-      } finally {
-         // javax.imageio.ImageReader is a thin Java wrapper around a native decoder. When you read a JPEG,
-         // the JDK loads libjavajpeg.so and allocates native structs (Huffman tables, coefficient buffers, SOF data)
-         // using malloc. When you read a WebP, the luciad
-         // webp-imageio plugin calls WebPEncoderOptions_createConfig which does a calloc in native code.
-         // These allocations live outside the Java heap — the GC has no visibility into them.
-         //
-         //  The contract for javax.imageio.ImageReader is that you must call reader.dispose() when done.
-         //  That method triggers the JNI dispose call which runs the corresponding free() on those native structs.
-         //  Without it, the memory is permanently leaked for the lifetime of the JVM process.
-         //
-         //  However, we must only dispose readers that we created ourselves (via ImageIO.getImageReaders,
-         //  which mints fresh instances on every call). Caller-supplied readers are reused across read()
-         //  calls, and a disposed reader throws IllegalStateException("Attempting to use reader after
-         //  dispose()") on any subsequent use — making the loader single-use. For those we reset() instead,
-         //  which returns the reader to its initial state (releasing the input stream reference) while
-         //  keeping it usable; releasing its native resources is the caller's responsibility.
-         if (ownsReader) {
-            reader.dispose();
-         } else {
-            reader.reset();
-         }
+         if (subsampling > 1)
+            params.setSourceSubsampling(subsampling, subsampling, 0, 0);
+         bufferedImage = reader.read(0, params);
       }
+      return ImmutableImage.wrapAwt(bufferedImage);
    }
 
    @Override
    public ImmutableImage read(byte[] bytes, Rectangle rectangle) throws IOException {
+      return read(bytes, rectangle, null);
+   }
+
+   @Override
+   public ImmutableImage read(byte[] bytes, Rectangle rectangle, SubsamplingHint hint) throws IOException {
 
       if (bytes == null)
          throw new IOException("bytes cannot be null");
 
-      ImageInputStream iis = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes));
-      if (iis == null)
-         throw new IOException("No ImageInputStream supported this image format");
+      return read(ByteBuffer.wrap(bytes), rectangle, hint);
+   }
 
-      try {
-         // Readers minted by ImageIO.getImageReaders are fresh instances owned by us and must be
-         // disposed after use. Caller-supplied readers are owned by the caller and are reused on
-         // every read() call, so they must not be disposed here.
-         boolean ownsReaders = readers.isEmpty();
-         Iterator<javax.imageio.ImageReader> iter;
-         if (ownsReaders)
-            iter = ImageIO.getImageReaders(iis);
-         else
-            iter = readers.iterator();
+   /**
+    * Decodes straight from the source's buffer, so a memory mapped file is read by the decoder
+    * in place rather than copied into a byte array and then again into an ImageIO stream cache.
+    */
+   @Override
+   public ImmutableImage read(SeekableImageSource source, Rectangle rectangle, SubsamplingHint hint) throws IOException {
+      return read(source.buffer(), rectangle, hint);
+   }
+
+   private ImmutableImage read(ByteBuffer buffer, Rectangle rectangle, SubsamplingHint hint) throws IOException {
 
+      ImageInputStream iis = new ByteBufferImageInputStream(buffer);
+
+      try {
          List<String> attempts = new ArrayList<>();
-         while (iter.hasNext()) {
-            try {
-               return tryLoad(iter.next(), iis, rectangle, ownsReaders);
-            } catch (Exception e) {
-               attempts.add(e.getMessage());
+         if (readers.isEmpty()) {
+            // A recognised format is decoded by a reader borrowed from the shared pool, which saves
+            // the registry walk and the reader's native setup on every image. The pool resets the
+            // reader when it is returned, releasing its reference to this stream.
+            String formatName = FormatDetector.detect(buffer).map(f -> f.name().toLowerCase(Locale.ROOT)).orElse(null);
+            javax.imageio.ImageReader pooled = formatName == null ? null : ImageIOPool.shared().borrowReader(formatName);
+            Class<?> pooledProvider = null;
+            if (pooled != null) {
+               pooledProvider = pooled.getOriginatingProvider() == null ? null : pooled.getOriginatingProvider().getClass();
+               try {
+                  return tryLoad(pooled, iis, rectangle, hint);
+               } catch (Exception e) {
+                  attempts.add(e.getMessage());
+               } finally {
+                  ImageIOPool.shared().releaseReader(formatName, pooled);
+               }
+            }
+            Iterator<javax.imageio.ImageReader> iter = ImageIO.getImageReaders(iis);
+            while (iter.hasNext()) {
+               javax.imageio.ImageReader reader = iter.next();
+               try {
+                  // the pooled reader's plugin has already had its attempt
+                  if (pooledProvider != null && reader.getOriginatingProvider() != null && reader.getOriginatingProvider().getClass() == pooledProvider)
+                     continue;
+                  return tryLoad(reader, iis, rectangle, hint);
+               } catch (Exception e) {
+                  attempts.add(e.getMessage());
+               } finally {
+                  // javax.imageio.ImageReader is a thin Java wrapper around a native decoder. When you read a JPEG,
+                  // the JDK loads libjavajpeg.so and allocates native structs (Huffman tables, coefficient buffers, SOF data)
+                  // using malloc. When you read a WebP, the luciad
+                  // webp-imageio plugin calls WebPEncoderOptions_createConfig which does a calloc in native code.
+                  // These allocations live outside the Java heap — the GC has no visibility into them.
+                  //
+                  //  The contract for javax.imageio.ImageReader is that you must call reader.dispose() when done.
+                  //  That method triggers the JNI dispose call which runs the corresponding free() on those native structs.
+                  //  Without it, the memory is permanently leaked for the lifetime of the JVM process.
+                  //  ImageIO.getImageReaders mints fresh instances on every call, so these are ours to dispose.
+                  reader.dispose();
+               }
+            }
+         } else {
+            for (javax.imageio.ImageReader reader : readers) {
+               try {
+                  return tryLoad(reader, iis, rectangle, hint);
+               } catch (Exception e) {
+                  attempts.add(e.getMessage());
+               } finally {
+                  // Caller-supplied readers are reused across read() calls, and a disposed reader throws
+                  // IllegalStateException("Attempting to use reader after dispose()") on any subsequent
+                  // use — making the loader single-use. So we reset() instead, which returns the reader
+                  // to its initial state (releasing the input stream reference) while keeping it usable;
+                  // releasing its native resources is the caller's responsibility.
+                  reader.reset();
+               }
             }
          }
 
@@ -1,12 +1,25 @@
 package com.sksamuel.scrimage.nio;
 
 import com.sksamuel.scrimage.ImmutableImage;
+import com.sksamuel.scrimage.format.Format;
 
 import java.awt.Rectangle;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
 
 public interface ImageReader {
 
+   /**
+    * Returns the formats this reader can decode. ImageReaders detects the format of the input
+    * from its magic bytes and only offers it to readers that declare that format, so inputs
+    * this reader cannot handle never reach it. A reader that returns an empty set, which is the
+    * default, does not declare its formats and is offered every input.
+    */
+   default Set<Format> formats() {
+      return Collections.emptySet();
+   }
+
    default ImmutableImage read(byte[] bytes) throws IOException {
       return read(bytes, null);
    }
@@ -18,4 +31,30 @@ public interface ImageReader {
       else
          return image.subimage(rectangle);
    }
+
+   /**
+    * Reads the image, decoding it at a reduced resolution if this reader supports subsampling
+    * and the hint allows it. The rectangle, if any, is in the coordinates of the full
+    * resolution image.
+    * <p>
+    * The default implementation drops the hint and decodes at full resolution through
+    * {@link #read(byte[], Rectangle)}, so only readers that override this method subsample.
+    * Of the bundled readers, {@link ImageIOReader} and {@link PngReader} do.
+    *
+    * @param hint the size the image will be scaled to after loading, or null to decode at full resolution
+    */
+   default ImmutableImage read(byte[] bytes, Rectangle rectangle, SubsamplingHint hint) throws IOException {
+      return read(bytes, rectangle);
+   }
+
+   /**
+    * Reads the image from a source that can expose its bytes as a buffer. Readers that can decode
+    * from a stream override this so the encoded image is never copied onto the heap; the default
+    * reads the bytes as an array and delegates to the byte array methods.
+    *
+    * @param hint the size the image will be scaled to after loading, or null to decode at full resolution
+    */
+   default ImmutableImage read(SeekableImageSource source, Rectangle rectangle, SubsamplingHint hint) throws IOException {
+      return hint == null ? read(source.read(), rectangle) : read(source.read(), rectangle, hint);
+   }
 }
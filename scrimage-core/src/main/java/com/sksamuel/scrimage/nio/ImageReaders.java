@@ -11,6 +11,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.ServiceLoader;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -38,6 +39,10 @@ public class ImageReaders {
       return read(source, rectangle, classloader == null ? defaultReaders : detectReaders(classloader));
    }
 
+   public static ImmutableImage read(ImageSource source, Rectangle rectangle, ClassLoader classloader, SubsamplingHint hint) throws IOException {
+      return read(source, rectangle, classloader == null ? defaultReaders : detectReaders(classloader), hint);
+   }
+
    /**
     * Attempts to read an image from the given source, using the supplied image readers.
     *
@@ -47,11 +52,31 @@ public class ImageReaders {
     * @return the image read from the given source
     */
    public static ImmutableImage read(ImageSource source, Rectangle rectangle, List<ImageReader> readers) throws IOException {
+      return read(source, rectangle, readers, null);
+   }
+
+   /**
+    * Attempts to read an image from the given source, using the supplied image readers,
+    * letting readers that support it decode a subsampled image as described by the hint.
+    *
+    * @param source    the image source
+    * @param rectangle an optional subset of the image to read.
+    * @param readers   the readers that should be used to attempt to load this image.
+    * @param hint      an optional hint of the size the image will be scaled to after loading.
+    * @return the image read from the given source
+    */
+   public static ImmutableImage read(ImageSource source, Rectangle rectangle, List<ImageReader> readers, SubsamplingHint hint) throws IOException {
       List<Throwable> errors = new ArrayList<>();
-      byte[] bytes = source.read();
-      for (ImageReader reader : readers) {
+      // Readers that decode from a buffer share the source's buffer; readers that need a byte array
+      // share a single copy, made the first time one of them asks for it.
+      CachedImageSource cached = source instanceof CachedImageSource ? (CachedImageSource) source : new CachedImageSource(source);
+      // Sniff the format once and offer the input only to the readers that declare it, rather than
+      // letting every reader fail (and build an exception) in turn. Undetected formats still go to
+      // every reader.
+      Format format = FormatDetector.detect(cached.buffer()).orElse(null);
+      for (ImageReader reader : format == null ? readers : readersFor(format, readers)) {
          try {
-            ImmutableImage image = reader.read(bytes, rectangle);
+            ImmutableImage image = reader.read(cached, rectangle, hint);
             if (image == null) {
                errors.add(new IOException(reader + " failed"));
             } else {
@@ -61,10 +86,24 @@ public class ImageReaders {
             errors.add(new IOException(reader.toString() + " failed due to " + e.getMessage(), e));
          }
       }
-      Format format = FormatDetector.detect(bytes).orElse(null);
       if (format == null)
          throw new UnsupportedFormatException(errors);
       else
          throw new ImageParseException(errors, format);
    }
+
+   /**
+    * Returns the readers, in their original order, that declare the given format or that do not
+    * declare any formats. If none qualify, all readers are returned, so an input is never
+    * rejected untried.
+    */
+   static List<ImageReader> readersFor(Format format, List<ImageReader> readers) {
+      List<ImageReader> candidates = new ArrayList<>(readers.size());
+      for (ImageReader reader : readers) {
+         Set<Format> formats = reader.formats();
+         if (formats.isEmpty() || formats.contains(format))
+            candidates.add(reader);
+      }
+      return candidates.isEmpty() ? readers : candidates;
+   }
 }
@@ -28,8 +28,10 @@ public class ImmutableImageLoader {
    private Rectangle rectangle = null;
    private int type = 0;
    private boolean metadata = true;
+   private boolean lazyMetadata = false;
    private ClassLoader classloader = null;
    private List<ImageReader> readers = Collections.emptyList();
+   private SubsamplingHint subsampling = null;
 
    public static ImmutableImageLoader create() {
       return new ImmutableImageLoader();
@@ -58,6 +60,26 @@ public class ImmutableImageLoader {
       return this;
    }
 
+   /**
+    * Set to true to parse metadata only when it is first inspected, such as through
+    * {@link ImageMetadata#getDirectories()} or {@link ImageMetadata#tags()}. The EXIF
+    * orientation needed by {@link #detectOrientation(boolean)} is still read at load time,
+    * by scanning for the EXIF block rather than running the full metadata parser.
+    * Set to false to parse all metadata during load.
+    * Default false.
+    * <p>
+    * Lazy metadata keeps the encoded source alive, in memory or as an open file mapping, for as
+    * long as the loaded image, or any image derived from it, holds that metadata. If the source
+    * changes before the metadata is inspected, the failure surfaces then as an
+    * {@link java.io.UncheckedIOException} rather than at load time.
+    *
+    * @return this loader for method chaining
+    */
+   public ImmutableImageLoader lazyMetadata(boolean lazyMetadata) {
+      this.lazyMetadata = lazyMetadata;
+      return this;
+   }
+
    /**
     * Specifies a region of the image to be loaded. Specifying a region here, rather than resizing
     * the canvas after load can result in a performance gain under certain loaders.
@@ -69,6 +91,37 @@ public class ImmutableImageLoader {
       return this;
    }
 
+   /**
+    * Declares that the loaded image is going to be scaled to cover, or fit inside, the given
+    * dimensions. Readers that support it (PNG and the javax.imageio readers, such as JPEG) will
+    * then decode only every nth row and column, producing an image that is still at least twice
+    * the target size in each dimension, ready for the final high quality scale.
+    * <p>
+    * This is a hint: the loaded image is not scaled to the target size, and readers that
+    * cannot subsample return the full resolution image.
+    *
+    * @return this loader for method chaining
+    */
+   public ImmutableImageLoader targetSize(int width, int height) {
+      this.subsampling = SubsamplingHint.targetSize(width, height);
+      return this;
+   }
+
+   /**
+    * Declares that the loaded image is going to be scaled so that its longest side is at most
+    * the given size, such as with bound(size, size). Readers that support it will then decode
+    * only every nth row and column, keeping the longest side at least twice the given size.
+    * <p>
+    * This is a hint: the loaded image is not scaled to the target size, and readers that
+    * cannot subsample return the full resolution image.
+    *
+    * @return this loader for method chaining
+    */
+   public ImmutableImageLoader maxDimension(int size) {
+      this.subsampling = SubsamplingHint.maxDimension(size);
+      return this;
+   }
+
    /**
     * Set the BufferedImage type for the backing image. If the specified type is different
     * from the type detected on load, this can result in an image copy operation.
@@ -123,6 +176,15 @@ public class ImmutableImageLoader {
       return load(new ByteArrayImageSource(bytes));
    }
 
+   /**
+    * Loads an image from the given file.
+    *
+    * <p>Files of 64 KB or more are memory mapped rather than read onto the heap (see
+    * {@link FileImageSource#buffer()}). The mapping is released only when the buffer is garbage
+    * collected, and on Windows a mapped file cannot be deleted or replaced until then, so writing
+    * the result back over the same path can fail. To rewrite a file in place, load it with
+    * {@code fromBytes(Files.readAllBytes(path))} instead, as {@link #stripMetadata(File)} does.
+    */
    public ImmutableImage fromFile(File file) throws IOException {
       if (!file.exists()) throw new FileNotFoundException(file.toString());
       return load(new FileImageSource(file));
@@ -132,8 +194,13 @@ public class ImmutableImageLoader {
       return fromFile(new File(file));
    }
 
+   /**
+    * Loads an image from the given path. As with {@link #fromFile(File)}, large files are memory
+    * mapped, and on Windows the file stays locked until the mapping is garbage collected.
+    */
    public ImmutableImage fromPath(Path path) throws IOException {
-      return fromFile(path.toFile());
+      if (!Files.exists(path)) throw new FileNotFoundException(path.toString());
+      return load(new FileImageSource(path));
    }
 
    /**
@@ -180,7 +247,9 @@ public class ImmutableImageLoader {
       }
 
       // Decode first (applying orientation per this loader's config) before touching the original.
-      ImmutableImage image = fromFile(file);
+      // The bytes are read onto the heap rather than mapped: on Windows a live mapping locks the
+      // file until the buffer is collected, which would make the move below fail.
+      ImmutableImage image = load(new ByteArrayImageSource(Files.readAllBytes(file.toPath())));
 
       File dir = file.getAbsoluteFile().getParentFile();
       File tmp = File.createTempFile("scrimage-strip", ".tmp", dir);
@@ -324,16 +393,16 @@ public class ImmutableImageLoader {
       ImageSource cached = new CachedImageSource(source);
       ImmutableImage image;
       if (readers.isEmpty())
-         image = ImageReaders.read(cached, rectangle, classloader);
+         image = ImageReaders.read(cached, rectangle, classloader, subsampling);
       else
-         image = ImageReaders.read(cached, rectangle, readers);
+         image = ImageReaders.read(cached, rectangle, readers, subsampling);
 
       if (type > 0 && type != image.getType()) {
          image = image.copy(type);
       }
 
       if (metadata) {
-         ImageMetadata metadata = ImageMetadata.load(cached);
+         ImageMetadata metadata = lazyMetadata ? ImageMetadata.lazy(cached) : ImageMetadata.load(cached);
          image = image.associateMetadata(metadata);
       }
 
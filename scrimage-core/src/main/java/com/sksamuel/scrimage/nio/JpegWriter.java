@@ -4,7 +4,6 @@ import com.sksamuel.scrimage.AwtImage;
 import com.sksamuel.scrimage.metadata.ImageMetadata;
 
 import javax.imageio.IIOImage;
-import javax.imageio.ImageIO;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.stream.MemoryCacheImageOutputStream;
 import java.awt.Color;
@@ -49,9 +48,13 @@ public class JpegWriter implements ImageWriter {
    @Override
    public void write(AwtImage image, ImageMetadata metadata, OutputStream out) throws IOException {
 
-      javax.imageio.ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
-      // dispose() in a finally that spans every use of the writer. Acquiring it
-      // here but only disposing inside the write try-block leaked the native
+      // Borrowed from the shared pool, which saves the registry lookup and the native
+      // libjpeg compressor setup on every write.
+      javax.imageio.ImageWriter writer = ImageIOPool.shared().borrowWriter("jpeg");
+      if (writer == null)
+         throw new IOException("No javax.imageio.ImageWriter is installed for jpeg");
+      // Release in a finally that spans every use of the writer. Acquiring it
+      // here but only releasing inside the write try-block leaked the native
       // JPEG writer if anything in between threw — e.g. allocating the no-alpha
       // BufferedImage for a very large image, or setCompressionQuality.
       try {
@@ -104,7 +107,7 @@ public class JpegWriter implements ImageWriter {
       }
 
       } finally {
-         writer.dispose();
+         ImageIOPool.shared().releaseWriter("jpeg", writer);
       }
    }
 }
@@ -3,6 +3,7 @@ package com.sksamuel.scrimage.nio;
 import ar.com.hjg.pngj.ImageLineHelper;
 import ar.com.hjg.pngj.ImageLineInt;
 import com.sksamuel.scrimage.ImmutableImage;
+import com.sksamuel.scrimage.format.Format;
 import com.sksamuel.scrimage.metadata.ImageMetadata;
 import com.sksamuel.scrimage.pixels.PixelTools;
 
@@ -12,17 +13,43 @@ import java.awt.image.ColorModel;
 import java.awt.image.DataBufferInt;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.EnumSet;
+import java.util.Set;
 
 public class PngReader implements ImageReader {
 
+   @Override
+   public Set<Format> formats() {
+      return EnumSet.of(Format.PNG);
+   }
+
    @Override
    public ImmutableImage read(byte[] bytes, Rectangle rectangle) {
+      return read(bytes, rectangle, null);
+   }
+
+   @Override
+   public ImmutableImage read(byte[] bytes, Rectangle rectangle, SubsamplingHint hint) {
+      return read(ByteBuffer.wrap(bytes), rectangle, hint);
+   }
 
-      if (!isPng(bytes))
+   /**
+    * Decodes straight from the source's buffer; pngj streams the file, so a memory mapped
+    * PNG is never copied onto the heap.
+    */
+   @Override
+   public ImmutableImage read(SeekableImageSource source, Rectangle rectangle, SubsamplingHint hint) throws IOException {
+      return read(source.buffer(), rectangle, hint);
+   }
+
+   private ImmutableImage read(ByteBuffer encoded, Rectangle rectangle, SubsamplingHint hint) {
+
+      if (!isPng(encoded))
          return null;
 
-      ar.com.hjg.pngj.PngReader pngr = new ar.com.hjg.pngj.PngReader(new ByteArrayInputStream(bytes));
+      ar.com.hjg.pngj.PngReader pngr = new ar.com.hjg.pngj.PngReader(new ByteBufferInputStream(encoded));
       // close() in a finally: any exception during the read loop (truncated or
       // malformed PNG, palette index out of range, OOM on a huge declared size)
       // would otherwise skip end()/close() and leak the reader and its zlib
@@ -30,8 +57,6 @@ public class PngReader implements ImageReader {
       // so repeated corrupt-PNG loads would accumulate undeflated Inflaters.
       try {
 
-      int channels = pngr.imgInfo.channels;
-      int bitDepth = pngr.imgInfo.bitDepth;
       int w = pngr.imgInfo.cols;
       int h = pngr.imgInfo.rows;
 
@@ -43,111 +68,169 @@ public class PngReader implements ImageReader {
       if (pixelCount > Integer.MAX_VALUE)
          throw new IllegalArgumentException("PNG too large: " + w + "x" + h);
 
+      if (hint != null) {
+         int subsampling = rectangle == null ? hint.subsampling(w, h) : hint.subsampling(rectangle.width, rectangle.height);
+         if (subsampling > 1)
+            return readSubsampled(pngr, rectangle == null ? new Rectangle(0, 0, w, h) : rectangle, subsampling);
+      }
+
       int[] matrix = new int[(int) pixelCount];
+      RowConverter converter = new RowConverter(pngr);
+      for (int row = 0; row < h; row++) {
+         converter.convert((ImageLineInt) pngr.readRow(), matrix, row * w, 0, 1, w);
+      }
+      pngr.end();
 
-      if (pngr.imgInfo.indexed) {
-         ar.com.hjg.pngj.chunks.PngChunkPLTE plte = pngr.getMetadata().getPLTE();
-         // The tRNS chunk carries per-palette-entry alpha for indexed PNGs.
-         // When present, palette2rgb unpacks 4 channels (RGBA) so the entry's
-         // alpha is honoured; previously it was passed null and every pixel was
-         // forced to alpha 255, silently dropping palette transparency.
-         ar.com.hjg.pngj.chunks.PngChunkTRNS trns = pngr.getMetadata().getTRNS();
-         int[] pixels = null;
-         for (int row = 0; row < h; row++) {
-            ImageLineInt scanline = (ImageLineInt) pngr.readRow();
-            if (bitDepth < 8)
-               ImageLineHelper.scaleUp(scanline);
-            int rowOffset = row * w;
-            if (trns == null) {
-               pixels = ImageLineHelper.palette2rgb(scanline, plte, pixels); // 3 channels (RGB)
-               for (int x = 0, k = 0; x < w; x++, k += 3) {
-                  matrix[rowOffset + x] = PixelTools.argb(255, pixels[k], pixels[k + 1], pixels[k + 2]);
-               }
-            } else {
-               pixels = ImageLineHelper.palette2rgb(scanline, plte, trns, pixels); // 4 channels (RGBA)
-               for (int x = 0, k = 0; x < w; x++, k += 4) {
-                  matrix[rowOffset + x] = PixelTools.argb(pixels[k + 3], pixels[k], pixels[k + 1], pixels[k + 2]);
-               }
-            }
-         }
-      } else {
-         for (int row = 0; row < h; row++) {
-            ImageLineInt line = (ImageLineInt) pngr.readRow();
-            // pngj returns raw sample values, but PixelTools.argb expects 0-255 per channel:
-            // - bit depths 1/2/4 (grayscale only) arrive unscaled (a 1-bit white pixel is 1,
-            //   not 255) and must be scaled up. Note scaleUp is an explicit no-op for indexed
-            //   lines, so it only has effect here in the non-indexed branch.
-            // - bit depth 16 arrives as 0-65535, so keep the high byte of each sample;
-            //   previously the low byte was kept (via the & 0xFF in PixelTools.argb),
-            //   decoding e.g. a uniform 0x8000 mid-grey as black.
-            if (bitDepth < 8) {
-               ImageLineHelper.scaleUp(line);
-            }
-            int[] scanline = line.getScanline();
-            if (bitDepth == 16) {
-               for (int i = 0; i < scanline.length; i++) {
-                  scanline[i] >>= 8;
-               }
-            }
-            int rowOffset = row * w;
-            switch (channels) {
-               case 1:
-                  for (int x = 0, k = 0; x < w; x++, k += channels) {
-                     int v = scanline[k];
-                     matrix[rowOffset + x] = PixelTools.argb(255, v, v, v); // greyscale no alpha
-                  }
-                  break;
-               case 2:
-                  for (int x = 0, k = 0; x < w; x++, k += channels) {
-                     int v = scanline[k];
-                     matrix[rowOffset + x] = PixelTools.argb(scanline[k + 1], v, v, v);
-                  }
-                  break;
-               case 3:
-                  for (int x = 0, k = 0; x < w; x++, k += channels) {
-                     matrix[rowOffset + x] = PixelTools.argb(255, scanline[k], scanline[k + 1], scanline[k + 2]); // if no alpha then 255 is full opacity
-                  }
-                  break;
-               case 4:
-                  for (int x = 0, k = 0; x < w; x++, k += channels) {
-                     matrix[rowOffset + x] = PixelTools.argb(scanline[k + 3], scanline[k], scanline[k + 1], scanline[k + 2]); // note: the png reader is in RGBA
-                  }
-                  break;
-            }
-         }
+      ImmutableImage image = toImage(matrix, w, h);
+      if (rectangle != null) {
+         image = image.subimage(rectangle);
+      }
+      return image;
+
+      } finally {
+         pngr.close();
+      }
+   }
+
+   /**
+    * Decodes only every nth row and column of the given region. PNG rows are deflated as a single
+    * stream so every row up to the end of the region must still be inflated, but skipped rows are
+    * never converted, and only the subsampled pixels are allocated. Rows after the region are not
+    * read at all.
+    */
+   private ImmutableImage readSubsampled(ar.com.hjg.pngj.PngReader pngr, Rectangle region, int subsampling) {
+      int w = pngr.imgInfo.cols;
+      int h = pngr.imgInfo.rows;
+      if (region.x < 0 || region.y < 0 || region.width <= 0 || region.height <= 0
+         || (long) region.x + region.width > w || (long) region.y + region.height > h)
+         throw new IllegalArgumentException("Region " + region + " is outside the PNG bounds " + w + "x" + h);
+
+      // same rounding as javax.imageio source subsampling: the first pixel of the region is always kept
+      int outWidth = (region.width + subsampling - 1) / subsampling;
+      int outHeight = (region.height + subsampling - 1) / subsampling;
+      int[] matrix = new int[outWidth * outHeight];
+      RowConverter converter = new RowConverter(pngr);
+
+      int lastRow = region.y + (outHeight - 1) * subsampling;
+      for (int row = 0; row <= lastRow; row++) {
+         ImageLineInt line = (ImageLineInt) pngr.readRow();
+         if (row < region.y || (row - region.y) % subsampling != 0)
+            continue;
+         converter.convert(line, matrix, ((row - region.y) / subsampling) * outWidth, region.x, subsampling, outWidth);
       }
       pngr.end();
 
+      return toImage(matrix, outWidth, outHeight);
+   }
+
+   /**
+    * Wraps ARGB pixels in an image. Its metadata is empty here, as with every reader; the loader
+    * attaches the metadata of the source, whether or not the image was subsampled.
+    */
+   private static ImmutableImage toImage(int[] matrix, int w, int h) {
       DataBufferInt buffer = new DataBufferInt(matrix, matrix.length);
       int[] bandMasks = new int[]{0xFF0000, 0xFF00, 0xFF, 0xFF000000};
       WritableRaster raster = Raster.createPackedRaster(buffer, w, h, w, bandMasks, null);
-
       ColorModel cm = ColorModel.getRGBdefault();
       BufferedImage bi = new BufferedImage(cm, raster, cm.isAlphaPremultiplied(), null);
+      return ImmutableImage.wrapAwt(bi, ImageMetadata.empty);
+   }
 
-      ImmutableImage image = ImmutableImage.wrapAwt(bi, ImageMetadata.empty);
-      if (rectangle != null) {
-         image = image.subimage(rectangle);
+   /**
+    * Converts the scanlines of a PNG, of any colour type and bit depth, to ARGB.
+    */
+   private static final class RowConverter {
+
+      private final int channels;
+      private final int bitDepth;
+      private final boolean indexed;
+      private final ar.com.hjg.pngj.chunks.PngChunkPLTE plte;
+      // The tRNS chunk carries per-palette-entry alpha for indexed PNGs.
+      // When present, palette2rgb unpacks 4 channels (RGBA) so the entry's
+      // alpha is honoured; previously it was passed null and every pixel was
+      // forced to alpha 255, silently dropping palette transparency.
+      private final ar.com.hjg.pngj.chunks.PngChunkTRNS trns;
+      private int[] pixels;
+
+      private RowConverter(ar.com.hjg.pngj.PngReader pngr) {
+         channels = pngr.imgInfo.channels;
+         bitDepth = pngr.imgInfo.bitDepth;
+         indexed = pngr.imgInfo.indexed;
+         plte = indexed ? pngr.getMetadata().getPLTE() : null;
+         trns = indexed ? pngr.getMetadata().getTRNS() : null;
       }
-      return image;
 
-      } finally {
-         pngr.close();
+      /**
+       * Writes count pixels of the line, starting at column x and stepping by step columns, to
+       * the matrix from the given offset.
+       */
+      private void convert(ImageLineInt line, int[] matrix, int offset, int x, int step, int count) {
+         // pngj returns raw sample values, but PixelTools.argb expects 0-255 per channel:
+         // - bit depths 1/2/4 arrive unscaled (a 1-bit white pixel is 1, not 255) and must be
+         //   scaled up. scaleUp is an explicit no-op for indexed lines, whose palette
+         //   lookup needs no scaling.
+         // - bit depth 16 arrives as 0-65535, so keep the high byte of each sample;
+         //   previously the low byte was kept (via the & 0xFF in PixelTools.argb),
+         //   decoding e.g. a uniform 0x8000 mid-grey as black.
+         if (bitDepth < 8)
+            ImageLineHelper.scaleUp(line);
+         if (indexed) {
+            if (trns == null) {
+               pixels = ImageLineHelper.palette2rgb(line, plte, pixels); // 3 channels (RGB)
+               for (int i = 0, k = x * 3; i < count; i++, k += step * 3)
+                  matrix[offset + i] = PixelTools.argb(255, pixels[k], pixels[k + 1], pixels[k + 2]);
+            } else {
+               pixels = ImageLineHelper.palette2rgb(line, plte, trns, pixels); // 4 channels (RGBA)
+               for (int i = 0, k = x * 4; i < count; i++, k += step * 4)
+                  matrix[offset + i] = PixelTools.argb(pixels[k + 3], pixels[k], pixels[k + 1], pixels[k + 2]);
+            }
+            return;
+         }
+         int[] scanline = line.getScanline();
+         int shift = bitDepth == 16 ? 8 : 0;
+         int stride = step * channels;
+         switch (channels) {
+            case 1:
+               for (int i = 0, k = x * channels; i < count; i++, k += stride) {
+                  int v = scanline[k] >> shift;
+                  matrix[offset + i] = PixelTools.argb(255, v, v, v); // greyscale no alpha
+               }
+               break;
+            case 2:
+               for (int i = 0, k = x * channels; i < count; i++, k += stride) {
+                  int v = scanline[k] >> shift;
+                  matrix[offset + i] = PixelTools.argb(scanline[k + 1] >> shift, v, v, v);
+               }
+               break;
+            case 3:
+               for (int i = 0, k = x * channels; i < count; i++, k += stride) {
+                  // if no alpha then 255 is full opacity
+                  matrix[offset + i] = PixelTools.argb(255, scanline[k] >> shift, scanline[k + 1] >> shift, scanline[k + 2] >> shift);
+               }
+               break;
+            case 4:
+               for (int i = 0, k = x * channels; i < count; i++, k += stride) {
+                  // note: the png reader is in RGBA
+                  matrix[offset + i] = PixelTools.argb(scanline[k + 3] >> shift, scanline[k] >> shift, scanline[k + 1] >> shift, scanline[k + 2] >> shift);
+               }
+               break;
+         }
       }
    }
 
    // PNG magic bytes: 0x89 'P' 'N' 'G' 0x0D 0x0A 0x1A 0x0A, compared in place
    // to avoid allocating two 8-byte arrays per call.
-   private boolean isPng(byte[] bytes) {
-      return bytes.length >= 8 &&
-         bytes[0] == (byte) 0x89 &&
-         bytes[1] == 'P' &&
-         bytes[2] == 'N' &&
-         bytes[3] == 'G' &&
-         bytes[4] == 0x0D &&
-         bytes[5] == 0x0A &&
-         bytes[6] == 0x1A &&
-         bytes[7] == 0x0A;
+   private boolean isPng(ByteBuffer buffer) {
+      int p = buffer.position();
+      return buffer.remaining() >= 8 &&
+         buffer.get(p) == (byte) 0x89 &&
+         buffer.get(p + 1) == 'P' &&
+         buffer.get(p + 2) == 'N' &&
+         buffer.get(p + 3) == 'G' &&
+         buffer.get(p + 4) == 0x0D &&
+         buffer.get(p + 5) == 0x0A &&
+         buffer.get(p + 6) == 0x1A &&
+         buffer.get(p + 7) == 0x0A;
    }
 
    @Override
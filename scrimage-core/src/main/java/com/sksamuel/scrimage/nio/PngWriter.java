@@ -72,7 +72,16 @@ public class PngWriter implements ImageWriter {
       // IllegalArgumentException for TYPE_CUSTOM (type 0), which is what the JDK PNG reader
       // returns for 16-bit per channel PNGs — so such images could never be written back out.
       ImageTypeSpecifier type = ImageTypeSpecifier.createFromRenderedImage(image.awt());
-      javax.imageio.ImageWriter writer = ImageIO.getImageWriters(type, "png").next();
+      // Prefer a pooled writer; fall back to a registry lookup, for a plugin that can encode
+      // this type, only when the pooled one cannot.
+      javax.imageio.ImageWriter writer = ImageIOPool.shared().borrowWriter("png");
+      boolean pooled = writer != null && writer.getOriginatingProvider() != null &&
+         writer.getOriginatingProvider().canEncodeImage(type);
+      if (!pooled) {
+         if (writer != null)
+            ImageIOPool.shared().releaseWriter("png", writer);
+         writer = ImageIO.getImageWriters(type, "png").next();
+      }
       try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
          ImageWriteParam param = writer.getDefaultWriteParam();
 
@@ -96,7 +105,10 @@ public class PngWriter implements ImageWriter {
          writer.setOutput(ios);
          writer.write(null, new IIOImage(image.awt(), null, null), param);
       } finally {
-         writer.dispose();
+         if (pooled)
+            ImageIOPool.shared().releaseWriter("png", writer);
+         else
+            writer.dispose();
       }
    }
 }
@@ -0,0 +1,38 @@
+package com.sksamuel.scrimage.nio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An {@link ImageSource} that can expose its encoded bytes as a random access {@link ByteBuffer}
+ * rather than as a heap copy. Readers that understand this interface decode straight from the
+ * buffer, so a memory mapped file is paged in by the OS as the decoder touches it and is never
+ * materialised as a byte array.
+ */
+public interface SeekableImageSource extends ImageSource {
+
+   /**
+    * Returns a read-only view over the encoded bytes, positioned at zero. Each call returns an
+    * independent view, so callers are free to move its position and limit.
+    */
+   ByteBuffer buffer() throws IOException;
+
+   /**
+    * Returns a stream over the encoded bytes, backed by {@link #buffer()}.
+    */
+   default InputStream open() throws IOException {
+      return new ByteBufferInputStream(buffer());
+   }
+
+   /**
+    * Copies the encoded bytes onto the heap, for readers that only accept a byte array.
+    */
+   @Override
+   default byte[] read() throws IOException {
+      ByteBuffer buffer = buffer();
+      byte[] bytes = new byte[buffer.remaining()];
+      buffer.get(bytes);
+      return bytes;
+   }
+}
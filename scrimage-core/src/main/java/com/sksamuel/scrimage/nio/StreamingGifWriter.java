@@ -107,11 +107,14 @@ public class StreamingGifWriter extends AbstractGifWriter {
 
    public GifStream prepareStream(OutputStream output, int imageType) throws IOException {
 
-      ImageWriter writer = ImageIO.getImageWritersBySuffix("gif").next();
+      // The writer is borrowed from the shared pool and returned when the stream is closed.
+      ImageWriter writer = ImageIOPool.shared().borrowWriter("gif");
+      if (writer == null)
+         throw new IOException("No javax.imageio.ImageWriter is installed for gif");
       // Until the GifStream below is constructed and returned, nothing else owns
       // the writer or the IIO stream. If any setup step throws (setFromTree can
       // raise IIOInvalidTreeException, prepareWriteSequence can raise IOException),
-      // GifStream.close() is never reachable, so dispose/close them here.
+      // GifStream.close() is never reachable, so release/close them here.
       MemoryCacheImageOutputStream ios = null;
       try {
          ImageWriteParam imageWriteParam = writer.getDefaultWriteParam();
@@ -137,7 +140,7 @@ public class StreamingGifWriter extends AbstractGifWriter {
          return buildStream(writer, ios, imageMetaData, imageWriteParam, metaFormatName, output);
       } catch (IOException | RuntimeException e) {
          try {
-            writer.dispose();
+            ImageIOPool.shared().releaseWriter("gif", writer);
          } finally {
             if (ios != null) ios.close();
          }
@@ -242,7 +245,7 @@ public class StreamingGifWriter extends AbstractGifWriter {
                writer.endWriteSequence();
             } finally {
                try {
-                  writer.dispose();
+                  ImageIOPool.shared().releaseWriter("gif", writer);
                } finally {
                   try {
                      ios.close();
@@ -0,0 +1,80 @@
+package com.sksamuel.scrimage.nio;
+
+/**
+ * Describes how large an image will be once the caller has scaled it, so that readers which
+ * can decode at a reduced resolution (by keeping every nth row and column) only produce
+ * roughly twice the pixels needed for the final, high quality resample.
+ * <p>
+ * Readers use {@link #subsampling(int, int)} to pick the factor. The factor is always chosen
+ * so that the decoded image stays at least twice the target size, and it is the same whether
+ * or not the image is later rotated by its EXIF orientation, since that is not known until
+ * after the pixels have been decoded.
+ */
+public class SubsamplingHint {
+
+   private final int width;
+   private final int height;
+   private final boolean longestSideOnly;
+
+   private SubsamplingHint(int width, int height, boolean longestSideOnly) {
+      if (width <= 0 || height <= 0)
+         throw new IllegalArgumentException("Target size must be positive but was " + width + "x" + height);
+      this.width = width;
+      this.height = height;
+      this.longestSideOnly = longestSideOnly;
+   }
+
+   /**
+    * The image will be scaled so that it covers, or fits inside, the given dimensions.
+    * Both decoded dimensions are kept at least twice the target, which is enough for
+    * cover, fit, bound, max and scaleTo.
+    */
+   public static SubsamplingHint targetSize(int width, int height) {
+      return new SubsamplingHint(width, height, false);
+   }
+
+   /**
+    * The image will be scaled so that its longest side is at most the given size,
+    * as with bound(n, n) or max(n, n). Only the longest decoded side is kept at least
+    * twice the target.
+    */
+   public static SubsamplingHint maxDimension(int size) {
+      return new SubsamplingHint(size, size, true);
+   }
+
+   /**
+    * Returns the factor to subsample a source of the given size by, where 1 means the
+    * image should be decoded at full resolution.
+    */
+   public int subsampling(int sourceWidth, int sourceHeight) {
+      if (sourceWidth <= 0 || sourceHeight <= 0) return 1;
+      int factor;
+      if (longestSideOnly) {
+         factor = Math.max(sourceWidth, sourceHeight) / (2 * Math.max(width, height));
+      } else {
+         // the smaller of the factors for the upright and the rotated target, so the
+         // result is large enough whichever way round the image ends up
+         int upright = Math.min(sourceWidth / (2 * width), sourceHeight / (2 * height));
+         int rotated = Math.min(sourceWidth / (2 * height), sourceHeight / (2 * width));
+         factor = Math.min(upright, rotated);
+      }
+      return Math.max(1, factor);
+   }
+
+   public int getWidth() {
+      return width;
+   }
+
+   public int getHeight() {
+      return height;
+   }
+
+   @Override
+   public String toString() {
+      return "SubsamplingHint{" +
+         "width=" + width +
+         ", height=" + height +
+         ", longestSideOnly=" + longestSideOnly +
+         '}';
+   }
+}
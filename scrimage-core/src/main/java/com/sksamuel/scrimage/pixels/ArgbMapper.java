@@ -0,0 +1,22 @@
+package com.sksamuel.scrimage.pixels;
+
+/**
+ * Maps a pixel, given as its coordinates and packed ARGB value, to a new packed ARGB value.
+ * <p>
+ * This is the primitive counterpart of a {@code Function<Pixel, Color>}: nothing is boxed or
+ * allocated per pixel, so a mapper that does plain int arithmetic compiles down to a tight loop.
+ *
+ * @see com.sksamuel.scrimage.ImmutableImage#mapArgb(ArgbMapper)
+ * @see com.sksamuel.scrimage.MutableImage#mapArgbInPlace(ArgbMapper)
+ */
+@FunctionalInterface
+public interface ArgbMapper {
+
+   /**
+    * @param x    the x coordinate of the pixel
+    * @param y    the y coordinate of the pixel
+    * @param argb the current value of the pixel
+    * @return the new value of the pixel
+    */
+   int map(int x, int y, int argb);
+}
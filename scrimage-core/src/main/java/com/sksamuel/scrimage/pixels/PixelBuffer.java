@@ -0,0 +1,155 @@
+package com.sksamuel.scrimage.pixels;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Optional;
+
+/**
+ * A view over the int array backing a TYPE_INT_ARGB or TYPE_INT_RGB image, which lets pixel loops
+ * read and write the image directly instead of copying it out with getRGB and back with setRGB.
+ * <p>
+ * Pixel (x, y) is at {@code data()[offset() + y * stride() + x]}. The stride is the width of the
+ * backing raster, which is wider than the image when the image is a view created by
+ * BufferedImage.getSubimage, so loops must step rows by the stride rather than by the width.
+ * <p>
+ * Values are packed ARGB. For TYPE_INT_RGB images the top byte is ignored by the image and may
+ * hold anything, so reads should be or'ed with {@link #alphaMask()} to get the same value as getRGB.
+ * <p>
+ * Writes go straight into the image. Note that once the backing array has been handed out,
+ * Java2D no longer caches the image in video memory, which only matters for images that are
+ * repeatedly drawn to the screen.
+ */
+public final class PixelBuffer {
+
+   private final int[] data;
+   private final int offset;
+   private final int stride;
+   private final int width;
+   private final int height;
+   private final boolean alpha;
+
+   private PixelBuffer(int[] data, int offset, int stride, int width, int height, boolean alpha) {
+      this.data = data;
+      this.offset = offset;
+      this.stride = stride;
+      this.width = width;
+      this.height = height;
+      this.alpha = alpha;
+   }
+
+   /**
+    * Returns a view over the pixels of the given image, or an empty optional if the image is
+    * not a TYPE_INT_ARGB or TYPE_INT_RGB image backed by a single int array.
+    */
+   public static Optional<PixelBuffer> of(BufferedImage image) {
+      int type = image.getType();
+      if (type != BufferedImage.TYPE_INT_ARGB && type != BufferedImage.TYPE_INT_RGB)
+         return Optional.empty();
+      WritableRaster raster = image.getRaster();
+      if (!(raster.getDataBuffer() instanceof DataBufferInt) ||
+         raster.getDataBuffer().getNumBanks() != 1 ||
+         !(raster.getSampleModel() instanceof SinglePixelPackedSampleModel))
+         return Optional.empty();
+      SinglePixelPackedSampleModel sm = (SinglePixelPackedSampleModel) raster.getSampleModel();
+      int offset = raster.getDataBuffer().getOffset() +
+         sm.getOffset(-raster.getSampleModelTranslateX(), -raster.getSampleModelTranslateY());
+      int[] data = ((DataBufferInt) raster.getDataBuffer()).getData();
+      return Optional.of(new PixelBuffer(data, offset, sm.getScanlineStride(), image.getWidth(), image.getHeight(),
+         type == BufferedImage.TYPE_INT_ARGB));
+   }
+
+   /**
+    * Returns the backing array. This is not a copy.
+    */
+   public int[] data() {
+      return data;
+   }
+
+   /**
+    * Returns the index in {@link #data()} of pixel (0, 0).
+    */
+   public int offset() {
+      return offset;
+   }
+
+   /**
+    * Returns the distance in {@link #data()} between vertically adjacent pixels.
+    */
+   public int stride() {
+      return stride;
+   }
+
+   public int width() {
+      return width;
+   }
+
+   public int height() {
+      return height;
+   }
+
+   /**
+    * Returns true if the image has an alpha channel (TYPE_INT_ARGB).
+    */
+   public boolean hasAlpha() {
+      return alpha;
+   }
+
+   /**
+    * Returns the mask to or with a value read from {@link #data()} to get its ARGB value:
+    * zero for images with alpha, and opaque alpha for images without.
+    */
+   public int alphaMask() {
+      return alpha ? 0 : 0xFF000000;
+   }
+
+   /**
+    * Returns true if the pixels fill the backing array in row major order with no gaps,
+    * so that pixel (x, y) is at index y * width + x.
+    */
+   public boolean isDense() {
+      return offset == 0 && stride == width && data.length == width * height;
+   }
+
+   /**
+    * Returns the index in {@link #data()} of pixel (x, y).
+    */
+   public int index(int x, int y) {
+      return offset + y * stride + x;
+   }
+
+   /**
+    * Returns the ARGB value of pixel (x, y), as getRGB would.
+    */
+   public int get(int x, int y) {
+      return data[offset + y * stride + x] | alphaMask();
+   }
+
+   /**
+    * Sets pixel (x, y) to the given ARGB value. The alpha is discarded by images without alpha.
+    */
+   public void set(int x, int y, int argb) {
+      data[offset + y * stride + x] = argb;
+   }
+
+   /**
+    * Copies the pixels into a new row major ARGB array, as getRGB(0, 0, width, height, null, 0, width) would.
+    */
+   public int[] toArgb() {
+      int[] argb = new int[width * height];
+      int mask = alphaMask();
+      for (int y = 0; y < height; y++) {
+         int row = offset + y * stride;
+         int k = y * width;
+         if (mask == 0) {
+            System.arraycopy(data, row, argb, k, width);
+         } else {
+            for (int x = 0; x < width; x++) {
+               argb[k + x] = data[row + x] | mask;
+            }
+         }
+      }
+      return argb;
+   }
+}
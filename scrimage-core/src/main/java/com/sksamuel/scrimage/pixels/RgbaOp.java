@@ -0,0 +1,20 @@
+package com.sksamuel.scrimage.pixels;
+
+/**
+ * An {@link ArgbMapper} that depends only on the channels of the pixel, not on its position.
+ * The channels are unpacked before the op is applied, each as a value between 0 and 255,
+ * and the op returns the new packed ARGB value, for example with {@link PixelTools#argb}.
+ */
+@FunctionalInterface
+public interface RgbaOp extends ArgbMapper {
+
+   /**
+    * @return the new packed ARGB value for a pixel with the given channels
+    */
+   int apply(int red, int green, int blue, int alpha);
+
+   @Override
+   default int map(int x, int y, int argb) {
+      return apply(argb >> 16 & 0xFF, argb >> 8 & 0xFF, argb & 0xFF, argb >>> 24);
+   }
+}
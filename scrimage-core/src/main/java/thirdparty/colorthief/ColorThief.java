@@ -18,9 +18,11 @@ package thirdparty.colorthief;
  * available at http://lokeshdhakar.com/projects/color-thief/
  */
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
 import java.awt.image.DataBufferByte;
 import java.awt.image.DataBufferInt;
 import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 import java.util.Arrays;
 
 public class ColorThief {
@@ -167,7 +169,11 @@ public class ColorThief {
       switch (sourceImage.getType()) {
          case BufferedImage.TYPE_3BYTE_BGR:
          case BufferedImage.TYPE_4BYTE_ABGR:
-            pixelArray = getPixelsFast(sourceImage, quality, ignoreWhite);
+            // the fast path walks the whole byte array, which holds more than this image's
+            // pixels when the image is a view over part of another (BufferedImage.getSubimage)
+            pixelArray = isWholeBuffer(sourceImage)
+               ? getPixelsFast(sourceImage, quality, ignoreWhite)
+               : getPixelsSlow(sourceImage, quality, ignoreWhite);
             break;
 
          case BufferedImage.TYPE_INT_ARGB:
@@ -187,6 +193,15 @@ public class ColorThief {
       return MMCQ.quantize(pixelArray, colorCount);
    }
 
+   private static boolean isWholeBuffer(BufferedImage sourceImage) {
+      WritableRaster raster = sourceImage.getRaster();
+      DataBuffer buffer = raster.getDataBuffer();
+      return raster.getSampleModelTranslateX() == 0
+         && raster.getSampleModelTranslateY() == 0
+         && buffer.getOffset() == 0
+         && buffer.getSize() == sourceImage.getWidth() * sourceImage.getHeight() * raster.getNumDataElements();
+   }
+
    /**
     * Gets the image's pixels via BufferedImage.getRaster().getDataBuffer(). Fast, but doesn't work
     * for all color models.
@@ -6,12 +6,34 @@
  */
 package thirdparty.mortennobel;
 
+import com.sksamuel.scrimage.internal.RowStripes;
+
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Based on work from Java Image Util ( http://schmidt.devlib.org/jiu/ )
  * Note that the filter method is not thread safe
+ * <p>
+ * When created with a parallelism greater than one, both the horizontal and the vertical
+ * pass are split into bands of rows which are sampled concurrently on the given executor
+ * (the common ForkJoinPool by default). Every output sample is computed from the same
+ * contributors and weights regardless of which band it falls in, so the result is
+ * identical to the serial path.
+ * <p>
+ * TYPE_INT_ARGB and TYPE_INT_RGB sources are resampled by an int-packed engine that reads
+ * the source DataBufferInt directly, keeps the intermediate rows in a single packed int[]
+ * and writes straight into the destination's int raster, so no BGR byte rows are created.
+ * For TYPE_INT_ARGB the colour channels are premultiplied by alpha inside the horizontal
+ * pass and unpremultiplied inside the vertical pass, so transparent pixels do not bleed
+ * their colour into visible neighbours. The result keeps the source's type.
+ * <p>
+ * The per-axis contribution tables are looked up in {@link SubSamplingCache#shared()}.
  *
  * @author Morten Nobel-Joergensen
  * @author Heinz Doerr
@@ -21,6 +43,8 @@ public class ResampleOp extends AdvancedResizeOp {
   private final static int MAX_CHANNEL_VALUE = 255;
 
   private final ResampleFilter filter;
+  private final int parallelism;
+  private final Executor executor;
 
   private int nrChannels;
   private int srcWidth;
@@ -48,8 +72,36 @@ public class ResampleOp extends AdvancedResizeOp {
   public ResampleOp(final ResampleFilter filter,
                     final int destWidth,
                     final int destHeight) {
+    this(filter, destWidth, destHeight, 1);
+  }
+
+  /**
+   * @param parallelism the number of bands each pass is split into. Values of 1 or less
+   *                    resample on the calling thread.
+   */
+  public ResampleOp(final ResampleFilter filter,
+                    final int destWidth,
+                    final int destHeight,
+                    final int parallelism) {
+    this(filter, destWidth, destHeight, parallelism, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * @param parallelism the number of bands each pass is split into. Values of 1 or less
+   *                    resample on the calling thread.
+   * @param executor    the executor used to sample all but one of the bands; the calling
+   *                    thread always samples the last band itself.
+   */
+  public ResampleOp(final ResampleFilter filter,
+                    final int destWidth,
+                    final int destHeight,
+                    final int parallelism,
+                    final Executor executor) {
     super(destWidth, destHeight);
+    if (executor == null) throw new IllegalArgumentException("executor cannot be null");
     this.filter = filter;
+    this.parallelism = Math.max(1, parallelism);
+    this.executor = executor;
   }
 
   public BufferedImage doFilter(BufferedImage srcImg, BufferedImage dest, int dstWidth, int dstHeight) {
@@ -72,31 +124,36 @@ public class ResampleOp extends AdvancedResizeOp {
     this.srcWidth = srcImg.getWidth();
     this.srcHeight = srcImg.getHeight();
 
-    byte[][] workPixels = new byte[srcHeight][dstWidth * nrChannels];
-
     // Pre-calculate  sub-sampling
-    horizontalSubsamplingData = createSubSampling(filter, srcWidth, dstWidth);
-    verticalSubsamplingData = createSubSampling(filter, srcHeight, dstHeight);
+    horizontalSubsamplingData = SubSamplingCache.shared().get(filter, srcWidth, dstWidth);
+    verticalSubsamplingData = SubSamplingCache.shared().get(filter, srcHeight, dstHeight);
 
     if (srcWidth < horizontalSubsamplingData.numContributors || srcHeight < verticalSubsamplingData.numContributors) {
       throw new RuntimeException("Error doing rescale. Source size was " + srcWidth + "x" + srcHeight + " but must be" +
         " at least " + horizontalSubsamplingData.numContributors + "x" + verticalSubsamplingData.numContributors);
     }
 
+    if (isIntPacked(srcImg) && (dest == null || !sameSize(dest, dstWidth, dstHeight) ||
+      (dest.getType() == srcImg.getType() && isIntPacked(dest)))) {
+      return doFilterInt(srcImg, dest);
+    }
+
+    byte[][] workPixels = new byte[srcHeight][dstWidth * nrChannels];
     final byte[][] workPixelsCopy = workPixels;
 
-    horizontallyFromSrcToWork(srcImg, workPixelsCopy);
+    final BufferedImage src = srcImg;
+    inBands(srcHeight, (start, end) -> horizontallyFromSrcToWork(src, workPixelsCopy, start, end));
 
     byte[] outPixels = new byte[dstWidth * dstHeight * nrChannels];
     // --------------------------------------------------
     // Apply filter to sample vertically from Work to Dst
     // --------------------------------------------------
-    verticalFromWorkToDst(workPixelsCopy, outPixels);
+    inBands(dstHeight, (start, end) -> verticalFromWorkToDst(workPixelsCopy, outPixels, start, end));
 
     //noinspection UnusedAssignment
     workPixels = null; // free memory
     BufferedImage out;
-    if (dest != null && dstWidth == dest.getWidth() && dstHeight == dest.getHeight()) {
+    if (dest != null && sameSize(dest, dstWidth, dstHeight)) {
       out = dest;
       int nrDestChannels = ImageUtils.nrChannels(dest);
       if (nrDestChannels != nrChannels) {
@@ -114,6 +171,156 @@ public class ResampleOp extends AdvancedResizeOp {
     return out;
   }
 
+  private static boolean sameSize(BufferedImage image, int width, int height) {
+    return image.getWidth() == width && image.getHeight() == height;
+  }
+
+  /**
+   * Returns true if the image is TYPE_INT_ARGB or TYPE_INT_RGB backed by a single packed
+   * DataBufferInt, which the int engine can address directly. Sub-image views qualify too,
+   * their origin and scanline stride are taken from the raster.
+   */
+  private static boolean isIntPacked(BufferedImage image) {
+    int type = image.getType();
+    if (type != BufferedImage.TYPE_INT_ARGB && type != BufferedImage.TYPE_INT_RGB) return false;
+    WritableRaster raster = image.getRaster();
+    return raster.getDataBuffer() instanceof DataBufferInt
+      && raster.getDataBuffer().getNumBanks() == 1
+      && raster.getSampleModel() instanceof SinglePixelPackedSampleModel;
+  }
+
+  /**
+   * The index into the backing int[] of pixel (0, 0) of the image.
+   */
+  private static int intOffset(BufferedImage image) {
+    WritableRaster raster = image.getRaster();
+    SinglePixelPackedSampleModel sm = (SinglePixelPackedSampleModel) raster.getSampleModel();
+    return raster.getDataBuffer().getOffset()
+      + sm.getOffset(-raster.getSampleModelTranslateX(), -raster.getSampleModelTranslateY());
+  }
+
+  private static int intStride(BufferedImage image) {
+    return ((SinglePixelPackedSampleModel) image.getRaster().getSampleModel()).getScanlineStride();
+  }
+
+  private BufferedImage doFilterInt(BufferedImage srcImg, BufferedImage dest) {
+    final boolean alpha = srcImg.getType() == BufferedImage.TYPE_INT_ARGB;
+    final int[] src = ((DataBufferInt) srcImg.getRaster().getDataBuffer()).getData();
+    final int srcOffset = intOffset(srcImg);
+    final int srcStride = intStride(srcImg);
+
+    // one packed int per work pixel, each channel already rounded to 8 bits exactly as the
+    // byte engine rounds its work rows, so both engines produce the same output
+    final int[] work = new int[srcHeight * dstWidth];
+    inBands(srcHeight, (start, end) -> horizontallyFromSrcToWorkInt(src, srcOffset, srcStride, work, alpha, start, end));
+
+    BufferedImage out = dest != null && sameSize(dest, dstWidth, dstHeight) ?
+      dest : new BufferedImage(dstWidth, dstHeight, srcImg.getType());
+    final int[] dst = ((DataBufferInt) out.getRaster().getDataBuffer()).getData();
+    final int dstOffset = intOffset(out);
+    final int dstStride = intStride(out);
+    inBands(dstHeight, (start, end) -> verticalFromWorkToDstInt(work, dst, dstOffset, dstStride, alpha, start, end));
+    return out;
+  }
+
+  /**
+   * Apply filter to sample horizontally from a packed int source to the packed work rows,
+   * for the source rows [startY, endY). Colour is premultiplied by alpha when alpha is set.
+   */
+  private void horizontallyFromSrcToWorkInt(int[] src, int srcOffset, int srcStride, int[] work,
+                                            boolean alpha, int startY, int endY) {
+    final int[] row = new int[srcWidth];
+    final int[] arrN = horizontalSubsamplingData.arrN;
+    final int[] arrPixel = horizontalSubsamplingData.arrPixel;
+    final float[] arrWeight = horizontalSubsamplingData.arrWeight;
+    final int numContributors = horizontalSubsamplingData.numContributors;
+
+    for (int k = startY; k < endY; k++) {
+      System.arraycopy(src, srcOffset + k * srcStride, row, 0, srcWidth);
+      if (alpha) {
+        for (int x = 0; x < srcWidth; x++) {
+          row[x] = premultiply(row[x]);
+        }
+      }
+      final int workRow = k * dstWidth;
+      for (int i = dstWidth - 1; i >= 0; i--) {
+        final int max = arrN[i];
+        float sampleA = 0.0f;
+        float sampleR = 0.0f;
+        float sampleG = 0.0f;
+        float sampleB = 0.0f;
+        int index = i * numContributors;
+        for (int j = max - 1; j >= 0; j--) {
+          float weight = arrWeight[index];
+          int p = row[arrPixel[index]];
+          sampleB += (p & 0xff) * weight;
+          sampleG += ((p >> 8) & 0xff) * weight;
+          sampleR += ((p >> 16) & 0xff) * weight;
+          if (alpha) {
+            sampleA += (p >>> 24) * weight;
+          }
+          index++;
+        }
+        work[workRow + i] = (alpha ? toInt(sampleA) << 24 : 0) |
+          (toInt(sampleR) << 16) | (toInt(sampleG) << 8) | toInt(sampleB);
+      }
+    }
+  }
+
+  /**
+   * Apply filter to sample vertically from the packed work rows into a packed int
+   * destination, for the destination rows [startY, endY). Colour is unpremultiplied when
+   * alpha is set.
+   */
+  private void verticalFromWorkToDstInt(int[] work, int[] dst, int dstOffset, int dstStride,
+                                        boolean alpha, int startY, int endY) {
+    final int[] arrN = verticalSubsamplingData.arrN;
+    final int[] arrPixel = verticalSubsamplingData.arrPixel;
+    final float[] arrWeight = verticalSubsamplingData.arrWeight;
+    final int numContributors = verticalSubsamplingData.numContributors;
+
+    for (int y = startY; y < endY; y++) {
+      final int max = arrN[y];
+      final int rowStart = dstOffset + y * dstStride;
+      for (int x = 0; x < dstWidth; x++) {
+        float sampleA = 0.0f;
+        float sampleR = 0.0f;
+        float sampleG = 0.0f;
+        float sampleB = 0.0f;
+        int index = y * numContributors;
+        for (int j = max - 1; j >= 0; j--) {
+          float weight = arrWeight[index];
+          int p = work[arrPixel[index] * dstWidth + x];
+          sampleB += (p & 0xff) * weight;
+          sampleG += ((p >> 8) & 0xff) * weight;
+          sampleR += ((p >> 16) & 0xff) * weight;
+          if (alpha) {
+            sampleA += (p >>> 24) * weight;
+          }
+          index++;
+        }
+        int rgb = (toInt(sampleR) << 16) | (toInt(sampleG) << 8) | toInt(sampleB);
+        dst[rowStart + x] = alpha ? unpremultiply(toInt(sampleA), rgb) : rgb;
+      }
+    }
+  }
+
+  private static int premultiply(int p) {
+    int a = p >>> 24;
+    int r = ((p >> 16) & 0xff) * a / MAX_CHANNEL_VALUE;
+    int g = ((p >> 8) & 0xff) * a / MAX_CHANNEL_VALUE;
+    int b = (p & 0xff) * a / MAX_CHANNEL_VALUE;
+    return (a << 24) | (r << 16) | (g << 8) | b;
+  }
+
+  private static int unpremultiply(int a, int rgb) {
+    if (a == 0) return 0; // fully clear
+    int r = Math.min(MAX_CHANNEL_VALUE, ((rgb >> 16) & 0xff) * MAX_CHANNEL_VALUE / a);
+    int g = Math.min(MAX_CHANNEL_VALUE, ((rgb >> 8) & 0xff) * MAX_CHANNEL_VALUE / a);
+    int b = Math.min(MAX_CHANNEL_VALUE, (rgb & 0xff) * MAX_CHANNEL_VALUE / a);
+    return (a << 24) | (r << 16) | (g << 8) | b;
+  }
+
   /**
    * The maximum number of source contributors per destination pixel for the given axis
    * geometry. Extracted from createSubSampling so canResample can share the exact formula.
@@ -257,15 +464,24 @@ public class ResampleOp extends AdvancedResizeOp {
     return new SubSamplingData(arrN, arrPixel, arrWeight, numContributors);
   }
 
-  private void verticalFromWorkToDst(byte[][] workPixels, byte[] outPixels) {
+  /**
+   * Splits [0, size) into at most parallelism contiguous bands and samples them, running all
+   * but the last band on the executor and the last band on the calling thread. Every band has
+   * finished when this returns or throws.
+   */
+  private void inBands(int size, RowStripes.Rows band) {
+    RowStripes.inStripes(size, Math.min(parallelism, size), executor, band);
+  }
+
+  private void verticalFromWorkToDst(byte[][] workPixels, byte[] outPixels, int startY, int endY) {
     if (nrChannels == 1) {
-      verticalFromWorkToDstGray(workPixels, outPixels);
+      verticalFromWorkToDstGray(workPixels, outPixels, startY, endY);
       return;
     }
     boolean useChannel3 = nrChannels > 3;
     for (int x = 0; x < dstWidth; x += 1) {
       final int xLocation = x * nrChannels;
-      for (int y = dstHeight - 1; y >= 0; y--) {
+      for (int y = endY - 1; y >= startY; y--) {
         final int yTimesNumContributors = y * verticalSubsamplingData.numContributors;
         final int max = verticalSubsamplingData.arrN[y];
         final int sampleLocation = (y * dstWidth + x) * nrChannels;
@@ -299,9 +515,9 @@ public class ResampleOp extends AdvancedResizeOp {
     }
   }
 
-  private void verticalFromWorkToDstGray(byte[][] workPixels, byte[] outPixels) {
+  private void verticalFromWorkToDstGray(byte[][] workPixels, byte[] outPixels, int startY, int endY) {
     for (int x = 0; x < dstWidth; x += 1) {
-      for (int y = dstHeight - 1; y >= 0; y--) {
+      for (int y = endY - 1; y >= startY; y--) {
         final int yTimesNumContributors = y * verticalSubsamplingData.numContributors;
         final int max = verticalSubsamplingData.arrN[y];
         final int sampleLocation = (y * dstWidth + x);
@@ -322,18 +538,18 @@ public class ResampleOp extends AdvancedResizeOp {
   }
 
   /**
-   * Apply filter to sample horizontally from Src to Work
+   * Apply filter to sample horizontally from Src to Work, for the source rows [startY, endY)
    */
-  private void horizontallyFromSrcToWork(BufferedImage srcImg, byte[][] workPixels) {
+  private void horizontallyFromSrcToWork(BufferedImage srcImg, byte[][] workPixels, int startY, int endY) {
     if (nrChannels == 1) {
-      horizontallyFromSrcToWorkGray(srcImg, workPixels);
+      horizontallyFromSrcToWorkGray(srcImg, workPixels, startY, endY);
       return;
     }
     final int[] tempPixels = new int[srcWidth];   // Used if we work on int based bitmaps, later used to keep channel values
     final byte[] srcPixels = new byte[srcWidth * nrChannels]; // create reusable row to minimize memory overhead
     final boolean useChannel3 = nrChannels > 3;
 
-    for (int k = 0; k < srcHeight; k = k + 1) {
+    for (int k = startY; k < endY; k = k + 1) {
       ImageUtils.getPixelsBGR(srcImg, k, srcWidth, srcPixels, tempPixels);
 
       for (int i = dstWidth - 1; i >= 0; i--) {
@@ -369,13 +585,13 @@ public class ResampleOp extends AdvancedResizeOp {
   }
 
   /**
-   * Apply filter to sample horizontally from Src to Work
+   * Apply filter to sample horizontally from Src to Work, for the source rows [startY, endY)
    */
-  private void horizontallyFromSrcToWorkGray(BufferedImage srcImg, byte[][] workPixels) {
+  private void horizontallyFromSrcToWorkGray(BufferedImage srcImg, byte[][] workPixels, int startY, int endY) {
     final int[] tempPixels = new int[srcWidth];   // Used if we work on int based bitmaps, later used to keep channel values
     final byte[] srcPixels = new byte[srcWidth]; // create reusable row to minimize memory overhead
 
-    for (int k = 0; k < srcHeight; k = k + 1) {
+    for (int k = startY; k < endY; k = k + 1) {
       ImageUtils.getPixelsBGR(srcImg, k, srcWidth, srcPixels, tempPixels);
 
       for (int i = dstWidth - 1; i >= 0; i--) {
@@ -396,6 +612,16 @@ public class ResampleOp extends AdvancedResizeOp {
     }
   }
 
+  private static int toInt(float f) {
+    if (f < 0) {
+      return 0;
+    }
+    if (f > MAX_CHANNEL_VALUE) {
+      return MAX_CHANNEL_VALUE;
+    }
+    return (int) (f + 0.5f); // add 0.5 same as Math.round
+  }
+
   private byte toByte(float f) {
     if (f < 0) {
       return 0;
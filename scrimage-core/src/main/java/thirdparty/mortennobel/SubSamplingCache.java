@@ -0,0 +1,167 @@
+/*
+ * Copyright 2013, Morten Nobel-Joergensen
+ *
+ * License: The BSD 3-Clause License
+ * http://opensource.org/licenses/BSD-3-Clause
+ */
+package thirdparty.mortennobel;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, least recently used cache of the contribution tables that ResampleOp builds
+ * for each axis. The tables only depend on the filter and on the source and destination
+ * size of the axis, so services that resize between a handful of fixed geometries can
+ * reuse them instead of rebuilding them for every image.
+ * <p>
+ * The cached tables are never written to after they are built, so a single cache can be
+ * shared by any number of threads. The shared instance is used by every ResampleOp.
+ */
+public class SubSamplingCache {
+
+  public static final int DEFAULT_MAX_ENTRIES = 64;
+
+  private static final SubSamplingCache shared = new SubSamplingCache(DEFAULT_MAX_ENTRIES);
+
+  /**
+   * Returns the cache shared by all ResampleOps, and therefore by ImmutableImage.scaleTo.
+   */
+  public static SubSamplingCache shared() {
+    return shared;
+  }
+
+  private static final class Key {
+    private final ResampleFilter filter;
+    private final int srcSize;
+    private final int dstSize;
+
+    private Key(ResampleFilter filter, int srcSize, int dstSize) {
+      this.filter = filter;
+      this.srcSize = srcSize;
+      this.dstSize = dstSize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      Key key = (Key) o;
+      return srcSize == key.srcSize && dstSize == key.dstSize && filter.equals(key.filter);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(filter, srcSize, dstSize);
+    }
+  }
+
+  private final LinkedHashMap<Key, ResampleOp.SubSamplingData> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private int maxEntries;
+
+  /**
+   * @param maxEntries the maximum number of axis tables to keep. 0 disables caching.
+   */
+  public SubSamplingCache(int maxEntries) {
+    setMaxEntries(maxEntries);
+  }
+
+  ResampleOp.SubSamplingData get(ResampleFilter filter, int srcSize, int dstSize) {
+    Key key = new Key(filter, srcSize, dstSize);
+    synchronized (entries) {
+      ResampleOp.SubSamplingData data = entries.get(key);
+      if (data != null) {
+        hits.increment();
+        return data;
+      }
+    }
+    misses.increment();
+    // build outside the lock so a slow build doesn't stall threads that hit the cache;
+    // two threads missing on the same key at once both build and the last one wins,
+    // which is harmless as the tables are equal
+    ResampleOp.SubSamplingData data = ResampleOp.createSubSampling(filter, srcSize, dstSize);
+    synchronized (entries) {
+      if (maxEntries > 0) {
+        entries.put(key, data);
+        evictToSize();
+      }
+    }
+    return data;
+  }
+
+  /**
+   * Changes the maximum number of tables kept, evicting the least recently used tables if
+   * the cache is now over the limit. 0 disables caching.
+   */
+  public void setMaxEntries(int maxEntries) {
+    if (maxEntries < 0) throw new IllegalArgumentException("maxEntries must be >= 0 but was " + maxEntries);
+    synchronized (entries) {
+      this.maxEntries = maxEntries;
+      evictToSize();
+    }
+  }
+
+  private void evictToSize() {
+    while (entries.size() > maxEntries) {
+      Map.Entry<Key, ResampleOp.SubSamplingData> eldest = entries.entrySet().iterator().next();
+      entries.remove(eldest.getKey());
+      evictions.increment();
+    }
+  }
+
+  public int getMaxEntries() {
+    synchronized (entries) {
+      return maxEntries;
+    }
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  /**
+   * The number of lookups that were served from the cache.
+   */
+  public long hits() {
+    return hits.sum();
+  }
+
+  /**
+   * The number of lookups that had to build their table.
+   */
+  public long misses() {
+    return misses.sum();
+  }
+
+  /**
+   * The number of tables dropped because the cache was full.
+   */
+  public long evictions() {
+    return evictions.sum();
+  }
+
+  public void resetCounters() {
+    hits.reset();
+    misses.reset();
+    evictions.reset();
+  }
+
+  @Override
+  public String toString() {
+    return "SubSamplingCache(size=" + size() + ", maxEntries=" + getMaxEntries() +
+      ", hits=" + hits() + ", misses=" + misses() + ", evictions=" + evictions() + ")";
+  }
+}
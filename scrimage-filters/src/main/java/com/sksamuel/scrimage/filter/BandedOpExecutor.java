@@ -0,0 +1,105 @@
+package com.sksamuel.scrimage.filter;
+
+import com.sksamuel.scrimage.internal.RowStripes;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Applies a BufferedImageOp to an image in horizontal bands which are filtered concurrently.
+ * <p>
+ * Each band is extended by the given padding, in rows, above and below, and filtered on its own
+ * as if it were the whole image. Only the band's own rows are kept, and they are written back
+ * once every band has been filtered, so no band reads rows another band has already written.
+ * <p>
+ * The result is identical to filtering the whole image on one thread provided that the op
+ * computes each output pixel only from input pixels at most padding rows away, with no
+ * dependence on the height of the image or on the absolute row, which holds for convolutions
+ * with clamped or zeroed edges and for point filters. Ops that wrap at the edges, or that use
+ * the image centre (such as a zoom or rotation) must not be split.
+ * <p>
+ * A new op is created for every band, since most jhlabs ops keep per call state in fields.
+ */
+public class BandedOpExecutor {
+
+   /**
+    * The minimum number of rows in a band.
+    */
+   public static final int MIN_BAND_ROWS = 16;
+
+   private final int parallelism;
+   private final Executor executor;
+
+   /**
+    * @param parallelism the number of bands to filter concurrently on the common ForkJoinPool.
+    *                    Values of 1 or less filter on the calling thread.
+    */
+   public BandedOpExecutor(int parallelism) {
+      this(parallelism, ForkJoinPool.commonPool());
+   }
+
+   /**
+    * @param parallelism the number of bands to filter concurrently
+    * @param executor    the executor used to filter all but one of the bands; the calling
+    *                    thread always filters the last band itself.
+    */
+   public BandedOpExecutor(int parallelism, Executor executor) {
+      this.parallelism = Math.max(1, parallelism);
+      this.executor = executor;
+   }
+
+   /**
+    * Filters the given image in place.
+    *
+    * @param op      creates the op to apply; called once per band
+    * @param padding the number of rows above and below an output row that the op reads
+    * @param image   the image to filter
+    */
+   public void filter(Supplier<? extends BufferedImageOp> op, int padding, BufferedImage image) {
+      if (padding < 0) throw new IllegalArgumentException("padding must be >= 0; got " + padding);
+      int height = image.getHeight();
+      int bands = bands(height, padding);
+      if (bands <= 1) {
+         op.get().filter(image, image);
+         return;
+      }
+
+      Raster[] results = new Raster[bands];
+      RowStripes.inStripes(bands, executor, band ->
+         results[band] = filterBand(op.get(), image, padding, RowStripes.start(height, bands, band), RowStripes.start(height, bands, band + 1))
+      );
+
+      for (int i = 0; i < bands; i++) {
+         image.getRaster().setDataElements(0, RowStripes.start(height, bands, i), results[i]);
+      }
+   }
+
+   private int bands(int height, int padding) {
+      // a band much thinner than its padding spends most of its time on rows that are thrown away
+      int minRows = Math.max(MIN_BAND_ROWS, 2 * padding);
+      return Math.min(parallelism, Math.max(1, height / minRows));
+   }
+
+   /**
+    * Filters rows [start, end) of the image, reading up to padding rows either side, and returns
+    * a raster holding just the filtered rows.
+    */
+   private static Raster filterBand(BufferedImageOp op, BufferedImage image, int padding, int start, int end) {
+      int top = Math.max(0, start - padding);
+      int bottom = Math.min(image.getHeight(), end + padding);
+      int width = image.getWidth();
+      BufferedImage src = image.getSubimage(0, top, width, bottom - top);
+      // the same color model and sample model as the image, so the op writes exactly what it would
+      // have written into the image, and the data elements can be copied straight back
+      ColorModel cm = image.getColorModel();
+      BufferedImage dst = new BufferedImage(cm, image.getRaster().createCompatibleWritableRaster(width, bottom - top),
+         cm.isAlphaPremultiplied(), null);
+      op.filter(src, dst);
+      return dst.getRaster().createChild(0, start - top, width, end - start, 0, 0, null);
+   }
+}
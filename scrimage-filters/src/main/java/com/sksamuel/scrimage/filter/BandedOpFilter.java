@@ -0,0 +1,28 @@
+package com.sksamuel.scrimage.filter;
+
+/**
+ * A BufferedOpFilter whose op computes each output row from the input rows at most
+ * {@link #padding()} rows away, so that it can be applied to several bands of the image
+ * at once with a {@link BandedOpExecutor} and still give exactly the same result.
+ */
+public abstract class BandedOpFilter extends BufferedOpFilter {
+
+   /**
+    * Returns the number of rows above and below an output row that the op reads.
+    * Defaults to 0, as for point filters; filters whose op reads neighbouring rows must override this.
+    */
+   public int padding() {
+      return 0;
+   }
+
+   /**
+    * Returns a filter which applies this filter in the given number of bands concurrently
+    * on the common ForkJoinPool. The result is identical to applying this filter.
+    *
+    * @param parallelism the number of bands to filter concurrently. 1 filters on the calling thread.
+    */
+   public Filter parallel(int parallelism) {
+      BandedOpExecutor executor = new BandedOpExecutor(parallelism);
+      return image -> executor.filter(this::op, padding(), image.awt());
+   }
+}
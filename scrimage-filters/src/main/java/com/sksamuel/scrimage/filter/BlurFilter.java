@@ -17,10 +17,15 @@ package com.sksamuel.scrimage.filter;
 
 import java.awt.image.BufferedImageOp;
 
-public class BlurFilter extends BufferedOpFilter {
+public class BlurFilter extends BandedOpFilter {
 
     @Override
     public BufferedImageOp op() {
         return new thirdparty.jhlabs.image.BlurFilter();
     }
+
+    @Override
+    public int padding() {
+        return 1;
+    }
 }
@@ -16,10 +16,12 @@
 package com.sksamuel.scrimage.filter;
 
 import thirdparty.jhlabs.image.ContrastFilter;
+import thirdparty.jhlabs.image.PointFilter;
 
-import java.awt.image.BufferedImageOp;
+import java.util.Collections;
+import java.util.List;
 
-public class BrightnessFilter extends BufferedOpFilter {
+public class BrightnessFilter extends LutFilter {
 
     private final float brightness;
 
@@ -28,11 +30,16 @@ public class BrightnessFilter extends BufferedOpFilter {
     }
 
     @Override
-    public BufferedImageOp op() {
+    public PointFilter op() {
         ContrastFilter op = new ContrastFilter();
         op.setBrightness(brightness);
         op.setContrast(1.0f);
         return op;
     }
+
+    @Override
+    protected List<?> parameters() {
+        return Collections.singletonList(brightness);
+    }
 }
 
@@ -0,0 +1,100 @@
+package com.sksamuel.scrimage.filter;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Lookup tables mapping each 8 bit channel of an ARGB pixel to its new value, for ops in which
+ * each channel of the result depends only on the same channel of the input.
+ * <p>
+ * The tables are never written to after they are built, so a ChannelLut can be shared by
+ * any number of threads.
+ */
+public final class ChannelLut {
+
+   private final byte[] alpha;
+   private final byte[] red;
+   private final byte[] green;
+   private final byte[] blue;
+
+   private ChannelLut(byte[] alpha, byte[] red, byte[] green, byte[] blue) {
+      this.alpha = alpha;
+      this.red = red;
+      this.green = green;
+      this.blue = blue;
+   }
+
+   /**
+    * Builds the tables for the given op by applying it to the 256 pixels whose four channels
+    * all hold the same value. The op must treat each channel independently.
+    *
+    * @param op a function from ARGB to ARGB in which each channel depends only on itself
+    */
+   public static ChannelLut of(IntUnaryOperator op) {
+      byte[] a = new byte[256];
+      byte[] r = new byte[256];
+      byte[] g = new byte[256];
+      byte[] b = new byte[256];
+      boolean keepsAlpha = true;
+      for (int i = 0; i < 256; i++) {
+         int argb = op.applyAsInt((i << 24) | (i << 16) | (i << 8) | i);
+         a[i] = (byte) (argb >>> 24);
+         r[i] = (byte) (argb >> 16);
+         g[i] = (byte) (argb >> 8);
+         b[i] = (byte) argb;
+         keepsAlpha &= (argb >>> 24) == i;
+      }
+      return new ChannelLut(keepsAlpha ? null : a, r, g, b);
+   }
+
+   /**
+    * Returns true if the alpha channel is left unchanged.
+    */
+   public boolean keepsAlpha() {
+      return alpha == null;
+   }
+
+   /**
+    * Returns the new value of the given ARGB pixel.
+    */
+   public int apply(int argb) {
+      int a = alpha == null ? argb & 0xFF000000 : (alpha[argb >>> 24] & 0xFF) << 24;
+      return a
+         | (red[(argb >> 16) & 0xFF] & 0xFF) << 16
+         | (green[(argb >> 8) & 0xFF] & 0xFF) << 8
+         | (blue[argb & 0xFF] & 0xFF);
+   }
+
+   /**
+    * Replaces the ARGB pixels in [from, to) of the given array with their new values.
+    */
+   public void apply(int[] argb, int from, int to) {
+      byte[] r = red, g = green, b = blue;
+      if (alpha == null) {
+         for (int i = from; i < to; i++) {
+            int p = argb[i];
+            argb[i] = (p & 0xFF000000)
+               | (r[(p >> 16) & 0xFF] & 0xFF) << 16
+               | (g[(p >> 8) & 0xFF] & 0xFF) << 8
+               | (b[p & 0xFF] & 0xFF);
+         }
+      } else {
+         for (int i = from; i < to; i++) {
+            argb[i] = apply(argb[i]);
+         }
+      }
+   }
+
+   /**
+    * Replaces the pixels in [from, to) of the backing array of an image without alpha, which
+    * reads as opaque, and writes only the colour channels, as setRGB does.
+    */
+   void applyOpaque(int[] rgb, int from, int to) {
+      byte[] r = red, g = green, b = blue;
+      for (int i = from; i < to; i++) {
+         int p = rgb[i];
+         rgb[i] = (r[(p >> 16) & 0xFF] & 0xFF) << 16
+            | (g[(p >> 8) & 0xFF] & 0xFF) << 8
+            | (b[p & 0xFF] & 0xFF);
+      }
+   }
+}
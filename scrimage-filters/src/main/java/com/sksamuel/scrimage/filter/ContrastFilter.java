@@ -15,9 +15,12 @@
  */
 package com.sksamuel.scrimage.filter;
 
-import java.awt.image.BufferedImageOp;
+import thirdparty.jhlabs.image.PointFilter;
 
-public class ContrastFilter extends BufferedOpFilter {
+import java.util.Collections;
+import java.util.List;
+
+public class ContrastFilter extends LutFilter {
 
     private final double contrast;
 
@@ -26,10 +29,15 @@ public class ContrastFilter extends BufferedOpFilter {
     }
 
     @Override
-    public BufferedImageOp op() {
+    public PointFilter op() {
         thirdparty.jhlabs.image.ContrastFilter op = new thirdparty.jhlabs.image.ContrastFilter();
         op.setBrightness(1.0f);
         op.setContrast((float) contrast);
         return op;
     }
+
+    @Override
+    protected List<?> parameters() {
+        return Collections.singletonList(contrast);
+    }
 }
@@ -27,7 +27,7 @@ import java.awt.image.Kernel;
  * out-of-bounds neighbours at the image borders are clamped to the edge pixel.
  * Matrices are row-major.
  */
-public class ConvolveFilter extends BufferedOpFilter {
+public class ConvolveFilter extends BandedOpFilter {
 
     private final int kernelWidth;
     private final int kernelHeight;
@@ -65,4 +65,9 @@ public class ConvolveFilter extends BufferedOpFilter {
     public BufferedImageOp op() {
         return new thirdparty.jhlabs.image.ConvolveFilter(new Kernel(kernelWidth, kernelHeight, matrix));
     }
+
+    @Override
+    public int padding() {
+        return kernelHeight / 2;
+    }
 }
@@ -16,10 +16,12 @@
 package com.sksamuel.scrimage.filter;
 
 import thirdparty.jhlabs.image.GainFilter;
+import thirdparty.jhlabs.image.PointFilter;
 
-import java.awt.image.BufferedImageOp;
+import java.util.Arrays;
+import java.util.List;
 
-public class GainBiasFilter extends BufferedOpFilter {
+public class GainBiasFilter extends LutFilter {
 
     private final float gain;
     private final float bias;
@@ -34,10 +36,15 @@ public class GainBiasFilter extends BufferedOpFilter {
     }
 
     @Override
-    public BufferedImageOp op() {
+    public PointFilter op() {
         GainFilter op = new GainFilter();
         op.setGain(gain);
         op.setBias(bias);
         return op;
     }
+
+    @Override
+    protected List<?> parameters() {
+        return Arrays.asList(gain, bias);
+    }
 }
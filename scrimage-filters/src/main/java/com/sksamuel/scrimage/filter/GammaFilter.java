@@ -15,9 +15,12 @@
  */
 package com.sksamuel.scrimage.filter;
 
-import java.awt.image.BufferedImageOp;
+import thirdparty.jhlabs.image.PointFilter;
 
-public class GammaFilter extends BufferedOpFilter {
+import java.util.Collections;
+import java.util.List;
+
+public class GammaFilter extends LutFilter {
 
     private final double gamma;
 
@@ -30,9 +33,14 @@ public class GammaFilter extends BufferedOpFilter {
     }
 
     @Override
-    public BufferedImageOp op() {
+    public PointFilter op() {
         thirdparty.jhlabs.image.GammaFilter op = new thirdparty.jhlabs.image.GammaFilter();
         op.setGamma((float) gamma);
         return op;
     }
+
+    @Override
+    protected List<?> parameters() {
+        return Collections.singletonList(gamma);
+    }
 }
@@ -17,11 +17,18 @@ package com.sksamuel.scrimage.filter;
 
 import java.awt.image.BufferedImageOp;
 
-public class GaussianBlurFilter extends BufferedOpFilter {
+public class GaussianBlurFilter extends BandedOpFilter {
 
     private final int radius;
+    private final GaussianBlurMode mode;
 
-    public GaussianBlurFilter(int radius) {
+    /**
+     * @param radius the blur radius in pixels
+     * @param mode   whether to blur with the exact kernel, or with the fast approximation that
+     *               costs the same at any radius. See {@link thirdparty.jhlabs.image.FastGaussianFilter}
+     *               for the error of the approximation.
+     */
+    public GaussianBlurFilter(int radius, GaussianBlurMode mode) {
         // A negative radius only blew up at apply time, as a cryptic
         // NegativeArraySizeException from GaussianFilter.makeKernel.
         // Fail fast with a clear message instead. Radius 0 is a safe
@@ -30,6 +37,11 @@ public class GaussianBlurFilter extends BufferedOpFilter {
             throw new IllegalArgumentException("radius must be >= 0; got " + radius);
         }
         this.radius = radius;
+        this.mode = mode;
+    }
+
+    public GaussianBlurFilter(int radius) {
+        this(radius, GaussianBlurMode.Exact);
     }
 
     public GaussianBlurFilter() {
@@ -38,7 +50,16 @@ public class GaussianBlurFilter extends BufferedOpFilter {
 
     @Override
     public BufferedImageOp op() {
+        if (mode == GaussianBlurMode.Fast)
+            return new thirdparty.jhlabs.image.FastGaussianFilter(radius);
         return new thirdparty.jhlabs.image.GaussianFilter(radius);
     }
+
+    @Override
+    public int padding() {
+        if (mode == GaussianBlurMode.Fast)
+            return thirdparty.jhlabs.image.FastGaussianFilter.reach(radius);
+        return radius;
+    }
 }
 
@@ -0,0 +1,16 @@
+package com.sksamuel.scrimage.filter;
+
+/**
+ * How a {@link GaussianBlurFilter} computes its blur.
+ */
+public enum GaussianBlurMode {
+    /**
+     * Convolve with the Gaussian kernel. The cost per pixel grows with the radius.
+     */
+    Exact,
+    /**
+     * Approximate the kernel with three box blurs. The cost per pixel does not depend on the radius,
+     * and for radii of 10 or more the result is within 13 levels, and usually within one, of Exact.
+     */
+    Fast
+}
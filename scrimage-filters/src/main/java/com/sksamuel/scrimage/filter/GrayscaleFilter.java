@@ -15,24 +15,19 @@
  */
 package com.sksamuel.scrimage.filter;
 
-import com.sksamuel.scrimage.ImmutableImage;
+import java.util.function.IntUnaryOperator;
 
-public class GrayscaleFilter implements Filter {
+public class GrayscaleFilter implements PointwiseFilter {
 
    @Override
-   public void apply(ImmutableImage image) {
-      int w = image.width;
-      int h = image.height;
-      int[] argb = image.awt().getRGB(0, 0, w, h, null, 0, w);
-      for (int i = 0; i < argb.length; i++) {
-         int p = argb[i];
+   public IntUnaryOperator argbOp() {
+      return p -> {
          int a = (p >>> 24) & 0xFF;
          int r = (p >> 16) & 0xFF;
          int g = (p >> 8) & 0xFF;
          int b = p & 0xFF;
          int gray = (int) Math.round(0.2126 * r + 0.7152 * g + 0.0722 * b);
-         argb[i] = (a << 24) | (gray << 16) | (gray << 8) | gray;
-      }
-      image.awt().setRGB(0, 0, w, h, argb, 0, w);
+         return (a << 24) | (gray << 16) | (gray << 8) | gray;
+      };
    }
 }
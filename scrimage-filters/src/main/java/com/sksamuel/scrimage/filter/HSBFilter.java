@@ -16,10 +16,9 @@
 package com.sksamuel.scrimage.filter;
 
 import thirdparty.jhlabs.image.HSBAdjustFilter;
+import thirdparty.jhlabs.image.PointFilter;
 
-import java.awt.image.BufferedImageOp;
-
-public class HSBFilter extends BufferedOpFilter {
+public class HSBFilter extends PointOpFilter {
 
     private final float hue;
     private final float saturation;
@@ -50,12 +49,11 @@ public class HSBFilter extends BufferedOpFilter {
     }
 
     @Override
-    public BufferedImageOp op() {
+    public PointFilter op() {
         HSBAdjustFilter op = new HSBAdjustFilter();
         op.setHFactor(hue);
         op.setSFactor(saturation);
         op.setBFactor(brightness);
         return op;
     }
-
 }
@@ -15,12 +15,20 @@
  */
 package com.sksamuel.scrimage.filter;
 
-import java.awt.image.BufferedImageOp;
+import thirdparty.jhlabs.image.PointFilter;
 
-public class InvertFilter extends BufferedOpFilter {
+import java.util.Collections;
+import java.util.List;
+
+public class InvertFilter extends LutFilter {
 
     @Override
-    public BufferedImageOp op() {
+    public PointFilter op() {
         return new thirdparty.jhlabs.image.InvertFilter();
     }
+
+    @Override
+    protected List<?> parameters() {
+        return Collections.emptyList();
+    }
 }
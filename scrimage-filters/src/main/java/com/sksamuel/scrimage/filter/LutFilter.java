@@ -0,0 +1,106 @@
+package com.sksamuel.scrimage.filter;
+
+import com.sksamuel.scrimage.ImmutableImage;
+import com.sksamuel.scrimage.pixels.PixelBuffer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A PointOpFilter whose op maps each channel of a pixel independently of the others, such as
+ * a gamma or contrast adjustment. Rather than running the op for every pixel, the filter runs
+ * it once for each of the 256 values of a channel to build a {@link ChannelLut}, and then
+ * looks every pixel up in those tables. The result is identical to applying the op.
+ * <p>
+ * The tables depend only on the class of the filter and its {@link #parameters()}, so they are
+ * kept in a small cache shared by every LutFilter, and filters created again and again with the
+ * same settings build them once.
+ */
+public abstract class LutFilter extends PointOpFilter {
+
+   /**
+    * The maximum number of tables kept in the shared cache.
+    */
+   public static final int MAX_CACHED_LUTS = 256;
+
+   private static final Map<List<Object>, ChannelLut> cache = new LinkedHashMap<List<Object>, ChannelLut>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<List<Object>, ChannelLut> eldest) {
+         return size() > MAX_CACHED_LUTS;
+      }
+   };
+
+   private volatile ChannelLut lut;
+
+   /**
+    * Returns the settings that, together with the class, determine the op. Two filters of the
+    * same class with equal parameters must have the same op.
+    */
+   protected abstract List<?> parameters();
+
+   /**
+    * Returns the lookup tables for this filter's op.
+    */
+   public ChannelLut lut() {
+      ChannelLut lut = this.lut;
+      if (lut == null) {
+         List<Object> key = new ArrayList<>();
+         key.add(getClass());
+         key.addAll(parameters());
+         synchronized (cache) {
+            lut = cache.get(key);
+         }
+         if (lut == null) {
+            // built outside the lock; two threads building the same tables at once is harmless
+            lut = ChannelLut.of(super.argbOp());
+            synchronized (cache) {
+               cache.put(key, lut);
+            }
+         }
+         this.lut = lut;
+      }
+      return lut;
+   }
+
+   @Override
+   public IntUnaryOperator argbOp() {
+      ChannelLut lut = lut();
+      return lut::apply;
+   }
+
+   @Override
+   public void apply(ImmutableImage image) {
+      ChannelLut lut = lut();
+      PixelBuffer buffer = image.pixelBuffer().orElse(null);
+      if (buffer == null) {
+         image.mapArgbInPlace((x, y, argb) -> lut.apply(argb));
+         return;
+      }
+      int[] data = buffer.data();
+      for (int y = 0; y < buffer.height(); y++) {
+         int row = buffer.index(0, y);
+         if (buffer.hasAlpha()) {
+            lut.apply(data, row, row + buffer.width());
+         } else {
+            lut.applyOpaque(data, row, row + buffer.width());
+         }
+      }
+   }
+
+   /**
+    * Returns a filter which looks up the pixels in the given number of row stripes concurrently
+    * on the common ForkJoinPool. The result is identical to applying this filter.
+    *
+    * @param parallelism the number of stripes to map concurrently. 1 maps on the calling thread.
+    */
+   @Override
+   public Filter parallel(int parallelism) {
+      return image -> {
+         ChannelLut lut = lut();
+         image.mapArgbInPlace((x, y, argb) -> lut.apply(argb), parallelism);
+      };
+   }
+}
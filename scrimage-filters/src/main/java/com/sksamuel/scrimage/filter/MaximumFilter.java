@@ -17,10 +17,15 @@ package com.sksamuel.scrimage.filter;
 
 import java.awt.image.BufferedImageOp;
 
-public class MaximumFilter extends BufferedOpFilter {
+public class MaximumFilter extends BandedOpFilter {
 
     @Override
     public BufferedImageOp op() {
         return new thirdparty.jhlabs.image.MaximumFilter();
     }
+
+    @Override
+    public int padding() {
+        return 1;
+    }
 }
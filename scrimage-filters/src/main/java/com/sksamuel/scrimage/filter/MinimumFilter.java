@@ -17,9 +17,14 @@ package com.sksamuel.scrimage.filter;
 
 import java.awt.image.BufferedImageOp;
 
-public class MinimumFilter extends BufferedOpFilter {
+public class MinimumFilter extends BandedOpFilter {
     @Override
     public BufferedImageOp op() {
         return new thirdparty.jhlabs.image.MinimumFilter();
     }
+
+    @Override
+    public int padding() {
+        return 1;
+    }
 }
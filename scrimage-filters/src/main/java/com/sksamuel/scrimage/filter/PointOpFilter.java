@@ -0,0 +1,22 @@
+package com.sksamuel.scrimage.filter;
+
+import thirdparty.jhlabs.image.PointFilter;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A BandedOpFilter whose op is a jhlabs PointFilter, which sets each pixel from its own value
+ * alone. The op's per pixel function is exposed as a {@link PointwiseFilter}, so that a
+ * {@link PipelineFilter} can apply a run of these filters in a single pass.
+ */
+public abstract class PointOpFilter extends BandedOpFilter implements PointwiseFilter {
+
+   @Override
+   public abstract PointFilter op();
+
+   @Override
+   public IntUnaryOperator argbOp() {
+      PointFilter op = op();
+      return argb -> op.filterRGB(0, 0, argb);
+   }
+}
@@ -15,9 +15,12 @@
  */
 package com.sksamuel.scrimage.filter;
 
-import java.awt.image.BufferedImageOp;
+import thirdparty.jhlabs.image.PointFilter;
 
-public class PosterizeFilter extends BufferedOpFilter {
+import java.util.Collections;
+import java.util.List;
+
+public class PosterizeFilter extends LutFilter {
 
     private final int numLevels;
 
@@ -30,9 +33,14 @@ public class PosterizeFilter extends BufferedOpFilter {
     }
 
     @Override
-    public BufferedImageOp op() {
+    public PointFilter op() {
         thirdparty.jhlabs.image.PosterizeFilter op = new thirdparty.jhlabs.image.PosterizeFilter();
         op.setNumLevels(numLevels);
         return op;
     }
+
+    @Override
+    protected List<?> parameters() {
+        return Collections.singletonList(numLevels);
+    }
 }
@@ -1,10 +1,12 @@
 package com.sksamuel.scrimage.filter;
 
+import thirdparty.jhlabs.image.PointFilter;
 import thirdparty.jhlabs.image.RGBAdjustFilter;
 
-import java.awt.image.BufferedImageOp;
+import java.util.Arrays;
+import java.util.List;
 
-public class RGBFilter extends BufferedOpFilter {
+public class RGBFilter extends LutFilter {
     //  require(r <= 1)
 //  require(g <= 1)
 //  require(b <= 1)
@@ -24,7 +26,7 @@ public class RGBFilter extends BufferedOpFilter {
     }
 
     @Override
-    public BufferedImageOp op() {
+    public PointFilter op() {
         RGBAdjustFilter op = new RGBAdjustFilter();
         op.setBFactor(b);
         op.setRFactor(r);
@@ -32,4 +34,8 @@ public class RGBFilter extends BufferedOpFilter {
         return op;
     }
 
+    @Override
+    protected List<?> parameters() {
+        return Arrays.asList(r, g, b);
+    }
 }
@@ -18,7 +18,9 @@ package com.sksamuel.scrimage.filter;
 import thirdparty.marvin.image.MarvinAbstractImagePlugin;
 import thirdparty.marvin.image.color.Sepia;
 
-public class SepiaFilter extends MarvinFilter {
+import java.util.function.IntUnaryOperator;
+
+public class SepiaFilter extends MarvinFilter implements PointwiseFilter {
 
     private final int intensity;
 
@@ -43,4 +45,10 @@ public class SepiaFilter extends MarvinFilter {
     public MarvinAbstractImagePlugin plugin() {
         return new Sepia(intensity);
     }
+
+    @Override
+    public IntUnaryOperator argbOp() {
+        Sepia sepia = new Sepia(intensity);
+        return sepia::filterRGB;
+    }
 }
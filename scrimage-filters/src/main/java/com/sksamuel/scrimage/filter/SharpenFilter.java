@@ -17,10 +17,15 @@ package com.sksamuel.scrimage.filter;
 
 import java.awt.image.BufferedImageOp;
 
-public class SharpenFilter extends BufferedOpFilter {
+public class SharpenFilter extends BandedOpFilter {
 
     @Override
     public BufferedImageOp op() {
         return new thirdparty.jhlabs.image.SharpenFilter();
     }
+
+    @Override
+    public int padding() {
+        return 1;
+    }
 }
@@ -15,13 +15,21 @@
  */
 package com.sksamuel.scrimage.filter;
 
-import java.awt.image.BufferedImageOp;
+import thirdparty.jhlabs.image.PointFilter;
 
-public class SolarizeFilter extends BufferedOpFilter {
+import java.util.Collections;
+import java.util.List;
+
+public class SolarizeFilter extends LutFilter {
 
     @Override
-    public BufferedImageOp op() {
+    public PointFilter op() {
         return new thirdparty.jhlabs.image.SolarizeFilter();
     }
+
+    @Override
+    protected List<?> parameters() {
+        return Collections.emptyList();
+    }
 }
 
@@ -15,9 +15,9 @@
  */
 package com.sksamuel.scrimage.filter;
 
-import java.awt.image.BufferedImageOp;
+import thirdparty.jhlabs.image.PointFilter;
 
-public class ThresholdFilter extends BufferedOpFilter {
+public class ThresholdFilter extends PointOpFilter {
 
     private final int threshold;
     private final int white;
@@ -38,7 +38,7 @@ public class ThresholdFilter extends BufferedOpFilter {
     }
 
     @Override
-    public BufferedImageOp op() {
+    public PointFilter op() {
         thirdparty.jhlabs.image.ThresholdFilter op = new thirdparty.jhlabs.image.ThresholdFilter(threshold);
         op.setBlack(black);
         op.setWhite(white);
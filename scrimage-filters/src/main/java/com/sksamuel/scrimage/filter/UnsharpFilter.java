@@ -19,7 +19,7 @@ import java.awt.image.BufferedImageOp;
 
 import static com.sksamuel.scrimage.filter.EdgeAction.ZeroEdges;
 
-public class UnsharpFilter extends BufferedOpFilter {
+public class UnsharpFilter extends BandedOpFilter {
 
     private final float amount;
     private final int threshold;
@@ -53,4 +53,10 @@ public class UnsharpFilter extends BufferedOpFilter {
         }
         return op;
     }
+
+    @Override
+    public int padding() {
+        // the jhlabs op blurs with its default radius of 2
+        return 2;
+    }
 }
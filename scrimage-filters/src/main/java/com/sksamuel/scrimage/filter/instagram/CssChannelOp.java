@@ -0,0 +1,24 @@
+package com.sksamuel.scrimage.filter.instagram;
+
+/**
+ * A {@link CssOp} which applies the same function to each of the three channels independently,
+ * such as {@code brightness} and {@code contrast}. Because each channel depends only on itself,
+ * a run of these ops at the start of a filter can be computed ahead of time for each of the
+ * 256 input values of a channel.
+ */
+@FunctionalInterface
+public interface CssChannelOp extends CssOp {
+
+   /**
+    * @param v a normalised channel value in [0, 1]
+    * @return the new value of the channel
+    */
+   float applyChannel(float v);
+
+   @Override
+   default void apply(float[] rgb) {
+      rgb[0] = applyChannel(rgb[0]);
+      rgb[1] = applyChannel(rgb[1]);
+      rgb[2] = applyChannel(rgb[2]);
+   }
+}
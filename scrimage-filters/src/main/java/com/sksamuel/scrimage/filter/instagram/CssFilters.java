@@ -5,10 +5,11 @@ package com.sksamuel.scrimage.filter.instagram;
  * Module Level 1) used by the Instagram filters. Each factory returns a
  * {@link CssOp} that transforms a normalised RGB triple in [0, 1].
  *
- * <p>{@code brightness} and {@code contrast} are per-channel affine operations;
- * {@code saturate}, {@code grayscale}, {@code sepia} and {@code hueRotate} are
- * the linear colour matrices defined by the specification. Values are clamped to
- * [0, 1] after each operation, matching browser behaviour.
+ * <p>{@code brightness} and {@code contrast} are per-channel affine operations,
+ * returned as {@link CssChannelOp}s; {@code saturate}, {@code grayscale},
+ * {@code sepia} and {@code hueRotate} are the linear colour matrices defined by
+ * the specification. Values are clamped to [0, 1] after each operation, matching
+ * browser behaviour.
  */
 public final class CssFilters {
 
@@ -24,12 +25,8 @@ public final class CssFilters {
     *
     * @return a CssOp applying the brightness adjustment
     */
-   public static CssOp brightness(float amount) {
-      return rgb -> {
-         rgb[0] = clamp(rgb[0] * amount);
-         rgb[1] = clamp(rgb[1] * amount);
-         rgb[2] = clamp(rgb[2] * amount);
-      };
+   public static CssChannelOp brightness(float amount) {
+      return v -> clamp(v * amount);
    }
 
    /**
@@ -37,12 +34,8 @@ public final class CssFilters {
     *
     * @return a CssOp applying the contrast adjustment
     */
-   public static CssOp contrast(float amount) {
-      return rgb -> {
-         rgb[0] = clamp((rgb[0] - 0.5f) * amount + 0.5f);
-         rgb[1] = clamp((rgb[1] - 0.5f) * amount + 0.5f);
-         rgb[2] = clamp((rgb[2] - 0.5f) * amount + 0.5f);
-      };
+   public static CssChannelOp contrast(float amount) {
+      return v -> clamp((v - 0.5f) * amount + 0.5f);
    }
 
    /**
@@ -68,6 +68,18 @@ public final class Overlay {
       return i < 0 ? 0 : (i > 255 ? 255 : i);
    }
 
+   /** Returns true if this overlay is a single colour, so blending it is a per colour transform. */
+   boolean isSolid() {
+      return kind == Kind.SOLID;
+   }
+
+   /** Blend this solid overlay over a normalised RGB triple in place. */
+   void blendSolid(float[] rgb) {
+      rgb[0] = rgb[0] * (1f - a0) + blend.blend(rgb[0], r0) * a0;
+      rgb[1] = rgb[1] * (1f - a0) + blend.blend(rgb[1], g0) * a0;
+      rgb[2] = rgb[2] * (1f - a0) + blend.blend(rgb[2], b0) * a0;
+   }
+
    /** Composite this overlay over the given ARGB pixel buffer in place. */
    void apply(int[] px, int w, int h) {
       double cx = w / 2.0, cy = h / 2.0;
@@ -0,0 +1,256 @@
+/*
+Copyright 2013 Stephen K Samuel
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+The running sum in blur() is adapted from BoxBlurFilter, and the kernel weights in
+standardDeviation() follow GaussianFilter.makeKernel, both Copyright 2006 Jerry Huxtable
+under the same license.
+*/
+
+package thirdparty.jhlabs.image;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * An approximation to GaussianFilter made of three successive box blurs in each direction.
+ * Each box blur keeps a running sum along the row, so the cost per pixel does not depend on
+ * the radius, whereas GaussianFilter's cost grows linearly with it.
+ * <p>
+ * The box widths are chosen so that the three boxes together have the variance closest to that
+ * of the kernel GaussianFilter uses for the same radius, and the edges are clamped as in
+ * GaussianFilter. Unlike BoxBlurFilter the box averages are rounded rather than truncated,
+ * so repeated passes do not darken the image.
+ * <p>
+ * Error: for radii of 10 and above the combined box kernel differs from GaussianFilter's
+ * kernel by less than 0.05 in L1 norm in each direction, so no channel of the result can be
+ * more than 13 levels (of 255) from the exact blur, plus a few levels of rounding. That worst case
+ * needs hard edges lined up with the kernel's tails; on photographs the mean difference is
+ * below one level. Below radius 10 there are too few box widths to choose from, and the error
+ * bound grows to about 30 levels at radius 8 and 45 at radius 5.
+ */
+public class FastGaussianFilter extends AbstractBufferedImageOp {
+
+	/**
+	 * The number of box blurs applied in each direction.
+	 */
+	public static final int PASSES = 3;
+
+	private final float radius;
+	private final int[] boxRadii;
+
+	/**
+	 * Construct a fast Gaussian filter.
+	 *
+	 * @param radius blur radius in pixels, with the same meaning as in GaussianFilter
+	 */
+	public FastGaussianFilter(float radius) {
+		this.radius = radius;
+		this.boxRadii = boxRadii(standardDeviation(radius), PASSES);
+	}
+
+	/**
+	 * Returns the distance, in pixels, over which a blur of the given radius reads neighbouring
+	 * pixels, without building the filter.
+	 */
+	public static int reach(float radius) {
+		int reach = 0;
+		for (int r : boxRadii(standardDeviation(radius), PASSES))
+			reach += r;
+		return reach;
+	}
+
+	public float getRadius() {
+		return radius;
+	}
+
+	/**
+	 * Returns the distance, in pixels, over which the blur reads neighbouring pixels.
+	 */
+	public int getReach() {
+		int reach = 0;
+		for (int r : boxRadii)
+			reach += r;
+		return reach;
+	}
+
+	// the standard deviation of the kernel GaussianFilter.makeKernel builds for the radius, which is
+	// truncated at three standard deviations and so slightly narrower than radius / 3
+	private static float standardDeviation(float radius) {
+		int r = (int) Math.ceil(radius);
+		float sigma = radius / 3;
+		float sigma22 = 2 * sigma * sigma;
+		float sqrtSigmaPi2 = (float) Math.sqrt(2 * ImageMath.PI * sigma);
+		float radius2 = radius * radius;
+		float total = 0;
+		double moment = 0;
+		for (int row = -r; row <= r; row++) {
+			float distance = row * row;
+			float weight = distance > radius2 ? 0 : (float) Math.exp(-(distance) / sigma22) / sqrtSigmaPi2;
+			total += weight;
+			moment += weight * distance;
+		}
+		return (float) Math.sqrt(moment / total);
+	}
+
+	/**
+	 * Returns the radii of n box blurs whose combined variance is as close as possible to sigma squared.
+	 * A box of radius r has variance ((2r+1)^2 - 1) / 12, and variances add under convolution.
+	 */
+	static int[] boxRadii(float sigma, int n) {
+		double ideal = Math.sqrt((12 * sigma * sigma / n) + 1);
+		int lower = (int) Math.floor(ideal);
+		if (lower % 2 == 0)
+			lower--;
+		int upper = lower + 2;
+		// the number of boxes of the lower width that brings the total variance closest to sigma squared
+		double m = (12 * sigma * sigma - n * lower * lower - 4 * n * lower - 3 * n) / (-4.0 * lower - 4);
+		int lowerCount = (int) Math.max(0, Math.min(n, Math.round(m)));
+		int[] radii = new int[n];
+		for (int i = 0; i < n; i++)
+			radii[i] = ((i < lowerCount ? lower : upper) - 1) / 2;
+		return radii;
+	}
+
+	public BufferedImage filter(BufferedImage src, BufferedImage dst) {
+		int width = src.getWidth();
+		int height = src.getHeight();
+
+		if (dst == null)
+			dst = createCompatibleDestImage(src, null);
+
+		int[] pixels = new int[width * height];
+		getRGB(src, 0, 0, width, height, pixels);
+
+		if (radius > 0) {
+			// Each box pass clamps its own input at the edges, and clamping a blurred intermediate is
+			// not the same as clamping the original. Extending the image by the whole reach first means
+			// every pass sees real (replicated) edge pixels, so the edges match GaussianFilter's clamping.
+			int pad = getReach();
+			int paddedWidth = width + 2 * pad;
+			int paddedHeight = height + 2 * pad;
+			int[] inPixels = new int[paddedWidth * paddedHeight];
+			int[] outPixels = new int[paddedWidth * paddedHeight];
+			for (int y = 0; y < paddedHeight; y++) {
+				int row = ImageMath.clamp(y - pad, 0, height - 1) * width;
+				for (int x = 0; x < paddedWidth; x++)
+					inPixels[y * paddedWidth + x] = pixels[row + ImageMath.clamp(x - pad, 0, width - 1)];
+			}
+			premultiply(inPixels);
+			for (int r : boxRadii) {
+				blur(inPixels, outPixels, paddedWidth, paddedHeight, r);
+				blur(outPixels, inPixels, paddedHeight, paddedWidth, r);
+			}
+			unpremultiply(inPixels);
+			for (int y = 0; y < height; y++)
+				System.arraycopy(inPixels, (y + pad) * paddedWidth + pad, pixels, y * width, width);
+		}
+
+		setRGB(dst, 0, 0, width, height, pixels);
+		return dst;
+	}
+
+	/**
+	 * Box blur and transpose a block of ARGB pixels, rounding each average to the nearest value.
+	 *
+	 * @param in     the input pixels
+	 * @param out    the output pixels
+	 * @param width  the width of the pixel array
+	 * @param height the height of the pixel array
+	 * @param r      the radius of the box
+	 */
+	public static void blur(int[] in, int[] out, int width, int height, int r) {
+		if (r == 0) {
+			transpose(in, out, width, height);
+			return;
+		}
+		int widthMinus1 = width - 1;
+		int tableSize = 2 * r + 1;
+		int[] divide = new int[256 * tableSize];
+		for (int i = 0; i < divide.length; i++)
+			divide[i] = (i + r) / tableSize;
+
+		int inIndex = 0;
+		for (int y = 0; y < height; y++) {
+			int outIndex = y;
+			int ta = 0, tr = 0, tg = 0, tb = 0;
+
+			for (int i = -r; i <= r; i++) {
+				int rgb = in[inIndex + ImageMath.clamp(i, 0, widthMinus1)];
+				ta += (rgb >> 24) & 0xff;
+				tr += (rgb >> 16) & 0xff;
+				tg += (rgb >> 8) & 0xff;
+				tb += rgb & 0xff;
+			}
+
+			for (int x = 0; x < width; x++) {
+				out[outIndex] = (divide[ta] << 24) | (divide[tr] << 16) | (divide[tg] << 8) | divide[tb];
+
+				int i1 = x + r + 1;
+				if (i1 > widthMinus1)
+					i1 = widthMinus1;
+				int i2 = x - r;
+				if (i2 < 0)
+					i2 = 0;
+				int rgb1 = in[inIndex + i1];
+				int rgb2 = in[inIndex + i2];
+
+				ta += ((rgb1 >> 24) & 0xff) - ((rgb2 >> 24) & 0xff);
+				tr += ((rgb1 & 0xff0000) - (rgb2 & 0xff0000)) >> 16;
+				tg += ((rgb1 & 0xff00) - (rgb2 & 0xff00)) >> 8;
+				tb += (rgb1 & 0xff) - (rgb2 & 0xff);
+				outIndex += height;
+			}
+			inIndex += width;
+		}
+	}
+
+	private static void transpose(int[] in, int[] out, int width, int height) {
+		for (int y = 0, i = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+				out[x * height + y] = in[i++];
+	}
+
+	// rounds, where ImageMath.premultiply truncates, to keep the error of the approximation down
+	private static void premultiply(int[] p) {
+		for (int i = 0; i < p.length; i++) {
+			int rgb = p[i];
+			int a = (rgb >>> 24);
+			if (a == 255)
+				continue;
+			float f = a * (1.0f / 255.0f);
+			int r = (int) (((rgb >> 16) & 0xff) * f + 0.5f);
+			int g = (int) (((rgb >> 8) & 0xff) * f + 0.5f);
+			int b = (int) ((rgb & 0xff) * f + 0.5f);
+			p[i] = (a << 24) | (r << 16) | (g << 8) | b;
+		}
+	}
+
+	private static void unpremultiply(int[] p) {
+		for (int i = 0; i < p.length; i++) {
+			int rgb = p[i];
+			int a = (rgb >>> 24);
+			if (a == 0 || a == 255)
+				continue;
+			float f = 255.0f / a;
+			int r = Math.min(255, (int) (((rgb >> 16) & 0xff) * f + 0.5f));
+			int g = Math.min(255, (int) (((rgb >> 8) & 0xff) * f + 0.5f));
+			int b = Math.min(255, (int) ((rgb & 0xff) * f + 0.5f));
+			p[i] = (a << 24) | (r << 16) | (g << 8) | b;
+		}
+	}
+
+	public String toString() {
+		return "Blur/Fast Gaussian Blur...";
+	}
+}
@@ -23,7 +23,7 @@ public class PosterizeFilter extends PointFilter {
 
 	private int numLevels;
 	private int[] levels;
-    private boolean initialized = false;
+    private volatile boolean initialized = false;
 
 	public PosterizeFilter() {
 		setNumLevels(6);
@@ -49,10 +49,8 @@ public class PosterizeFilter extends PointFilter {
 	}
 	
 	public int filterRGB(int x, int y, int rgb) {
-		if (!initialized) {
-			initialized = true;
-			initialize();
-		}
+		if (!initialized)
+			initializeOnce();
 		int a = rgb & 0xff000000;
 		int r = (rgb >> 16) & 0xff;
 		int g = (rgb >> 8) & 0xff;
@@ -63,6 +61,14 @@ public class PosterizeFilter extends PointFilter {
 		return a | (r << 16) | (g << 8) | b;
 	}
 
+	// the flag is set only once the levels are built, so a thread that sees it set also sees them
+	private synchronized void initializeOnce() {
+		if (!initialized) {
+			initialize();
+			initialized = true;
+		}
+	}
+
 	public String toString() {
 		return "Colors/Posterize...";
 	}
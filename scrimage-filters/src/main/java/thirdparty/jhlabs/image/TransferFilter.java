@@ -21,13 +21,15 @@ import java.awt.image.*;
 public abstract class TransferFilter extends PointFilter {
 
 	protected int[] rTable, gTable, bTable;
-	protected boolean initialized = false;
+	protected volatile boolean initialized = false;
 	
 	public TransferFilter() {
 		canFilterIndexColorModel = true;
 	}
 
 	public int filterRGB(int x, int y, int rgb) {
+		if (!initialized)
+			initializeOnce();
 		int a = rgb & 0xff000000;
 		int r = (rgb >> 16) & 0xff;
 		int g = (rgb >> 8) & 0xff;
@@ -40,12 +42,20 @@ public abstract class TransferFilter extends PointFilter {
 
 	public BufferedImage filter( BufferedImage src, BufferedImage dst ) {
 		if (!initialized)
-			initialize();
+			initializeOnce();
 		return super.filter( src, dst );
 	}
 
+	// the flag is set only once the tables are built, so a thread that sees it set also sees the
+	// tables, and a failed initialize() is retried on the next call
+	private synchronized void initializeOnce() {
+		if (!initialized) {
+			initialize();
+			initialized = true;
+		}
+	}
+
 	protected void initialize() {
-		initialized = true;
 		rTable = gTable = bTable = makeTable();
 	}
 
@@ -28,11 +28,6 @@ public class Sepia extends MarvinAbstractImagePlugin {
          MarvinImageMask mask,
          boolean previewMode
       ) {
-      int r, g, b, corfinal;
-
-      int width = imageIn.getWidth();
-      int height = imageIn.getHeight();
-
       boolean[][] l_arrMask = mask.getMaskArray();
 
       for (int x = 0; x < imageIn.getWidth(); x++) {
@@ -40,22 +35,26 @@ public class Sepia extends MarvinAbstractImagePlugin {
             if (l_arrMask != null && !l_arrMask[x][y]) {
                continue;
             }
-            //Captura o RGB do ponto...
-            r = imageIn.getIntComponent0(x, y);
-            g = imageIn.getIntComponent1(x, y);
-            b = imageIn.getIntComponent2(x, y);
+            imageOut.setIntColor(x, y, filterRGB(imageIn.getIntColor(x, y)));
+         }
+      }
+   }
 
-            //Define a cor como a m�dia aritm�tica do pixel...
-            corfinal = (r + g + b) / 3;
-            r = g = b = corfinal;
+   /**
+    * Returns the sepia toned value of a single ARGB pixel; the alpha is unchanged.
+    */
+   public int filterRGB(int argb) {
+      int r = (argb >> 16) & 0xFF;
+      int g = (argb >> 8) & 0xFF;
+      int b = argb & 0xFF;
 
-            r = truncate(r + (depth * 2));
-            g = truncate(g + depth);
+      //Define a cor como a m�dia aritm�tica do pixel...
+      int corfinal = (r + g + b) / 3;
+      r = truncate(corfinal + (depth * 2));
+      g = truncate(corfinal + depth);
+      b = corfinal;
 
-            //Define a nova cor do ponto...
-            imageOut.setIntColor(x, y, imageIn.getAlphaComponent(x, y), r, g, b);
-         }
-      }
+      return (argb & 0xFF000000) | (r << 16) | (g << 8) | b;
    }
 
    /**
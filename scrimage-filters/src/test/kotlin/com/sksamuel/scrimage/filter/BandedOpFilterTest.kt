@@ -0,0 +1,38 @@
+package com.sksamuel.scrimage.filter
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import java.awt.image.BufferedImage
+
+class BandedOpFilterTest : FunSpec({
+
+   fun image(type: Int) = randomImage(97, 203, type, 11)
+
+   val filters = listOf(
+      GaussianBlurFilter(6),
+      UnsharpFilter(),
+      ConvolveFilter(3, 5, floatArrayOf(0f, 1f, 0f, 1f, 2f, 1f, 0f, 1f, 0f, 1f, 1f, 1f, 0f, 0.5f, 0f)),
+      BlurFilter(),
+      MaximumFilter(),
+      ContrastFilter(1.4),
+      HSBFilter(0.1f, 0.2f, -0.1f),
+   )
+
+   test("filtering in bands gives exactly the single threaded result") {
+      for (type in listOf(BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_4BYTE_ABGR)) {
+         val image = image(type)
+         for (filter in filters) {
+            val expected = argbOf(image.filter(filter))
+            for (parallelism in listOf(2, 3, 8)) {
+               argbOf(image.filter(filter.parallel(parallelism))) shouldBe expected
+            }
+         }
+      }
+   }
+
+   test("images too short to split are filtered on the calling thread") {
+      val image = image(BufferedImage.TYPE_INT_ARGB).subimage(0, 0, 97, 20)
+      val filter = GaussianBlurFilter(6)
+      argbOf(image.filter(filter.parallel(4))) shouldBe argbOf(image.filter(filter))
+   }
+})
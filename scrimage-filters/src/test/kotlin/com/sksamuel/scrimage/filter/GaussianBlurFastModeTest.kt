@@ -0,0 +1,41 @@
+package com.sksamuel.scrimage.filter
+
+import com.sksamuel.scrimage.ImmutableImage
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.ints.shouldBeLessThanOrEqual
+import io.kotest.matchers.shouldBe
+import kotlin.math.abs
+
+class GaussianBlurFastModeTest : FunSpec({
+
+   val bird = ImmutableImage.loader().fromResource("/bird_small.png")
+
+   fun maxChannelDifference(a: ImmutableImage, b: ImmutableImage): Int {
+      val pa = argbOf(a)
+      val pb = argbOf(b)
+      var max = 0
+      for (i in pa.indices) {
+         for (shift in intArrayOf(0, 8, 16, 24)) {
+            max = maxOf(max, abs((pa[i] ushr shift and 0xFF) - (pb[i] ushr shift and 0xFF)))
+         }
+      }
+      return max
+   }
+
+   test("fast mode stays within the documented error of the exact blur") {
+      for (radius in listOf(10, 25, 60)) {
+         val exact = bird.filter(GaussianBlurFilter(radius, GaussianBlurMode.Exact))
+         val fast = bird.filter(GaussianBlurFilter(radius, GaussianBlurMode.Fast))
+         maxChannelDifference(exact, fast) shouldBeLessThanOrEqual 15
+      }
+   }
+
+   test("fast mode can be applied in bands") {
+      val filter = GaussianBlurFilter(30, GaussianBlurMode.Fast)
+      argbOf(bird.filter(filter.parallel(4))) shouldBe argbOf(bird.filter(filter))
+   }
+
+   test("radius 0 is a no-op in fast mode") {
+      argbOf(bird.filter(GaussianBlurFilter(0, GaussianBlurMode.Fast))) shouldBe argbOf(bird)
+   }
+})
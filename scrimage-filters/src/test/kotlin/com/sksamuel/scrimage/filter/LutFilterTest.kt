@@ -0,0 +1,51 @@
+package com.sksamuel.scrimage.filter
+
+import com.sksamuel.scrimage.filter.instagram.CssFilters
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import java.awt.image.BufferedImage
+
+class LutFilterTest : FunSpec({
+
+   fun image(type: Int) = randomImage(59, 43, type, 7)
+
+   val filters = listOf(
+      BrightnessFilter(1.3f),
+      ContrastFilter(1.4),
+      GammaFilter(2.2),
+      GainBiasFilter(0.6f, 0.4f),
+      PosterizeFilter(5),
+      SolarizeFilter(),
+      InvertFilter(),
+      InvertAlphaFilter(),
+      RGBFilter(0.2f, -0.3f, 0.1f),
+   )
+
+   test("looking up the tables gives exactly the result of running the op") {
+      for (type in listOf(BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_INT_ARGB_PRE)) {
+         val image = image(type)
+         for (filter in filters) {
+            val expected = image.copy()
+            filter.op().filter(expected.awt(), expected.awt())
+            argbOf(image.filter(filter)) shouldBe argbOf(expected)
+            argbOf(image.filter(filter.parallel(4))) shouldBe argbOf(expected)
+         }
+      }
+   }
+
+   test("filters with the same parameters share their tables") {
+      GammaFilter(2.2).lut() shouldBeSameInstanceAs GammaFilter(2.2).lut()
+      RGBFilter(0.1f, 0.2f, 0.3f).lut() shouldBeSameInstanceAs RGBFilter(0.1f, 0.2f, 0.3f).lut()
+      (GammaFilter(2.2).lut() === GammaFilter(1.8).lut()) shouldBe false
+      InvertFilter().lut().keepsAlpha() shouldBe true
+      InvertAlphaFilter().lut().keepsAlpha() shouldBe false
+   }
+
+   test("css channel ops apply the same function to each channel") {
+      val rgb = floatArrayOf(0.1f, 0.5f, 0.9f)
+      CssFilters.contrast(1.5f).apply(rgb)
+      rgb.toList() shouldBe listOf(0f, 0.5f, 1f)
+      CssFilters.brightness(2f).applyChannel(0.3f) shouldBe 0.6f
+   }
+})
@@ -0,0 +1,85 @@
+package com.sksamuel.scrimage.filter
+
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeInstanceOf
+import java.awt.image.BufferedImage
+
+class PointwiseFilterFusionTest : FunSpec({
+
+   fun image(type: Int) = randomImage(61, 47, type, 3)
+
+   val chain = listOf(
+      BrightnessFilter(1.3f),
+      ContrastFilter(1.4),
+      GammaFilter(0.7),
+      RGBFilter(0.2f, -0.3f, 0.1f),
+      SepiaFilter(),
+      BlurFilter(),
+      HSBFilter(0.1f, -0.4f, 0.2f),
+      InvertFilter(),
+      PosterizeFilter(5),
+      GrayscaleFilter(),
+      InvertAlphaFilter(),
+      SolarizeFilter(),
+   )
+
+   test("fuse collapses runs of point-wise filters and keeps other filters as they are") {
+      val fused = PipelineFilter.fuse(chain)
+      fused.size shouldBe 3
+      fused[0].shouldBeInstanceOf<PointwiseFilter>()
+      fused[1] shouldBe chain[5]
+      fused[2].shouldBeInstanceOf<PointwiseFilter>()
+      // a lone point-wise filter is left as it is
+      val single = listOf(chain[5], chain[0], chain[5])
+      PipelineFilter.fuse(single) shouldBe single
+   }
+
+   test("filtering with a chain gives exactly the result of applying each filter in turn") {
+      val types = listOf(
+         BufferedImage.TYPE_INT_ARGB,
+         BufferedImage.TYPE_INT_RGB,
+         BufferedImage.TYPE_INT_BGR,
+         BufferedImage.TYPE_3BYTE_BGR,
+         BufferedImage.TYPE_4BYTE_ABGR,
+         BufferedImage.TYPE_INT_ARGB_PRE,
+         BufferedImage.TYPE_BYTE_GRAY,
+      )
+      for (type in types) {
+         val image = image(type)
+         var expected = image
+         for (filter in chain) expected = expected.filter(filter)
+         val filtered = image.filter(*chain.toTypedArray())
+         filtered.type shouldBe expected.type
+         argbOf(filtered) shouldBe argbOf(expected)
+      }
+   }
+
+   test("a pipeline gives exactly the result of applying each stage in turn") {
+      for (type in listOf(BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_RGB)) {
+         val expected = image(type)
+         for (filter in chain) filter.apply(expected)
+         argbOf(image(type).filter(PipelineFilter(chain))) shouldBe argbOf(expected)
+      }
+   }
+
+   test("filtering with a chain leaves the original image unchanged") {
+      val image = image(BufferedImage.TYPE_INT_ARGB)
+      val before = argbOf(image)
+      image.filter(*chain.toTypedArray())
+      argbOf(image) shouldBe before
+   }
+
+   test("a transfer filter whose tables failed to build retries rather than reading missing tables") {
+      var calls = 0
+      val op = object : thirdparty.jhlabs.image.TransferFilter() {
+         override fun transferFunction(v: Float): Float {
+            if (calls++ == 0) throw IllegalStateException("boom")
+            return 1f - v
+         }
+      }
+      shouldThrow<IllegalStateException> { op.filterRGB(0, 0, 0xFF000000.toInt()) }
+      op.filterRGB(0, 0, 0xFF000000.toInt()) shouldBe 0xFFFFFFFF.toInt()
+   }
+})
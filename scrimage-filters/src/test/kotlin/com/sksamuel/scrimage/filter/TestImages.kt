@@ -0,0 +1,20 @@
+package com.sksamuel.scrimage.filter
+
+import com.sksamuel.scrimage.ImmutableImage
+import java.awt.image.BufferedImage
+import kotlin.random.Random
+
+// images and pixel readers shared by the filter specs
+
+/**
+ * Returns an image of the given type whose pixels are random ARGB values from the given seed.
+ */
+fun randomImage(width: Int, height: Int, type: Int, seed: Int): ImmutableImage {
+   val random = Random(seed)
+   val awt = BufferedImage(width, height, type)
+   for (y in 0 until height) for (x in 0 until width) awt.setRGB(x, y, random.nextInt())
+   return ImmutableImage.wrapAwt(awt)
+}
+
+fun argbOf(image: ImmutableImage): List<Int> =
+   image.awt().getRGB(0, 0, image.width, image.height, null, 0, image.width).toList()
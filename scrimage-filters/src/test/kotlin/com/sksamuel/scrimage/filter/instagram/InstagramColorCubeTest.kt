@@ -0,0 +1,49 @@
+package com.sksamuel.scrimage.filter.instagram
+
+import com.sksamuel.scrimage.ImmutableImage
+import com.sksamuel.scrimage.filter.argbOf
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.doubles.shouldBeLessThan
+import io.kotest.matchers.ints.shouldBeLessThanOrEqual
+import io.kotest.matchers.shouldBe
+import java.awt.image.BufferedImage
+import kotlin.math.abs
+
+class InstagramColorCubeTest : FunSpec({
+
+   val image = ImmutableImage.fromResource("/bird.jpg").scaleToWidth(300)
+
+   val filters = listOf(AdenFilter(), ClarendonFilter(), GinghamFilter(), HudsonFilter(), JunoFilter(), Xpro2Filter())
+
+   test("the colour cube stays close to running the adjustments on every pixel") {
+      for (filter in filters) {
+         val exact = argbOf(image.filter(filter.exact()))
+         val cube = argbOf(image.filter(filter))
+         var max = 0
+         var sum = 0L
+         for (i in exact.indices) {
+            for (shift in listOf(0, 8, 16)) {
+               val d = abs(((exact[i] shr shift) and 0xFF) - ((cube[i] shr shift) and 0xFF))
+               max = maxOf(max, d)
+               sum += d
+            }
+         }
+         max shouldBeLessThanOrEqual 10
+         (sum.toDouble() / (exact.size * 3)) shouldBeLessThan 0.5
+      }
+   }
+
+   test("filtering in parallel gives exactly the single threaded result") {
+      for (filter in filters) {
+         argbOf(image.filter(filter.parallel(4))) shouldBe argbOf(image.filter(filter))
+      }
+   }
+
+   test("the alpha channel is preserved") {
+      val awt = BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB)
+      for (y in 0 until 16) for (x in 0 until 16) awt.setRGB(x, y, ((x * 16 + y) shl 24) or 0x336699)
+      val source = ImmutableImage.wrapAwt(awt)
+      val filtered = source.filter(ClarendonFilter())
+      argbOf(filtered).map { it ushr 24 } shouldBe argbOf(source).map { it ushr 24 }
+   }
+})
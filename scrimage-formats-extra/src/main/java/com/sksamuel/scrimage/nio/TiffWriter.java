@@ -45,7 +45,9 @@ public class TiffWriter extends TwelveMonkeysWriter {
 
    @Override
    public void write(AwtImage image, ImageMetadata metadata, OutputStream out) throws IOException {
-      javax.imageio.ImageWriter writer = ImageIO.getImageWritersByFormatName(format()).next();
+      javax.imageio.ImageWriter writer = ImageIOPool.shared().borrowWriter(format());
+      if (writer == null)
+         throw new IOException("No javax.imageio.ImageWriter is installed for " + format());
       try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
          ImageWriteParam params = writer.getDefaultWriteParam();
 
@@ -57,7 +59,7 @@ public class TiffWriter extends TwelveMonkeysWriter {
          writer.setOutput(ios);
          writer.write(null, new IIOImage(image.awt(), null, null), params);
       } finally {
-         writer.dispose();
+         ImageIOPool.shared().releaseWriter(format(), writer);
       }
    }
 }
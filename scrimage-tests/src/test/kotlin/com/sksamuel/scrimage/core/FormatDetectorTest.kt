@@ -25,6 +25,10 @@ class FormatDetectorTest : WordSpec({
       "detect webp"  {
          FormatDetector.detect(javaClass.getResourceAsStream("/com/sksamuel/scrimage/landscape.webp")).get() shouldBe Format.WEBP
       }
+      "detect tiff in either byte order"  {
+         FormatDetector.detect(byteArrayOf('I'.code.toByte(), 'I'.code.toByte(), 0x2A, 0x00)).get() shouldBe Format.TIFF
+         FormatDetector.detect(byteArrayOf('M'.code.toByte(), 'M'.code.toByte(), 0x00, 0x2A)).get() shouldBe Format.TIFF
+      }
    }
 
    // Regression: detect(byte[]) compares magic bytes with a ranged Arrays.equals
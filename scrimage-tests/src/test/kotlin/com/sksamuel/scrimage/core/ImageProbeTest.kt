@@ -0,0 +1,87 @@
+package com.sksamuel.scrimage.core
+
+import com.sksamuel.scrimage.format.Format
+import com.sksamuel.scrimage.format.ImageProbe
+import com.sksamuel.scrimage.metadata.Orientation
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import java.io.ByteArrayInputStream
+import java.io.FilterInputStream
+import java.io.InputStream
+import java.nio.ByteBuffer
+import java.nio.channels.Channels
+
+class ImageProbeTest : FunSpec({
+
+   fun bytes(resource: String) = javaClass.getResourceAsStream(resource).readBytes()
+
+   fun probe(resource: String) = javaClass.getResourceAsStream(resource).use { ImageProbe.probe(it).get() }
+
+   // counts the bytes taken from the underlying stream
+   class CountingInputStream(input: InputStream) : FilterInputStream(input) {
+      var count = 0L
+      override fun read(): Int = super.read().also { if (it >= 0) count++ }
+      override fun read(b: ByteArray, off: Int, len: Int): Int = super.read(b, off, len).also { if (it > 0) count += it }
+   }
+
+   test("png header") {
+      probe("/transparent_chip.png") shouldBe ImageProbe(Format.PNG, 256, 256, 8, true, 1, null)
+   }
+
+   test("jpeg header with its exif orientation") {
+      probe("/com/sksamuel/scrimage/iphone/portrait_6.jpg") shouldBe
+         ImageProbe(Format.JPEG, 600, 450, 8, false, 1, Orientation.NinetyMirrored)
+      probe("/com/sksamuel/scrimage/iphone/portrait_6_expected.jpg").orientation.isPresent shouldBe false
+   }
+
+   test("gif header, with the frames counted when the whole image is available") {
+      probe("/animated.gif") shouldBe ImageProbe(Format.GIF, 648, 648, 8, true, ImageProbe.UNKNOWN_FRAME_COUNT, null)
+      ImageProbe.probe(bytes("/animated.gif")).get().frameCount shouldBe 34
+      ImageProbe.probe(bytes("/com/sksamuel/scrimage/io/bird_compressed.gif")).get().frameCount shouldBe 1
+   }
+
+   test("a still gif larger than the initial read has an unknown frame count when streamed") {
+      probe("/com/sksamuel/scrimage/io/bird_compressed.gif") shouldBe
+         ImageProbe(Format.GIF, 300, 200, 8, false, ImageProbe.UNKNOWN_FRAME_COUNT, null)
+   }
+
+   test("webp lossy and lossless headers") {
+      probe("/com/sksamuel/scrimage/landscape.webp") shouldBe ImageProbe(Format.WEBP, 550, 368, 8, false, 1, null)
+      probe("/spacedock.webp") shouldBe ImageProbe(Format.WEBP, 960, 540, 8, false, 1, null)
+   }
+
+   test("tiff header") {
+      probe("/com/sksamuel/scrimage/io/example.tiff") shouldBe ImageProbe(Format.TIFF, 500, 300, 8, false, 1, Orientation.Zero)
+   }
+
+   test("only the first few KB of a stream are read") {
+      val input = CountingInputStream(ByteArrayInputStream(bytes("/transparent_chip.png")))
+      ImageProbe.probe(input).get().width shouldBe 256
+      input.count shouldBe 4096L
+   }
+
+   test("more is read when the header lies behind large segments") {
+      val jpeg = bytes("/com/sksamuel/scrimage/iphone/portrait_1.jpg")
+      // an APP15 segment of 20000 bytes straight after the start of image marker
+      val segment = byteArrayOf(0xFF.toByte(), 0xEF.toByte(), (20000 shr 8).toByte(), (20000 and 0xFF).toByte()) + ByteArray(19998)
+      val padded = jpeg.copyOfRange(0, 2) + segment + jpeg.copyOfRange(2, jpeg.size)
+      val input = CountingInputStream(ByteArrayInputStream(padded))
+      ImageProbe.probe(input).get() shouldBe ImageProbe(Format.JPEG, 450, 600, 8, false, 1, Orientation.Zero)
+      (input.count < padded.size) shouldBe true
+   }
+
+   test("channels and buffers are probed too") {
+      val webp = bytes("/spacedock.webp")
+      ImageProbe.probe(Channels.newChannel(ByteArrayInputStream(webp))).get().width shouldBe 960
+      val buffer = ByteBuffer.wrap(webp)
+      ImageProbe.probe(buffer).get().height shouldBe 540
+      buffer.position() shouldBe 0
+   }
+
+   test("unknown, truncated and malformed inputs give empty") {
+      ImageProbe.probe(ByteArray(0)).isPresent shouldBe false
+      ImageProbe.probe("not an image at all".toByteArray()).isPresent shouldBe false
+      ImageProbe.probe(bytes("/transparent_chip.png").copyOf(20)).isPresent shouldBe false
+      ImageProbe.probe(bytes("/com/sksamuel/scrimage/bird.jpg").copyOf(100)).isPresent shouldBe false
+   }
+})
@@ -0,0 +1,129 @@
+package com.sksamuel.scrimage.core
+
+import com.sksamuel.scrimage.ScaleMethod
+import com.sksamuel.scrimage.color.GrayscaleMethod
+import com.sksamuel.scrimage.filter.BlurFilter
+import com.sksamuel.scrimage.filter.GrayscaleFilter
+import com.sksamuel.scrimage.filter.InvertFilter
+import com.sksamuel.scrimage.filter.SepiaFilter
+import com.sksamuel.scrimage.pixels.ArgbMapper
+import com.sksamuel.scrimage.pixels.PixelTools
+import com.sksamuel.scrimage.pixels.RgbaOp
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import java.awt.Color
+import java.awt.image.BufferedImage
+
+class LazyImageTest : FunSpec({
+
+   val types = listOf(
+      BufferedImage.TYPE_INT_ARGB,
+      BufferedImage.TYPE_INT_RGB,
+      BufferedImage.TYPE_3BYTE_BGR,
+      BufferedImage.TYPE_4BYTE_ABGR,
+      BufferedImage.TYPE_BYTE_GRAY,
+      BufferedImage.TYPE_USHORT_565_RGB,
+   )
+
+   test("a chain of crops, scales, filters and point ops gives the same result as running it eagerly") {
+      for (type in types) {
+         val image = randomImage(200, 150, type, 1)
+         val eager = image.viewMode()
+            .trim(5)
+            .scaleTo(100, 70)
+            .padWith(3, 3, 3, 3, Color.RED)
+            .filter(GrayscaleFilter(), InvertFilter(), BlurFilter())
+            .brightness(1.2)
+            .contrast(1.1)
+            .toGrayscale(GrayscaleMethod.LUMA)
+         val lazy = image.lazy()
+            .trim(5)
+            .scaleTo(100, 70)
+            .padWith(3, 3, 3, 3, Color.RED)
+            .filter(GrayscaleFilter(), InvertFilter(), BlurFilter())
+            .brightness(1.2)
+            .contrast(1.1)
+            .toGrayscale(GrayscaleMethod.LUMA)
+            .execute()
+         lazy.type shouldBe eager.type
+         argbOf(lazy) shouldBe argbOf(eager)
+      }
+   }
+
+   test("point ops moved after crops and nearest neighbour downscales give the same result") {
+      val swap = RgbaOp { r, g, b, a -> PixelTools.argb(a, b, g, r) }
+      for (type in types) {
+         val image = randomImage(200, 150, type, 2)
+         val eager = image.viewMode()
+            .brightness(0.8)
+            .mapArgb(swap)
+            .trim(3)
+            .takeLeft(120)
+            .scaleTo(60, 40, ScaleMethod.FastScale)
+            .filter(InvertFilter())
+         val lazy = image.lazy()
+            .brightness(0.8)
+            .mapArgb(swap)
+            .trim(3)
+            .takeLeft(120)
+            .scaleTo(60, 40, ScaleMethod.FastScale)
+            .filter(InvertFilter())
+            .execute()
+         argbOf(lazy) shouldBe argbOf(eager)
+      }
+   }
+
+   test("point ops that depend on the position of the pixel are not moved past crops") {
+      val checker = ArgbMapper { x, y, argb -> if ((x + y) % 2 == 0) argb else argb.inv() }
+      val image = randomImage(80, 60, BufferedImage.TYPE_INT_ARGB, 3)
+      val eager = image.mapArgb(checker).subimage(3, 3, 50, 50).map { Color(it.red(), 0, 0) }
+      val lazy = image.lazy().mapArgb(checker).subimage(3, 3, 50, 50).map { Color(it.red(), 0, 0) }.execute()
+      argbOf(lazy) shouldBe argbOf(eager)
+   }
+
+   test("autocrop is not moved ahead of the point ops before it") {
+      val image = randomImage(120, 90, BufferedImage.TYPE_INT_RGB, 4)
+      val eager = image.contrast(2.0).autocrop(Color.WHITE, 30).scaleToWidth(50)
+      val lazy = image.lazy().contrast(2.0).autocrop(Color.WHITE, 30).scaleToWidth(50).execute()
+      argbOf(lazy) shouldBe argbOf(eager)
+   }
+
+   test("cover crops as it does in view mode") {
+      val image = randomImage(120, 90, BufferedImage.TYPE_INT_ARGB, 5)
+      val eager = image.viewMode().cover(40, 40).filter(SepiaFilter())
+      val lazy = image.lazy().cover(40, 40).filter(SepiaFilter()).execute()
+      argbOf(lazy) shouldBe argbOf(eager)
+   }
+
+   test("a chain of crops returns a standalone image") {
+      val image = randomImage(120, 90, BufferedImage.TYPE_INT_ARGB, 6)
+      val lazy = image.lazy().trim(10).takeTop(20).execute()
+      lazy.isViewMode() shouldBe false
+      (lazy.awt().raster.dataBuffer === image.awt().raster.dataBuffer) shouldBe false
+      argbOf(lazy) shouldBe argbOf(image.trim(10).takeTop(20))
+   }
+
+   test("execute leaves the source image unchanged") {
+      val image = randomImage(120, 90, BufferedImage.TYPE_INT_ARGB, 7)
+      val before = argbOf(image)
+      image.lazy().trim(2).filter(InvertFilter(), BlurFilter()).brightness(1.5).execute()
+      image.lazy().scaleTo(60, 45, ScaleMethod.FastScale).toGrayscale(GrayscaleMethod.AVERAGE).execute()
+      argbOf(image) shouldBe before
+   }
+
+   test("a chain with no operations returns the source image") {
+      val image = randomImage(20, 20, BufferedImage.TYPE_INT_ARGB, 8)
+      image.lazy().execute() shouldBeSameInstanceAs image
+   }
+
+   test("a chain can be extended in several ways") {
+      val image = randomImage(100, 80, BufferedImage.TYPE_INT_ARGB, 9)
+      val trimmed = image.lazy().trim(10)
+      val left = trimmed.takeLeft(20).execute()
+      val right = trimmed.takeRight(30).execute()
+      left.width shouldBe 20
+      right.width shouldBe 30
+      trimmed.execute().width shouldBe 80
+   }
+})
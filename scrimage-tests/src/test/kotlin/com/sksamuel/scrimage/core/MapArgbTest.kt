@@ -0,0 +1,54 @@
+package com.sksamuel.scrimage.core
+
+import com.sksamuel.scrimage.ImmutableImage
+import com.sksamuel.scrimage.color.GrayscaleMethod
+import com.sksamuel.scrimage.pixels.ArgbMapper
+import com.sksamuel.scrimage.pixels.PixelTools
+import com.sksamuel.scrimage.pixels.RgbaOp
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import java.awt.Color
+import java.awt.image.BufferedImage
+import java.awt.image.RescaleOp
+
+class MapArgbTest : FunSpec({
+
+   test("mapArgb passes the coordinates and value of each pixel, including on subimage views") {
+      val source = gradientImage(BufferedImage.TYPE_INT_ARGB)
+      val view = ImmutableImage.wrapAwt(source.awt().getSubimage(5, 4, 20, 10))
+      for (image in listOf(source, view, gradientImage(BufferedImage.TYPE_4BYTE_ABGR))) {
+         val mapped = image.mapArgb(ArgbMapper { x, y, argb -> argb xor (x shl 8) xor y })
+         val expected = image.map { Color(it.argb xor (it.x() shl 8) xor it.y(), true) }
+         argbOf(mapped) shouldBe argbOf(expected)
+      }
+   }
+
+   test("mapArgbInPlace writes the mapped values into the image") {
+      val image = gradientImage(BufferedImage.TYPE_INT_RGB)
+      val expected = argbOf(image).map { it xor 0x00FFFFFF }
+      image.mapArgbInPlace(RgbaOp { r, g, b, a -> PixelTools.argb(a, 255 - r, 255 - g, 255 - b) })
+      argbOf(image) shouldBe expected
+   }
+
+   test("grayscale methods are usable as ops and agree with toGrayscale(Color)") {
+      val image = gradientImage(BufferedImage.TYPE_INT_ARGB)
+      for (method in listOf(GrayscaleMethod.AVERAGE, GrayscaleMethod.LUMA, GrayscaleMethod.WEIGHTED)) {
+         val viaColor = GrayscaleMethod { method.toGrayscale(it) }
+         argbOf(image.toGrayscale(method)) shouldBe argbOf(image.toGrayscale(viaColor))
+         argbOf(image.mapArgb(method)) shouldBe argbOf(image.toGrayscale(method))
+      }
+   }
+
+   test("brightness matches RescaleOp") {
+      for (type in listOf(BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR)) {
+         for (factor in listOf(0.3, 1.1, 1.7, 2.4)) {
+            val image = gradientImage(type)
+            val expected = image.copy()
+            RescaleOp(factor.toFloat(), 0f, null).filter(expected.awt(), expected.awt())
+            val brightened = image.brightness(factor)
+            brightened.type shouldBe type
+            argbOf(brightened) shouldBe argbOf(expected)
+         }
+      }
+   }
+})
@@ -0,0 +1,56 @@
+package com.sksamuel.scrimage.core
+
+import com.sksamuel.scrimage.ImmutableImage
+import com.sksamuel.scrimage.color.GrayscaleMethod
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import java.awt.image.BufferedImage
+
+class ParallelPixelOpsTest : FunSpec({
+
+   // large enough to be split into several stripes
+   fun image(type: Int) = randomImage(600, 401, type, 7)
+
+   val types = listOf(
+      BufferedImage.TYPE_INT_ARGB,
+      BufferedImage.TYPE_INT_RGB,
+      BufferedImage.TYPE_4BYTE_ABGR,
+      BufferedImage.TYPE_BYTE_GRAY,
+      BufferedImage.TYPE_BYTE_INDEXED,
+   )
+
+   test("parallel per pixel ops match the single threaded ops") {
+      for (type in types) {
+         val image = image(type)
+         for (parallelism in listOf(2, 3, 8)) {
+            argbOf(image.contrast(1.4, parallelism)) shouldBe argbOf(image.contrast(1.4))
+            argbOf(image.brightness(1.4, parallelism)) shouldBe argbOf(image.brightness(1.4))
+            argbOf(image.toGrayscale(GrayscaleMethod.LUMA, parallelism)) shouldBe argbOf(image.toGrayscale(GrayscaleMethod.LUMA))
+            argbOf(image.map({ java.awt.Color(it.argb xor it.x(), true) }, parallelism)) shouldBe
+               argbOf(image.map { java.awt.Color(it.argb xor it.x(), true) })
+         }
+      }
+   }
+
+   test("parallel in place ops match the single threaded ops") {
+      for (type in types) {
+         val sequential = image(type)
+         val parallel = image(type)
+         sequential.contrastInPlace(0.6)
+         parallel.contrastInPlace(0.6, 4)
+         sequential.rescaleInPlace(1.3)
+         parallel.rescaleInPlace(1.3, 4)
+         sequential.mapArgbInPlace { x, y, argb -> argb xor (x * y) }
+         parallel.mapArgbInPlace({ x, y, argb -> argb xor (x * y) }, 4)
+         argbOf(parallel) shouldBe argbOf(sequential)
+      }
+   }
+
+   test("subimage views are mapped in their own bounds") {
+      val parent = image(BufferedImage.TYPE_INT_ARGB)
+      val before = argbOf(parent)
+      val view = ImmutableImage.wrapAwt(parent.awt().getSubimage(10, 20, 500, 300))
+      argbOf(view.contrast(1.4, 4)) shouldBe argbOf(view.contrast(1.4))
+      argbOf(parent) shouldBe before
+   }
+})
@@ -0,0 +1,61 @@
+package com.sksamuel.scrimage.core
+
+import com.sksamuel.scrimage.ImmutableImage
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import java.awt.Color
+import java.awt.image.BufferedImage
+
+class PixelBufferTest : FunSpec({
+
+   fun image(type: Int): BufferedImage = gradientImage(type).awt()
+
+   test("buffer reads match getRGB for int images and subimage views") {
+      for (type in listOf(BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_RGB)) {
+         val awt = image(type)
+         for (view in listOf(awt, awt.getSubimage(5, 4, 20, 10))) {
+            val buffer = ImmutableImage.wrapAwt(view).pixelBuffer().get()
+            buffer.toArgb().toList() shouldBe view.getRGB(0, 0, view.width, view.height, null, 0, view.width).toList()
+            buffer.get(3, 2) shouldBe view.getRGB(3, 2)
+         }
+      }
+   }
+
+   test("subimage views are not dense and step rows by the parent stride") {
+      val view = ImmutableImage.wrapAwt(image(BufferedImage.TYPE_INT_ARGB).getSubimage(5, 4, 20, 10)).pixelBuffer().get()
+      view.isDense shouldBe false
+      view.stride() shouldBe 40
+      view.index(0, 1) - view.index(0, 0) shouldBe 40
+   }
+
+   test("writes go straight into the image") {
+      val image = ImmutableImage.wrapAwt(image(BufferedImage.TYPE_INT_RGB))
+      image.pixelBuffer().get().set(1, 1, 0xFF123456.toInt())
+      image.awt().getRGB(1, 1) shouldBe 0xFF123456.toInt()
+   }
+
+   test("images not backed by packed ints have no buffer") {
+      ImmutableImage.wrapAwt(image(BufferedImage.TYPE_3BYTE_BGR)).pixelBuffer().isPresent shouldBe false
+      ImmutableImage.wrapAwt(image(BufferedImage.TYPE_INT_ARGB_PRE)).pixelBuffer().isPresent shouldBe false
+   }
+
+   test("int image ops match the generic getRGB path") {
+      val argb = ImmutableImage.wrapAwt(image(BufferedImage.TYPE_INT_ARGB))
+      val abgr = ImmutableImage.wrapAwt(image(BufferedImage.TYPE_4BYTE_ABGR))
+      argb.contrast(1.5) shouldBe abgr.contrast(1.5)
+      argb.removeTransparency(Color.RED) shouldBe abgr.removeTransparency(Color.RED)
+      argb.subimage(2, 3, 10, 12) shouldBe abgr.subimage(2, 3, 10, 12)
+   }
+
+   test("mapInPlace mappers that read neighbouring pixels see their original values") {
+      for (type in listOf(BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_4BYTE_ABGR)) {
+         val original = ImmutableImage.wrapAwt(image(type))
+         val image = original.copy()
+         // shifts every row one pixel to the right
+         image.mapInPlace { p -> Color(original.awt().getRGB(maxOf(p.x - 1, 0), p.y), true) }
+         val copy = original.copy()
+         copy.mapInPlace { p -> Color(copy.awt().getRGB(maxOf(p.x - 1, 0), p.y), true) }
+         copy shouldBe image
+      }
+   }
+})
@@ -0,0 +1,54 @@
+package com.sksamuel.scrimage.core
+
+import com.sksamuel.scrimage.internal.RowStripes
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicIntegerArray
+
+class RowStripesTest : FunSpec({
+
+   test("the rows are split into contiguous stripes covering every row once") {
+      val executor = Executors.newFixedThreadPool(4)
+      try {
+         val counts = AtomicIntegerArray(101)
+         RowStripes.inStripes(101, 7, executor) { start, end -> for (y in start until end) counts.incrementAndGet(y) }
+         (0 until 101).map { counts.get(it) }.toSet() shouldBe setOf(1)
+         RowStripes.start(101, 7, 0) shouldBe 0
+         RowStripes.start(101, 7, 7) shouldBe 101
+      } finally {
+         executor.shutdown()
+      }
+   }
+
+   test("a failure on the calling thread is thrown only once every other stripe has finished") {
+      val executor = Executors.newFixedThreadPool(4)
+      try {
+         val finished = AtomicIntegerArray(4)
+         shouldThrow<IllegalStateException> {
+            RowStripes.inStripes(4, executor) { stripe ->
+               if (stripe == 3) throw IllegalStateException("boom")
+               Thread.sleep(200)
+               finished.set(stripe, 1)
+            }
+         }.message shouldBe "boom"
+         (0 until 3).map { finished.get(it) } shouldBe listOf(1, 1, 1)
+      } finally {
+         executor.shutdown()
+      }
+   }
+
+   test("a failure on the executor is rethrown unwrapped") {
+      val executor = Executors.newFixedThreadPool(2)
+      try {
+         shouldThrow<IllegalArgumentException> {
+            RowStripes.inStripes(3, executor) { stripe ->
+               if (stripe == 0) throw IllegalArgumentException("boom")
+            }
+         }.message shouldBe "boom"
+      } finally {
+         executor.shutdown()
+      }
+   }
+})
@@ -0,0 +1,91 @@
+package com.sksamuel.scrimage.core
+
+import com.sksamuel.scrimage.Position
+import com.sksamuel.scrimage.ScaleMethod
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import java.awt.Color
+import java.awt.image.BufferedImage
+
+class SubimageViewTest : FunSpec({
+
+   val types = listOf(
+      BufferedImage.TYPE_INT_ARGB,
+      BufferedImage.TYPE_INT_RGB,
+      BufferedImage.TYPE_3BYTE_BGR,
+      BufferedImage.TYPE_4BYTE_ABGR,
+   )
+
+   test("crops in view mode share the pixels of the original image") {
+      val image = randomImage(100, 80, BufferedImage.TYPE_INT_ARGB, 1)
+      val view = image.viewMode().trim(5).subimage(10, 10, 40, 30).takeLeft(20).dropTop(2)
+      view.isViewMode() shouldBe true
+      view.awt().raster.dataBuffer shouldBe image.awt().raster.dataBuffer
+   }
+
+   test("crops in view mode have the same pixels as copied crops") {
+      for (type in types) {
+         val image = randomImage(100, 80, type, 2)
+         val view = image.viewMode().trim(5).subimage(10, 10, 40, 30).takeRight(20)
+         val copied = image.trim(5).subimage(10, 10, 40, 30).takeRight(20)
+         argbOf(view) shouldBe argbOf(copied)
+         view.colours() shouldBe copied.colours()
+      }
+   }
+
+   test("copy of a view is a standalone image of the same type") {
+      for (type in types) {
+         val view = randomImage(60, 50, type, 3).viewMode().subimage(7, 9, 30, 20)
+         val copy = view.copy()
+         copy.isViewMode() shouldBe false
+         copy.type shouldBe type
+         copy.awt().raster.dataBuffer.size shouldBe 30 * 20 * copy.awt().raster.numDataElements
+         argbOf(copy) shouldBe argbOf(view)
+      }
+   }
+
+   test("changing a view in place leaves the original image unchanged") {
+      for (type in types) {
+         val image = randomImage(60, 50, type, 4)
+         val before = argbOf(image)
+         val view = image.viewMode().subimage(10, 10, 20, 20)
+         view.fillInPlace(Color.RED)
+         view.mapInPlace { Color.BLUE }
+         view.type shouldBe type
+         argbOf(view).toSet() shouldBe setOf(Color.BLUE.rgb)
+         argbOf(image) shouldBe before
+      }
+   }
+
+   test("changing the original image in place leaves its views unchanged") {
+      val image = randomImage(60, 50, BufferedImage.TYPE_INT_ARGB, 5).viewMode()
+      val view = image.subimage(10, 10, 20, 20)
+      val before = argbOf(view)
+      image.fillInPlace(Color.GREEN)
+      argbOf(view) shouldBe before
+      argbOf(image).toSet() shouldBe setOf(Color.GREEN.rgb)
+   }
+
+   test("a view cropped after an image was written to is unchanged by later writes") {
+      val image = randomImage(60, 50, BufferedImage.TYPE_INT_ARGB, 8).viewMode()
+      image.fillInPlace(Color.RED)
+      val crop = image.subimage(0, 0, 10, 10)
+      image.fillInPlace(Color.BLUE)
+      argbOf(crop).toSet() shouldBe setOf(Color.RED.rgb)
+      argbOf(image).toSet() shouldBe setOf(Color.BLUE.rgb)
+   }
+
+   test("images not in view mode still copy their crops") {
+      val image = randomImage(60, 50, BufferedImage.TYPE_INT_ARGB, 6)
+      val crop = image.subimage(10, 10, 20, 20)
+      crop.isViewMode() shouldBe false
+      (crop.awt().raster.dataBuffer === image.awt().raster.dataBuffer) shouldBe false
+   }
+
+   test("cover in view mode crops an opaque image exactly as cover does") {
+      val image = randomImage(80, 100, BufferedImage.TYPE_INT_RGB, 7)
+      val type = BufferedImage.TYPE_INT_RGB
+      argbOf(image.viewMode().cover(30, 30, ScaleMethod.Bicubic, Position.Center, type)) shouldBe
+         argbOf(image.cover(30, 30, ScaleMethod.Bicubic, Position.Center, type))
+   }
+})
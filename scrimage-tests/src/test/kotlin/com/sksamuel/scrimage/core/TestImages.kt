@@ -0,0 +1,32 @@
+package com.sksamuel.scrimage.core
+
+import com.sksamuel.scrimage.ImmutableImage
+import java.awt.Color
+import java.awt.image.BufferedImage
+import kotlin.random.Random
+
+// images and pixel readers shared by the core specs
+
+/**
+ * Returns an image of the given type whose pixels are random ARGB values from the given seed.
+ */
+fun randomImage(width: Int, height: Int, type: Int, seed: Int): ImmutableImage {
+   val random = Random(seed)
+   val awt = BufferedImage(width, height, type)
+   for (y in 0 until height) for (x in 0 until width) awt.setRGB(x, y, random.nextInt())
+   return ImmutableImage.wrapAwt(awt)
+}
+
+/**
+ * Returns a 40x30 image of the given type whose colour and alpha vary smoothly with the position.
+ */
+fun gradientImage(type: Int): ImmutableImage {
+   val awt = BufferedImage(40, 30, type)
+   for (y in 0 until 30) for (x in 0 until 40) awt.setRGB(x, y, Color(x * 6, y * 8, (x * y) % 256, 50 + x).rgb)
+   return ImmutableImage.wrapAwt(awt)
+}
+
+fun argbOf(image: ImmutableImage): List<Int> = argbOf(image.awt())
+
+fun argbOf(image: BufferedImage): List<Int> =
+   image.getRGB(0, 0, image.width, image.height, null, 0, image.width).toList()
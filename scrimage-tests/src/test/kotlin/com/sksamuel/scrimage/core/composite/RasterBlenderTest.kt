@@ -0,0 +1,127 @@
+package com.sksamuel.scrimage.core.composite
+
+import com.sksamuel.scrimage.ImmutableImage
+import com.sksamuel.scrimage.composite.AlphaComposite
+import com.sksamuel.scrimage.composite.AverageComposite
+import com.sksamuel.scrimage.composite.BlueComposite
+import com.sksamuel.scrimage.composite.ColorBurnComposite
+import com.sksamuel.scrimage.composite.ColorComposite
+import com.sksamuel.scrimage.composite.ColorDodgeComposite
+import com.sksamuel.scrimage.composite.Composite
+import com.sksamuel.scrimage.composite.DifferenceComposite
+import com.sksamuel.scrimage.composite.GlowComposite
+import com.sksamuel.scrimage.composite.GreenComposite
+import com.sksamuel.scrimage.composite.HardLightComposite
+import com.sksamuel.scrimage.composite.HeatComposite
+import com.sksamuel.scrimage.composite.HueComposite
+import com.sksamuel.scrimage.composite.LightenComposite
+import com.sksamuel.scrimage.composite.LuminosityComposite
+import com.sksamuel.scrimage.composite.MultiplyComposite
+import com.sksamuel.scrimage.composite.NegationComposite
+import com.sksamuel.scrimage.composite.OverlayComposite
+import com.sksamuel.scrimage.composite.RasterBlender
+import com.sksamuel.scrimage.composite.RedComposite
+import com.sksamuel.scrimage.composite.ReflectComposite
+import com.sksamuel.scrimage.composite.SaturationComposite
+import com.sksamuel.scrimage.composite.ScreenComposite
+import com.sksamuel.scrimage.composite.SubtractComposite
+import com.sksamuel.scrimage.core.argbOf
+import com.sksamuel.scrimage.core.randomImage
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import thirdparty.romainguy.BlendComposite
+import thirdparty.romainguy.BlendingMode
+import java.awt.image.BufferedImage
+
+class RasterBlenderTest : FunSpec({
+
+   // the result of drawing the overlay through Java2D, as the composites did before the RasterBlender
+   fun drawn(base: ImmutableImage, overlay: ImmutableImage, mode: BlendingMode, alpha: Double, x: Int, y: Int): BufferedImage {
+      val target = base.copy().awt()
+      val g2 = target.createGraphics()
+      g2.composite = BlendComposite.getInstance(mode, alpha.toFloat())
+      g2.drawImage(overlay.awt(), x, y, null)
+      g2.dispose()
+      return target
+   }
+
+   val composites: List<Pair<(Double) -> Composite, BlendingMode>> = listOf(
+      Pair({ a -> AverageComposite(a) }, BlendingMode.AVERAGE),
+      Pair({ a -> BlueComposite(a) }, BlendingMode.BLUE),
+      Pair({ a -> ColorBurnComposite(a) }, BlendingMode.COLOR_BURN),
+      Pair({ a -> ColorComposite(a) }, BlendingMode.COLOR),
+      Pair({ a -> ColorDodgeComposite(a) }, BlendingMode.COLOR_DODGE),
+      Pair({ a -> DifferenceComposite(a) }, BlendingMode.DIFFERENCE),
+      Pair({ a -> GlowComposite(a) }, BlendingMode.GLOW),
+      Pair({ a -> GreenComposite(a) }, BlendingMode.GREEN),
+      Pair({ a -> HardLightComposite(a) }, BlendingMode.HARD_LIGHT),
+      Pair({ a -> HeatComposite(a) }, BlendingMode.HEAT),
+      Pair({ a -> HueComposite(a) }, BlendingMode.HUE),
+      Pair({ a -> LightenComposite(a) }, BlendingMode.LIGHTEN),
+      Pair({ a -> LuminosityComposite(a) }, BlendingMode.LUMINOSITY),
+      Pair({ a -> MultiplyComposite(a) }, BlendingMode.MULTIPLY),
+      Pair({ a -> NegationComposite(a) }, BlendingMode.NEGATION),
+      Pair({ a -> OverlayComposite(a) }, BlendingMode.OVERLAY),
+      Pair({ a -> RedComposite(a) }, BlendingMode.RED),
+      Pair({ a -> ReflectComposite(a) }, BlendingMode.REFLECT),
+      Pair({ a -> SaturationComposite(a) }, BlendingMode.SATURATION),
+      Pair({ a -> ScreenComposite(a) }, BlendingMode.SCREEN),
+      Pair({ a -> SubtractComposite(a) }, BlendingMode.SUBTRACT),
+   )
+
+   test("blend composites give exactly the result of drawing with a BlendComposite") {
+      for (type in listOf(BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_RGB)) {
+         val base = randomImage(53, 41, type, 1)
+         val overlay = randomImage(53, 41, BufferedImage.TYPE_INT_ARGB, 2)
+         for ((composite, mode) in composites) {
+            for (alpha in listOf(1.0, 0.6)) {
+               argbOf(base.composite(composite(alpha), overlay).awt()) shouldBe
+                  argbOf(drawn(base, overlay, mode, alpha, 0, 0))
+            }
+         }
+      }
+   }
+
+   test("every blending mode gives exactly the result of drawing with a BlendComposite") {
+      val base = randomImage(37, 29, BufferedImage.TYPE_INT_ARGB, 3)
+      val overlay = randomImage(37, 29, BufferedImage.TYPE_INT_ARGB, 4)
+      for (mode in BlendingMode.values()) {
+         val target = base.copy()
+         RasterBlender.blend(mode, 0.7f, target.pixelBuffer().get(), overlay.pixelBuffer().get(), 0, 0, 1)
+         argbOf(target.awt()) shouldBe argbOf(drawn(base, overlay, mode, 0.7, 0, 0))
+      }
+   }
+
+   test("a smaller overlay is blended at the given offset and clipped to the base") {
+      val base = randomImage(60, 40, BufferedImage.TYPE_INT_ARGB, 5)
+      val overlay = randomImage(25, 30, BufferedImage.TYPE_INT_ARGB, 6)
+      for ((x, y) in listOf(Pair(10, 5), Pair(-7, 20), Pair(50, -12), Pair(60, 0))) {
+         argbOf(base.composite(MultiplyComposite(0.8), overlay, x, y).awt()) shouldBe
+            argbOf(drawn(base, overlay, BlendingMode.MULTIPLY, 0.8, x, y))
+      }
+   }
+
+   test("an offset overlay on an image without packed ints only changes the intersecting pixels") {
+      val base = randomImage(60, 40, BufferedImage.TYPE_3BYTE_BGR, 7)
+      val overlay = randomImage(25, 30, BufferedImage.TYPE_4BYTE_ABGR, 8)
+      val composited = base.composite(AlphaComposite(0.5), overlay, 45, 20)
+      for (y in 0 until 40) for (x in 0 until 60) {
+         if (x < 45 || y < 20) composited.pixel(x, y).argb shouldBe base.pixel(x, y).argb
+      }
+   }
+
+   test("blending in parallel gives the same result as blending on one thread") {
+      val base = randomImage(400, 300, BufferedImage.TYPE_INT_ARGB, 9)
+      val overlay = randomImage(350, 320, BufferedImage.TYPE_INT_ARGB, 10)
+      val sequential = base.composite(HueComposite(0.9), overlay, 30, -10)
+      val parallel = base.composite(HueComposite(0.9).parallel(4), overlay, 30, -10)
+      argbOf(parallel.awt()) shouldBe argbOf(sequential.awt())
+   }
+
+   test("composite leaves the original image unchanged") {
+      val base = randomImage(30, 30, BufferedImage.TYPE_INT_ARGB, 11)
+      val before = argbOf(base.awt())
+      base.composite(ScreenComposite(1.0), randomImage(30, 30, BufferedImage.TYPE_INT_ARGB, 12))
+      argbOf(base.awt()) shouldBe before
+   }
+})
@@ -0,0 +1,47 @@
+package com.sksamuel.scrimage.core.composite
+
+import com.sksamuel.scrimage.MutableImage
+import com.sksamuel.scrimage.Position
+import com.sksamuel.scrimage.composite.AlphaComposite
+import com.sksamuel.scrimage.composite.ScreenComposite
+import com.sksamuel.scrimage.core.randomImage
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import java.awt.image.BufferedImage
+
+class RegionCompositeTest : FunSpec({
+
+   val watermark = randomImage(20, 10, BufferedImage.TYPE_INT_ARGB, 2)
+
+   test("compositeInPlace changes only the pixels under the overlay") {
+      for (type in listOf(BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_4BYTE_ABGR)) {
+         val original = randomImage(80, 60, type, 1)
+         val mutable = MutableImage(original.copy().awt())
+         mutable.compositeInPlace(AlphaComposite(0.7), watermark, 50, 45)
+         for (y in 0 until 60) for (x in 0 until 80) {
+            if (x !in 50 until 70 || y !in 45 until 55)
+               mutable.pixel(x, y).argb shouldBe original.pixel(x, y).argb
+         }
+         mutable.pixels().map { it.argb } shouldBe
+            original.composite(AlphaComposite(0.7), watermark, 50, 45).pixels().map { it.argb }
+      }
+   }
+
+   test("compositing an overlay that lies outside the image leaves it unchanged") {
+      val original = randomImage(40, 30, BufferedImage.TYPE_INT_ARGB, 3)
+      for ((x, y) in listOf(Pair(40, 0), Pair(0, 30), Pair(-20, 5), Pair(5, -10))) {
+         val mutable = MutableImage(original.copy().awt())
+         mutable.compositeInPlace(ScreenComposite(1.0), watermark, x, y)
+         mutable.overlayInPlace(watermark.awt(), x, y)
+         mutable.pixels().map { it.argb } shouldBe original.pixels().map { it.argb }
+      }
+   }
+
+   test("composite at a position places the overlay as overlay does") {
+      val original = randomImage(80, 60, BufferedImage.TYPE_INT_ARGB, 4)
+      original.composite(ScreenComposite(0.5), watermark, Position.BottomRight) shouldBe
+         original.composite(ScreenComposite(0.5), watermark, 60, 50)
+      original.composite(AlphaComposite(1.0), watermark, Position.Center) shouldBe
+         original.overlay(watermark, Position.Center)
+   }
+})
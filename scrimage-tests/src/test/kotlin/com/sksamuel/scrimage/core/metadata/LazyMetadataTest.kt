@@ -0,0 +1,47 @@
+@file:Suppress("BlockingMethodInNonBlockingContext")
+
+package com.sksamuel.scrimage.core.metadata
+
+import com.sksamuel.scrimage.ImmutableImage
+import com.sksamuel.scrimage.metadata.ImageMetadata
+import com.sksamuel.scrimage.metadata.Orientation
+import com.sksamuel.scrimage.nio.ByteArrayImageSource
+import com.sksamuel.scrimage.nio.PngWriter
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+
+class LazyMetadataTest : FunSpec({
+
+   fun resource(name: String): ByteArray =
+      javaClass.getResourceAsStream("/com/sksamuel/scrimage/iphone/$name").use { it!!.readBytes() }
+
+   test("lazy orientation matches the fully parsed orientation") {
+      for (n in 1..8) {
+         val bytes = resource("portrait_$n.jpg")
+         val lazy = ImageMetadata.lazy(ByteArrayImageSource(bytes))
+         lazy.orientation shouldBe ImageMetadata.load(ByteArrayImageSource(bytes)).orientation
+         lazy.orientation shouldBe Orientation.fromRawValue(n)
+      }
+   }
+
+   test("images without exif have no orientation") {
+      ImageMetadata.lazy(ByteArrayImageSource(resource("portrait_1_expected.jpg"))).orientation.isPresent shouldBe false
+      val png = ImmutableImage.create(20, 20).bytes(PngWriter.NoCompression)
+      ImageMetadata.lazy(ByteArrayImageSource(png)).orientation.isPresent shouldBe false
+   }
+
+   test("lazy metadata materialises the same directories as an eager load") {
+      val bytes = resource("portrait_6.jpg")
+      val lazy = ImageMetadata.lazy(ByteArrayImageSource(bytes))
+      val eager = ImageMetadata.load(ByteArrayImageSource(bytes))
+      lazy.tags().size shouldBe eager.tags().size
+      lazy shouldBe eager
+   }
+
+   test("loader with lazy metadata still reorients") {
+      val lazy = ImmutableImage.loader().lazyMetadata(true).fromResource("/com/sksamuel/scrimage/iphone/portrait_8.jpg")
+      val eager = ImmutableImage.loader().fromResource("/com/sksamuel/scrimage/iphone/portrait_8.jpg")
+      lazy shouldBe eager
+      lazy.metadata shouldBe eager.metadata
+   }
+})
@@ -0,0 +1,50 @@
+@file:Suppress("BlockingMethodInNonBlockingContext")
+
+package com.sksamuel.scrimage.core.nio
+
+import com.sksamuel.scrimage.ImmutableImage
+import com.sksamuel.scrimage.nio.ImageIOPool
+import com.sksamuel.scrimage.nio.ImageIOReader
+import com.sksamuel.scrimage.nio.JpegWriter
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+
+class ImageIOPoolTest : FunSpec({
+
+   test("released readers are reused") {
+      val pool = ImageIOPool(2)
+      val reader = pool.borrowReader("jpeg")
+      pool.releaseReader("jpeg", reader)
+      pool.borrowReader("jpeg") shouldBeSameInstanceAs reader
+      pool.created() shouldBe 1
+      pool.reused() shouldBe 1
+   }
+
+   test("writers released to a full pool are disposed") {
+      val pool = ImageIOPool(1)
+      val a = pool.borrowWriter("png")
+      val b = pool.borrowWriter("png")
+      pool.releaseWriter("png", a)
+      pool.releaseWriter("png", b)
+      pool.idle() shouldBe 1
+      pool.disposed() shouldBe 1
+      pool.clear()
+      pool.idle() shouldBe 0
+      pool.disposed() shouldBe 2
+   }
+
+   test("unknown formats return null") {
+      ImageIOPool(1).borrowReader("nosuchformat") shouldBe null
+   }
+
+   test("repeated reads and writes through the shared pool produce identical results") {
+      val image = ImmutableImage.loader().fromResource("/com/sksamuel/scrimage/bird.jpg")
+      val jpeg = image.bytes(JpegWriter.Default)
+      val first = ImageIOReader().read(jpeg, null)
+      repeat(3) {
+         image.bytes(JpegWriter.Default).contentEquals(jpeg) shouldBe true
+         ImageIOReader().read(jpeg, null) shouldBe first
+      }
+   }
+})
@@ -0,0 +1,55 @@
+@file:Suppress("BlockingMethodInNonBlockingContext")
+
+package com.sksamuel.scrimage.core.nio
+
+import com.sksamuel.scrimage.ImmutableImage
+import com.sksamuel.scrimage.format.Format
+import com.sksamuel.scrimage.nio.ImageIOReader
+import com.sksamuel.scrimage.nio.ImageReader
+import com.sksamuel.scrimage.nio.ImageReaders
+import com.sksamuel.scrimage.nio.ImageSource
+import com.sksamuel.scrimage.nio.PngReader
+import com.sksamuel.scrimage.nio.PngWriter
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.collections.shouldContain
+import io.kotest.matchers.shouldBe
+import java.util.EnumSet
+
+class ReaderRoutingTest : FunSpec({
+
+   val jpeg = javaClass.getResourceAsStream("/com/sksamuel/scrimage/bird.jpg")!!.readBytes()
+   val png = ImmutableImage.create(20, 10).bytes(PngWriter.NoCompression)
+
+   class CountingReader(private val formats: Set<Format>) : ImageReader {
+      var calls = 0
+      override fun formats(): Set<Format> = formats
+      override fun read(bytes: ByteArray): ImmutableImage? {
+         calls++
+         return null
+      }
+   }
+
+   test("readers that do not declare the detected format are skipped") {
+      val pngOnly = CountingReader(EnumSet.of(Format.PNG))
+      val image = ImageReaders.read(ImageSource.of(jpeg), null, listOf(pngOnly, ImageIOReader()))
+      image.width shouldBe 1944
+      pngOnly.calls shouldBe 0
+   }
+
+   test("readers that declare no formats are offered every input") {
+      val any = CountingReader(emptySet())
+      ImageReaders.read(ImageSource.of(png), null, listOf(any, PngReader())).width shouldBe 20
+      any.calls shouldBe 1
+   }
+
+   test("undetected input is offered to every reader") {
+      val pngOnly = CountingReader(EnumSet.of(Format.PNG))
+      runCatching { ImageReaders.read(ImageSource.of(byteArrayOf(1, 2, 3)), null, listOf(pngOnly)) }
+      pngOnly.calls shouldBe 1
+   }
+
+   test("imageio reader declares the formats of the installed plugins") {
+      ImageIOReader().formats() shouldContain Format.JPEG
+      ImageIOReader().formats() shouldContain Format.PNG
+   }
+})
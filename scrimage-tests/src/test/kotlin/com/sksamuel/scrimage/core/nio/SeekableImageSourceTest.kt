@@ -0,0 +1,74 @@
+@file:Suppress("BlockingMethodInNonBlockingContext")
+
+package com.sksamuel.scrimage.core.nio
+
+import com.sksamuel.scrimage.ImmutableImage
+import com.sksamuel.scrimage.metadata.ImageMetadata
+import com.sksamuel.scrimage.nio.CachedImageSource
+import com.sksamuel.scrimage.nio.FileImageSource
+import com.sksamuel.scrimage.nio.ImageIOReader
+import com.sksamuel.scrimage.nio.PngReader
+import com.sksamuel.scrimage.nio.PngWriter
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import java.awt.Color
+import java.io.IOException
+import java.nio.file.Files
+
+class SeekableImageSourceTest : FunSpec({
+
+   // large enough, uncompressed, to be memory mapped rather than read onto the heap
+   val source = ImmutableImage.create(400, 300).map { p -> Color(p.x % 256, p.y % 256, 77) }
+   val png = source.bytes(PngWriter.NoCompression)
+
+   test("file source buffer matches the file contents") {
+      val file = Files.createTempFile("seekable", ".png")
+      Files.write(file, png)
+      val buffer = FileImageSource(file).buffer()
+      buffer.isReadOnly shouldBe true
+      val bytes = ByteArray(buffer.remaining())
+      buffer.get(bytes)
+      bytes.contentEquals(png) shouldBe true
+      file.toFile().deleteOnExit()
+   }
+
+   test("cached source hands out independent buffer views") {
+      val file = Files.createTempFile("seekable", ".png")
+      Files.write(file, png)
+      val cached = CachedImageSource(FileImageSource(file))
+      cached.buffer().position(100)
+      cached.buffer().position() shouldBe 0
+      cached.read().contentEquals(png) shouldBe true
+      file.toFile().deleteOnExit()
+   }
+
+   test("resetting the stream of a source without a mark is an IOException") {
+      val file = Files.createTempFile("seekable", ".png")
+      Files.write(file, png)
+      FileImageSource(file).open().use { stream ->
+         shouldThrow<IOException> { stream.reset() }
+         stream.mark(0)
+         stream.read()
+         stream.reset()
+         stream.read() shouldBe (png[0].toInt() and 0xFF)
+      }
+      file.toFile().deleteOnExit()
+   }
+
+   test("png and imageio readers decode from a mapped file") {
+      val file = Files.createTempFile("seekable", ".png")
+      Files.write(file, png)
+      PngReader().read(FileImageSource(file), null, null) shouldBe source
+      ImageIOReader().read(FileImageSource(file), null, null) shouldBe source
+      file.toFile().deleteOnExit()
+   }
+
+   test("loader fromPath reads through the mapped source") {
+      val file = Files.createTempFile("seekable", ".png")
+      Files.write(file, png)
+      ImmutableImage.loader().fromPath(file) shouldBe source
+      ImageMetadata.fromPath(file).tags().isEmpty() shouldBe false
+      file.toFile().deleteOnExit()
+   }
+})
@@ -0,0 +1,84 @@
+@file:Suppress("BlockingMethodInNonBlockingContext")
+
+package com.sksamuel.scrimage.core.nio
+
+import com.sksamuel.scrimage.ImmutableImage
+import com.sksamuel.scrimage.nio.ImageIOReader
+import com.sksamuel.scrimage.nio.JpegWriter
+import com.sksamuel.scrimage.nio.PngReader
+import com.sksamuel.scrimage.nio.PngWriter
+import com.sksamuel.scrimage.nio.SubsamplingHint
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import java.awt.Color
+import java.awt.Rectangle
+
+class SubsampledLoadTest : FunSpec({
+
+   // 1200x900 with a distinct colour in each 100px block so subsampled pixels can be checked
+   val source = ImmutableImage.create(1200, 900).map { p ->
+      Color((p.x / 100) * 20, (p.y / 100) * 25, 128)
+   }
+   val png = source.bytes(PngWriter.NoCompression)
+   val jpeg = source.bytes(JpegWriter.Default)
+
+   test("hint subsampling keeps both dimensions at least twice the target") {
+      SubsamplingHint.targetSize(100, 100).subsampling(1200, 900) shouldBe 4
+      SubsamplingHint.targetSize(200, 100).subsampling(1200, 900) shouldBe 2
+      SubsamplingHint.maxDimension(100).subsampling(1200, 900) shouldBe 6
+      SubsamplingHint.targetSize(1000, 1000).subsampling(1200, 900) shouldBe 1
+   }
+
+   test("loader with targetSize decodes a subsampled jpeg") {
+      val image = ImmutableImage.loader().targetSize(100, 100).fromBytes(jpeg)
+      image.width shouldBe 300
+      image.height shouldBe 225
+   }
+
+   test("loader with maxDimension decodes a subsampled png") {
+      val image = ImmutableImage.loader().maxDimension(100).fromBytes(png)
+      image.width shouldBe 200
+      image.height shouldBe 150
+   }
+
+   test("png subsampling keeps the top left pixel of each cell") {
+      val image = PngReader().read(png, null, SubsamplingHint.targetSize(100, 100))
+      image.width shouldBe 300
+      image.height shouldBe 225
+      for (y in 0 until image.height step 7) for (x in 0 until image.width step 7) {
+         image.pixel(x, y).argb shouldBe source.pixel(x * 4, y * 4).argb
+      }
+   }
+
+   test("png subsampling honours the source region") {
+      val region = Rectangle(150, 250, 600, 400)
+      val image = PngReader().read(png, region, SubsamplingHint.targetSize(50, 50))
+      image.width shouldBe 150
+      image.height shouldBe 100
+      image.pixel(0, 0).argb shouldBe source.pixel(150, 250).argb
+      image.pixel(10, 20).argb shouldBe source.pixel(190, 330).argb
+   }
+
+   test("imageio subsampling honours the source region") {
+      val region = Rectangle(0, 0, 600, 400)
+      val image = ImageIOReader().read(png, region, SubsamplingHint.targetSize(50, 50))
+      image.width shouldBe 150
+      image.height shouldBe 100
+   }
+
+   test("a subsampled load keeps the metadata of the source") {
+      val bytes = javaClass.getResourceAsStream("/com/sksamuel/scrimage/iphone/portrait_6.jpg").use { it!!.readBytes() }
+      val full = ImmutableImage.loader().fromBytes(bytes)
+      val hinted = ImmutableImage.loader().maxDimension(100).fromBytes(bytes)
+      (hinted.width < full.width) shouldBe true
+      hinted.metadata shouldBe full.metadata
+      (hinted.metadata.tags().size > 0) shouldBe true
+      ImmutableImage.loader().maxDimension(100).fromBytes(png).metadata shouldBe ImmutableImage.loader().fromBytes(png).metadata
+   }
+
+   test("small images are decoded at full resolution") {
+      val image = ImmutableImage.loader().targetSize(800, 800).fromBytes(png)
+      image.width shouldBe 1200
+      image.height shouldBe 900
+   }
+})
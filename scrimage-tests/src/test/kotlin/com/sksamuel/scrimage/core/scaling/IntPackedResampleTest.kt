@@ -0,0 +1,62 @@
+package com.sksamuel.scrimage.core.scaling
+
+import com.sksamuel.scrimage.ImmutableImage
+import com.sksamuel.scrimage.ScaleMethod
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import thirdparty.mortennobel.ResampleFilters
+import thirdparty.mortennobel.ResampleOp
+import java.awt.image.BufferedImage
+
+/**
+ * ResampleOp resamples TYPE_INT_ARGB and TYPE_INT_RGB images with an int-packed engine that
+ * reads and writes the rasters directly. It must match the byte engine pixel for pixel.
+ */
+class IntPackedResampleTest : FunSpec({
+
+   val bird = ImmutableImage.loader().fromResource("/com/sksamuel/scrimage/bird.jpg")
+
+   fun argb(image: BufferedImage): IntArray = image.getRGB(0, 0, image.width, image.height, null, 0, image.width)
+
+   test("int rgb source matches the 3 byte bgr engine and keeps its type") {
+      val rgb = bird.copy(BufferedImage.TYPE_INT_RGB).awt()
+      val bgr = bird.copy(BufferedImage.TYPE_3BYTE_BGR).awt()
+      val fromInt = ResampleOp(ResampleFilters.biCubicFilter, 300, 200).filter(rgb, null)
+      val fromBytes = ResampleOp(ResampleFilters.biCubicFilter, 300, 200).filter(bgr, null)
+      fromInt.type shouldBe BufferedImage.TYPE_INT_RGB
+      argb(fromInt) shouldBe argb(fromBytes)
+   }
+
+   test("opaque int argb source matches the 4 byte abgr engine") {
+      val src = bird.copy(BufferedImage.TYPE_INT_ARGB).awt()
+      val abgr = bird.copy(BufferedImage.TYPE_4BYTE_ABGR).awt()
+      val fromInt = ResampleOp(ResampleFilters.lanczos3Filter, 333, 111).filter(src, null)
+      val fromBytes = ResampleOp(ResampleFilters.lanczos3Filter, 333, 111).filter(abgr, null)
+      fromInt.type shouldBe BufferedImage.TYPE_INT_ARGB
+      argb(fromInt) shouldBe argb(fromBytes)
+   }
+
+   test("transparent pixels do not bleed their colour into visible neighbours") {
+      // left half opaque white, right half fully transparent black
+      val src = ImmutableImage.create(40, 40)
+      for (y in 0 until 40) for (x in 0 until 20) src.awt().setRGB(x, y, -0x1)
+      val scaled = src.scaleTo(17, 17, ScaleMethod.Lanczos3)
+      for (y in 0 until 17) for (x in 0 until 17) {
+         val p = scaled.pixel(x, y)
+         if (p.alpha() > 0) {
+            p.red() shouldBe 255
+            p.green() shouldBe 255
+            p.blue() shouldBe 255
+         }
+      }
+   }
+
+   test("sub image views are read from their own origin") {
+      val src = bird.copy(BufferedImage.TYPE_INT_ARGB).awt()
+      val view = src.getSubimage(31, 17, 200, 150)
+      val copy = ImmutableImage.fromAwt(view).awt()
+      val fromView = ResampleOp(ResampleFilters.biCubicFilter, 90, 70).filter(view, null)
+      val fromCopy = ResampleOp(ResampleFilters.biCubicFilter, 90, 70).filter(copy, null)
+      argb(fromView) shouldBe argb(fromCopy)
+   }
+})
@@ -0,0 +1,49 @@
+package com.sksamuel.scrimage.core.scaling
+
+import com.sksamuel.scrimage.ImmutableImage
+import com.sksamuel.scrimage.ScaleMethod
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import thirdparty.mortennobel.ResampleFilters
+import thirdparty.mortennobel.ResampleOp
+import java.awt.image.BufferedImage
+import java.util.concurrent.Executors
+
+class ParallelResampleTest : FunSpec({
+
+   val image = ImmutableImage.loader().fromResource("/com/sksamuel/scrimage/bird.jpg")
+
+   fun argb(image: ImmutableImage): IntArray =
+      image.awt().getRGB(0, 0, image.width, image.height, null, 0, image.width)
+
+   test("parallel resampling matches the serial result for every resample method") {
+      listOf(ScaleMethod.Bicubic, ScaleMethod.Bilinear, ScaleMethod.BSpline, ScaleMethod.Lanczos3).forEach { method ->
+         val serial = image.scaleTo(317, 211, method)
+         listOf(2, 3, 8).forEach { parallelism ->
+            argb(image.scaleTo(317, 211, method, parallelism)) shouldBe argb(serial)
+         }
+      }
+   }
+
+   test("parallel upscaling of a translucent image matches the serial result") {
+      val translucent = image.scaleTo(120, 80).map { java.awt.Color(it.red(), it.green(), it.blue(), it.x % 256) }
+      argb(translucent.scaleTo(400, 300, ScaleMethod.Lanczos3, 4)) shouldBe argb(translucent.scaleTo(400, 300, ScaleMethod.Lanczos3))
+   }
+
+   test("more bands than rows falls back to one band per row") {
+      val serial = image.scaleTo(50, 3, ScaleMethod.Bicubic)
+      argb(image.scaleTo(50, 3, ScaleMethod.Bicubic, 64)) shouldBe argb(serial)
+   }
+
+   test("ResampleOp runs the bands on a supplied executor") {
+      val executor = Executors.newFixedThreadPool(3)
+      try {
+         val src = image.copy(BufferedImage.TYPE_3BYTE_BGR).awt()
+         val serial = ResampleOp(ResampleFilters.lanczos3Filter, 200, 150).filter(src, null)
+         val parallel = ResampleOp(ResampleFilters.lanczos3Filter, 200, 150, 4, executor).filter(src, null)
+         parallel.getRGB(0, 0, 200, 150, null, 0, 200) shouldBe serial.getRGB(0, 0, 200, 150, null, 0, 200)
+      } finally {
+         executor.shutdown()
+      }
+   }
+})
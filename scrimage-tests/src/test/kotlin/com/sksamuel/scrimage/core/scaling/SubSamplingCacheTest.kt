@@ -0,0 +1,51 @@
+package com.sksamuel.scrimage.core.scaling
+
+import com.sksamuel.scrimage.ImmutableImage
+import com.sksamuel.scrimage.ScaleMethod
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.longs.shouldBeGreaterThanOrEqual
+import io.kotest.matchers.shouldBe
+import thirdparty.mortennobel.SubSamplingCache
+
+class SubSamplingCacheTest : FunSpec({
+
+   val image = ImmutableImage.loader().fromResource("/com/sksamuel/scrimage/bird.jpg")
+
+   test("repeated scales to the same geometry hit the shared cache") {
+      val cache = SubSamplingCache.shared()
+      val first = image.scaleTo(123, 77, ScaleMethod.Lanczos3)
+      val hits = cache.hits()
+      val misses = cache.misses()
+      val second = image.scaleTo(123, 77, ScaleMethod.Lanczos3)
+      // one table per axis
+      (cache.hits() - hits) shouldBeGreaterThanOrEqual 2L
+      cache.misses() shouldBe misses
+      second shouldBe first
+   }
+
+   test("cache is bounded to its max entries") {
+      val cache = SubSamplingCache.shared()
+      val max = cache.maxEntries
+      try {
+         cache.maxEntries = 2
+         image.scaleTo(101, 51, ScaleMethod.Bicubic)
+         image.scaleTo(102, 52, ScaleMethod.Bicubic)
+         cache.size() shouldBe 2
+      } finally {
+         cache.maxEntries = max
+      }
+   }
+
+   test("a disabled cache still resamples correctly") {
+      val cache = SubSamplingCache.shared()
+      val max = cache.maxEntries
+      val expected = image.scaleTo(64, 48, ScaleMethod.Bilinear)
+      try {
+         cache.maxEntries = 0
+         image.scaleTo(64, 48, ScaleMethod.Bilinear) shouldBe expected
+         cache.size() shouldBe 0
+      } finally {
+         cache.maxEntries = max
+      }
+   }
+})
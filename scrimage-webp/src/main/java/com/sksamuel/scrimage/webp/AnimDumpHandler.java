@@ -5,10 +5,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 /**
@@ -37,6 +35,16 @@ public class AnimDumpHandler extends WebpHandler {
       }
    }
 
+   public AnimDumpHandler() {
+   }
+
+   /**
+    * Creates a handler whose binaries run through the given pool rather than {@link WebpProcessPool#DEFAULT}.
+    */
+   public AnimDumpHandler(WebpProcessPool pool) {
+      super(pool);
+   }
+
    private static void installAnimDump() throws IOException {
       installBinary(binary, getBinaryPaths("anim_dump"));
    }
@@ -63,8 +71,22 @@ public class AnimDumpHandler extends WebpHandler {
    /**
     * Renders each frame of the given animated WebP and returns the per-frame
     * PNG bytes in playback order.
+    * <p>
+    * anim_dump can only write frames to a folder, so they pass through a temporary
+    * folder; the WebP itself is written to its standard input unless pipes are
+    * disabled, see {@link WebpHandler#usePipes()}.
     */
    public List<byte[]> dumpFrames(byte[] webpBytes) throws IOException {
+      if (usePipes()) {
+         Path folder = Files.createTempDirectory("anim_dump_out_");
+         try {
+            // an input of "-" reads the webp from stdin
+            exec("anim_dump", commands(folder, "-"), webpBytes);
+            return readFrames(folder);
+         } finally {
+            deleteFolder(folder);
+         }
+      }
       // Nest the two temp lifetimes: if createTempDirectory throws after
       // input has been allocated, the input file would otherwise leak.
       Path input = Files.createTempFile("anim_dump_in_", ".webp").toAbsolutePath();
@@ -73,33 +95,9 @@ public class AnimDumpHandler extends WebpHandler {
          try {
             Files.write(input, webpBytes, StandardOpenOption.CREATE);
             dumpFrames(input, folder);
-
-            List<Path> dumped;
-            try (Stream<Path> stream = Files.list(folder)) {
-               dumped = new ArrayList<>();
-               stream.forEach(dumped::add);
-            }
-            // anim_dump names files like dump_0000.png, dump_0001.png, ... and
-            // overflows to dump_10000.png at frame 10000. Sort by the parsed
-            // numeric portion rather than lexicographically — under a string
-            // sort dump_10000.png comes BEFORE dump_2.png, which would scramble
-            // playback order for animations with 10000+ frames.
-            dumped.sort(Comparator.comparingInt(AnimDumpHandler::frameIndex));
-
-            List<byte[]> frames = new ArrayList<>(dumped.size());
-            for (Path p : dumped) {
-               frames.add(Files.readAllBytes(p));
-            }
-            return frames;
+            return readFrames(folder);
          } finally {
-            try (Stream<Path> stream = Files.list(folder)) {
-               stream.forEach(p -> p.toFile().delete());
-            } catch (Exception ignored) {
-            }
-            try {
-               folder.toFile().delete();
-            } catch (Exception ignored) {
-            }
+            deleteFolder(folder);
          }
       } finally {
          try {
@@ -109,47 +107,53 @@ public class AnimDumpHandler extends WebpHandler {
       }
    }
 
+   private static List<byte[]> readFrames(Path folder) throws IOException {
+      List<Path> dumped;
+      try (Stream<Path> stream = Files.list(folder)) {
+         dumped = new ArrayList<>();
+         stream.forEach(dumped::add);
+      }
+      // anim_dump names files like dump_0000.png, dump_0001.png, ... and
+      // overflows to dump_10000.png at frame 10000. Sort by the parsed
+      // numeric portion rather than lexicographically — under a string
+      // sort dump_10000.png comes BEFORE dump_2.png, which would scramble
+      // playback order for animations with 10000+ frames.
+      dumped.sort(Comparator.comparingInt(AnimDumpHandler::frameIndex));
+
+      List<byte[]> frames = new ArrayList<>(dumped.size());
+      for (Path p : dumped) {
+         frames.add(Files.readAllBytes(p));
+      }
+      return frames;
+   }
+
+   private static void deleteFolder(Path folder) {
+      try (Stream<Path> stream = Files.list(folder)) {
+         stream.forEach(p -> p.toFile().delete());
+      } catch (Exception ignored) {
+      }
+      try {
+         folder.toFile().delete();
+      } catch (Exception ignored) {
+      }
+   }
+
    /**
     * Lower-level overload that runs anim_dump directly against on-disk files,
     * leaving the PNG outputs in {@code folder}.
     */
    public void dumpFrames(Path input, Path folder) throws IOException {
-      Path stdout = Files.createTempFile("anim_dump_stdout_", ".log");
-      try {
-         List<String> commands = new ArrayList<>();
-         commands.add(binary.toAbsolutePath().toString());
-         commands.add("-folder");
-         commands.add(folder.toAbsolutePath().toString());
-         commands.add("-prefix");
-         commands.add("dump_");
-         commands.add(input.toAbsolutePath().toString());
-
-         ProcessBuilder builder = new ProcessBuilder(commands);
-         builder.redirectErrorStream(true);
-         builder.redirectOutput(stdout.toFile());
+      exec("anim_dump", commands(folder, input.toAbsolutePath().toString()), null);
+   }
 
-         Process process = builder.start();
-         try {
-            boolean finished = process.waitFor(5, TimeUnit.MINUTES);
-            if (!finished) {
-               throw new IOException("anim_dump did not complete within 5 minutes");
-            }
-            int exitStatus = process.exitValue();
-            if (exitStatus != 0) {
-               List<String> error = Collections.unmodifiableList(Files.readAllLines(stdout));
-               throw new IOException("anim_dump exited with status " + exitStatus + ": " + error);
-            }
-         } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new IOException(e);
-         } finally {
-            process.destroy();
-         }
-      } finally {
-         try {
-            stdout.toFile().delete();
-         } catch (Exception ignored) {
-         }
-      }
+   private static List<String> commands(Path folder, String input) {
+      List<String> commands = new ArrayList<>();
+      commands.add(binary.toAbsolutePath().toString());
+      commands.add("-folder");
+      commands.add(folder.toAbsolutePath().toString());
+      commands.add("-prefix");
+      commands.add("dump_");
+      commands.add(input);
+      return commands;
    }
 }
@@ -6,7 +6,6 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 public class CWebpHandler extends WebpHandler {
 
@@ -28,6 +27,16 @@ public class CWebpHandler extends WebpHandler {
       }
    }
 
+   public CWebpHandler() {
+   }
+
+   /**
+    * Creates a handler whose binaries run through the given pool rather than {@link WebpProcessPool#DEFAULT}.
+    */
+   public CWebpHandler(WebpProcessPool pool) {
+      super(pool);
+   }
+
    /**
     * Scrimage includes the latest cwebp binary. Alternatively, you can provide another version by
     * placing it on the classpath at `webp_binaries`, eg, /webp_binaries/cwebp.
@@ -42,6 +51,22 @@ public class CWebpHandler extends WebpHandler {
       installBinary(binary, getBinaryPaths("cwebp"));
    }
 
+   /**
+    * Converts the given image to webp, passing -mt only while the pool has cores to spare,
+    * see {@link WebpProcessPool#multiThread()}.
+    */
+   public byte[] convert(byte[] bytes,
+                         int m,
+                         int q,
+                         int z,
+                         boolean lossless,
+                         boolean withoutAlpha) throws IOException {
+      return convert(bytes, m, q, z, lossless, withoutAlpha, null);
+   }
+
+   /**
+    * Converts the given image to webp, passing -mt exactly when multiThread is true.
+    */
    public byte[] convert(byte[] bytes,
                          int m,
                          int q,
@@ -49,6 +74,26 @@ public class CWebpHandler extends WebpHandler {
                          boolean lossless,
                          boolean withoutAlpha,
                          boolean multiThread) throws IOException {
+      return convert(bytes, m, q, z, lossless, withoutAlpha, Boolean.valueOf(multiThread));
+   }
+
+   // a null multiThread leaves -mt to the pool
+   private byte[] convert(byte[] bytes,
+                          int m,
+                          int q,
+                          int z,
+                          boolean lossless,
+                          boolean withoutAlpha,
+                          Boolean multiThread) throws IOException {
+      if (usePipes()) {
+         // "-o -" writes the webp to stdout, and "-- -" reads the image from stdin
+         List<String> commands = commands(m, q, z, lossless, withoutAlpha, multiThread(multiThread));
+         commands.add("-o");
+         commands.add("-");
+         commands.add("--");
+         commands.add("-");
+         return exec("cwebp", commands, bytes);
+      }
       // Use nested try/finally so if the second createTempFile throws
       // (disk full between the two calls), the first temp file is still
       // cleaned up. Previously both creates lived outside the try and a
@@ -81,67 +126,50 @@ public class CWebpHandler extends WebpHandler {
                         int z,
                         boolean lossless,
                         boolean withoutAlpha,
-                        boolean multiThread) throws IOException {
-      Path stdout = Files.createTempFile("stdout", "webp");
-      try {
-         List<String> commands = new ArrayList<>();
-         commands.add(binary.toAbsolutePath().toString());
-         if (m >= 0) {
-            commands.add("-m");
-            commands.add(m + "");
-         }
-         if (q >= 0) {
-            commands.add("-q");
-            commands.add(q + "");
-         }
-         if (z >= 0) {
-            commands.add("-z");
-            commands.add(z + "");
-         }
-         if (lossless) {
-            commands.add("-lossless");
-         }
-         if (withoutAlpha) {
-            commands.add("-noalpha");
-         }
-         if (multiThread) {
-            commands.add("-mt");
-         }
-         commands.add(input.toAbsolutePath().toString());
-         commands.add("-o");
-         commands.add(target.toAbsolutePath().toString());
+                        Boolean multiThread) throws IOException {
+      List<String> commands = commands(m, q, z, lossless, withoutAlpha, multiThread(multiThread));
+      commands.add(input.toAbsolutePath().toString());
+      commands.add("-o");
+      commands.add(target.toAbsolutePath().toString());
+      exec("cwebp", commands, null);
+   }
 
-         ProcessBuilder builder = new ProcessBuilder(commands);
-         builder.redirectErrorStream(true);
-         builder.redirectOutput(stdout.toFile());
+   private boolean multiThread(Boolean multiThread) {
+      return multiThread == null ? pool().multiThread() : multiThread;
+   }
 
-         Process process = builder.start();
-         try {
-            // waitFor(timeout, unit) returns false if the process is still
-            // running when the timeout expires. The previous code ignored
-            // the return value and called exitValue() unconditionally,
-            // which throws IllegalThreadStateException if the process
-            // hadn't exited — masking the real failure (a hang).
-            boolean finished = process.waitFor(5, TimeUnit.MINUTES);
-            if (!finished) {
-               throw new IOException("cwebp timed out after 5 minutes");
-            }
-            int exitStatus = process.exitValue();
-            if (exitStatus != 0) {
-               List<String> error = Files.readAllLines(stdout);
-               throw new IOException(error.toString());
-            }
-         } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new IOException(e);
-         } finally {
-            process.destroy();
-         }
-      } finally {
-         try {
-            stdout.toFile().delete();
-         } catch (Exception ignored) {
-         }
+   /**
+    * Returns the cwebp arguments for the given options.
+    */
+   private static List<String> commands(int m,
+                                        int q,
+                                        int z,
+                                        boolean lossless,
+                                        boolean withoutAlpha,
+                                        boolean multiThread) {
+      List<String> commands = new ArrayList<>();
+      commands.add(binary.toAbsolutePath().toString());
+      if (m >= 0) {
+         commands.add("-m");
+         commands.add(m + "");
+      }
+      if (q >= 0) {
+         commands.add("-q");
+         commands.add(q + "");
+      }
+      if (z >= 0) {
+         commands.add("-z");
+         commands.add(z + "");
+      }
+      if (lossless) {
+         commands.add("-lossless");
+      }
+      if (withoutAlpha) {
+         commands.add("-noalpha");
+      }
+      if (multiThread) {
+         commands.add("-mt");
       }
+      return commands;
    }
 }
@@ -4,8 +4,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
-import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Arrays;
 
 public class DWebpHandler extends WebpHandler {
 
@@ -27,6 +26,16 @@ public class DWebpHandler extends WebpHandler {
       }
    }
 
+   public DWebpHandler() {
+   }
+
+   /**
+    * Creates a handler whose binaries run through the given pool rather than {@link WebpProcessPool#DEFAULT}.
+    */
+   public DWebpHandler(WebpProcessPool pool) {
+      super(pool);
+   }
+
    /**
     * Scrimage includes the latest dwebp binary. Alternatively, you can provide another version by
     * placing it on the classpath at `webp_binaries`, eg, /webp_binaries/dwebp.
@@ -42,6 +51,10 @@ public class DWebpHandler extends WebpHandler {
    }
 
    public byte[] convert(byte[] bytes) throws IOException {
+      if (usePipes()) {
+         // "-o -" writes the png to stdout, and "-- -" reads the webp from stdin
+         return exec("dwebp", Arrays.asList(binary.toAbsolutePath().toString(), "-o", "-", "--", "-"), bytes);
+      }
       Path input = Files.createTempFile("input", "webp").toAbsolutePath();
       try {
          // Files.write was previously called BEFORE the try block; if it
@@ -54,6 +67,9 @@ public class DWebpHandler extends WebpHandler {
    }
 
    public byte[] convert(Path source) throws IOException {
+      if (usePipes()) {
+         return exec("dwebp", Arrays.asList(binary.toAbsolutePath().toString(), source.toAbsolutePath().toString(), "-o", "-"), null);
+      }
       Path output = Files.createTempFile("from_webp", "png").toAbsolutePath();
       try {
          convert(source, output);
@@ -64,46 +80,11 @@ public class DWebpHandler extends WebpHandler {
    }
 
    private void convert(Path input, Path target) throws IOException {
-
-      Path stdout = Files.createTempFile("stdout", "webp");
-      try {
-         ProcessBuilder builder = new ProcessBuilder(
-            binary.toAbsolutePath().toString(),
-            input.toAbsolutePath().toString(),
-            "-o",
-            target.toAbsolutePath().toString()
-         );
-         builder.redirectErrorStream(true);
-         builder.redirectOutput(stdout.toFile());
-
-         Process process = builder.start();
-         try {
-            // waitFor(timeout, unit) returns false if the process is still
-            // running when the timeout expires. The previous code ignored
-            // the return value and called exitValue() unconditionally,
-            // which throws IllegalThreadStateException if the process
-            // hadn't exited — masking the real failure (a hang).
-            boolean finished = process.waitFor(5, TimeUnit.MINUTES);
-            if (!finished) {
-               throw new IOException("dwebp timed out after 5 minutes");
-            }
-            int exitStatus = process.exitValue();
-            if (exitStatus != 0) {
-               List<String> error = Files.readAllLines(stdout);
-               throw new IOException(error.toString());
-            }
-         } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new IOException(e);
-         } finally {
-            process.destroy();
-         }
-      } finally {
-         try {
-            stdout.toFile().delete();
-         } catch (Exception ignored) {
-         }
-      }
-
+      exec("dwebp", Arrays.asList(
+         binary.toAbsolutePath().toString(),
+         input.toAbsolutePath().toString(),
+         "-o",
+         target.toAbsolutePath().toString()
+      ), null);
    }
 }
@@ -6,7 +6,6 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 public class Gif2WebpHandler extends WebpHandler {
 
@@ -28,6 +27,16 @@ public class Gif2WebpHandler extends WebpHandler {
       }
    }
 
+   public Gif2WebpHandler() {
+   }
+
+   /**
+    * Creates a handler whose binaries run through the given pool rather than {@link WebpProcessPool#DEFAULT}.
+    */
+   public Gif2WebpHandler(WebpProcessPool pool) {
+      super(pool);
+   }
+
    /**
     * Scrimage includes the latest gif2webp binary. Alternatively, you can provide another version by
     * placing it on the classpath at `webp_binaries`, eg, /webp_binaries/gif2webp.
@@ -39,10 +48,34 @@ public class Gif2WebpHandler extends WebpHandler {
       installBinary(binary, getBinaryPaths("gif2webp"));
    }
 
+   /**
+    * Converts the given gif to webp, passing -mt only while the pool has cores to spare,
+    * see {@link WebpProcessPool#multiThread()}.
+    */
    public byte[] convert(byte[] bytes,
                          int m,
                          int q,
                          boolean lossy) throws IOException {
+      return convert(bytes, m, q, lossy, null);
+   }
+
+   /**
+    * Converts the given gif to webp, passing -mt exactly when multiThread is true.
+    */
+   public byte[] convert(byte[] bytes,
+                         int m,
+                         int q,
+                         boolean lossy,
+                         boolean multiThread) throws IOException {
+      return convert(bytes, m, q, lossy, Boolean.valueOf(multiThread));
+   }
+
+   // a null multiThread leaves -mt to the pool
+   private byte[] convert(byte[] bytes,
+                          int m,
+                          int q,
+                          boolean lossy,
+                          Boolean multiThread) throws IOException {
       // Use nested try/finally so if the second createTempFile throws
       // (disk full between the two calls), the first temp file is still
       // cleaned up. Previously both creates lived outside the try and a
@@ -52,7 +85,7 @@ public class Gif2WebpHandler extends WebpHandler {
          Path output = Files.createTempFile("to_webp", "webp").toAbsolutePath();
          try {
             Files.write(input, bytes, StandardOpenOption.CREATE);
-            convert(input, output, m, q, lossy);
+            convert(input, output, m, q, lossy, multiThread);
             return Files.readAllBytes(output);
          } finally {
             try {
@@ -73,58 +106,44 @@ public class Gif2WebpHandler extends WebpHandler {
                        int m,
                        int q,
                        boolean lossy) throws IOException {
+      convert(input, target, m, q, lossy, null);
+   }
 
-      Path stdout = Files.createTempFile("stdout", "webp");
-      try {
-         List<String> commands = new ArrayList<>();
-         commands.add(binary.toAbsolutePath().toString());
-         if (m >= 0) {
-            commands.add("-m");
-            commands.add(m + "");
-         }
-         if (q >= 0) {
-            commands.add("-q");
-            commands.add(q + "");
-         }
-         if (lossy) {
-            commands.add("-lossy");
-         }
-         commands.add(input.toAbsolutePath().toString());
-         commands.add("-o");
-         commands.add(target.toAbsolutePath().toString());
+   public void convert(Path input,
+                       Path target,
+                       int m,
+                       int q,
+                       boolean lossy,
+                       boolean multiThread) throws IOException {
+      convert(input, target, m, q, lossy, Boolean.valueOf(multiThread));
+   }
 
-         ProcessBuilder builder = new ProcessBuilder(commands);
-         builder.redirectErrorStream(true);
-         builder.redirectOutput(stdout.toFile());
+   private void convert(Path input,
+                        Path target,
+                        int m,
+                        int q,
+                        boolean lossy,
+                        Boolean multiThread) throws IOException {
 
-         Process process = builder.start();
-         try {
-            // waitFor(timeout, unit) returns false if the process is still
-            // running when the timeout expires. The previous code ignored
-            // that return and called exitValue() unconditionally, which
-            // throws IllegalThreadStateException if the process hadn't
-            // exited — masking the real failure (a hang) with a confusing
-            // unrelated exception.
-            boolean finished = process.waitFor(5, TimeUnit.MINUTES);
-            if (!finished) {
-               throw new IOException("gif2webp timed out after 5 minutes");
-            }
-            int exitStatus = process.exitValue();
-            if (exitStatus != 0) {
-               List<String> error = Files.readAllLines(stdout);
-               throw new IOException(error.toString());
-            }
-         } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new IOException(e);
-         } finally {
-            process.destroy();
-         }
-      } finally {
-         try {
-            stdout.toFile().delete();
-         } catch (Exception ignored) {
-         }
+      List<String> commands = new ArrayList<>();
+      commands.add(binary.toAbsolutePath().toString());
+      if (m >= 0) {
+         commands.add("-m");
+         commands.add(m + "");
+      }
+      if (q >= 0) {
+         commands.add("-q");
+         commands.add(q + "");
+      }
+      if (lossy) {
+         commands.add("-lossy");
+      }
+      if (multiThread == null ? pool().multiThread() : multiThread) {
+         commands.add("-mt");
       }
+      commands.add(input.toAbsolutePath().toString());
+      commands.add("-o");
+      commands.add(target.toAbsolutePath().toString());
+      exec("gif2webp", commands, null);
    }
 }
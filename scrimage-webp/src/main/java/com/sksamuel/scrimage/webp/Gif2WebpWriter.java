@@ -15,24 +15,41 @@ public class Gif2WebpWriter implements AnimatedImageWriter {
    private final int q;
    private final int m;
    private final boolean lossy;
+   // null leaves -mt to the process pool
+   private final Boolean multiThread;
 
    public Gif2WebpWriter() {
       q = -1;
       m = -1;
       lossy = false;
+      multiThread = null;
    }
 
    public Gif2WebpWriter(int q, int m, boolean lossy) {
+      this(q, m, lossy, null);
+   }
+
+   private Gif2WebpWriter(int q, int m, boolean lossy, Boolean multiThread) {
       this.q = q;
       this.m = m;
       this.lossy = lossy;
+      this.multiThread = multiThread;
    }
 
    /**
     * Forces the tool to use lossy compression for the output WebP file.
     */
    public Gif2WebpWriter withLossy() {
-      return new Gif2WebpWriter(q, m, true);
+      return new Gif2WebpWriter(q, m, true, multiThread);
+   }
+
+   /**
+    * Enables or disables multi-threaded encoding.
+    * Unless this is set, multi-threading is enabled while the process pool has cores to spare,
+    * see {@link WebpProcessPool}.
+    */
+   public Gif2WebpWriter withMultiThread(boolean multiThread) {
+      return new Gif2WebpWriter(q, m, lossy, multiThread);
    }
 
    /**
@@ -47,7 +64,7 @@ public class Gif2WebpWriter implements AnimatedImageWriter {
       if (q > 100) {
          throw new IllegalArgumentException("q must be between 0 and 100");
       }
-      return new Gif2WebpWriter(q, m, lossy);
+      return new Gif2WebpWriter(q, m, lossy, multiThread);
    }
 
    /**
@@ -60,12 +77,14 @@ public class Gif2WebpWriter implements AnimatedImageWriter {
       if (m > 6) {
          throw new IllegalArgumentException("m must be between 0 and 6");
       }
-      return new Gif2WebpWriter(q, m, lossy);
+      return new Gif2WebpWriter(q, m, lossy, multiThread);
    }
 
    @Override
    public void write(AnimatedGif gif, OutputStream out) throws IOException {
-      byte[] bytes = handler.convert(gif.getBytes(), m, q, lossy);
+      byte[] bytes = multiThread == null ?
+         handler.convert(gif.getBytes(), m, q, lossy) :
+         handler.convert(gif.getBytes(), m, q, lossy, multiThread);
       out.write(bytes);
    }
 }
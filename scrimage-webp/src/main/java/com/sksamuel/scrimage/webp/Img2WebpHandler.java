@@ -6,7 +6,6 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Wraps the libwebp {@code img2webp} binary, which encodes a sequence of input
@@ -39,6 +38,16 @@ public class Img2WebpHandler extends WebpHandler {
       }
    }
 
+   public Img2WebpHandler() {
+   }
+
+   /**
+    * Creates a handler whose binaries run through the given pool rather than {@link WebpProcessPool#DEFAULT}.
+    */
+   public Img2WebpHandler(WebpProcessPool pool) {
+      super(pool);
+   }
+
    /**
     * Scrimage includes the latest img2webp binary. Alternatively, you can provide another
     * version by placing it on the classpath at {@code /webp_binaries/img2webp}.
@@ -156,60 +165,31 @@ public class Img2WebpHandler extends WebpHandler {
                + " for " + inputs.size() + " frames");
       }
 
-      Path stdout = Files.createTempFile("img2webp_stdout_", ".log");
-      try {
-         List<String> commands = new ArrayList<>();
-         commands.add(binary.toAbsolutePath().toString());
-         if (loopCount >= 0) {
-            commands.add("-loop");
-            commands.add(Integer.toString(loopCount));
-         }
-         for (int i = 0; i < inputs.size(); i++) {
-            int delay = frameDelaysMs[i];
-            if (delay >= 0) {
-               commands.add("-d");
-               commands.add(Integer.toString(delay));
-            }
-            commands.add(lossless ? "-lossless" : "-lossy");
-            if (q >= 0) {
-               commands.add("-q");
-               commands.add(Integer.toString(q));
-            }
-            if (m >= 0) {
-               commands.add("-m");
-               commands.add(Integer.toString(m));
-            }
-            commands.add(inputs.get(i).toAbsolutePath().toString());
+      List<String> commands = new ArrayList<>();
+      commands.add(binary.toAbsolutePath().toString());
+      if (loopCount >= 0) {
+         commands.add("-loop");
+         commands.add(Integer.toString(loopCount));
+      }
+      for (int i = 0; i < inputs.size(); i++) {
+         int delay = frameDelaysMs[i];
+         if (delay >= 0) {
+            commands.add("-d");
+            commands.add(Integer.toString(delay));
          }
-         commands.add("-o");
-         commands.add(target.toAbsolutePath().toString());
-
-         ProcessBuilder builder = new ProcessBuilder(commands);
-         builder.redirectErrorStream(true);
-         builder.redirectOutput(stdout.toFile());
-
-         Process process = builder.start();
-         try {
-            boolean finished = process.waitFor(5, TimeUnit.MINUTES);
-            if (!finished) {
-               throw new IOException("img2webp did not complete within 5 minutes");
-            }
-            int exitStatus = process.exitValue();
-            if (exitStatus != 0) {
-               List<String> error = Files.readAllLines(stdout);
-               throw new IOException("img2webp exited with status " + exitStatus + ": " + error);
-            }
-         } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new IOException(e);
-         } finally {
-            process.destroy();
+         commands.add(lossless ? "-lossless" : "-lossy");
+         if (q >= 0) {
+            commands.add("-q");
+            commands.add(Integer.toString(q));
          }
-      } finally {
-         try {
-            stdout.toFile().delete();
-         } catch (Exception ignored) {
+         if (m >= 0) {
+            commands.add("-m");
+            commands.add(Integer.toString(m));
          }
+         commands.add(inputs.get(i).toAbsolutePath().toString());
       }
+      commands.add("-o");
+      commands.add(target.toAbsolutePath().toString());
+      exec("img2webp", commands, null);
    }
 }
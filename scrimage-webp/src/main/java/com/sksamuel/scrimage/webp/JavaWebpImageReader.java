@@ -0,0 +1,32 @@
+package com.sksamuel.scrimage.webp;
+
+import com.sksamuel.scrimage.ImmutableImage;
+import com.sksamuel.scrimage.format.Format;
+import com.sksamuel.scrimage.metadata.ImageMetadata;
+import com.sksamuel.scrimage.nio.ImageReader;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Decodes still webp images, lossy or lossless, in pure Java, without starting dwebp or
+ * round tripping the pixels through a PNG. The pixels are identical to those dwebp produces.
+ * <p>
+ * This reader is registered ahead of {@link WebpImageReader}, which remains the fallback for
+ * anything this reader does not handle, such as animated images.
+ */
+public class JavaWebpImageReader implements ImageReader {
+
+   @Override
+   public Set<Format> formats() {
+      return EnumSet.of(Format.WEBP);
+   }
+
+   @Override
+   public ImmutableImage read(byte[] bytes, Rectangle rectangle) throws IOException {
+      ImmutableImage image = ImmutableImage.wrapAwt(WebpDecoder.decode(bytes), ImageMetadata.empty);
+      return rectangle == null ? image : image.subimage(rectangle);
+   }
+}
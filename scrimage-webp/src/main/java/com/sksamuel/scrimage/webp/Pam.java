@@ -0,0 +1,99 @@
+package com.sksamuel.scrimage.webp;
+
+import com.sksamuel.scrimage.AwtImage;
+import com.sksamuel.scrimage.pixels.PixelBuffer;
+
+import java.awt.image.BufferedImage;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Encodes images as uncompressed PAM (portable arbitrary map) files, which cwebp and img2webp
+ * read natively. This is a much cheaper hand-off than a PNG, as the pixels are copied
+ * straight from the raster in a single pass, with no filtering or deflate framing.
+ * <p>
+ * Only image types whose samples are 8 bit RGB or ARGB are supported, so that the PAM holds
+ * exactly the values a PNG would. Other types should continue to go through PngWriter.
+ */
+final class Pam {
+
+   private Pam() {
+   }
+
+   /**
+    * Returns true if the given image can be encoded as a PAM without changing its pixel values.
+    */
+   static boolean supports(AwtImage image) {
+      switch (image.getType()) {
+         case BufferedImage.TYPE_INT_ARGB:
+         case BufferedImage.TYPE_INT_RGB:
+         case BufferedImage.TYPE_INT_BGR:
+         case BufferedImage.TYPE_3BYTE_BGR:
+         case BufferedImage.TYPE_4BYTE_ABGR:
+            return true;
+         default:
+            return false;
+      }
+   }
+
+   /**
+    * Returns the given image encoded as a PAM, with a tuple type of RGB_ALPHA if the image
+    * has an alpha channel, and RGB otherwise.
+    */
+   static byte[] encode(AwtImage image) {
+      if (!supports(image))
+         throw new IllegalArgumentException("Image type " + image.getType() + " cannot be encoded as PAM");
+
+      BufferedImage awt = image.awt();
+      int width = awt.getWidth();
+      int height = awt.getHeight();
+      boolean alpha = awt.getColorModel().hasAlpha();
+      int depth = alpha ? 4 : 3;
+
+      byte[] header = ("P7\nWIDTH " + width + "\nHEIGHT " + height + "\nDEPTH " + depth +
+         "\nMAXVAL 255\nTUPLTYPE " + (alpha ? "RGB_ALPHA" : "RGB") + "\nENDHDR\n").getBytes(StandardCharsets.US_ASCII);
+      byte[] pam = new byte[header.length + width * height * depth];
+      System.arraycopy(header, 0, pam, 0, header.length);
+
+      int type = awt.getType();
+      if (type == BufferedImage.TYPE_3BYTE_BGR || type == BufferedImage.TYPE_4BYTE_ABGR) {
+         // the data elements of these types are returned in band order, which is RGB(A)
+         // already, so each row is copied straight into the output
+         byte[] row = null;
+         int k = header.length;
+         for (int y = 0; y < height; y++) {
+            row = (byte[]) awt.getRaster().getDataElements(0, y, width, 1, row);
+            System.arraycopy(row, 0, pam, k, row.length);
+            k += row.length;
+         }
+         return pam;
+      }
+
+      Optional<PixelBuffer> buffer = PixelBuffer.of(awt);
+      int[] data;
+      int stride;
+      int offset;
+      if (buffer.isPresent()) {
+         data = buffer.get().data();
+         stride = buffer.get().stride();
+         offset = buffer.get().offset();
+      } else {
+         data = awt.getRGB(0, 0, width, height, null, 0, width);
+         stride = width;
+         offset = 0;
+      }
+
+      int k = header.length;
+      for (int y = 0; y < height; y++) {
+         int index = offset + y * stride;
+         for (int x = 0; x < width; x++) {
+            int argb = data[index + x];
+            pam[k++] = (byte) (argb >> 16);
+            pam[k++] = (byte) (argb >> 8);
+            pam[k++] = (byte) argb;
+            if (alpha) pam[k++] = (byte) (argb >>> 24);
+         }
+      }
+      return pam;
+   }
+}
@@ -177,13 +177,15 @@ public class StreamingWebpWriter {
          @Override
          public WebpStream writeFrame(ImmutableImage image, Duration delay) throws IOException {
             if (closed) throw new IOException("WebpStream is already closed");
-            // PngWriter is the lossless format img2webp ingests directly
-            // without re-encoding. NoCompression keeps writeFrame fast since
-            // these PNGs are intermediates that get discarded at close().
-            byte[] pngBytes = image.bytes(PngWriter.NoCompression);
-            Path temp = Files.createTempFile("scrimage_webp_frame_", ".png");
+            // img2webp ingests PAM and PNG directly without re-encoding. PAM is
+            // just the raw pixels, which keeps writeFrame fast since these
+            // frames are intermediates that get discarded at close(). Types
+            // that PAM cannot hold exactly still go through an uncompressed PNG.
+            boolean pam = Pam.supports(image);
+            byte[] frameBytes = pam ? Pam.encode(image) : image.bytes(PngWriter.NoCompression);
+            Path temp = Files.createTempFile("scrimage_webp_frame_", pam ? ".pam" : ".png");
             try {
-               Files.write(temp, pngBytes, StandardOpenOption.CREATE);
+               Files.write(temp, frameBytes, StandardOpenOption.CREATE);
             } catch (IOException | RuntimeException e) {
                // the temp file has not been registered in `inputs` yet, so the
                // cleanup in close() would never see it; delete it here or it
@@ -0,0 +1,1450 @@
+package com.sksamuel.scrimage.webp;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Decodes VP8, the lossy WebP bitstream, into ARGB pixels, following RFC 6386. WebP images are
+ * a single key frame, so interframes are not supported.
+ * <p>
+ * The output matches libwebp, and so dwebp, exactly: the chroma planes are upsampled with the
+ * same "fancy" bilinear filter, and converted to RGB with the same fixed point arithmetic.
+ */
+final class VP8Decoder {
+
+   private static final int[] DC_TABLE = {
+      4, 5, 6, 7, 8, 9, 10, 10, 11, 12, 13, 14, 15, 16, 17, 17,
+      18, 19, 20, 20, 21, 21, 22, 22, 23, 23, 24, 25, 25, 26, 27, 28,
+      29, 30, 31, 32, 33, 34, 35, 36, 37, 37, 38, 39, 40, 41, 42, 43,
+      44, 45, 46, 46, 47, 48, 49, 50, 51, 52, 53, 54, 55, 56, 57, 58,
+      59, 60, 61, 62, 63, 64, 65, 66, 67, 68, 69, 70, 71, 72, 73, 74,
+      75, 76, 76, 77, 78, 79, 80, 81, 82, 83, 84, 85, 86, 87, 88, 89,
+      91, 93, 95, 96, 98, 100, 101, 102, 104, 106, 108, 110, 112, 114, 116, 118,
+      122, 124, 126, 128, 130, 132, 134, 136, 138, 140, 143, 145, 148, 151, 154, 157
+   };
+
+   private static final int[] AC_TABLE = {
+      4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19,
+      20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32, 33, 34, 35,
+      36, 37, 38, 39, 40, 41, 42, 43, 44, 45, 46, 47, 48, 49, 50, 51,
+      52, 53, 54, 55, 56, 57, 58, 60, 62, 64, 66, 68, 70, 72, 74, 76,
+      78, 80, 82, 84, 86, 88, 90, 92, 94, 96, 98, 100, 102, 104, 106, 108,
+      110, 112, 114, 116, 119, 122, 125, 128, 131, 134, 137, 140, 143, 146, 149, 152,
+      155, 158, 161, 164, 167, 170, 173, 177, 181, 185, 189, 193, 197, 201, 205, 209,
+      213, 217, 221, 225, 229, 234, 239, 245, 249, 254, 259, 264, 269, 274, 279, 284
+   };
+
+   private static final int[] COEFFS_UPDATE_PROBA = {
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      176, 246, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      223, 241, 252, 255, 255, 255, 255, 255, 255, 255, 255,
+      249, 253, 253, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 244, 252, 255, 255, 255, 255, 255, 255, 255, 255,
+      234, 254, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      253, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 246, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      239, 253, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      254, 255, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 248, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      251, 255, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 253, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      251, 254, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      254, 255, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 254, 253, 255, 254, 255, 255, 255, 255, 255, 255,
+      250, 255, 254, 255, 254, 255, 255, 255, 255, 255, 255,
+      254, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      217, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      225, 252, 241, 253, 255, 255, 254, 255, 255, 255, 255,
+      234, 250, 241, 250, 253, 255, 253, 254, 255, 255, 255,
+      255, 254, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      223, 254, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      238, 253, 254, 254, 255, 255, 255, 255, 255, 255, 255,
+      255, 248, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      249, 254, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 253, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      247, 254, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 253, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      252, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 254, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      253, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 254, 253, 255, 255, 255, 255, 255, 255, 255, 255,
+      250, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      254, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      186, 251, 250, 255, 255, 255, 255, 255, 255, 255, 255,
+      234, 251, 244, 254, 255, 255, 255, 255, 255, 255, 255,
+      251, 251, 243, 253, 254, 255, 254, 255, 255, 255, 255,
+      255, 253, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      236, 253, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      251, 253, 253, 254, 254, 255, 255, 255, 255, 255, 255,
+      255, 254, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      254, 254, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 254, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      254, 254, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      254, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      254, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      248, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      250, 254, 252, 254, 255, 255, 255, 255, 255, 255, 255,
+      248, 254, 249, 253, 255, 255, 255, 255, 255, 255, 255,
+      255, 253, 253, 255, 255, 255, 255, 255, 255, 255, 255,
+      246, 253, 253, 255, 255, 255, 255, 255, 255, 255, 255,
+      252, 254, 251, 254, 254, 255, 255, 255, 255, 255, 255,
+      255, 254, 252, 255, 255, 255, 255, 255, 255, 255, 255,
+      248, 254, 253, 255, 255, 255, 255, 255, 255, 255, 255,
+      253, 255, 254, 254, 255, 255, 255, 255, 255, 255, 255,
+      255, 251, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      245, 251, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      253, 253, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 251, 253, 255, 255, 255, 255, 255, 255, 255, 255,
+      252, 253, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 254, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 252, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      249, 255, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 254, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 253, 255, 255, 255, 255, 255, 255, 255, 255,
+      250, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      254, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255,
+      255, 255, 255, 255, 255, 255, 255, 255, 255, 255, 255
+   };
+
+   private static final int[] COEFFS_PROBA0 = {
+      128, 128, 128, 128, 128, 128, 128, 128, 128, 128, 128,
+      128, 128, 128, 128, 128, 128, 128, 128, 128, 128, 128,
+      128, 128, 128, 128, 128, 128, 128, 128, 128, 128, 128,
+      253, 136, 254, 255, 228, 219, 128, 128, 128, 128, 128,
+      189, 129, 242, 255, 227, 213, 255, 219, 128, 128, 128,
+      106, 126, 227, 252, 214, 209, 255, 255, 128, 128, 128,
+      1, 98, 248, 255, 236, 226, 255, 255, 128, 128, 128,
+      181, 133, 238, 254, 221, 234, 255, 154, 128, 128, 128,
+      78, 134, 202, 247, 198, 180, 255, 219, 128, 128, 128,
+      1, 185, 249, 255, 243, 255, 128, 128, 128, 128, 128,
+      184, 150, 247, 255, 236, 224, 128, 128, 128, 128, 128,
+      77, 110, 216, 255, 236, 230, 128, 128, 128, 128, 128,
+      1, 101, 251, 255, 241, 255, 128, 128, 128, 128, 128,
+      170, 139, 241, 252, 236, 209, 255, 255, 128, 128, 128,
+      37, 116, 196, 243, 228, 255, 255, 255, 128, 128, 128,
+      1, 204, 254, 255, 245, 255, 128, 128, 128, 128, 128,
+      207, 160, 250, 255, 238, 128, 128, 128, 128, 128, 128,
+      102, 103, 231, 255, 211, 171, 128, 128, 128, 128, 128,
+      1, 152, 252, 255, 240, 255, 128, 128, 128, 128, 128,
+      177, 135, 243, 255, 234, 225, 128, 128, 128, 128, 128,
+      80, 129, 211, 255, 194, 224, 128, 128, 128, 128, 128,
+      1, 1, 255, 128, 128, 128, 128, 128, 128, 128, 128,
+      246, 1, 255, 128, 128, 128, 128, 128, 128, 128, 128,
+      255, 128, 128, 128, 128, 128, 128, 128, 128, 128, 128,
+      198, 35, 237, 223, 193, 187, 162, 160, 145, 155, 62,
+      131, 45, 198, 221, 172, 176, 220, 157, 252, 221, 1,
+      68, 47, 146, 208, 149, 167, 221, 162, 255, 223, 128,
+      1, 149, 241, 255, 221, 224, 255, 255, 128, 128, 128,
+      184, 141, 234, 253, 222, 220, 255, 199, 128, 128, 128,
+      81, 99, 181, 242, 176, 190, 249, 202, 255, 255, 128,
+      1, 129, 232, 253, 214, 197, 242, 196, 255, 255, 128,
+      99, 121, 210, 250, 201, 198, 255, 202, 128, 128, 128,
+      23, 91, 163, 242, 170, 187, 247, 210, 255, 255, 128,
+      1, 200, 246, 255, 234, 255, 128, 128, 128, 128, 128,
+      109, 178, 241, 255, 231, 245, 255, 255, 128, 128, 128,
+      44, 130, 201, 253, 205, 192, 255, 255, 128, 128, 128,
+      1, 132, 239, 251, 219, 209, 255, 165, 128, 128, 128,
+      94, 136, 225, 251, 218, 190, 255, 255, 128, 128, 128,
+      22, 100, 174, 245, 186, 161, 255, 199, 128, 128, 128,
+      1, 182, 249, 255, 232, 235, 128, 128, 128, 128, 128,
+      124, 143, 241, 255, 227, 234, 128, 128, 128, 128, 128,
+      35, 77, 181, 251, 193, 211, 255, 205, 128, 128, 128,
+      1, 157, 247, 255, 236, 231, 255, 255, 128, 128, 128,
+      121, 141, 235, 255, 225, 227, 255, 255, 128, 128, 128,
+      45, 99, 188, 251, 195, 217, 255, 224, 128, 128, 128,
+      1, 1, 251, 255, 213, 255, 128, 128, 128, 128, 128,
+      203, 1, 248, 255, 255, 128, 128, 128, 128, 128, 128,
+      137, 1, 177, 255, 224, 255, 128, 128, 128, 128, 128,
+      253, 9, 248, 251, 207, 208, 255, 192, 128, 128, 128,
+      175, 13, 224, 243, 193, 185, 249, 198, 255, 255, 128,
+      73, 17, 171, 221, 161, 179, 236, 167, 255, 234, 128,
+      1, 95, 247, 253, 212, 183, 255, 255, 128, 128, 128,
+      239, 90, 244, 250, 211, 209, 255, 255, 128, 128, 128,
+      155, 77, 195, 248, 188, 195, 255, 255, 128, 128, 128,
+      1, 24, 239, 251, 218, 219, 255, 205, 128, 128, 128,
+      201, 51, 219, 255, 196, 186, 128, 128, 128, 128, 128,
+      69, 46, 190, 239, 201, 218, 255, 228, 128, 128, 128,
+      1, 191, 251, 255, 255, 128, 128, 128, 128, 128, 128,
+      223, 165, 249, 255, 213, 255, 128, 128, 128, 128, 128,
+      141, 124, 248, 255, 255, 128, 128, 128, 128, 128, 128,
+      1, 16, 248, 255, 255, 128, 128, 128, 128, 128, 128,
+      190, 36, 230, 255, 236, 255, 128, 128, 128, 128, 128,
+      149, 1, 255, 128, 128, 128, 128, 128, 128, 128, 128,
+      1, 226, 255, 128, 128, 128, 128, 128, 128, 128, 128,
+      247, 192, 255, 128, 128, 128, 128, 128, 128, 128, 128,
+      240, 128, 255, 128, 128, 128, 128, 128, 128, 128, 128,
+      1, 134, 252, 255, 255, 128, 128, 128, 128, 128, 128,
+      213, 62, 250, 255, 255, 128, 128, 128, 128, 128, 128,
+      55, 93, 255, 128, 128, 128, 128, 128, 128, 128, 128,
+      128, 128, 128, 128, 128, 128, 128, 128, 128, 128, 128,
+      128, 128, 128, 128, 128, 128, 128, 128, 128, 128, 128,
+      128, 128, 128, 128, 128, 128, 128, 128, 128, 128, 128,
+      202, 24, 213, 235, 186, 191, 220, 160, 240, 175, 255,
+      126, 38, 182, 232, 169, 184, 228, 174, 255, 187, 128,
+      61, 46, 138, 219, 151, 178, 240, 170, 255, 216, 128,
+      1, 112, 230, 250, 199, 191, 247, 159, 255, 255, 128,
+      166, 109, 228, 252, 211, 215, 255, 174, 128, 128, 128,
+      39, 77, 162, 232, 172, 180, 245, 178, 255, 255, 128,
+      1, 52, 220, 246, 198, 199, 249, 220, 255, 255, 128,
+      124, 74, 191, 243, 183, 193, 250, 221, 255, 255, 128,
+      24, 71, 130, 219, 154, 170, 243, 182, 255, 255, 128,
+      1, 182, 225, 249, 219, 240, 255, 224, 128, 128, 128,
+      149, 150, 226, 252, 216, 205, 255, 171, 128, 128, 128,
+      28, 108, 170, 242, 183, 194, 254, 223, 255, 255, 128,
+      1, 81, 230, 252, 204, 203, 255, 192, 128, 128, 128,
+      123, 102, 209, 247, 188, 196, 255, 233, 128, 128, 128,
+      20, 95, 153, 243, 164, 173, 255, 203, 128, 128, 128,
+      1, 222, 248, 255, 216, 213, 128, 128, 128, 128, 128,
+      168, 175, 246, 252, 235, 205, 255, 255, 128, 128, 128,
+      47, 116, 215, 255, 211, 212, 255, 255, 128, 128, 128,
+      1, 121, 236, 253, 212, 214, 255, 255, 128, 128, 128,
+      141, 84, 213, 252, 201, 202, 255, 219, 128, 128, 128,
+      42, 80, 160, 240, 162, 185, 255, 205, 128, 128, 128,
+      1, 1, 255, 128, 128, 128, 128, 128, 128, 128, 128,
+      244, 1, 255, 128, 128, 128, 128, 128, 128, 128, 128,
+      238, 1, 255, 128, 128, 128, 128, 128, 128, 128, 128
+   };
+
+   private static final int[] B_MODES_PROBA = {
+      231, 120, 48, 89, 115, 113, 120, 152, 112,
+      152, 179, 64, 126, 170, 118, 46, 70, 95,
+      175, 69, 143, 80, 85, 82, 72, 155, 103,
+      56, 58, 10, 171, 218, 189, 17, 13, 152,
+      114, 26, 17, 163, 44, 195, 21, 10, 173,
+      121, 24, 80, 195, 26, 62, 44, 64, 85,
+      144, 71, 10, 38, 171, 213, 144, 34, 26,
+      170, 46, 55, 19, 136, 160, 33, 206, 71,
+      63, 20, 8, 114, 114, 208, 12, 9, 226,
+      81, 40, 11, 96, 182, 84, 29, 16, 36,
+      134, 183, 89, 137, 98, 101, 106, 165, 148,
+      72, 187, 100, 130, 157, 111, 32, 75, 80,
+      66, 102, 167, 99, 74, 62, 40, 234, 128,
+      41, 53, 9, 178, 241, 141, 26, 8, 107,
+      74, 43, 26, 146, 73, 166, 49, 23, 157,
+      65, 38, 105, 160, 51, 52, 31, 115, 128,
+      104, 79, 12, 27, 217, 255, 87, 17, 7,
+      87, 68, 71, 44, 114, 51, 15, 186, 23,
+      47, 41, 14, 110, 182, 183, 21, 17, 194,
+      66, 45, 25, 102, 197, 189, 23, 18, 22,
+      88, 88, 147, 150, 42, 46, 45, 196, 205,
+      43, 97, 183, 117, 85, 38, 35, 179, 61,
+      39, 53, 200, 87, 26, 21, 43, 232, 171,
+      56, 34, 51, 104, 114, 102, 29, 93, 77,
+      39, 28, 85, 171, 58, 165, 90, 98, 64,
+      34, 22, 116, 206, 23, 34, 43, 166, 73,
+      107, 54, 32, 26, 51, 1, 81, 43, 31,
+      68, 25, 106, 22, 64, 171, 36, 225, 114,
+      34, 19, 21, 102, 132, 188, 16, 76, 124,
+      62, 18, 78, 95, 85, 57, 50, 48, 51,
+      193, 101, 35, 159, 215, 111, 89, 46, 111,
+      60, 148, 31, 172, 219, 228, 21, 18, 111,
+      112, 113, 77, 85, 179, 255, 38, 120, 114,
+      40, 42, 1, 196, 245, 209, 10, 25, 109,
+      88, 43, 29, 140, 166, 213, 37, 43, 154,
+      61, 63, 30, 155, 67, 45, 68, 1, 209,
+      100, 80, 8, 43, 154, 1, 51, 26, 71,
+      142, 78, 78, 16, 255, 128, 34, 197, 171,
+      41, 40, 5, 102, 211, 183, 4, 1, 221,
+      51, 50, 17, 168, 209, 192, 23, 25, 82,
+      138, 31, 36, 171, 27, 166, 38, 44, 229,
+      67, 87, 58, 169, 82, 115, 26, 59, 179,
+      63, 59, 90, 180, 59, 166, 93, 73, 154,
+      40, 40, 21, 116, 143, 209, 34, 39, 175,
+      47, 15, 16, 183, 34, 223, 49, 45, 183,
+      46, 17, 33, 183, 6, 98, 15, 32, 183,
+      57, 46, 22, 24, 128, 1, 54, 17, 37,
+      65, 32, 73, 115, 28, 128, 23, 128, 205,
+      40, 3, 9, 115, 51, 192, 18, 6, 223,
+      87, 37, 9, 115, 59, 77, 64, 21, 47,
+      104, 55, 44, 218, 9, 54, 53, 130, 226,
+      64, 90, 70, 205, 40, 41, 23, 26, 57,
+      54, 57, 112, 184, 5, 41, 38, 166, 213,
+      30, 34, 26, 133, 152, 116, 10, 32, 134,
+      39, 19, 53, 221, 26, 114, 32, 73, 255,
+      31, 9, 65, 234, 2, 15, 1, 118, 73,
+      75, 32, 12, 51, 192, 255, 160, 43, 51,
+      88, 31, 35, 67, 102, 85, 55, 186, 85,
+      56, 21, 23, 111, 59, 205, 45, 37, 192,
+      55, 38, 70, 124, 73, 102, 1, 34, 98,
+      125, 98, 42, 88, 104, 85, 117, 175, 82,
+      95, 84, 53, 89, 128, 100, 113, 101, 45,
+      75, 79, 123, 47, 51, 128, 81, 171, 1,
+      57, 17, 5, 71, 102, 57, 53, 41, 49,
+      38, 33, 13, 121, 57, 73, 26, 1, 85,
+      41, 10, 67, 138, 77, 110, 90, 47, 114,
+      115, 21, 2, 10, 102, 255, 166, 23, 6,
+      101, 29, 16, 10, 85, 128, 101, 196, 26,
+      57, 18, 10, 102, 102, 213, 34, 20, 43,
+      117, 20, 15, 36, 163, 128, 68, 1, 26,
+      102, 61, 71, 37, 34, 53, 31, 243, 192,
+      69, 60, 71, 38, 73, 119, 28, 222, 37,
+      68, 45, 128, 34, 1, 47, 11, 245, 171,
+      62, 17, 19, 70, 146, 85, 55, 62, 70,
+      37, 43, 37, 154, 100, 163, 85, 160, 1,
+      63, 9, 92, 136, 28, 64, 32, 201, 85,
+      75, 15, 9, 9, 64, 255, 184, 119, 16,
+      86, 6, 28, 5, 64, 255, 25, 248, 1,
+      56, 8, 17, 132, 137, 255, 55, 116, 128,
+      58, 15, 20, 82, 135, 57, 26, 121, 40,
+      164, 50, 31, 137, 154, 133, 25, 35, 218,
+      51, 103, 44, 131, 131, 123, 31, 6, 158,
+      86, 40, 64, 135, 148, 224, 45, 183, 128,
+      22, 26, 17, 131, 240, 154, 14, 1, 209,
+      45, 16, 21, 91, 64, 222, 7, 1, 197,
+      56, 21, 39, 155, 60, 138, 23, 102, 213,
+      83, 12, 13, 54, 192, 255, 68, 47, 28,
+      85, 26, 85, 85, 128, 128, 32, 146, 171,
+      18, 11, 7, 63, 144, 171, 4, 4, 246,
+      35, 27, 10, 146, 174, 171, 12, 26, 128,
+      190, 80, 35, 99, 180, 80, 126, 54, 45,
+      85, 126, 47, 87, 176, 51, 41, 20, 32,
+      101, 75, 128, 139, 118, 146, 116, 128, 85,
+      56, 41, 15, 176, 236, 85, 37, 9, 62,
+      71, 30, 17, 119, 118, 255, 17, 18, 138,
+      101, 38, 60, 138, 55, 70, 43, 26, 142,
+      146, 36, 19, 30, 171, 255, 97, 27, 20,
+      138, 45, 61, 62, 219, 1, 81, 188, 64,
+      32, 41, 20, 117, 151, 142, 20, 21, 163,
+      112, 19, 12, 61, 195, 128, 48, 4, 24
+   };
+
+   private static final int[] BANDS = {0, 1, 2, 3, 6, 4, 5, 6, 6, 6, 6, 6, 6, 6, 6, 7, 0};
+   private static final int[] ZIGZAG = {0, 1, 4, 8, 5, 2, 3, 6, 9, 12, 13, 10, 7, 11, 14, 15};
+
+   private static final int[] CAT3 = {173, 148, 140};
+   private static final int[] CAT4 = {176, 155, 140, 135};
+   private static final int[] CAT5 = {180, 157, 141, 134, 130};
+   private static final int[] CAT6 = {254, 254, 243, 230, 196, 177, 153, 140, 133, 130, 129};
+   private static final int[][] CAT3456 = {CAT3, CAT4, CAT5, CAT6};
+
+   // prediction modes, numbered as libwebp does; the first four are shared by 16x16 and 4x4 blocks
+   private static final int DC_PRED = 0;
+   private static final int TM_PRED = 1;
+   private static final int V_PRED = 2;
+   private static final int H_PRED = 3;
+   private static final int RD_PRED = 4;
+   private static final int VR_PRED = 5;
+   private static final int LD_PRED = 6;
+   private static final int VL_PRED = 7;
+   private static final int HD_PRED = 8;
+   private static final int HU_PRED = 9;
+
+   // the tree of 4x4 modes; leaves are negated modes
+   private static final int[] Y_MODES_INTRA4 = {
+      -DC_PRED, 1,
+      -TM_PRED, 2,
+      -V_PRED, 3,
+      4, 6,
+      -H_PRED, 5,
+      -RD_PRED, -VR_PRED,
+      -LD_PRED, 7,
+      -VL_PRED, 8,
+      -HD_PRED, -HU_PRED
+   };
+
+   // the work buffer holds one macroblock and the samples around it, BPS samples to a row
+   private static final int BPS = 32;
+   private static final int Y_OFF = BPS + 8;
+   private static final int U_OFF = Y_OFF + BPS * 16 + BPS;
+   private static final int V_OFF = U_OFF + 16;
+   private static final int[] SCAN = new int[16];
+
+   static {
+      for (int n = 0; n < 16; n++)
+         SCAN[n] = (n & 3) * 4 + (n >> 2) * 4 * BPS;
+   }
+
+   private final int width;
+   private final int height;
+   private final int mbw;
+   private final int mbh;
+
+   // planes of the whole frame, padded to whole macroblocks
+   private final int[] y;
+   private final int[] u;
+   private final int[] v;
+   private final int yStride;
+   private final int uvStride;
+
+   private final int[] proba = new int[COEFFS_PROBA0.length];
+   private final int[] segmentProba = {255, 255, 255};
+   private boolean useSegment;
+   private boolean updateMap;
+   private boolean absoluteDelta = true;
+   private final int[] quantizer = new int[4];
+   private final int[] filterStrength = new int[4];
+   private boolean useSkipProba;
+   private int skipProba;
+
+   private boolean simpleFilter;
+   private int filterLevel;
+   private int sharpness;
+   private boolean useLfDelta;
+   private final int[] refLfDelta = new int[4];
+   private final int[] modeLfDelta = new int[4];
+   private int filterType;
+
+   // per segment dequantization factors: y1 dc, y1 ac, y2 dc, y2 ac, uv dc, uv ac
+   private final int[][] dequant = new int[4][6];
+   // per segment and per 4x4-or-not filter settings: limit, inner level, hev threshold
+   private final int[][][] filterInfo = new int[4][2][3];
+
+   private final int[] work = new int[BPS * 17 + BPS * 9];
+   private final int[] coeffs = new int[384];
+   private final int[] dc = new int[16];
+   private final int[] imodes = new int[16];
+   private final int[] intraT;
+   private final int[] intraL = new int[4];
+   private final int[] nzT;
+   private final int[] nzDcT;
+   private int nzL;
+   private int nzDcL;
+   private int nonZeroY;
+   private int nonZeroUv;
+
+   // per macroblock filter settings, applied once the whole frame is reconstructed
+   private final int[] mbLimit;
+   private final int[] mbIlevel;
+   private final int[] mbHev;
+   private final boolean[] mbInner;
+
+   private VP8Decoder(int width, int height) {
+      this.width = width;
+      this.height = height;
+      this.mbw = (width + 15) >> 4;
+      this.mbh = (height + 15) >> 4;
+      this.yStride = mbw * 16;
+      this.uvStride = mbw * 8;
+      this.y = new int[yStride * mbh * 16];
+      this.u = new int[uvStride * mbh * 8];
+      this.v = new int[uvStride * mbh * 8];
+      this.intraT = new int[4 * mbw];
+      this.nzT = new int[mbw];
+      this.nzDcT = new int[mbw];
+      this.mbLimit = new int[mbw * mbh];
+      this.mbIlevel = new int[mbw * mbh];
+      this.mbHev = new int[mbw * mbh];
+      this.mbInner = new boolean[mbw * mbh];
+   }
+
+   /**
+    * Returns the width and height declared by the VP8 frame header at the given offset.
+    */
+   static int[] dimensions(byte[] data, int offset, int length) throws IOException {
+      if (length < 10)
+         throw new IOException("VP8 bitstream is truncated");
+      int bits = (data[offset] & 0xff) | (data[offset + 1] & 0xff) << 8 | (data[offset + 2] & 0xff) << 16;
+      if ((bits & 1) != 0)
+         throw new IOException("VP8 interframes are not supported");
+      if (((bits >> 1) & 7) > 3)
+         throw new IOException("Unsupported VP8 profile");
+      if (((bits >> 4) & 1) == 0)
+         throw new IOException("VP8 frame is not displayable");
+      if ((data[offset + 3] & 0xff) != 0x9d || (data[offset + 4] & 0xff) != 0x01 || (data[offset + 5] & 0xff) != 0x2a)
+         throw new IOException("Invalid VP8 start code");
+      int width = ((data[offset + 6] & 0xff) | (data[offset + 7] & 0xff) << 8) & 0x3fff;
+      int height = ((data[offset + 8] & 0xff) | (data[offset + 9] & 0xff) << 8) & 0x3fff;
+      if (width == 0 || height == 0)
+         throw new IOException("Invalid VP8 dimensions");
+      return new int[]{width, height};
+   }
+
+   /**
+    * Decodes the VP8 bitstream into ARGB pixels, taking the alpha of each pixel from the given
+    * plane, or making every pixel opaque if there is no plane.
+    */
+   static int[] decode(byte[] data, int offset, int length, byte[] alpha) throws IOException {
+      int[] dimensions = dimensions(data, offset, length);
+      VP8Decoder decoder = new VP8Decoder(dimensions[0], dimensions[1]);
+      decoder.decodeFrame(data, offset, length);
+      return decoder.toArgb(alpha);
+   }
+
+   private void decodeFrame(byte[] data, int offset, int length) throws IOException {
+      int bits = (data[offset] & 0xff) | (data[offset + 1] & 0xff) << 8 | (data[offset + 2] & 0xff) << 16;
+      int partitionLength = bits >>> 5;
+      int start = offset + 10;
+      int end = offset + length;
+      if (partitionLength > end - start)
+         throw new IOException("VP8 bitstream is truncated");
+      BoolDecoder br = new BoolDecoder(data, start, partitionLength);
+
+      br.getValue(1); // color space
+      br.getValue(1); // clamping type
+      parseSegmentHeader(br);
+      parseFilterHeader(br);
+      BoolDecoder[] partitions = parsePartitions(br, data, start + partitionLength, end);
+      parseQuant(br);
+      br.getValue(1); // update proba, which has no meaning for a single frame
+      parseProba(br);
+      precomputeFilterStrengths();
+
+      for (int mby = 0; mby < mbh; mby++) {
+         BoolDecoder tokens = partitions[mby & (partitions.length - 1)];
+         Arrays.fill(intraL, DC_PRED);
+         nzL = 0;
+         nzDcL = 0;
+         for (int mbx = 0; mbx < mbw; mbx++) {
+            decodeMacroblock(br, tokens, mbx, mby);
+         }
+      }
+      if (filterType > 0) {
+         for (int mby = 0; mby < mbh; mby++)
+            for (int mbx = 0; mbx < mbw; mbx++)
+               filter(mbx, mby);
+      }
+   }
+
+   private void parseSegmentHeader(BoolDecoder br) {
+      useSegment = br.getValue(1) == 1;
+      if (useSegment) {
+         updateMap = br.getValue(1) == 1;
+         if (br.getValue(1) == 1) {
+            absoluteDelta = br.getValue(1) == 1;
+            for (int s = 0; s < 4; s++)
+               quantizer[s] = br.getValue(1) == 1 ? br.getSignedValue(7) : 0;
+            for (int s = 0; s < 4; s++)
+               filterStrength[s] = br.getValue(1) == 1 ? br.getSignedValue(6) : 0;
+         }
+         if (updateMap) {
+            for (int s = 0; s < 3; s++)
+               segmentProba[s] = br.getValue(1) == 1 ? br.getValue(8) : 255;
+         }
+      }
+   }
+
+   private void parseFilterHeader(BoolDecoder br) {
+      simpleFilter = br.getValue(1) == 1;
+      filterLevel = br.getValue(6);
+      sharpness = br.getValue(3);
+      useLfDelta = br.getValue(1) == 1;
+      if (useLfDelta && br.getValue(1) == 1) {
+         for (int i = 0; i < 4; i++)
+            if (br.getValue(1) == 1) refLfDelta[i] = br.getSignedValue(6);
+         for (int i = 0; i < 4; i++)
+            if (br.getValue(1) == 1) modeLfDelta[i] = br.getSignedValue(6);
+      }
+      filterType = filterLevel == 0 ? 0 : simpleFilter ? 1 : 2;
+   }
+
+   private static BoolDecoder[] parsePartitions(BoolDecoder br, byte[] data, int start, int end) throws IOException {
+      int last = (1 << br.getValue(2)) - 1;
+      int sizes = start;
+      int partStart = start + last * 3;
+      if (partStart > end)
+         throw new IOException("VP8 bitstream is truncated");
+      int left = end - partStart;
+      BoolDecoder[] partitions = new BoolDecoder[last + 1];
+      for (int p = 0; p < last; p++) {
+         int size = (data[sizes] & 0xff) | (data[sizes + 1] & 0xff) << 8 | (data[sizes + 2] & 0xff) << 16;
+         if (size > left) size = left;
+         partitions[p] = new BoolDecoder(data, partStart, size);
+         partStart += size;
+         left -= size;
+         sizes += 3;
+      }
+      if (partStart >= end)
+         throw new IOException("VP8 bitstream is truncated");
+      partitions[last] = new BoolDecoder(data, partStart, left);
+      return partitions;
+   }
+
+   private void parseQuant(BoolDecoder br) {
+      int baseQ0 = br.getValue(7);
+      int dqy1Dc = br.getValue(1) == 1 ? br.getSignedValue(4) : 0;
+      int dqy2Dc = br.getValue(1) == 1 ? br.getSignedValue(4) : 0;
+      int dqy2Ac = br.getValue(1) == 1 ? br.getSignedValue(4) : 0;
+      int dquvDc = br.getValue(1) == 1 ? br.getSignedValue(4) : 0;
+      int dquvAc = br.getValue(1) == 1 ? br.getSignedValue(4) : 0;
+      for (int s = 0; s < 4; s++) {
+         int q;
+         if (useSegment) {
+            q = quantizer[s];
+            if (!absoluteDelta) q += baseQ0;
+         } else if (s > 0) {
+            dequant[s] = dequant[0];
+            continue;
+         } else {
+            q = baseQ0;
+         }
+         int[] m = dequant[s];
+         m[0] = DC_TABLE[clip(q + dqy1Dc, 127)];
+         m[1] = AC_TABLE[clip(q, 127)];
+         m[2] = DC_TABLE[clip(q + dqy2Dc, 127)] * 2;
+         // x * 155 / 100 is bitwise equal to (x * 101581) >> 16 for every entry in the table
+         m[3] = Math.max(8, (AC_TABLE[clip(q + dqy2Ac, 127)] * 101581) >> 16);
+         m[4] = DC_TABLE[clip(q + dquvDc, 117)];
+         m[5] = AC_TABLE[clip(q + dquvAc, 127)];
+      }
+   }
+
+   private void parseProba(BoolDecoder br) {
+      for (int i = 0; i < proba.length; i++)
+         proba[i] = br.getBit(COEFFS_UPDATE_PROBA[i]) ? br.getValue(8) : COEFFS_PROBA0[i];
+      useSkipProba = br.getValue(1) == 1;
+      if (useSkipProba)
+         skipProba = br.getValue(8);
+   }
+
+   private void precomputeFilterStrengths() {
+      if (filterType == 0) return;
+      for (int s = 0; s < 4; s++) {
+         int baseLevel;
+         if (useSegment) {
+            baseLevel = filterStrength[s];
+            if (!absoluteDelta) baseLevel += filterLevel;
+         } else {
+            baseLevel = filterLevel;
+         }
+         for (int i4x4 = 0; i4x4 <= 1; i4x4++) {
+            int level = baseLevel;
+            if (useLfDelta) {
+               level += refLfDelta[0];
+               if (i4x4 == 1) level += modeLfDelta[0];
+            }
+            level = level < 0 ? 0 : Math.min(level, 63);
+            int[] info = filterInfo[s][i4x4];
+            if (level > 0) {
+               int ilevel = level;
+               if (sharpness > 0) {
+                  ilevel >>= sharpness > 4 ? 2 : 1;
+                  if (ilevel > 9 - sharpness) ilevel = 9 - sharpness;
+               }
+               if (ilevel < 1) ilevel = 1;
+               info[0] = 2 * level + ilevel;
+               info[1] = ilevel;
+               info[2] = level >= 40 ? 2 : level >= 15 ? 1 : 0;
+            } else {
+               info[0] = 0;
+            }
+         }
+      }
+   }
+
+   private void decodeMacroblock(BoolDecoder br, BoolDecoder tokens, int mbx, int mby) throws IOException {
+      int segment = 0;
+      if (updateMap) {
+         segment = !br.getBit(segmentProba[0]) ? (br.getBit(segmentProba[1]) ? 1 : 0) : (br.getBit(segmentProba[2]) ? 3 : 2);
+      }
+      boolean skip = useSkipProba && br.getBit(skipProba);
+
+      boolean i4x4 = !br.getBit(145);
+      int ymode = DC_PRED;
+      if (!i4x4) {
+         ymode = br.getBit(156) ? (br.getBit(128) ? TM_PRED : H_PRED) : (br.getBit(163) ? V_PRED : DC_PRED);
+         Arrays.fill(intraT, mbx * 4, mbx * 4 + 4, ymode);
+         Arrays.fill(intraL, ymode);
+      } else {
+         for (int by = 0; by < 4; by++) {
+            int mode = intraL[by];
+            for (int bx = 0; bx < 4; bx++) {
+               int p = (intraT[mbx * 4 + bx] * 10 + mode) * 9;
+               int i = Y_MODES_INTRA4[br.getBit(B_MODES_PROBA[p]) ? 1 : 0];
+               while (i > 0)
+                  i = Y_MODES_INTRA4[2 * i + (br.getBit(B_MODES_PROBA[p + i]) ? 1 : 0)];
+               mode = -i;
+               intraT[mbx * 4 + bx] = mode;
+               imodes[by * 4 + bx] = mode;
+            }
+            intraL[by] = mode;
+         }
+      }
+      int uvmode = !br.getBit(142) ? DC_PRED : !br.getBit(114) ? V_PRED : br.getBit(183) ? TM_PRED : H_PRED;
+
+      if (!skip) {
+         skip = parseResiduals(tokens, mbx, dequant[segment], i4x4);
+      } else {
+         nzT[mbx] = 0;
+         nzL = 0;
+         if (!i4x4) {
+            nzDcT[mbx] = 0;
+            nzDcL = 0;
+         }
+         nonZeroY = 0;
+         nonZeroUv = 0;
+      }
+
+      if (filterType > 0) {
+         int[] info = filterInfo[segment][i4x4 ? 1 : 0];
+         int mb = mby * mbw + mbx;
+         mbLimit[mb] = info[0];
+         mbIlevel[mb] = info[1];
+         mbHev[mb] = info[2];
+         mbInner[mb] = i4x4 || !skip;
+      }
+
+      reconstruct(mbx, mby, i4x4, ymode, uvmode);
+   }
+
+   private boolean parseResiduals(BoolDecoder br, int mbx, int[] q, boolean i4x4) {
+      int[] dst = coeffs;
+      Arrays.fill(dst, 0);
+      int first;
+      int acType;
+      if (!i4x4) {
+         Arrays.fill(dc, 0);
+         int ctx = nzDcT[mbx] + nzDcL;
+         int nz = getCoeffs(br, 1, ctx, q[2], q[3], 0, dc, 0);
+         nzDcT[mbx] = nzDcL = nz > 0 ? 1 : 0;
+         if (nz > 1) {
+            transformWht(dc, dst);
+         } else {
+            int dc0 = (short) ((dc[0] + 3) >> 3);
+            for (int i = 0; i < 256; i += 16) dst[i] = dc0;
+         }
+         first = 1;
+         acType = 0;
+      } else {
+         first = 0;
+         acType = 3;
+      }
+
+      int tnz = nzT[mbx] & 0x0f;
+      int lnz = nzL & 0x0f;
+      int nonZeroY = 0;
+      int d = 0;
+      for (int by = 0; by < 4; by++) {
+         int l = lnz & 1;
+         int nzCoeffs = 0;
+         for (int bx = 0; bx < 4; bx++) {
+            int ctx = l + (tnz & 1);
+            int nz = getCoeffs(br, acType, ctx, q[0], q[1], first, dst, d);
+            l = nz > first ? 1 : 0;
+            tnz = (tnz >> 1) | (l << 7);
+            nzCoeffs = nzCodeBits(nzCoeffs, nz, dst[d] != 0);
+            d += 16;
+         }
+         tnz >>= 4;
+         lnz = (lnz >> 1) | (l << 7);
+         nonZeroY = (nonZeroY << 8) | nzCoeffs;
+      }
+      int outTnz = tnz;
+      int outLnz = lnz >> 4;
+
+      int nonZeroUv = 0;
+      for (int ch = 0; ch < 4; ch += 2) {
+         int nzCoeffs = 0;
+         tnz = nzT[mbx] >> (4 + ch);
+         lnz = nzL >> (4 + ch);
+         for (int by = 0; by < 2; by++) {
+            int l = lnz & 1;
+            for (int bx = 0; bx < 2; bx++) {
+               int ctx = l + (tnz & 1);
+               int nz = getCoeffs(br, 2, ctx, q[4], q[5], 0, dst, d);
+               l = nz > 0 ? 1 : 0;
+               tnz = (tnz >> 1) | (l << 3);
+               nzCoeffs = nzCodeBits(nzCoeffs, nz, dst[d] != 0);
+               d += 16;
+            }
+            tnz >>= 2;
+            lnz = (lnz >> 1) | (l << 5);
+         }
+         nonZeroUv |= nzCoeffs << (4 * ch);
+         outTnz |= (tnz << 4) << ch;
+         outLnz |= (lnz & 0xf0) << ch;
+      }
+      nzT[mbx] = outTnz & 0xff;
+      nzL = outLnz & 0xff;
+      this.nonZeroY = nonZeroY;
+      this.nonZeroUv = nonZeroUv;
+      return (nonZeroY | nonZeroUv) == 0;
+   }
+
+   private static int nzCodeBits(int nzCoeffs, int nz, boolean dcNz) {
+      return (nzCoeffs << 2) | (nz > 3 ? 3 : nz > 1 ? 2 : dcNz ? 1 : 0);
+   }
+
+   private int getCoeffs(BoolDecoder br, int type, int ctx, int dcq, int acq, int n, int[] out, int o) {
+      int p = probaOffset(type, n, ctx);
+      for (; n < 16; n++) {
+         if (!br.getBit(proba[p])) {
+            return n; // the previous coefficient was the last non zero one
+         }
+         while (!br.getBit(proba[p + 1])) {
+            p = probaOffset(type, ++n, 0);
+            if (n == 16) return 16;
+         }
+         int value;
+         if (!br.getBit(proba[p + 2])) {
+            value = 1;
+            p = probaOffset(type, n + 1, 1);
+         } else {
+            value = getLargeValue(br, p);
+            p = probaOffset(type, n + 1, 2);
+         }
+         out[o + ZIGZAG[n]] = (short) (br.getSigned(value) * (n > 0 ? acq : dcq));
+      }
+      return 16;
+   }
+
+   private static int probaOffset(int type, int n, int ctx) {
+      return ((type * 8 + BANDS[n]) * 3 + ctx) * 11;
+   }
+
+   private int getLargeValue(BoolDecoder br, int p) {
+      int value;
+      if (!br.getBit(proba[p + 3])) {
+         if (!br.getBit(proba[p + 4])) {
+            value = 2;
+         } else {
+            value = 3 + (br.getBit(proba[p + 5]) ? 1 : 0);
+         }
+      } else {
+         if (!br.getBit(proba[p + 6])) {
+            if (!br.getBit(proba[p + 7])) {
+               value = 5 + (br.getBit(159) ? 1 : 0);
+            } else {
+               value = 7 + 2 * (br.getBit(165) ? 1 : 0);
+               value += br.getBit(145) ? 1 : 0;
+            }
+         } else {
+            int bit1 = br.getBit(proba[p + 8]) ? 1 : 0;
+            int bit0 = br.getBit(proba[p + 9 + bit1]) ? 1 : 0;
+            int cat = 2 * bit1 + bit0;
+            value = 0;
+            for (int prob : CAT3456[cat])
+               value += value + (br.getBit(prob) ? 1 : 0);
+            value += 3 + (8 << cat);
+         }
+      }
+      return value;
+   }
+
+   private static void transformWht(int[] in, int[] out) {
+      int[] tmp = new int[16];
+      for (int i = 0; i < 4; i++) {
+         int a0 = in[i] + in[12 + i];
+         int a1 = in[4 + i] + in[8 + i];
+         int a2 = in[4 + i] - in[8 + i];
+         int a3 = in[i] - in[12 + i];
+         tmp[i] = a0 + a1;
+         tmp[8 + i] = a0 - a1;
+         tmp[4 + i] = a3 + a2;
+         tmp[12 + i] = a3 - a2;
+      }
+      int o = 0;
+      for (int i = 0; i < 4; i++) {
+         int dc = tmp[i * 4] + 3;
+         int a0 = dc + tmp[3 + i * 4];
+         int a1 = tmp[1 + i * 4] + tmp[2 + i * 4];
+         int a2 = tmp[1 + i * 4] - tmp[2 + i * 4];
+         int a3 = dc - tmp[3 + i * 4];
+         out[o] = (short) ((a0 + a1) >> 3);
+         out[o + 16] = (short) ((a3 + a2) >> 3);
+         out[o + 32] = (short) ((a0 - a1) >> 3);
+         out[o + 48] = (short) ((a3 - a2) >> 3);
+         o += 64;
+      }
+   }
+
+   private static int mul1(int a) {
+      return ((a * 20091) >> 16) + a;
+   }
+
+   private static int mul2(int a) {
+      return (a * 35468) >> 16;
+   }
+
+   /**
+    * Adds the inverse DCT of the 16 coefficients at the given offset to the 4x4 block of the
+    * work buffer at dst.
+    */
+   private static void transform(int[] in, int o, int[] work, int dst) {
+      int[] tmp = new int[16];
+      for (int i = 0; i < 4; i++) {
+         int a = in[o + i] + in[o + 8 + i];
+         int b = in[o + i] - in[o + 8 + i];
+         int c = mul2(in[o + 4 + i]) - mul1(in[o + 12 + i]);
+         int d = mul1(in[o + 4 + i]) + mul2(in[o + 12 + i]);
+         tmp[i * 4] = a + d;
+         tmp[i * 4 + 1] = b + c;
+         tmp[i * 4 + 2] = b - c;
+         tmp[i * 4 + 3] = a - d;
+      }
+      for (int i = 0; i < 4; i++) {
+         int dc = tmp[i] + 4;
+         int a = dc + tmp[8 + i];
+         int b = dc - tmp[8 + i];
+         int c = mul2(tmp[4 + i]) - mul1(tmp[12 + i]);
+         int d = mul1(tmp[4 + i]) + mul2(tmp[12 + i]);
+         int row = dst + i * BPS;
+         work[row] = clip8(work[row] + ((a + d) >> 3));
+         work[row + 1] = clip8(work[row + 1] + ((b + c) >> 3));
+         work[row + 2] = clip8(work[row + 2] + ((b - c) >> 3));
+         work[row + 3] = clip8(work[row + 3] + ((a - d) >> 3));
+      }
+   }
+
+   private void reconstruct(int mbx, int mby, boolean i4x4, int ymode, int uvmode) {
+      int[] w = work;
+      loadEdges(mbx, mby);
+
+      if (i4x4) {
+         int bits = nonZeroY;
+         for (int n = 0; n < 16; n++, bits <<= 2) {
+            int dst = Y_OFF + SCAN[n];
+            predict4(imodes[n], dst);
+            if ((bits >>> 30) != 0) transform(coeffs, n * 16, w, dst);
+         }
+      } else {
+         predict(checkMode(mbx, mby, ymode), Y_OFF, 16);
+         int bits = nonZeroY;
+         if (bits != 0) {
+            for (int n = 0; n < 16; n++, bits <<= 2) {
+               if ((bits >>> 30) != 0) transform(coeffs, n * 16, w, Y_OFF + SCAN[n]);
+            }
+         }
+      }
+
+      int uvPred = checkMode(mbx, mby, uvmode);
+      predict(uvPred, U_OFF, 8);
+      predict(uvPred, V_OFF, 8);
+      if ((nonZeroUv & 0xff) != 0) {
+         for (int n = 0; n < 4; n++)
+            transform(coeffs, 256 + n * 16, w, U_OFF + (n & 1) * 4 + (n >> 1) * 4 * BPS);
+      }
+      if (((nonZeroUv >> 8) & 0xff) != 0) {
+         for (int n = 0; n < 4; n++)
+            transform(coeffs, 320 + n * 16, w, V_OFF + (n & 1) * 4 + (n >> 1) * 4 * BPS);
+      }
+
+      for (int j = 0; j < 16; j++)
+         System.arraycopy(w, Y_OFF + j * BPS, y, (mby * 16 + j) * yStride + mbx * 16, 16);
+      for (int j = 0; j < 8; j++) {
+         System.arraycopy(w, U_OFF + j * BPS, u, (mby * 8 + j) * uvStride + mbx * 8, 8);
+         System.arraycopy(w, V_OFF + j * BPS, v, (mby * 8 + j) * uvStride + mbx * 8, 8);
+      }
+   }
+
+   /**
+    * Fills the samples above and to the left of the macroblock in the work buffer. Samples
+    * outside the frame are 127 above and 129 to the left, as the specification requires.
+    */
+   private void loadEdges(int mbx, int mby) {
+      int[] w = work;
+      if (mby == 0) {
+         Arrays.fill(w, Y_OFF - BPS - 1, Y_OFF - BPS + 20, 127);
+         Arrays.fill(w, U_OFF - BPS - 1, U_OFF - BPS + 8, 127);
+         Arrays.fill(w, V_OFF - BPS - 1, V_OFF - BPS + 8, 127);
+      } else {
+         int top = (mby * 16 - 1) * yStride + mbx * 16;
+         System.arraycopy(y, top, w, Y_OFF - BPS, 16);
+         if (mbx == mbw - 1) {
+            Arrays.fill(w, Y_OFF - BPS + 16, Y_OFF - BPS + 20, y[top + 15]);
+         } else {
+            System.arraycopy(y, top + 16, w, Y_OFF - BPS + 16, 4);
+         }
+         int uvTop = (mby * 8 - 1) * uvStride + mbx * 8;
+         System.arraycopy(u, uvTop, w, U_OFF - BPS, 8);
+         System.arraycopy(v, uvTop, w, V_OFF - BPS, 8);
+         w[Y_OFF - BPS - 1] = mbx == 0 ? 129 : y[top - 1];
+         w[U_OFF - BPS - 1] = mbx == 0 ? 129 : u[uvTop - 1];
+         w[V_OFF - BPS - 1] = mbx == 0 ? 129 : v[uvTop - 1];
+      }
+      for (int j = 0; j < 16; j++)
+         w[Y_OFF + j * BPS - 1] = mbx == 0 ? 129 : y[(mby * 16 + j) * yStride + mbx * 16 - 1];
+      for (int j = 0; j < 8; j++) {
+         w[U_OFF + j * BPS - 1] = mbx == 0 ? 129 : u[(mby * 8 + j) * uvStride + mbx * 8 - 1];
+         w[V_OFF + j * BPS - 1] = mbx == 0 ? 129 : v[(mby * 8 + j) * uvStride + mbx * 8 - 1];
+      }
+      // the 4x4 blocks on the right edge take the samples above and to the right of the
+      // macroblock as their top right samples
+      for (int j = 3; j < 12; j += 4)
+         System.arraycopy(w, Y_OFF - BPS + 16, w, Y_OFF + j * BPS + 16, 4);
+   }
+
+   // DC prediction of 16x16 and chroma blocks has variants for the edges of the frame
+   private static final int DC_PRED_NOTOP = 10;
+   private static final int DC_PRED_NOLEFT = 11;
+   private static final int DC_PRED_NOTOPLEFT = 12;
+
+   private static int checkMode(int mbx, int mby, int mode) {
+      if (mode == DC_PRED) {
+         if (mbx == 0) return mby == 0 ? DC_PRED_NOTOPLEFT : DC_PRED_NOLEFT;
+         return mby == 0 ? DC_PRED_NOTOP : DC_PRED;
+      }
+      return mode;
+   }
+
+   /**
+    * Predicts a 16x16 luma or 8x8 chroma block at dst in the work buffer.
+    */
+   private void predict(int mode, int dst, int size) {
+      int[] w = work;
+      int shift = size == 16 ? 4 : 3;
+      switch (mode) {
+         case DC_PRED: {
+            int dc = size;
+            for (int i = 0; i < size; i++) dc += w[dst - BPS + i] + w[dst + i * BPS - 1];
+            fill(dst, size, dc >> (shift + 1));
+            break;
+         }
+         case DC_PRED_NOTOP: {
+            int dc = size >> 1;
+            for (int i = 0; i < size; i++) dc += w[dst + i * BPS - 1];
+            fill(dst, size, dc >> shift);
+            break;
+         }
+         case DC_PRED_NOLEFT: {
+            int dc = size >> 1;
+            for (int i = 0; i < size; i++) dc += w[dst - BPS + i];
+            fill(dst, size, dc >> shift);
+            break;
+         }
+         case DC_PRED_NOTOPLEFT:
+            fill(dst, size, 0x80);
+            break;
+         case TM_PRED:
+            trueMotion(dst, size);
+            break;
+         case V_PRED:
+            for (int j = 0; j < size; j++)
+               System.arraycopy(w, dst - BPS, w, dst + j * BPS, size);
+            break;
+         default: // H_PRED
+            for (int j = 0; j < size; j++)
+               Arrays.fill(w, dst + j * BPS, dst + j * BPS + size, w[dst + j * BPS - 1]);
+            break;
+      }
+   }
+
+   private void fill(int dst, int size, int value) {
+      for (int j = 0; j < size; j++)
+         Arrays.fill(work, dst + j * BPS, dst + j * BPS + size, value);
+   }
+
+   private void trueMotion(int dst, int size) {
+      int[] w = work;
+      int topLeft = w[dst - BPS - 1];
+      for (int j = 0; j < size; j++) {
+         int left = w[dst + j * BPS - 1] - topLeft;
+         for (int i = 0; i < size; i++)
+            w[dst + j * BPS + i] = clip8(w[dst - BPS + i] + left);
+      }
+   }
+
+   private static int avg3(int a, int b, int c) {
+      return (a + 2 * b + c + 2) >> 2;
+   }
+
+   private static int avg2(int a, int b) {
+      return (a + b + 1) >> 1;
+   }
+
+   /**
+    * Predicts a 4x4 luma block at dst in the work buffer.
+    */
+   private void predict4(int mode, int dst) {
+      int[] w = work;
+      int top = dst - BPS;
+      int x = w[top - 1];
+      int a = w[top];
+      int b = w[top + 1];
+      int c = w[top + 2];
+      int d = w[top + 3];
+      int e = w[top + 4];
+      int f = w[top + 5];
+      int g = w[top + 6];
+      int h = w[top + 7];
+      int i = w[dst - 1];
+      int j = w[dst + BPS - 1];
+      int k = w[dst + 2 * BPS - 1];
+      int l = w[dst + 3 * BPS - 1];
+      switch (mode) {
+         case DC_PRED: {
+            int dc = (a + b + c + d + i + j + k + l + 4) >> 3;
+            for (int r = 0; r < 4; r++) Arrays.fill(w, dst + r * BPS, dst + r * BPS + 4, dc);
+            break;
+         }
+         case TM_PRED:
+            trueMotion(dst, 4);
+            break;
+         case V_PRED: {
+            int v0 = avg3(x, a, b);
+            int v1 = avg3(a, b, c);
+            int v2 = avg3(b, c, d);
+            int v3 = avg3(c, d, e);
+            for (int r = 0; r < 4; r++) set(dst, r, v0, v1, v2, v3);
+            break;
+         }
+         case H_PRED: {
+            int h0 = avg3(x, i, j);
+            int h1 = avg3(i, j, k);
+            int h2 = avg3(j, k, l);
+            int h3 = avg3(k, l, l);
+            set(dst, 0, h0, h0, h0, h0);
+            set(dst, 1, h1, h1, h1, h1);
+            set(dst, 2, h2, h2, h2, h2);
+            set(dst, 3, h3, h3, h3, h3);
+            break;
+         }
+         case RD_PRED:
+            set(dst, 0, avg3(a, x, i), avg3(b, a, x), avg3(c, b, a), avg3(d, c, b));
+            set(dst, 1, avg3(x, i, j), avg3(a, x, i), avg3(b, a, x), avg3(c, b, a));
+            set(dst, 2, avg3(i, j, k), avg3(x, i, j), avg3(a, x, i), avg3(b, a, x));
+            set(dst, 3, avg3(j, k, l), avg3(i, j, k), avg3(x, i, j), avg3(a, x, i));
+            break;
+         case VR_PRED:
+            set(dst, 0, avg2(x, a), avg2(a, b), avg2(b, c), avg2(c, d));
+            set(dst, 1, avg3(i, x, a), avg3(x, a, b), avg3(a, b, c), avg3(b, c, d));
+            set(dst, 2, avg3(j, i, x), avg2(x, a), avg2(a, b), avg2(b, c));
+            set(dst, 3, avg3(k, j, i), avg3(i, x, a), avg3(x, a, b), avg3(a, b, c));
+            break;
+         case LD_PRED:
+            set(dst, 0, avg3(a, b, c), avg3(b, c, d), avg3(c, d, e), avg3(d, e, f));
+            set(dst, 1, avg3(b, c, d), avg3(c, d, e), avg3(d, e, f), avg3(e, f, g));
+            set(dst, 2, avg3(c, d, e), avg3(d, e, f), avg3(e, f, g), avg3(f, g, h));
+            set(dst, 3, avg3(d, e, f), avg3(e, f, g), avg3(f, g, h), avg3(g, h, h));
+            break;
+         case VL_PRED:
+            set(dst, 0, avg2(a, b), avg2(b, c), avg2(c, d), avg2(d, e));
+            set(dst, 1, avg3(a, b, c), avg3(b, c, d), avg3(c, d, e), avg3(d, e, f));
+            set(dst, 2, avg2(b, c), avg2(c, d), avg2(d, e), avg3(e, f, g));
+            set(dst, 3, avg3(b, c, d), avg3(c, d, e), avg3(d, e, f), avg3(f, g, h));
+            break;
+         case HD_PRED:
+            set(dst, 0, avg2(i, x), avg3(i, x, a), avg3(x, a, b), avg3(a, b, c));
+            set(dst, 1, avg2(j, i), avg3(j, i, x), avg2(i, x), avg3(i, x, a));
+            set(dst, 2, avg2(k, j), avg3(k, j, i), avg2(j, i), avg3(j, i, x));
+            set(dst, 3, avg2(l, k), avg3(l, k, j), avg2(k, j), avg3(k, j, i));
+            break;
+         default: // HU_PRED
+            set(dst, 0, avg2(i, j), avg3(i, j, k), avg2(j, k), avg3(j, k, l));
+            set(dst, 1, avg2(j, k), avg3(j, k, l), avg2(k, l), avg3(k, l, l));
+            set(dst, 2, avg2(k, l), avg3(k, l, l), l, l);
+            set(dst, 3, l, l, l, l);
+            break;
+      }
+   }
+
+   private void set(int dst, int row, int p0, int p1, int p2, int p3) {
+      int o = dst + row * BPS;
+      work[o] = p0;
+      work[o + 1] = p1;
+      work[o + 2] = p2;
+      work[o + 3] = p3;
+   }
+
+   private void filter(int mbx, int mby) {
+      int mb = mby * mbw + mbx;
+      int limit = mbLimit[mb];
+      if (limit == 0) return;
+      int ilevel = mbIlevel[mb];
+      boolean inner = mbInner[mb];
+      int yDst = mby * 16 * yStride + mbx * 16;
+      if (filterType == 1) {
+         if (mbx > 0) simpleFilter(yDst, 1, yStride, limit + 4);
+         if (inner) for (int k = 4; k < 16; k += 4) simpleFilter(yDst + k, 1, yStride, limit);
+         if (mby > 0) simpleFilter(yDst, yStride, 1, limit + 4);
+         if (inner) for (int k = 4; k < 16; k += 4) simpleFilter(yDst + k * yStride, yStride, 1, limit);
+      } else {
+         int hev = mbHev[mb];
+         int uvDst = mby * 8 * uvStride + mbx * 8;
+         if (mbx > 0) {
+            filterLoop26(y, yDst, 1, yStride, 16, limit + 4, ilevel, hev);
+            filterLoop26(u, uvDst, 1, uvStride, 8, limit + 4, ilevel, hev);
+            filterLoop26(v, uvDst, 1, uvStride, 8, limit + 4, ilevel, hev);
+         }
+         if (inner) {
+            for (int k = 4; k < 16; k += 4) filterLoop24(y, yDst + k, 1, yStride, 16, limit, ilevel, hev);
+            filterLoop24(u, uvDst + 4, 1, uvStride, 8, limit, ilevel, hev);
+            filterLoop24(v, uvDst + 4, 1, uvStride, 8, limit, ilevel, hev);
+         }
+         if (mby > 0) {
+            filterLoop26(y, yDst, yStride, 1, 16, limit + 4, ilevel, hev);
+            filterLoop26(u, uvDst, uvStride, 1, 8, limit + 4, ilevel, hev);
+            filterLoop26(v, uvDst, uvStride, 1, 8, limit + 4, ilevel, hev);
+         }
+         if (inner) {
+            for (int k = 4; k < 16; k += 4) filterLoop24(y, yDst + k * yStride, yStride, 1, 16, limit, ilevel, hev);
+            filterLoop24(u, uvDst + 4 * uvStride, uvStride, 1, 8, limit, ilevel, hev);
+            filterLoop24(v, uvDst + 4 * uvStride, uvStride, 1, 8, limit, ilevel, hev);
+         }
+      }
+   }
+
+   /**
+    * Filters the 16 samples along an edge with the simple filter; hstride steps across the
+    * edge and vstride along it.
+    */
+   private void simpleFilter(int p, int hstride, int vstride, int thresh) {
+      int thresh2 = 2 * thresh + 1;
+      for (int i = 0; i < 16; i++, p += vstride) {
+         if (needsFilter(y, p, hstride, thresh2)) doFilter2(y, p, hstride);
+      }
+   }
+
+   private static void filterLoop26(int[] plane, int p, int hstride, int vstride, int size, int thresh, int ithresh, int hevThresh) {
+      int thresh2 = 2 * thresh + 1;
+      for (int i = 0; i < size; i++, p += vstride) {
+         if (needsFilter2(plane, p, hstride, thresh2, ithresh)) {
+            if (hev(plane, p, hstride, hevThresh)) doFilter2(plane, p, hstride);
+            else doFilter6(plane, p, hstride);
+         }
+      }
+   }
+
+   private static void filterLoop24(int[] plane, int p, int hstride, int vstride, int size, int thresh, int ithresh, int hevThresh) {
+      int thresh2 = 2 * thresh + 1;
+      for (int i = 0; i < size; i++, p += vstride) {
+         if (needsFilter2(plane, p, hstride, thresh2, ithresh)) {
+            if (hev(plane, p, hstride, hevThresh)) doFilter2(plane, p, hstride);
+            else doFilter4(plane, p, hstride);
+         }
+      }
+   }
+
+   private static boolean needsFilter(int[] s, int p, int step, int t) {
+      int p1 = s[p - 2 * step], p0 = s[p - step], q0 = s[p], q1 = s[p + step];
+      return 4 * Math.abs(p0 - q0) + Math.abs(p1 - q1) <= t;
+   }
+
+   private static boolean needsFilter2(int[] s, int p, int step, int t, int it) {
+      int p3 = s[p - 4 * step], p2 = s[p - 3 * step], p1 = s[p - 2 * step], p0 = s[p - step];
+      int q0 = s[p], q1 = s[p + step], q2 = s[p + 2 * step], q3 = s[p + 3 * step];
+      if (4 * Math.abs(p0 - q0) + Math.abs(p1 - q1) > t) return false;
+      return Math.abs(p3 - p2) <= it && Math.abs(p2 - p1) <= it && Math.abs(p1 - p0) <= it
+         && Math.abs(q3 - q2) <= it && Math.abs(q2 - q1) <= it && Math.abs(q1 - q0) <= it;
+   }
+
+   private static boolean hev(int[] s, int p, int step, int thresh) {
+      int p1 = s[p - 2 * step], p0 = s[p - step], q0 = s[p], q1 = s[p + step];
+      return Math.abs(p1 - p0) > thresh || Math.abs(q1 - q0) > thresh;
+   }
+
+   private static void doFilter2(int[] s, int p, int step) {
+      int p1 = s[p - 2 * step], p0 = s[p - step], q0 = s[p], q1 = s[p + step];
+      int a = 3 * (q0 - p0) + sclip1(p1 - q1);
+      int a1 = sclip2((a + 4) >> 3);
+      int a2 = sclip2((a + 3) >> 3);
+      s[p - step] = clip8(p0 + a2);
+      s[p] = clip8(q0 - a1);
+   }
+
+   private static void doFilter4(int[] s, int p, int step) {
+      int p1 = s[p - 2 * step], p0 = s[p - step], q0 = s[p], q1 = s[p + step];
+      int a = 3 * (q0 - p0);
+      int a1 = sclip2((a + 4) >> 3);
+      int a2 = sclip2((a + 3) >> 3);
+      int a3 = (a1 + 1) >> 1;
+      s[p - 2 * step] = clip8(p1 + a3);
+      s[p - step] = clip8(p0 + a2);
+      s[p] = clip8(q0 - a1);
+      s[p + step] = clip8(q1 - a3);
+   }
+
+   private static void doFilter6(int[] s, int p, int step) {
+      int p2 = s[p - 3 * step], p1 = s[p - 2 * step], p0 = s[p - step];
+      int q0 = s[p], q1 = s[p + step], q2 = s[p + 2 * step];
+      int a = sclip1(3 * (q0 - p0) + sclip1(p1 - q1));
+      int a1 = (27 * a + 63) >> 7;
+      int a2 = (18 * a + 63) >> 7;
+      int a3 = (9 * a + 63) >> 7;
+      s[p - 3 * step] = clip8(p2 + a3);
+      s[p - 2 * step] = clip8(p1 + a2);
+      s[p - step] = clip8(p0 + a1);
+      s[p] = clip8(q0 - a1);
+      s[p + step] = clip8(q1 - a2);
+      s[p + 2 * step] = clip8(q2 - a3);
+   }
+
+   private static int sclip1(int v) {
+      return v < -128 ? -128 : Math.min(v, 127);
+   }
+
+   private static int sclip2(int v) {
+      return v < -16 ? -16 : Math.min(v, 15);
+   }
+
+   private static int clip8(int v) {
+      return v < 0 ? 0 : Math.min(v, 255);
+   }
+
+   private static int clip(int v, int max) {
+      return v < 0 ? 0 : Math.min(v, max);
+   }
+
+   /**
+    * Converts the planes to ARGB, upsampling the chroma planes with the same bilinear filter
+    * libwebp uses, which weighs the four nearest chroma samples 9:3:3:1.
+    */
+   private int[] toArgb(byte[] alpha) {
+      int[] argb = new int[width * height];
+      upsample(0, -1, 0, 0, argb);
+      int yy = 0;
+      for (; yy + 2 < height; yy += 2)
+         upsample(yy + 1, yy + 2, yy / 2, yy / 2 + 1, argb);
+      if ((height & 1) == 0)
+         upsample(height - 1, -1, yy / 2, yy / 2, argb);
+      if (alpha != null) {
+         for (int i = 0; i < argb.length; i++)
+            argb[i] = (argb[i] & 0x00ffffff) | (alpha[i] << 24);
+      }
+      return argb;
+   }
+
+   /**
+    * Converts the top row, and the bottom row if there is one, using the chroma rows above and
+    * below them.
+    */
+   private void upsample(int topRow, int bottomRow, int topUvRow, int curUvRow, int[] argb) {
+      int topY = topRow * yStride;
+      int bottomY = bottomRow * yStride;
+      int topUv = topUvRow * uvStride;
+      int curUv = curUvRow * uvStride;
+      int topOut = topRow * width;
+      int bottomOut = bottomRow * width;
+      int lastPair = (width - 1) >> 1;
+
+      int tlU = u[topUv], tlV = v[topUv];
+      int lU = u[curUv], lV = v[curUv];
+      argb[topOut] = yuvToArgb(y[topY], (3 * tlU + lU + 2) >> 2, (3 * tlV + lV + 2) >> 2);
+      if (bottomRow >= 0)
+         argb[bottomOut] = yuvToArgb(y[bottomY], (3 * lU + tlU + 2) >> 2, (3 * lV + tlV + 2) >> 2);
+      for (int x = 1; x <= lastPair; x++) {
+         int tU = u[topUv + x], tV = v[topUv + x];
+         int cU = u[curUv + x], cV = v[curUv + x];
+         int avgU = tlU + tU + lU + cU + 8;
+         int avgV = tlV + tV + lV + cV + 8;
+         int diag12U = (avgU + 2 * (tU + lU)) >> 3;
+         int diag12V = (avgV + 2 * (tV + lV)) >> 3;
+         int diag03U = (avgU + 2 * (tlU + cU)) >> 3;
+         int diag03V = (avgV + 2 * (tlV + cV)) >> 3;
+         argb[topOut + 2 * x - 1] = yuvToArgb(y[topY + 2 * x - 1], (diag12U + tlU) >> 1, (diag12V + tlV) >> 1);
+         argb[topOut + 2 * x] = yuvToArgb(y[topY + 2 * x], (diag03U + tU) >> 1, (diag03V + tV) >> 1);
+         if (bottomRow >= 0) {
+            argb[bottomOut + 2 * x - 1] = yuvToArgb(y[bottomY + 2 * x - 1], (diag03U + lU) >> 1, (diag03V + lV) >> 1);
+            argb[bottomOut + 2 * x] = yuvToArgb(y[bottomY + 2 * x], (diag12U + cU) >> 1, (diag12V + cV) >> 1);
+         }
+         tlU = tU;
+         tlV = tV;
+         lU = cU;
+         lV = cV;
+      }
+      if ((width & 1) == 0) {
+         argb[topOut + width - 1] = yuvToArgb(y[topY + width - 1], (3 * tlU + lU + 2) >> 2, (3 * tlV + lV + 2) >> 2);
+         if (bottomRow >= 0)
+            argb[bottomOut + width - 1] = yuvToArgb(y[bottomY + width - 1], (3 * lU + tlU + 2) >> 2, (3 * lV + tlV + 2) >> 2);
+      }
+   }
+
+   private static int multHi(int v, int coeff) {
+      return (v * coeff) >> 8;
+   }
+
+   private static int yuvClip(int v) {
+      return (v & ~16383) == 0 ? v >> 6 : v < 0 ? 0 : 255;
+   }
+
+   private static int yuvToArgb(int y, int u, int v) {
+      int luma = multHi(y, 19077);
+      int r = yuvClip(luma + multHi(v, 26149) - 14234);
+      int g = yuvClip(luma - multHi(u, 6419) - multHi(v, 13320) + 8708);
+      int b = yuvClip(luma + multHi(u, 33050) - 17685);
+      return 0xff000000 | (r << 16) | (g << 8) | b;
+   }
+
+   /**
+    * The boolean entropy decoder of RFC 6386, holding up to 56 bits of the stream at a time.
+    */
+   private static final class BoolDecoder {
+
+      private final byte[] data;
+      private final int end;
+      private int pos;
+      private long value;
+      private int range = 255 - 1;
+      private int bits = -8;
+      private boolean eof;
+
+      private BoolDecoder(byte[] data, int offset, int length) {
+         this.data = data;
+         this.pos = offset;
+         this.end = offset + length;
+         loadNewBytes();
+      }
+
+      private void loadNewBytes() {
+         if (pos + 8 <= end) {
+            long in = 0;
+            for (int i = 0; i < 7; i++)
+               in = (in << 8) | (data[pos + i] & 0xff);
+            pos += 7;
+            value = (value << 56) | in;
+            bits += 56;
+         } else if (pos < end) {
+            value = (value << 8) | (data[pos++] & 0xff);
+            bits += 8;
+         } else if (!eof) {
+            value <<= 8;
+            bits += 8;
+            eof = true;
+         } else {
+            bits = 0;
+         }
+      }
+
+      private boolean getBit(int prob) {
+         int range = this.range;
+         if (bits < 0) loadNewBytes();
+         int pos = bits;
+         int split = (range * prob) >>> 8;
+         int value = (int) (this.value >>> pos);
+         boolean bit = value > split;
+         if (bit) {
+            range -= split;
+            this.value -= (long) (split + 1) << pos;
+         } else {
+            range = split + 1;
+         }
+         int shift = 7 ^ (31 - Integer.numberOfLeadingZeros(range));
+         range <<= shift;
+         bits -= shift;
+         this.range = range - 1;
+         return bit;
+      }
+
+      private int getSigned(int v) {
+         return getBit(0x80) ? -v : v;
+      }
+
+      private int getValue(int n) {
+         int v = 0;
+         while (n-- > 0)
+            v |= (getBit(0x80) ? 1 : 0) << n;
+         return v;
+      }
+
+      private int getSignedValue(int n) {
+         int value = getValue(n);
+         return getValue(1) == 1 ? -value : value;
+      }
+   }
+}
@@ -0,0 +1,619 @@
+package com.sksamuel.scrimage.webp;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Decodes VP8L, the lossless WebP bitstream, into ARGB pixels, following the WebP lossless
+ * bitstream specification. The alpha planes of lossy images are compressed as VP8L streams
+ * without a header, and are decoded here too.
+ */
+final class VP8LDecoder {
+
+   private static final int SIGNATURE = 0x2f;
+
+   private static final int NUM_LITERAL_CODES = 256;
+   private static final int NUM_LENGTH_CODES = 24;
+   private static final int NUM_DISTANCE_CODES = 40;
+   private static final int CODE_LENGTH_CODES = 19;
+   private static final int[] CODE_LENGTH_CODE_ORDER = {17, 18, 0, 1, 2, 3, 4, 5, 16, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15};
+
+   private static final int PREDICTOR = 0;
+   private static final int CROSS_COLOR = 1;
+   private static final int SUBTRACT_GREEN = 2;
+   private static final int COLOR_INDEXING = 3;
+
+   // maps the first 120 distance codes to (dy, 8 - dx) pairs, nearest pixels first
+   private static final int[] CODE_TO_PLANE = {
+      0x18, 0x07, 0x17, 0x19, 0x28, 0x06, 0x27, 0x29, 0x16, 0x1a,
+      0x26, 0x2a, 0x38, 0x05, 0x37, 0x39, 0x15, 0x1b, 0x36, 0x3a,
+      0x25, 0x2b, 0x48, 0x04, 0x47, 0x49, 0x14, 0x1c, 0x35, 0x3b,
+      0x46, 0x4a, 0x24, 0x2c, 0x58, 0x45, 0x4b, 0x34, 0x3c, 0x03,
+      0x57, 0x59, 0x13, 0x1d, 0x56, 0x5a, 0x23, 0x2d, 0x44, 0x4c,
+      0x55, 0x5b, 0x33, 0x3d, 0x68, 0x02, 0x67, 0x69, 0x12, 0x1e,
+      0x66, 0x6a, 0x22, 0x2e, 0x54, 0x5c, 0x43, 0x4d, 0x65, 0x6b,
+      0x32, 0x3e, 0x78, 0x01, 0x77, 0x79, 0x53, 0x5d, 0x11, 0x1f,
+      0x64, 0x6c, 0x42, 0x4e, 0x76, 0x7a, 0x21, 0x2f, 0x75, 0x7b,
+      0x31, 0x3f, 0x63, 0x6d, 0x52, 0x5e, 0x00, 0x74, 0x7c, 0x41,
+      0x4f, 0x10, 0x20, 0x62, 0x6e, 0x30, 0x73, 0x7d, 0x51, 0x5f,
+      0x40, 0x72, 0x7e, 0x61, 0x6f, 0x50, 0x71, 0x7f, 0x60, 0x70
+   };
+
+   private final BitReader br;
+   private final Transform[] transforms = new Transform[4];
+   private int numTransforms = 0;
+
+   private VP8LDecoder(byte[] data, int offset, int length) {
+      this.br = new BitReader(data, offset, length);
+   }
+
+   /**
+    * Returns the width and height declared by the VP8L header at the given offset.
+    */
+   static int[] dimensions(byte[] data, int offset, int length) throws IOException {
+      if (length < 5 || (data[offset] & 0xff) != SIGNATURE)
+         throw new IOException("Invalid VP8L signature");
+      BitReader br = new BitReader(data, offset + 1, 4);
+      return new int[]{br.readBits(14) + 1, br.readBits(14) + 1};
+   }
+
+   /**
+    * Returns the alpha_is_used bit of the VP8L header, which dwebp uses to decide whether the
+    * decoded image has an alpha channel.
+    */
+   static boolean alphaIsUsed(byte[] data, int offset, int length) throws IOException {
+      dimensions(data, offset, length);
+      BitReader br = new BitReader(data, offset + 1, 4);
+      br.readBits(28);
+      return br.readBits(1) == 1;
+   }
+
+   /**
+    * Decodes the VP8L bitstream, including its header, into ARGB pixels in rows of the
+    * declared width.
+    */
+   static int[] decode(byte[] data, int offset, int length) throws IOException {
+      int[] dimensions = dimensions(data, offset, length);
+      VP8LDecoder decoder = new VP8LDecoder(data, offset + 1, length - 1);
+      decoder.br.readBits(14);
+      decoder.br.readBits(14);
+      decoder.br.readBits(1); // alpha is used, read by alphaIsUsed
+      if (decoder.br.readBits(3) != 0)
+         throw new IOException("Unsupported VP8L version");
+      return decoder.decodeImageStream(dimensions[0], dimensions[1], true);
+   }
+
+   /**
+    * Decodes a headerless VP8L stream of the given size, and returns its green channel,
+    * which is where alpha planes are stored.
+    */
+   static byte[] decodeAlpha(byte[] data, int offset, int length, int width, int height) throws IOException {
+      int[] pixels = new VP8LDecoder(data, offset, length).decodeImageStream(width, height, true);
+      byte[] alpha = new byte[pixels.length];
+      for (int i = 0; i < pixels.length; i++)
+         alpha[i] = (byte) (pixels[i] >> 8);
+      return alpha;
+   }
+
+   private int[] decodeImageStream(int xsize, int ysize, boolean level0) throws IOException {
+      int width = xsize;
+      if (level0) {
+         while (br.readBits(1) == 1)
+            width = readTransform(width, ysize);
+      }
+
+      int cacheBits = 0;
+      if (br.readBits(1) == 1) {
+         cacheBits = br.readBits(4);
+         if (cacheBits < 1 || cacheBits > 11)
+            throw new IOException("Invalid VP8L color cache size " + cacheBits);
+      }
+
+      int huffmanBits = 0;
+      int huffmanXsize = 0;
+      int[] huffmanImage = null;
+      int numGroups = 1;
+      if (level0 && br.readBits(1) == 1) {
+         huffmanBits = br.readBits(3) + 2;
+         huffmanXsize = subSampleSize(width, huffmanBits);
+         huffmanImage = decodeImageStream(huffmanXsize, subSampleSize(ysize, huffmanBits), false);
+         for (int i = 0; i < huffmanImage.length; i++) {
+            int group = (huffmanImage[i] >> 8) & 0xffff;
+            huffmanImage[i] = group;
+            if (group >= numGroups) numGroups = group + 1;
+         }
+      }
+
+      // groups that no tile refers to are read but not kept, so that a stream cannot claim
+      // thousands of groups to make us build their tables
+      boolean[] used = new boolean[numGroups];
+      if (huffmanImage == null) used[0] = true;
+      else for (int group : huffmanImage) used[group] = true;
+
+      int[][][] groups = new int[numGroups][][];
+      int[] lengths = new int[NUM_LITERAL_CODES + NUM_LENGTH_CODES + (1 << 11)];
+      for (int i = 0; i < numGroups; i++) {
+         int[][] group = new int[][]{
+            readHuffmanCode(NUM_LITERAL_CODES + NUM_LENGTH_CODES + (cacheBits > 0 ? 1 << cacheBits : 0), lengths),
+            readHuffmanCode(NUM_LITERAL_CODES, lengths),
+            readHuffmanCode(NUM_LITERAL_CODES, lengths),
+            readHuffmanCode(NUM_LITERAL_CODES, lengths),
+            readHuffmanCode(NUM_DISTANCE_CODES, lengths),
+         };
+         if (used[i]) groups[i] = group;
+      }
+
+      int[] pixels = decodePixels(width, ysize, groups, huffmanImage, huffmanXsize, huffmanBits, cacheBits);
+      if (level0) {
+         for (int i = numTransforms - 1; i >= 0; i--)
+            pixels = transforms[i].inverse(pixels, ysize);
+      }
+      return pixels;
+   }
+
+   private int readTransform(int xsize, int ysize) throws IOException {
+      int type = br.readBits(2);
+      for (int i = 0; i < numTransforms; i++) {
+         if (transforms[i].type == type)
+            throw new IOException("VP8L transform " + type + " is used more than once");
+      }
+      Transform transform = new Transform(type, xsize);
+      transforms[numTransforms++] = transform;
+      switch (type) {
+         case PREDICTOR:
+         case CROSS_COLOR:
+            transform.bits = br.readBits(3) + 2;
+            transform.data = decodeImageStream(subSampleSize(xsize, transform.bits), subSampleSize(ysize, transform.bits), false);
+            return xsize;
+         case COLOR_INDEXING:
+            int numColors = br.readBits(8) + 1;
+            transform.bits = numColors > 16 ? 0 : numColors > 4 ? 1 : numColors > 2 ? 2 : 3;
+            int[] palette = decodeImageStream(numColors, 1, false);
+            // the palette is delta coded, and indexes beyond it are transparent black
+            transform.data = new int[1 << (8 >> transform.bits)];
+            transform.data[0] = palette[0];
+            for (int i = 1; i < numColors; i++)
+               transform.data[i] = addPixels(palette[i], transform.data[i - 1]);
+            return subSampleSize(xsize, transform.bits);
+         default:
+            return xsize;
+      }
+   }
+
+   private int[] readHuffmanCode(int alphabetSize, int[] lengths) throws IOException {
+      Arrays.fill(lengths, 0);
+      if (br.readBits(1) == 1) {
+         // simple code of one or two symbols of length 1
+         int numSymbols = br.readBits(1) + 1;
+         int firstSymbolBits = br.readBits(1) == 0 ? 1 : 8;
+         lengths[br.readBits(firstSymbolBits)] = 1;
+         if (numSymbols == 2)
+            lengths[br.readBits(8)] = 1;
+      } else {
+         int[] codeLengthCodeLengths = new int[CODE_LENGTH_CODES];
+         int numCodes = br.readBits(4) + 4;
+         for (int i = 0; i < numCodes; i++)
+            codeLengthCodeLengths[CODE_LENGTH_CODE_ORDER[i]] = br.readBits(3);
+         readCodeLengths(codeLengthCodeLengths, alphabetSize, lengths);
+      }
+      return buildTable(lengths, alphabetSize);
+   }
+
+   private void readCodeLengths(int[] codeLengthCodeLengths, int numSymbols, int[] lengths) throws IOException {
+      int[] table = buildTable(codeLengthCodeLengths, CODE_LENGTH_CODES);
+      int maxSymbol;
+      if (br.readBits(1) == 1) {
+         int lengthBits = 2 + 2 * br.readBits(3);
+         maxSymbol = 2 + br.readBits(lengthBits);
+         if (maxSymbol > numSymbols)
+            throw new IOException("Invalid VP8L code lengths");
+      } else {
+         maxSymbol = numSymbols;
+      }
+      int symbol = 0;
+      int prevCodeLength = 8;
+      while (symbol < numSymbols) {
+         if (maxSymbol-- == 0) break;
+         int codeLength = br.readSymbol(table);
+         if (codeLength < 16) {
+            lengths[symbol++] = codeLength;
+            if (codeLength != 0) prevCodeLength = codeLength;
+         } else {
+            int slot = codeLength - 16;
+            int repeat = br.readBits(slot == 0 ? 2 : slot == 1 ? 3 : 7) + (slot == 2 ? 11 : 3);
+            if (symbol + repeat > numSymbols)
+               throw new IOException("Invalid VP8L code lengths");
+            int length = slot == 0 ? prevCodeLength : 0;
+            while (repeat-- > 0) lengths[symbol++] = length;
+         }
+      }
+   }
+
+   private int[] decodePixels(int xsize, int ysize, int[][][] groups, int[] huffmanImage, int huffmanXsize,
+                              int huffmanBits, int cacheBits) throws IOException {
+      int total = xsize * ysize;
+      int[] data = new int[total];
+      int[] cache = cacheBits > 0 ? new int[1 << cacheBits] : null;
+      int cacheShift = 32 - cacheBits;
+      int lastCached = 0;
+      int mask = huffmanImage == null ? ~0 : (1 << huffmanBits) - 1;
+      int[][] group = groups[0];
+      int pos = 0;
+      int col = 0;
+      int row = 0;
+      while (pos < total) {
+         if ((col & mask) == 0 && huffmanImage != null)
+            group = groups[huffmanImage[(row >> huffmanBits) * huffmanXsize + (col >> huffmanBits)]];
+         int code = br.readSymbol(group[0]);
+         if (code < NUM_LITERAL_CODES) {
+            int red = br.readSymbol(group[1]);
+            int blue = br.readSymbol(group[2]);
+            int alpha = br.readSymbol(group[3]);
+            data[pos++] = (alpha << 24) | (red << 16) | (code << 8) | blue;
+            if (++col == xsize) {
+               col = 0;
+               row++;
+            }
+         } else if (code < NUM_LITERAL_CODES + NUM_LENGTH_CODES) {
+            int length = copyDistance(code - NUM_LITERAL_CODES);
+            int distance = planeCodeToDistance(xsize, copyDistance(br.readSymbol(group[4])));
+            if (pos < distance || total - pos < length)
+               throw new IOException("Invalid VP8L backward reference");
+            for (int i = 0; i < length; i++, pos++)
+               data[pos] = data[pos - distance];
+            col += length;
+            while (col >= xsize) {
+               col -= xsize;
+               row++;
+            }
+            if ((col & mask) != 0 && huffmanImage != null)
+               group = groups[huffmanImage[(row >> huffmanBits) * huffmanXsize + (col >> huffmanBits)]];
+         } else {
+            if (cache == null)
+               throw new IOException("Invalid VP8L color cache code");
+            while (lastCached < pos) {
+               int argb = data[lastCached++];
+               cache[(0x1e35a7bd * argb) >>> cacheShift] = argb;
+            }
+            data[pos++] = cache[code - NUM_LITERAL_CODES - NUM_LENGTH_CODES];
+            if (++col == xsize) {
+               col = 0;
+               row++;
+            }
+         }
+      }
+      return data;
+   }
+
+   private int copyDistance(int symbol) throws IOException {
+      if (symbol < 4) return symbol + 1;
+      int extraBits = (symbol - 2) >> 1;
+      int offset = (2 + (symbol & 1)) << extraBits;
+      return offset + br.readBits(extraBits) + 1;
+   }
+
+   private static int planeCodeToDistance(int xsize, int planeCode) {
+      if (planeCode > 120) return planeCode - 120;
+      int distCode = CODE_TO_PLANE[planeCode - 1];
+      int distance = (distCode >> 4) * xsize + (8 - (distCode & 0xf));
+      return distance >= 1 ? distance : 1;
+   }
+
+   private static int subSampleSize(int size, int bits) {
+      return (size + (1 << bits) - 1) >> bits;
+   }
+
+   /**
+    * Builds a lookup table for the canonical huffman code with the given code lengths. Codes of
+    * up to 8 bits are resolved by a single lookup of the next 8 bits; longer codes go through a
+    * second table. Each leaf is the code length in the high 16 bits and the symbol in the low
+    * 16 bits, and each link to a second table has the sign bit set, the number of extra bits to
+    * look up in the high 16 bits, and the offset of the second table in the low 16 bits.
+    */
+   private static int[] buildTable(int[] lengths, int numSymbols) throws IOException {
+      int[] count = new int[16];
+      int symbols = 0;
+      int lastSymbol = 0;
+      for (int symbol = 0; symbol < numSymbols; symbol++) {
+         if (lengths[symbol] > 0) {
+            count[lengths[symbol]]++;
+            symbols++;
+            lastSymbol = symbol;
+         }
+      }
+      if (symbols == 0)
+         throw new IOException("Invalid VP8L huffman code");
+
+      int[] root = new int[256];
+      if (symbols == 1) {
+         // a code of a single symbol takes no bits at all
+         Arrays.fill(root, lastSymbol);
+         return root;
+      }
+
+      int open = 1;
+      int[] nextCode = new int[16];
+      for (int len = 1; len < 16; len++) {
+         open = (open << 1) - count[len];
+         if (open < 0)
+            throw new IOException("Invalid VP8L huffman code");
+         nextCode[len] = len == 1 ? 0 : (nextCode[len - 1] + count[len - 1]) << 1;
+      }
+      if (open != 0)
+         throw new IOException("Invalid VP8L huffman code");
+
+      int[] codes = new int[numSymbols];
+      int[] subBits = new int[256];
+      for (int symbol = 0; symbol < numSymbols; symbol++) {
+         int len = lengths[symbol];
+         if (len > 0) {
+            codes[symbol] = Integer.reverse(nextCode[len]++) >>> (32 - len);
+            if (len > 8) {
+               int prefix = codes[symbol] & 0xff;
+               subBits[prefix] = Math.max(subBits[prefix], len - 8);
+            }
+         }
+      }
+
+      int size = 256;
+      int[] offsets = new int[256];
+      for (int prefix = 0; prefix < 256; prefix++) {
+         if (subBits[prefix] > 0) {
+            offsets[prefix] = size;
+            size += 1 << subBits[prefix];
+         }
+      }
+      int[] table = new int[size];
+      for (int prefix = 0; prefix < 256; prefix++) {
+         if (subBits[prefix] > 0)
+            table[prefix] = 0x80000000 | (subBits[prefix] << 16) | offsets[prefix];
+      }
+      for (int symbol = 0; symbol < numSymbols; symbol++) {
+         int len = lengths[symbol];
+         if (len == 0) continue;
+         int code = codes[symbol];
+         if (len <= 8) {
+            for (int k = code; k < 256; k += 1 << len)
+               table[k] = (len << 16) | symbol;
+         } else {
+            int prefix = code & 0xff;
+            int tableSize = 1 << subBits[prefix];
+            for (int k = code >>> 8; k < tableSize; k += 1 << (len - 8))
+               table[offsets[prefix] + k] = (len << 16) | symbol;
+         }
+      }
+      return table;
+   }
+
+   private static int addPixels(int a, int b) {
+      int alphaAndGreen = (a & 0xff00ff00) + (b & 0xff00ff00);
+      int redAndBlue = (a & 0x00ff00ff) + (b & 0x00ff00ff);
+      return (alphaAndGreen & 0xff00ff00) | (redAndBlue & 0x00ff00ff);
+   }
+
+   private static int average2(int a, int b) {
+      return (((a ^ b) & 0xfefefefe) >>> 1) + (a & b);
+   }
+
+   private static int clip255(int v) {
+      return v < 0 ? 0 : v > 255 ? 255 : v;
+   }
+
+   private static int clampedAddSubtractFull(int c0, int c1, int c2) {
+      int a = clip255((c0 >>> 24) + (c1 >>> 24) - (c2 >>> 24));
+      int r = clip255(((c0 >> 16) & 0xff) + ((c1 >> 16) & 0xff) - ((c2 >> 16) & 0xff));
+      int g = clip255(((c0 >> 8) & 0xff) + ((c1 >> 8) & 0xff) - ((c2 >> 8) & 0xff));
+      int b = clip255((c0 & 0xff) + (c1 & 0xff) - (c2 & 0xff));
+      return (a << 24) | (r << 16) | (g << 8) | b;
+   }
+
+   private static int addSubtractHalf(int a, int b) {
+      return clip255(a + (a - b) / 2);
+   }
+
+   private static int select(int top, int left, int topLeft) {
+      int predictLeft = sub3(top >>> 24, left >>> 24, topLeft >>> 24)
+         + sub3((top >> 16) & 0xff, (left >> 16) & 0xff, (topLeft >> 16) & 0xff)
+         + sub3((top >> 8) & 0xff, (left >> 8) & 0xff, (topLeft >> 8) & 0xff)
+         + sub3(top & 0xff, left & 0xff, topLeft & 0xff);
+      return predictLeft <= 0 ? top : left;
+   }
+
+   private static int sub3(int a, int b, int c) {
+      return Math.abs(b - c) - Math.abs(a - c);
+   }
+
+   private static int predict(int mode, int[] pixels, int index, int width) {
+      int left = pixels[index - 1];
+      int up = index - width;
+      switch (mode) {
+         case 1:
+            return left;
+         case 2:
+            return pixels[up];
+         case 3:
+            return pixels[up + 1];
+         case 4:
+            return pixels[up - 1];
+         case 5:
+            return average2(average2(left, pixels[up + 1]), pixels[up]);
+         case 6:
+            return average2(left, pixels[up - 1]);
+         case 7:
+            return average2(left, pixels[up]);
+         case 8:
+            return average2(pixels[up - 1], pixels[up]);
+         case 9:
+            return average2(pixels[up], pixels[up + 1]);
+         case 10:
+            return average2(average2(left, pixels[up - 1]), average2(pixels[up], pixels[up + 1]));
+         case 11:
+            return select(pixels[up], left, pixels[up - 1]);
+         case 12:
+            return clampedAddSubtractFull(left, pixels[up], pixels[up - 1]);
+         case 13: {
+            int ave = average2(left, pixels[up]);
+            int topLeft = pixels[up - 1];
+            int a = addSubtractHalf(ave >>> 24, topLeft >>> 24);
+            int r = addSubtractHalf((ave >> 16) & 0xff, (topLeft >> 16) & 0xff);
+            int g = addSubtractHalf((ave >> 8) & 0xff, (topLeft >> 8) & 0xff);
+            int b = addSubtractHalf(ave & 0xff, topLeft & 0xff);
+            return (a << 24) | (r << 16) | (g << 8) | b;
+         }
+         default:
+            // modes 0, 14 and 15 predict opaque black
+            return 0xff000000;
+      }
+   }
+
+   private static final class Transform {
+
+      private final int type;
+      private final int xsize;
+      private int bits;
+      private int[] data;
+
+      private Transform(int type, int xsize) {
+         this.type = type;
+         this.xsize = xsize;
+      }
+
+      private int[] inverse(int[] pixels, int ysize) {
+         switch (type) {
+            case PREDICTOR:
+               inversePredictor(pixels, ysize);
+               return pixels;
+            case CROSS_COLOR:
+               inverseCrossColor(pixels, ysize);
+               return pixels;
+            case SUBTRACT_GREEN:
+               for (int i = 0; i < pixels.length; i++) {
+                  int argb = pixels[i];
+                  int green = (argb >> 8) & 0xff;
+                  int redAndBlue = ((argb & 0x00ff00ff) + ((green << 16) | green)) & 0x00ff00ff;
+                  pixels[i] = (argb & 0xff00ff00) | redAndBlue;
+               }
+               return pixels;
+            default:
+               return inverseColorIndexing(pixels, ysize);
+         }
+      }
+
+      private void inversePredictor(int[] pixels, int ysize) {
+         int width = xsize;
+         // the first pixel predicts black and the rest of the first row predicts the left pixel
+         pixels[0] = addPixels(pixels[0], 0xff000000);
+         for (int x = 1; x < width; x++)
+            pixels[x] = addPixels(pixels[x], pixels[x - 1]);
+         int tilesPerRow = subSampleSize(width, bits);
+         for (int y = 1; y < ysize; y++) {
+            int row = y * width;
+            int modes = (y >> bits) * tilesPerRow;
+            // the first pixel of each row predicts the pixel above
+            pixels[row] = addPixels(pixels[row], pixels[row - width]);
+            int x = 1;
+            while (x < width) {
+               int mode = (data[modes + (x >> bits)] >> 8) & 0xf;
+               int end = Math.min((x & ~((1 << bits) - 1)) + (1 << bits), width);
+               for (; x < end; x++)
+                  pixels[row + x] = addPixels(pixels[row + x], predict(mode, pixels, row + x, width));
+            }
+         }
+      }
+
+      private void inverseCrossColor(int[] pixels, int ysize) {
+         int tilesPerRow = subSampleSize(xsize, bits);
+         for (int y = 0; y < ysize; y++) {
+            int row = y * xsize;
+            int tiles = (y >> bits) * tilesPerRow;
+            for (int x = 0; x < xsize; x++) {
+               int code = data[tiles + (x >> bits)];
+               int greenToRed = (byte) code;
+               int greenToBlue = (byte) (code >> 8);
+               int redToBlue = (byte) (code >> 16);
+               int argb = pixels[row + x];
+               int green = (byte) (argb >> 8);
+               int red = ((argb >> 16) + ((greenToRed * green) >> 5)) & 0xff;
+               int blue = (argb + ((greenToBlue * green) >> 5) + ((redToBlue * (byte) red) >> 5)) & 0xff;
+               pixels[row + x] = (argb & 0xff00ff00) | (red << 16) | blue;
+            }
+         }
+      }
+
+      private int[] inverseColorIndexing(int[] pixels, int ysize) {
+         int[] palette = data;
+         if (bits == 0) {
+            for (int i = 0; i < pixels.length; i++)
+               pixels[i] = palette[(pixels[i] >> 8) & 0xff];
+            return pixels;
+         }
+         int packedWidth = subSampleSize(xsize, bits);
+         int bitsPerPixel = 8 >> bits;
+         int countMask = (1 << bits) - 1;
+         int bitMask = (1 << bitsPerPixel) - 1;
+         int[] out = new int[xsize * ysize];
+         for (int y = 0; y < ysize; y++) {
+            int packed = 0;
+            for (int x = 0; x < xsize; x++) {
+               if ((x & countMask) == 0)
+                  packed = (pixels[y * packedWidth + (x >> bits)] >> 8) & 0xff;
+               out[y * xsize + x] = palette[packed & bitMask];
+               packed >>= bitsPerPixel;
+            }
+         }
+         return out;
+      }
+   }
+
+   /**
+    * Reads bits least significant first, as VP8L streams are packed.
+    */
+   private static final class BitReader {
+
+      private final byte[] data;
+      private final int end;
+      private int pos;
+      private long value;
+      private int bits;
+
+      private BitReader(byte[] data, int offset, int length) {
+         this.data = data;
+         this.pos = offset;
+         this.end = offset + length;
+      }
+
+      private void fill() {
+         while (bits <= 56 && pos < end) {
+            value |= (long) (data[pos++] & 0xff) << bits;
+            bits += 8;
+         }
+      }
+
+      private int readBits(int n) throws IOException {
+         if (bits < n) {
+            fill();
+            if (bits < n)
+               throw new IOException("VP8L bitstream is truncated");
+         }
+         int v = (int) (value & ((1L << n) - 1));
+         value >>>= n;
+         bits -= n;
+         return v;
+      }
+
+      private int readSymbol(int[] table) throws IOException {
+         if (bits < 15) fill();
+         int entry = table[(int) (value & 0xff)];
+         if (entry < 0) {
+            int subBits = (entry >>> 16) & 0x7fff;
+            entry = table[(entry & 0xffff) + ((int) (value >>> 8) & ((1 << subBits) - 1))];
+         }
+         int len = entry >>> 16;
+         if (len > bits)
+            throw new IOException("VP8L bitstream is truncated");
+         value >>>= len;
+         bits -= len;
+         return entry & 0xffff;
+      }
+   }
+}
@@ -0,0 +1,161 @@
+package com.sksamuel.scrimage.webp;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+
+/**
+ * Parses the RIFF container of a still WebP image and decodes its VP8 or VP8L frame, along with
+ * the ALPH chunk that carries the alpha of a lossy frame, into an int packed image.
+ * <p>
+ * As with dwebp, the image has an alpha channel only when the VP8X alpha flag is set, an ALPH
+ * chunk is present or the VP8L header marks alpha as used. Otherwise it is TYPE_INT_RGB.
+ * <p>
+ * Animated images are rejected with an IOException, so they fall through to the readers that
+ * use the webp binaries.
+ */
+final class WebpDecoder {
+
+   private static final int VP8X_ANIMATION = 0x02;
+   private static final int VP8X_ALPHA = 0x10;
+
+   private WebpDecoder() {
+   }
+
+   static BufferedImage decode(byte[] bytes) throws IOException {
+      if (bytes.length < 12 || !fourcc(bytes, 0, "RIFF") || !fourcc(bytes, 8, "WEBP"))
+         throw new IOException("Not a webp image");
+      // the riff size may overstate the data, so never read past the end of the array
+      int end = (int) Math.min(bytes.length, 8 + (readInt(bytes, 4) & 0xffffffffL));
+
+      int canvasWidth = -1;
+      int canvasHeight = -1;
+      int alphaOffset = -1;
+      int alphaLength = 0;
+      boolean hasAlpha = false;
+      int pos = 12;
+      while (pos + 8 <= end) {
+         int size = readInt(bytes, pos + 4);
+         int data = pos + 8;
+         if (size < 0 || size > end - data)
+            throw new IOException("Webp chunk is truncated");
+         if (fourcc(bytes, pos, "VP8X")) {
+            if (size < 10)
+               throw new IOException("Webp VP8X chunk is truncated");
+            if ((bytes[data] & VP8X_ANIMATION) != 0)
+               throw new IOException("Animated webp images are not supported by this reader");
+            hasAlpha = (bytes[data] & VP8X_ALPHA) != 0;
+            canvasWidth = 1 + readInt24(bytes, data + 4);
+            canvasHeight = 1 + readInt24(bytes, data + 7);
+         } else if (fourcc(bytes, pos, "ALPH")) {
+            alphaOffset = data;
+            alphaLength = size;
+         } else if (fourcc(bytes, pos, "VP8 ")) {
+            int[] dimensions = VP8Decoder.dimensions(bytes, data, size);
+            checkCanvas(dimensions, canvasWidth, canvasHeight);
+            byte[] alpha = alphaOffset < 0 ? null : decodeAlpha(bytes, alphaOffset, alphaLength, dimensions[0], dimensions[1]);
+            return image(VP8Decoder.decode(bytes, data, size, alpha), dimensions[0], dimensions[1], hasAlpha || alpha != null);
+         } else if (fourcc(bytes, pos, "VP8L")) {
+            int[] dimensions = VP8LDecoder.dimensions(bytes, data, size);
+            checkCanvas(dimensions, canvasWidth, canvasHeight);
+            boolean alphaUsed = VP8LDecoder.alphaIsUsed(bytes, data, size);
+            return image(VP8LDecoder.decode(bytes, data, size), dimensions[0], dimensions[1], hasAlpha || alphaUsed);
+         }
+         // chunks are padded to an even size
+         pos = data + size + (size & 1);
+      }
+      throw new IOException("Webp image has no VP8 or VP8L frame");
+   }
+
+   private static void checkCanvas(int[] dimensions, int canvasWidth, int canvasHeight) throws IOException {
+      if (canvasWidth >= 0 && (dimensions[0] != canvasWidth || dimensions[1] != canvasHeight))
+         throw new IOException("Webp frame is " + dimensions[0] + "x" + dimensions[1] + " but the canvas is " + canvasWidth + "x" + canvasHeight);
+      if ((long) dimensions[0] * dimensions[1] > Integer.MAX_VALUE)
+         throw new IOException("Webp image too large: " + dimensions[0] + "x" + dimensions[1]);
+   }
+
+   /**
+    * Decodes an ALPH chunk into one alpha value per pixel. The first byte of the chunk holds the
+    * compression method, 0 for raw values and 1 for a headerless VP8L stream, and the filter
+    * that was applied before compression, which is reversed here.
+    */
+   static byte[] decodeAlpha(byte[] bytes, int offset, int length, int width, int height) throws IOException {
+      if (length < 1)
+         throw new IOException("Webp ALPH chunk is truncated");
+      int header = bytes[offset] & 0xff;
+      int method = header & 0x03;
+      int filter = (header >> 2) & 0x03;
+      if (method > 1 || ((header >> 4) & 0x03) > 1 || (header >> 6) != 0)
+         throw new IOException("Invalid webp ALPH chunk header " + header);
+
+      byte[] alpha;
+      if (method == 0) {
+         if (length - 1 < width * height)
+            throw new IOException("Webp ALPH chunk is truncated");
+         alpha = new byte[width * height];
+         System.arraycopy(bytes, offset + 1, alpha, 0, alpha.length);
+      } else {
+         alpha = VP8LDecoder.decodeAlpha(bytes, offset + 1, length - 1, width, height);
+      }
+      if (filter != 0)
+         unfilter(alpha, width, height, filter);
+      return alpha;
+   }
+
+   private static void unfilter(byte[] alpha, int width, int height, int filter) {
+      for (int y = 0; y < height; y++) {
+         int row = y * width;
+         int prev = row - width;
+         if (y == 0 || filter == 1) {
+            // the first row is always filtered horizontally, from an initial prediction of 0
+            int pred = y == 0 ? 0 : alpha[prev];
+            for (int x = 0; x < width; x++) {
+               pred = (pred + alpha[row + x]) & 0xff;
+               alpha[row + x] = (byte) pred;
+            }
+         } else if (filter == 2) {
+            for (int x = 0; x < width; x++)
+               alpha[row + x] = (byte) (alpha[prev + x] + alpha[row + x]);
+         } else {
+            int left = alpha[prev] & 0xff;
+            int topLeft = left;
+            for (int x = 0; x < width; x++) {
+               int top = alpha[prev + x] & 0xff;
+               int gradient = left + top - topLeft;
+               gradient = gradient < 0 ? 0 : Math.min(gradient, 255);
+               left = (alpha[row + x] + gradient) & 0xff;
+               topLeft = top;
+               alpha[row + x] = (byte) left;
+            }
+         }
+      }
+   }
+
+   private static BufferedImage image(int[] argb, int width, int height, boolean hasAlpha) {
+      DataBufferInt buffer = new DataBufferInt(argb, argb.length);
+      int[] bandMasks = hasAlpha
+         ? new int[]{0xFF0000, 0xFF00, 0xFF, 0xFF000000}
+         : new int[]{0xFF0000, 0xFF00, 0xFF};
+      WritableRaster raster = Raster.createPackedRaster(buffer, width, height, width, bandMasks, null);
+      ColorModel cm = hasAlpha ? ColorModel.getRGBdefault() : new DirectColorModel(24, 0xFF0000, 0xFF00, 0xFF);
+      return new BufferedImage(cm, raster, cm.isAlphaPremultiplied(), null);
+   }
+
+   private static boolean fourcc(byte[] bytes, int offset, String fourcc) {
+      for (int i = 0; i < 4; i++)
+         if (bytes[offset + i] != fourcc.charAt(i)) return false;
+      return true;
+   }
+
+   private static int readInt(byte[] bytes, int offset) {
+      return readInt24(bytes, offset) | (bytes[offset + 3] & 0xff) << 24;
+   }
+
+   private static int readInt24(byte[] bytes, int offset) {
+      return (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8 | (bytes[offset + 2] & 0xff) << 16;
+   }
+}
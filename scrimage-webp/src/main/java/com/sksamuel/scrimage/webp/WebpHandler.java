@@ -9,6 +9,7 @@ import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.PosixFilePermission;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.lang3.SystemUtils;
@@ -19,6 +20,48 @@ abstract class WebpHandler {
 
    private static final Logger logger = LoggerFactory.getLogger(WebpHandler.class);
 
+   private final WebpProcessPool pool;
+
+   protected WebpHandler() {
+      this(WebpProcessPool.DEFAULT);
+   }
+
+   protected WebpHandler(WebpProcessPool pool) {
+      if (pool == null) throw new IllegalArgumentException("pool must not be null");
+      this.pool = pool;
+   }
+
+   /**
+    * Returns the pool that runs the binaries of this handler.
+    */
+   public WebpProcessPool pool() {
+      return pool;
+   }
+
+   /**
+    * Returns true if images are passed to and from the binaries through their standard input
+    * and output, which is the default. Set the system property com.sksamuel.scrimage.webp.pipes
+    * to false to pass them through temporary files instead, for binaries from libwebp releases
+    * that cannot read from stdin or write to stdout.
+    */
+   protected static boolean usePipes() {
+      return !"false".equalsIgnoreCase(System.getProperty("com.sksamuel.scrimage.webp.pipes"));
+   }
+
+   /**
+    * Runs the given command through the pool of this handler, writing the given input, if any,
+    * to its standard input, and returns everything it wrote to its standard output.
+    * See {@link WebpProcessPool} for how the binaries are limited, timed out and cancelled.
+    *
+    * @param name     the name of the binary, for error messages
+    * @param commands the binary and its arguments
+    * @param input    the bytes to write to the standard input of the binary, or null for none
+    * @return the bytes the binary wrote to its standard output
+    */
+   protected byte[] exec(String name, List<String> commands, byte[] input) throws IOException {
+      return pool.exec(name, commands, input);
+   }
+
    protected static Path getPathFromProperty(String name) {
       try {
          String binaryDir = System.getProperty("com.sksamuel.scrimage.webp.binary.dir");
@@ -1,15 +1,23 @@
 package com.sksamuel.scrimage.webp;
 
 import com.sksamuel.scrimage.ImmutableImage;
+import com.sksamuel.scrimage.format.Format;
 import com.sksamuel.scrimage.nio.ImageIOReader;
 import com.sksamuel.scrimage.nio.ImageReader;
 
 import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
 
 public class WebpImageReader implements ImageReader {
 
    private final DWebpHandler handler = new DWebpHandler();
 
+   @Override
+   public Set<Format> formats() {
+      return EnumSet.of(Format.WEBP);
+   }
+
    @Override
    public ImmutableImage read(byte[] bytes) throws IOException {
       byte[] png = handler.convert(bytes);
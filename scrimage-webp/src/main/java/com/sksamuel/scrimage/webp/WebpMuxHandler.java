@@ -1,13 +1,14 @@
 package com.sksamuel.scrimage.webp;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Wraps the libwebp {@code webpmux} binary, exposing only the metadata-readout
@@ -33,6 +34,16 @@ public class WebpMuxHandler extends WebpHandler {
       }
    }
 
+   public WebpMuxHandler() {
+   }
+
+   /**
+    * Creates a handler whose binaries run through the given pool rather than {@link WebpProcessPool#DEFAULT}.
+    */
+   public WebpMuxHandler(WebpProcessPool pool) {
+      super(pool);
+   }
+
    private static void installWebpMux() throws IOException {
       installBinary(binary, getBinaryPaths("webpmux"));
    }
@@ -82,49 +93,17 @@ public class WebpMuxHandler extends WebpHandler {
     * canvas size, loop count and per-frame table out of its stdout.
     */
    public WebpInfo info(byte[] webpBytes) throws IOException {
-      // Nest the two temp-file lifetimes: if the second createTempFile
-      // throws (disk full between the two calls), `input` is still cleaned
-      // up. Previously both creates lived outside the try and a
-      // mid-creation failure leaked the first one.
       Path input = Files.createTempFile("webpmux_in_", ".webp").toAbsolutePath();
       try {
-         Path stdout = Files.createTempFile("webpmux_stdout_", ".log");
-         try {
-            Files.write(input, webpBytes, StandardOpenOption.CREATE);
-
-            List<String> commands = new ArrayList<>();
-            commands.add(binary.toAbsolutePath().toString());
-            commands.add("-info");
-            commands.add(input.toAbsolutePath().toString());
-
-            ProcessBuilder builder = new ProcessBuilder(commands);
-            builder.redirectErrorStream(true);
-            builder.redirectOutput(stdout.toFile());
-
-            Process process = builder.start();
-            try {
-               boolean finished = process.waitFor(1, TimeUnit.MINUTES);
-               if (!finished) {
-                  throw new IOException("webpmux did not complete within 1 minute");
-               }
-               int exitStatus = process.exitValue();
-               List<String> lines = Files.readAllLines(stdout);
-               if (exitStatus != 0) {
-                  throw new IOException("webpmux exited with status " + exitStatus + ": " + lines);
-               }
-               return parseInfo(lines);
-            } catch (InterruptedException e) {
-               Thread.currentThread().interrupt();
-               throw new IOException(e);
-            } finally {
-               process.destroy();
-            }
-         } finally {
-            try {
-               stdout.toFile().delete();
-            } catch (Exception ignored) {
-            }
-         }
+         Files.write(input, webpBytes, StandardOpenOption.CREATE);
+
+         List<String> commands = new ArrayList<>();
+         commands.add(binary.toAbsolutePath().toString());
+         commands.add("-info");
+         commands.add(input.toAbsolutePath().toString());
+
+         String stdout = new String(exec("webpmux", commands, null), StandardCharsets.UTF_8);
+         return parseInfo(Arrays.asList(stdout.split("\\r?\\n")));
       } finally {
          try {
             input.toFile().delete();
@@ -0,0 +1,320 @@
+package com.sksamuel.scrimage.webp;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the webp binaries on behalf of the handlers, limiting how many of them run at once.
+ * <p>
+ * A call that finds every process slot in use waits for one to free up, in the order the calls
+ * arrived. Once {@link #maxQueued()} calls are already waiting, further calls are rejected with
+ * an IOException straight away, so that a burst of work pushes back on the caller rather than
+ * piling up. Every call must complete within {@link #timeout()}, which covers the time spent
+ * waiting for a slot as well as the time the binary runs; a binary that overruns it is killed.
+ * A call whose thread is interrupted stops waiting, kills its binary if it has one, and throws
+ * an InterruptedIOException.
+ * <p>
+ * Unless the caller chose whether to multi-thread, cwebp and gif2webp are passed -mt while the
+ * pool is mostly idle, so that a single image can make use of the spare cores; under load each
+ * binary runs single threaded.
+ * <p>
+ * The handlers use {@link #DEFAULT} unless given a pool of their own. It is configured by the
+ * system properties com.sksamuel.scrimage.webp.maxProcesses (defaults to the number of
+ * available processors), com.sksamuel.scrimage.webp.maxQueued (defaults to 1000), and
+ * com.sksamuel.scrimage.webp.timeoutSeconds (defaults to 300).
+ */
+public final class WebpProcessPool {
+
+   public static final WebpProcessPool DEFAULT = new WebpProcessPool(
+      Math.max(1, intProperty("com.sksamuel.scrimage.webp.maxProcesses", Runtime.getRuntime().availableProcessors())),
+      intProperty("com.sksamuel.scrimage.webp.maxQueued", 1000),
+      Duration.ofSeconds(Math.max(1, intProperty("com.sksamuel.scrimage.webp.timeoutSeconds", 300)))
+   );
+
+   // Feeds and drains the standard streams of the binaries, each on its own thread, so that a
+   // binary never blocks writing to a full pipe while we are still writing its input.
+   private static final ExecutorService streams = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "scrimage-webp-streams");
+      thread.setDaemon(true);
+      return thread;
+   });
+
+   private final Limiter limiter;
+   private final Duration timeout;
+
+   /**
+    * @param maxProcesses the maximum number of binaries that run at once
+    * @param maxQueued    the maximum number of calls that wait for a binary to finish before
+    *                     further calls are rejected, or 0 to reject calls as soon as all
+    *                     processes are in use
+    * @param timeout      the time within which each call must complete
+    */
+   public WebpProcessPool(int maxProcesses, int maxQueued, Duration timeout) {
+      this(limiter(maxProcesses, maxQueued), timeout);
+   }
+
+   private static Limiter limiter(int maxProcesses, int maxQueued) {
+      if (maxProcesses < 1) throw new IllegalArgumentException("maxProcesses must be at least 1");
+      if (maxQueued < 0) throw new IllegalArgumentException("maxQueued must not be negative");
+      return new Limiter(maxProcesses, maxQueued);
+   }
+
+   private WebpProcessPool(Limiter limiter, Duration timeout) {
+      if (timeout == null || timeout.isNegative() || timeout.isZero())
+         throw new IllegalArgumentException("timeout must be positive");
+      this.limiter = limiter;
+      this.timeout = timeout;
+   }
+
+   /**
+    * Returns a pool that shares the process slots, queue and metrics of this pool, but whose
+    * calls must complete within the given timeout. Use this to give individual calls a tighter
+    * or looser deadline without running more binaries at once.
+    */
+   public WebpProcessPool withTimeout(Duration timeout) {
+      return new WebpProcessPool(limiter, timeout);
+   }
+
+   public int maxProcesses() {
+      return limiter.maxProcesses;
+   }
+
+   public int maxQueued() {
+      return limiter.maxQueued;
+   }
+
+   public Duration timeout() {
+      return timeout;
+   }
+
+   /**
+    * Returns the number of binaries running now.
+    */
+   public int running() {
+      return limiter.maxProcesses - limiter.slots.availablePermits();
+   }
+
+   /**
+    * Returns the number of calls waiting for a binary to finish.
+    */
+   public int queued() {
+      return limiter.queued.get();
+   }
+
+   /**
+    * Returns the number of binaries that have exited with status 0.
+    */
+   public long completed() {
+      return limiter.completed.sum();
+   }
+
+   /**
+    * Returns the number of binaries that could not be started, exited with a non-zero status,
+    * or were killed after overrunning their timeout or being interrupted.
+    */
+   public long failed() {
+      return limiter.failed.sum();
+   }
+
+   /**
+    * Returns the number of calls that timed out, whether waiting for a slot or while running.
+    */
+   public long timedOut() {
+      return limiter.timedOut.sum();
+   }
+
+   /**
+    * Returns the number of calls rejected because the queue was full.
+    */
+   public long rejected() {
+      return limiter.rejected.sum();
+   }
+
+   /**
+    * Returns the mean time the binaries have taken to run, excluding any time spent waiting for
+    * a slot, or zero if none have run yet.
+    */
+   public Duration averageExecTime() {
+      long runs = limiter.runs.sum();
+      return runs == 0 ? Duration.ZERO : Duration.ofNanos(limiter.execNanos.sum() / runs);
+   }
+
+   /**
+    * Returns the longest time any binary has taken to run.
+    */
+   public Duration maxExecTime() {
+      return Duration.ofNanos(limiter.maxExecNanos.get());
+   }
+
+   /**
+    * Returns true if a binary started now could use a second thread without the pool
+    * as a whole asking for more threads than there are cores.
+    */
+   boolean multiThread() {
+      return (running() + queued() + 1) * 2 <= Runtime.getRuntime().availableProcessors();
+   }
+
+   /**
+    * Runs the given command once a process slot is free, writing the given input, if any, to its
+    * standard input, and returns everything it wrote to its standard output. Its standard error
+    * is kept in memory, and is the message of the IOException thrown if the command does not
+    * exit with status 0.
+    *
+    * @param name     the name of the binary, for error messages
+    * @param commands the binary and its arguments
+    * @param input    the bytes to write to the standard input of the binary, or null for none
+    * @return the bytes the binary wrote to its standard output
+    */
+   byte[] exec(String name, List<String> commands, byte[] input) throws IOException {
+      long deadline = System.nanoTime() + timeout.toNanos();
+      limiter.acquire(name, deadline, timeout);
+      long start = System.nanoTime();
+      boolean success = false;
+      try {
+         byte[] output = run(name, commands, input, deadline);
+         success = true;
+         return output;
+      } finally {
+         limiter.release(System.nanoTime() - start, success);
+      }
+   }
+
+   private byte[] run(String name, List<String> commands, byte[] input, long deadline) throws IOException {
+      Process process = new ProcessBuilder(commands).start();
+      boolean exited = false;
+      try {
+         Future<?> stdin = streams.submit(() -> {
+            try (OutputStream out = process.getOutputStream()) {
+               if (input != null) out.write(input);
+            }
+            return null;
+         });
+         Future<byte[]> stdout = streams.submit(() -> process.getInputStream().readAllBytes());
+         Future<byte[]> stderr = streams.submit(() -> process.getErrorStream().readAllBytes());
+         // waitFor(timeout, unit) returns false if the process is still running when
+         // the timeout expires, in which case exitValue() would throw.
+         exited = process.waitFor(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+         if (!exited) {
+            limiter.timedOut.increment();
+            throw new IOException(name + " timed out after " + format(timeout));
+         }
+         int exitStatus = process.exitValue();
+         if (exitStatus != 0) {
+            String error = new String(get(stderr), StandardCharsets.UTF_8).trim();
+            throw new IOException(name + " exited with status " + exitStatus + ": " + error);
+         }
+         byte[] output = get(stdout);
+         try {
+            get(stdin);
+         } catch (IOException e) {
+            // the binary succeeded without reading all of its input, so the pipe was closed
+            // under the writer, which is no reason to fail the call
+         }
+         return output;
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         InterruptedIOException interrupted = new InterruptedIOException(name + " was interrupted");
+         interrupted.initCause(e);
+         throw interrupted;
+      } finally {
+         // closes the pipes as well, which ends any stream still being fed or drained
+         if (exited) process.destroy();
+         else process.destroyForcibly();
+      }
+   }
+
+   private static <T> T get(Future<T> future) throws IOException, InterruptedException {
+      try {
+         return future.get();
+      } catch (ExecutionException e) {
+         Throwable cause = e.getCause();
+         if (cause instanceof IOException) throw (IOException) cause;
+         throw new IOException(cause);
+      }
+   }
+
+   private static String format(Duration duration) {
+      return duration.toMillis() % 1000 == 0 ? duration.getSeconds() + "s" : duration.toMillis() + "ms";
+   }
+
+   private static int intProperty(String name, int defaultValue) {
+      try {
+         String value = System.getProperty(name);
+         return value == null ? defaultValue : Math.max(0, Integer.parseInt(value.trim()));
+      } catch (NumberFormatException e) {
+         return defaultValue;
+      }
+   }
+
+   /**
+    * The process slots, queue and metrics, which are shared by the pools returned from withTimeout.
+    */
+   private static final class Limiter {
+
+      private final int maxProcesses;
+      private final int maxQueued;
+      private final Semaphore slots;
+      private final AtomicInteger queued = new AtomicInteger();
+      private final LongAdder completed = new LongAdder();
+      private final LongAdder failed = new LongAdder();
+      private final LongAdder timedOut = new LongAdder();
+      private final LongAdder rejected = new LongAdder();
+      private final LongAdder runs = new LongAdder();
+      private final LongAdder execNanos = new LongAdder();
+      private final AtomicLong maxExecNanos = new AtomicLong();
+
+      private Limiter(int maxProcesses, int maxQueued) {
+         this.maxProcesses = maxProcesses;
+         this.maxQueued = maxQueued;
+         // fair, so that calls are given slots in the order they started waiting
+         this.slots = new Semaphore(this.maxProcesses, true);
+      }
+
+      private void acquire(String name, long deadline, Duration timeout) throws IOException {
+         // the timed tryAcquire honours fairness, so this does not jump ahead of waiting calls
+         try {
+            if (slots.tryAcquire(0, TimeUnit.NANOSECONDS)) return;
+            if (queued.incrementAndGet() > maxQueued) {
+               queued.decrementAndGet();
+               rejected.increment();
+               throw new IOException(name + " was rejected as " + maxQueued + " calls are already waiting for a process");
+            }
+            try {
+               if (!slots.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                  timedOut.increment();
+                  throw new IOException(name + " timed out after " + format(timeout) + " waiting for a process");
+               }
+            } finally {
+               queued.decrementAndGet();
+            }
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException interrupted = new InterruptedIOException(name + " was interrupted waiting for a process");
+            interrupted.initCause(e);
+            throw interrupted;
+         }
+      }
+
+      private void release(long nanos, boolean success) {
+         slots.release();
+         runs.increment();
+         execNanos.add(nanos);
+         maxExecNanos.accumulateAndGet(nanos, Math::max);
+         if (success) completed.increment();
+         else failed.increment();
+      }
+   }
+}
@@ -20,7 +20,8 @@ public class WebpWriter implements ImageWriter {
    private final int m;
    private final boolean lossless;
    private final boolean noAlpha;
-   private final boolean multiThread;
+   // null leaves -mt to the process pool
+   private final Boolean multiThread;
 
    public WebpWriter() {
       z = -1;
@@ -28,7 +29,7 @@ public class WebpWriter implements ImageWriter {
       m = -1;
       lossless = false;
       noAlpha = false;
-      multiThread = false;
+      multiThread = null;
    }
 
    public WebpWriter(int z, int q, int m, boolean lossless) {
@@ -37,7 +38,7 @@ public class WebpWriter implements ImageWriter {
       this.m = m;
       this.lossless = lossless;
       this.noAlpha = false;
-      this.multiThread = false;
+      this.multiThread = null;
    }
 
    public WebpWriter(int z, int q, int m, boolean lossless, boolean noAlpha) {
@@ -46,10 +47,14 @@ public class WebpWriter implements ImageWriter {
       this.m = m;
       this.lossless = lossless;
       this.noAlpha = noAlpha;
-      this.multiThread = false;
+      this.multiThread = null;
    }
 
    public WebpWriter(int z, int q, int m, boolean lossless, boolean noAlpha, boolean multiThread) {
+      this(z, q, m, lossless, noAlpha, Boolean.valueOf(multiThread));
+   }
+
+   private WebpWriter(int z, int q, int m, boolean lossless, boolean noAlpha, Boolean multiThread) {
       this.z = z;
       this.q = q;
       this.m = m;
@@ -85,7 +90,19 @@ public class WebpWriter implements ImageWriter {
     * @return a new {@code WebpWriter} instance with multi-threading enabled.
     */
    public WebpWriter withMultiThread() {
-      return new WebpWriter(z, q, m, lossless, noAlpha, true);
+      return withMultiThread(true);
+   }
+
+   /**
+    * Returns a new {@code WebpWriter} instance with identical properties to the
+    * current instance but with multi-threading enabled or disabled as given.
+    * Unless this is set, multi-threading is enabled while the process pool has cores to spare,
+    * see {@link WebpProcessPool}.
+    *
+    * @return a new {@code WebpWriter} instance with multi-threading set as given.
+    */
+   public WebpWriter withMultiThread(boolean multiThread) {
+      return new WebpWriter(z, q, m, lossless, noAlpha, multiThread);
    }
 
    /**
@@ -127,7 +144,11 @@ public class WebpWriter implements ImageWriter {
 
    @Override
    public void write(AwtImage image, ImageMetadata metadata, OutputStream out) throws IOException {
-      byte[] bytes = handler.convert(image.bytes(PngWriter.NoCompression), m, q, z, lossless, noAlpha, multiThread);
+      // cwebp reads PAM natively, which is far cheaper to produce than a png
+      byte[] input = Pam.supports(image) ? Pam.encode(image) : image.bytes(PngWriter.NoCompression);
+      byte[] bytes = multiThread == null ?
+         handler.convert(input, m, q, z, lossless, noAlpha) :
+         handler.convert(input, m, q, z, lossless, noAlpha, multiThread);
       out.write(bytes);
    }
 }
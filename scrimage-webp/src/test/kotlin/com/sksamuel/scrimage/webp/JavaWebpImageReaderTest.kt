@@ -0,0 +1,79 @@
+package com.sksamuel.scrimage.webp
+
+import com.sksamuel.scrimage.ImmutableImage
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.string.shouldContain
+import java.awt.Rectangle
+import java.awt.image.BufferedImage
+import java.io.IOException
+
+class JavaWebpImageReaderTest : FunSpec({
+
+   fun bytes(resource: String) = javaClass.getResourceAsStream(resource).readBytes()
+
+   fun argb(image: ImmutableImage) = image.awt().getRGB(0, 0, image.width, image.height, null, 0, image.width)
+
+   test("lossy and lossless images are decoded into int packed images") {
+      val lossy = JavaWebpImageReader().read(bytes("/github260.webp"))
+      lossy.width shouldBe 900
+      lossy.height shouldBe 1200
+      lossy.type shouldBe BufferedImage.TYPE_INT_RGB
+      val lossless = JavaWebpImageReader().read(bytes("/spacedock.webp"))
+      lossless.width shouldBe 960
+      lossless.height shouldBe 540
+      lossless.type shouldBe BufferedImage.TYPE_INT_RGB
+   }
+
+   test("only images that declare alpha, as dwebp decides, have an alpha channel") {
+      val opaque = JavaWebpImageReader().read(bytes("/landscape.webp"))
+      opaque.hasAlpha() shouldBe false
+      opaque.type shouldBe BufferedImage.TYPE_INT_RGB
+      val transparent = JavaWebpImageReader().read(bytes("/alphaLossy.webp"))
+      transparent.hasAlpha() shouldBe true
+      transparent.type shouldBe BufferedImage.TYPE_INT_ARGB
+   }
+
+   test("the alpha of a lossy image is taken from its ALPH chunk") {
+      val image = JavaWebpImageReader().read(bytes("/alphaLossy.webp"))
+      val alphas = argb(image).map { it ushr 24 }.toSet()
+      (alphas.size > 100) shouldBe true
+   }
+
+   test("the loader reads webp images with the java reader") {
+      val image = ImmutableImage.loader().fromResource("/spacedock.webp")
+      argb(image).toList() shouldBe argb(JavaWebpImageReader().read(bytes("/spacedock.webp"))).toList()
+   }
+
+   test("a rectangle is read from the decoded image") {
+      val full = JavaWebpImageReader().read(bytes("/github260.webp"))
+      val part = JavaWebpImageReader().read(bytes("/github260.webp"), Rectangle(100, 200, 50, 40))
+      part.width shouldBe 50
+      part.height shouldBe 40
+      argb(part).toList() shouldBe argb(full.subimage(100, 200, 50, 40)).toList()
+   }
+
+   test("animated images are left to the dwebp reader") {
+      shouldThrow<IOException> {
+         JavaWebpImageReader().read(bytes("/animated.webp"))
+      }.message!! shouldContain "Animated"
+   }
+
+   test("truncated images are rejected with an IOException") {
+      for (resource in listOf("/github260.webp", "/spacedock.webp", "/alphaLossy.webp")) {
+         val webp = bytes(resource)
+         shouldThrow<IOException> {
+            JavaWebpImageReader().read(webp.copyOf(webp.size / 2))
+         }
+      }
+   }
+
+   // this test cannot run on the server as we cannot include webp with our code
+   test("the pixels are identical to those decoded by dwebp") {
+      for (resource in listOf("/github260.webp", "/noAlpha.webp", "/test.webp", "/spacedock.webp", "/alphaLossy.webp")) {
+         val webp = bytes(resource)
+         argb(JavaWebpImageReader().read(webp)).toList() shouldBe argb(WebpImageReader().read(webp)).toList()
+      }
+   }
+})
@@ -0,0 +1,67 @@
+package com.sksamuel.scrimage.webp
+
+import com.sksamuel.scrimage.ImmutableImage
+import com.sksamuel.scrimage.nio.PngWriter
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import java.awt.image.BufferedImage
+import kotlin.random.Random
+
+class PamTest : FunSpec({
+
+   fun image(width: Int, height: Int, type: Int): ImmutableImage {
+      val random = Random(type)
+      val awt = BufferedImage(width, height, type)
+      for (y in 0 until height) for (x in 0 until width) awt.setRGB(x, y, random.nextInt())
+      return ImmutableImage.wrapAwt(awt)
+   }
+
+   test("pam has a header followed by the rgba samples of each pixel") {
+      val image = image(3, 2, BufferedImage.TYPE_INT_ARGB)
+      val pam = Pam.encode(image)
+      val header = "P7\nWIDTH 3\nHEIGHT 2\nDEPTH 4\nMAXVAL 255\nTUPLTYPE RGB_ALPHA\nENDHDR\n"
+      String(pam, 0, header.length, Charsets.US_ASCII) shouldBe header
+      pam.size shouldBe header.length + 3 * 2 * 4
+      val argb = image.awt().getRGB(1, 1)
+      val k = header.length + (1 * 3 + 1) * 4
+      pam.copyOfRange(k, k + 4).toList() shouldBe
+         listOf((argb shr 16).toByte(), (argb shr 8).toByte(), argb.toByte(), (argb ushr 24).toByte())
+   }
+
+   test("pam holds the same pixels as a png for every supported type") {
+      val types = listOf(
+         BufferedImage.TYPE_INT_ARGB,
+         BufferedImage.TYPE_INT_RGB,
+         BufferedImage.TYPE_INT_BGR,
+         BufferedImage.TYPE_3BYTE_BGR,
+         BufferedImage.TYPE_4BYTE_ABGR,
+      )
+      for (type in types) {
+         val image = image(60, 40, type).viewMode().subimage(5, 3, 40, 30)
+         val png = ImmutableImage.loader().fromBytes(image.bytes(PngWriter.NoCompression))
+         val pam = Pam.encode(image)
+         val depth = if (image.awt().colorModel.hasAlpha()) 4 else 3
+         val offset = pam.size - 40 * 30 * depth
+         for (y in 0 until 30) for (x in 0 until 40) {
+            val k = offset + (y * 40 + x) * depth
+            val alpha = if (depth == 4) pam[k + 3].toInt() and 255 else 255
+            val argb = (alpha shl 24) or ((pam[k].toInt() and 255) shl 16) or
+               ((pam[k + 1].toInt() and 255) shl 8) or (pam[k + 2].toInt() and 255)
+            argb shouldBe png.awt().getRGB(x, y)
+         }
+      }
+   }
+
+   test("other image types are left to the png hand-off") {
+      Pam.supports(image(4, 4, BufferedImage.TYPE_BYTE_GRAY)) shouldBe false
+      Pam.supports(image(4, 4, BufferedImage.TYPE_INT_ARGB_PRE)) shouldBe false
+   }
+
+   // this test cannot run on the server as we cannot include webp with our code
+   test("cwebp gives the same lossless webp from a pam as from a png") {
+      val image = ImmutableImage.loader().fromResource("/spacedock.jpg").scale(0.25)
+      val handler = CWebpHandler()
+      handler.convert(Pam.encode(image), -1, -1, -1, true, false, false) shouldBe
+         handler.convert(image.bytes(PngWriter.NoCompression), -1, -1, -1, true, false, false)
+   }
+})
@@ -0,0 +1,41 @@
+package com.sksamuel.scrimage.webp
+
+import com.sksamuel.scrimage.ImmutableImage
+import com.sksamuel.scrimage.nio.PngWriter
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+
+// these tests cannot run on the server as we cannot include webp with our code
+class WebpPipesTest : FunSpec({
+
+   fun <T> withoutPipes(block: () -> T): T {
+      System.setProperty("com.sksamuel.scrimage.webp.pipes", "false")
+      try {
+         return block()
+      } finally {
+         System.clearProperty("com.sksamuel.scrimage.webp.pipes")
+      }
+   }
+
+   val webp = javaClass.getResourceAsStream("/test.webp").readBytes()
+
+   test("dwebp through pipes gives the same png as through temporary files") {
+      val handler = DWebpHandler()
+      handler.convert(webp) shouldBe withoutPipes { handler.convert(webp) }
+   }
+
+   test("cwebp through pipes gives the same webp as through temporary files") {
+      val png = ImmutableImage.loader().fromResource("/spacedock.jpg").scale(0.25).bytes(PngWriter.NoCompression)
+      val handler = CWebpHandler()
+      handler.convert(png, -1, 80, -1, false, false, false) shouldBe
+         withoutPipes { handler.convert(png, -1, 80, -1, false, false, false) }
+   }
+
+   test("anim_dump through pipes gives the same frames as through temporary files") {
+      val animated = javaClass.getResourceAsStream("/animated.webp").readBytes()
+      val handler = AnimDumpHandler()
+      val piped = handler.dumpFrames(animated)
+      val files = withoutPipes { handler.dumpFrames(animated) }
+      piped.map { it.toList() } shouldBe files.map { it.toList() }
+   }
+})
@@ -0,0 +1,141 @@
+package com.sksamuel.scrimage.webp
+
+import io.kotest.assertions.nondeterministic.eventually
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.string.shouldContain
+import java.io.IOException
+import java.io.InterruptedIOException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Duration
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import kotlin.time.Duration.Companion.seconds
+
+// these tests run ordinary unix commands through the pool in place of the webp binaries
+class WebpProcessPoolTest : FunSpec({
+
+   // a command that runs until the given file exists, so a test decides when it finishes
+   fun waitFor(file: Path) = listOf("sh", "-c", "while [ ! -e \"$1\" ]; do sleep 0.05; done", "sh", file.toString())
+
+   fun gate(): Path = Files.createTempFile("gate", "").also { Files.delete(it) }
+
+   test("the output of the command is returned and its input is written to it") {
+      val pool = WebpProcessPool(2, 10, Duration.ofSeconds(10))
+      val input = "hello webp".toByteArray()
+      pool.exec("cat", listOf("cat"), input).toList() shouldBe input.toList()
+      pool.completed() shouldBe 1
+      pool.failed() shouldBe 0
+   }
+
+   test("calls beyond the process limit wait, and calls beyond the queue limit are rejected") {
+      val pool = WebpProcessPool(2, 1, Duration.ofSeconds(30))
+      val executor = Executors.newFixedThreadPool(4)
+      val gate = gate()
+      try {
+         val futures = (1..4).map { executor.submit<ByteArray> { pool.exec("sh", waitFor(gate), null) } }
+         eventually(10.seconds) {
+            pool.running() shouldBe 2
+            pool.queued() shouldBe 1
+            pool.rejected() shouldBe 1
+         }
+         Files.createFile(gate)
+         val failures = futures.mapNotNull {
+            try {
+               it.get()
+               null
+            } catch (e: ExecutionException) {
+               e.cause
+            }
+         }
+         failures.size shouldBe 1
+         failures.first()!!.message!! shouldContain "rejected"
+         pool.completed() shouldBe 3
+         pool.rejected() shouldBe 1
+         pool.running() shouldBe 0
+         pool.queued() shouldBe 0
+      } finally {
+         Files.deleteIfExists(gate)
+         executor.shutdown()
+      }
+   }
+
+   test("a command that overruns its timeout is killed") {
+      val pool = WebpProcessPool(1, 10, Duration.ofSeconds(10)).withTimeout(Duration.ofMillis(200))
+      val start = System.nanoTime()
+      shouldThrow<IOException> {
+         pool.exec("sleep", listOf("sleep", "30"), null)
+      }.message!! shouldContain "timed out"
+      (System.nanoTime() - start < 20_000_000_000) shouldBe true
+      pool.timedOut() shouldBe 1
+      pool.failed() shouldBe 1
+      pool.running() shouldBe 0
+   }
+
+   test("pools created with a different timeout share the process slots") {
+      val pool = WebpProcessPool(1, 0, Duration.ofSeconds(30))
+      val gate = gate()
+      val thread = Thread { pool.exec("sh", waitFor(gate), null) }
+      thread.start()
+      try {
+         eventually(10.seconds) {
+            pool.running() shouldBe 1
+         }
+         shouldThrow<IOException> {
+            pool.withTimeout(Duration.ofSeconds(1)).exec("sleep", listOf("sleep", "1"), null)
+         }.message!! shouldContain "rejected"
+      } finally {
+         Files.createFile(gate)
+         thread.join()
+         Files.deleteIfExists(gate)
+      }
+   }
+
+   test("interrupting the calling thread kills the command") {
+      val pool = WebpProcessPool(1, 10, Duration.ofSeconds(60))
+      var error: Throwable? = null
+      var interrupted = false
+      val thread = Thread {
+         try {
+            pool.exec("sleep", listOf("sleep", "30"), null)
+         } catch (e: Throwable) {
+            error = e
+            interrupted = Thread.currentThread().isInterrupted
+         }
+      }
+      val start = System.nanoTime()
+      thread.start()
+      eventually(10.seconds) {
+         pool.running() shouldBe 1
+      }
+      thread.interrupt()
+      thread.join()
+      (System.nanoTime() - start < 20_000_000_000) shouldBe true
+      (error is InterruptedIOException) shouldBe true
+      interrupted shouldBe true
+      pool.running() shouldBe 0
+   }
+
+   test("a command that succeeds without reading all of its input is not a failure") {
+      val pool = WebpProcessPool(1, 10, Duration.ofSeconds(10))
+      pool.exec("true", listOf("true"), ByteArray(4 * 1024 * 1024)).size shouldBe 0
+      pool.completed() shouldBe 1
+      pool.failed() shouldBe 0
+   }
+
+   test("a non zero exit status is reported as a failure") {
+      val pool = WebpProcessPool(1, 10, Duration.ofSeconds(10))
+      shouldThrow<IOException> {
+         pool.exec("false", listOf("false"), null)
+      }.message!! shouldContain "exited with status 1"
+      pool.failed() shouldBe 1
+   }
+
+   test("invalid limits are rejected") {
+      shouldThrow<IllegalArgumentException> { WebpProcessPool(0, 10, Duration.ofSeconds(1)) }
+      shouldThrow<IllegalArgumentException> { WebpProcessPool(1, -1, Duration.ofSeconds(1)) }
+      shouldThrow<IllegalArgumentException> { WebpProcessPool(1, 10, Duration.ZERO) }
+   }
+})